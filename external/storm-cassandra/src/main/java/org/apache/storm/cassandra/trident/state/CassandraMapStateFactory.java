@@ -26,12 +26,14 @@ import org.apache.storm.trident.state.StateType;
 import org.apache.storm.trident.state.TransactionalValue;
 import org.apache.storm.trident.state.map.CachedMap;
 import org.apache.storm.trident.state.map.IBackingMap;
+import org.apache.storm.trident.state.map.MapCacheSpec;
 import org.apache.storm.trident.state.map.MapState;
 import org.apache.storm.trident.state.map.NonTransactionalMap;
 import org.apache.storm.trident.state.map.OpaqueMap;
 import org.apache.storm.trident.state.map.TransactionalMap;
 
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * A StateFactory implementation that creates a MapState backed by CassandraBackingMap.
@@ -42,9 +44,11 @@ import java.util.Map;
  */
 public class CassandraMapStateFactory implements StateFactory {
 
+    private final String id = UUID.randomUUID().toString();
     private final StateType stateType;
     private final CassandraBackingMap.Options options;
     private int cacheSize;
+    private MapCacheSpec cacheSpec;
     private Map cassandraConfig;
 
     private CassandraMapStateFactory(StateType stateType, CassandraBackingMap.Options options, Map cassandraConfig) {
@@ -70,6 +74,11 @@ public class CassandraMapStateFactory implements StateFactory {
         return this;
     }
 
+    public CassandraMapStateFactory withCache(MapCacheSpec cacheSpec) {
+        this.cacheSpec = cacheSpec;
+        return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public State makeState(Map<String, Object> conf, IMetricsContext metrics, int partitionIndex, int numPartitions) {
@@ -77,9 +86,14 @@ public class CassandraMapStateFactory implements StateFactory {
         CassandraBackingMap cassandraBackingMap = new CassandraBackingMap(cassandraConfig, options);
         cassandraBackingMap.prepare();
 
-        IBackingMap backingMap = cacheSize > 0
-                ? new CachedMap<>(cassandraBackingMap, cacheSize)
-                : cassandraBackingMap;
+        IBackingMap backingMap = cassandraBackingMap;
+        if (cacheSpec != null || cacheSize > 0) {
+            CachedMap<?> cachedMap = cacheSpec != null
+                    ? new CachedMap<>(cassandraBackingMap, cacheSpec)
+                    : new CachedMap<>(cassandraBackingMap, cacheSize);
+            cachedMap.registerMetrics(metrics, conf, "cassandra-map-cache", id, partitionIndex);
+            backingMap = cachedMap;
+        }
 
         MapState<?> mapState;
 
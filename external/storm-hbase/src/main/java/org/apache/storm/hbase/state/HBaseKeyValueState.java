@@ -40,6 +40,7 @@ import org.apache.hadoop.hbase.client.Result;
 import org.apache.storm.hbase.bolt.mapper.HBaseProjectionCriteria;
 import org.apache.storm.hbase.common.ColumnList;
 import org.apache.storm.hbase.common.HBaseClient;
+import org.apache.storm.state.AsyncCheckpointState;
 import org.apache.storm.state.DefaultStateEncoder;
 import org.apache.storm.state.DefaultStateSerializer;
 import org.apache.storm.state.KeyValueState;
@@ -49,8 +50,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A Hbase based implementation that persists the state in HBase.
+ *
+ * <p>The changes of a transaction are kept in memory from {@link #snapshot(long)} until they are committed, so the
+ * state can be written in the background by {@link #flushPrepared(long)} and {@link #commit(long)}.
  */
-public class HBaseKeyValueState<K, V> implements KeyValueState<K, V> {
+public class HBaseKeyValueState<K, V> implements KeyValueState<K, V>, AsyncCheckpointState {
     private static final Logger LOG = LoggerFactory.getLogger(HBaseKeyValueState.class);
 
     public static byte[] STATE_QUALIFIER = "s".getBytes();
@@ -70,8 +74,8 @@ public class HBaseKeyValueState<K, V> implements KeyValueState<K, V> {
     private final DefaultStateEncoder<K, V> encoder;
     private final HBaseClient hbaseClient;
 
-    private ConcurrentNavigableMap<byte[], byte[]> pendingPrepare;
-    private NavigableMap<byte[], byte[]> pendingCommit;
+    private volatile ConcurrentNavigableMap<byte[], byte[]> pendingPrepare;
+    private volatile NavigableMap<byte[], byte[]> pendingCommit;
 
     // the key and value of txIds are guaranteed to be converted to UTF-8 encoded String
     private NavigableMap<byte[], byte[]> txIds;
@@ -215,34 +219,37 @@ public class HBaseKeyValueState<K, V> implements KeyValueState<K, V> {
 
     @Override
     public void prepareCommit(long txid) {
-        LOG.debug("prepareCommit txid {}", txid);
-        validatePrepareTxid(txid);
-
-        try {
-            ConcurrentNavigableMap<byte[], byte[]> currentPending = pendingPrepare;
-            pendingPrepare = createPendingPrepareMap();
+        snapshot(txid);
+        flushPrepared(txid);
+    }
 
-            Result result = getColumnFamily(prepareNamespace, columnFamily);
-            if (!result.isEmpty()) {
-                LOG.debug("Prepared txn already exists, will merge", txid);
-                for (Map.Entry<byte[], byte[]> e : pendingCommit.entrySet()) {
-                    if (!currentPending.containsKey(e.getKey())) {
-                        currentPending.put(e.getKey(), e.getValue());
-                    }
-                }
-            } else {
-                LOG.debug("Nothing to save for prepareCommit, txid {}.", txid);
+    @Override
+    public void snapshot(long txid) {
+        LOG.debug("snapshot txid {}", txid);
+        validatePrepareTxid(txid);
+        ConcurrentNavigableMap<byte[], byte[]> currentPending = pendingPrepare;
+        pendingPrepare = createPendingPrepareMap();
+        // the pending commit is what was written by an earlier prepare of the same txn, if any
+        for (Map.Entry<byte[], byte[]> e : pendingCommit.entrySet()) {
+            if (!currentPending.containsKey(e.getKey())) {
+                currentPending.put(e.getKey(), e.getValue());
             }
+        }
+        pendingCommit = Maps.unmodifiableNavigableMap(currentPending);
+    }
 
-            if (!currentPending.isEmpty()) {
-                mutateRow(prepareNamespace, columnFamily, currentPending);
+    @Override
+    public void flushPrepared(long txid) {
+        LOG.debug("prepareCommit txid {}", txid);
+        try {
+            if (!pendingCommit.isEmpty()) {
+                mutateRow(prepareNamespace, columnFamily, pendingCommit);
             } else {
                 LOG.debug("Nothing to save for prepareCommit, txid {}.", txid);
             }
 
             txIds.put(PREPARE_TXID_KEY, String.valueOf(txid).getBytes());
             mutateRow(txidNamespace, columnFamily, txIds);
-            pendingCommit = Maps.unmodifiableNavigableMap(currentPending);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -383,14 +390,6 @@ public class HBaseKeyValueState<K, V> implements KeyValueState<K, V> {
         hbaseClient.batchMutate(mutations);
     }
 
-    private Result getColumnFamily(byte[] rowKey, byte[] columnFamily) throws Exception {
-        HBaseProjectionCriteria criteria = new HBaseProjectionCriteria();
-        criteria.addColumnFamily(columnFamily);
-        Get get = hbaseClient.constructGetRequests(rowKey, criteria);
-        Result[] results = hbaseClient.batchGet(Collections.singletonList(get));
-        return results[0];
-    }
-
     private List<Mutation> prepareMutateRow(byte[] rowKey, byte[] columnFamily, Map<byte[], byte[]> map) {
         return prepareMutateRow(rowKey, columnFamily, map, Durability.USE_DEFAULT);
     }
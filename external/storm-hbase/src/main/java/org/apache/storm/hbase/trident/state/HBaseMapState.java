@@ -26,6 +26,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
@@ -51,6 +52,7 @@ import org.apache.storm.trident.state.StateType;
 import org.apache.storm.trident.state.TransactionalValue;
 import org.apache.storm.trident.state.map.CachedMap;
 import org.apache.storm.trident.state.map.IBackingMap;
+import org.apache.storm.trident.state.map.MapCacheSpec;
 import org.apache.storm.trident.state.map.MapState;
 import org.apache.storm.trident.state.map.NonTransactionalMap;
 import org.apache.storm.trident.state.map.OpaqueMap;
@@ -119,6 +121,10 @@ public class HBaseMapState<T> implements IBackingMap<T> {
 
         public Serializer<T> serializer = null;
         public int cacheSize = 5000;
+        /**
+         * How the local cache is bounded and expired, if set it takes precedence over {@link #cacheSize}.
+         */
+        public MapCacheSpec cacheSpec = null;
         public String globalKey = "$HBASE_STATE_GLOBAL$";
         public String configKey = "hbase.config";
         public String tableName;
@@ -161,6 +167,7 @@ public class HBaseMapState<T> implements IBackingMap<T> {
 
 
     protected static class Factory implements StateFactory {
+        private final String id = UUID.randomUUID().toString();
         private StateType stateType;
         private Options options;
 
@@ -187,8 +194,12 @@ public class HBaseMapState<T> implements IBackingMap<T> {
             LOG.info("Preparing HBase State for partition {} of {}.", partitionIndex + 1, numPartitions);
             IBackingMap state = new HBaseMapState(options, conf, partitionIndex);
 
-            if (options.cacheSize > 0) {
-                state = new CachedMap(state, options.cacheSize);
+            if (options.cacheSpec != null || options.cacheSize > 0) {
+                CachedMap cached = options.cacheSpec != null
+                        ? new CachedMap(state, options.cacheSpec)
+                        : new CachedMap(state, options.cacheSize);
+                cached.registerMetrics(metrics, conf, "hbase-map-cache", id, partitionIndex);
+                state = cached;
             }
 
             MapState mapState;
@@ -124,10 +124,20 @@ public class KafkaTridentSpoutEmitter<K, V> implements IOpaquePartitionedTrident
                 final ConsumerRecords<K, V> records = kafkaConsumer.poll(pollTimeoutMs);
                 LOG.debug("Polled [{}] records from Kafka.", records.count());
 
-                if (!records.isEmpty()) {
-                    emitTuples(collector, records);
+                List<ConsumerRecord<K, V>> batchRecords = records.records(currBatchTp);
+                final int batchSizeHint = tx.getBatchSizeHint();
+                if (batchSizeHint > 0 && batchRecords.size() > batchSizeHint) {
+                    // only emit as many records as the coordinator asked for, the next batch fetches the rest again
+                    batchRecords = batchRecords.subList(0, batchSizeHint);
+                    kafkaConsumer.seek(currBatchTp, batchRecords.get(batchSizeHint - 1).offset() + 1);
+                    LOG.debug("Limited batch to [batchSizeHint = {}] records.", batchSizeHint);
+                }
+
+                if (!batchRecords.isEmpty()) {
+                    emitTuples(collector, batchRecords);
                     // build new metadata
-                    currentBatch = new KafkaTridentSpoutBatchMetadata<>(currBatchTp, records, lastBatch);
+                    currentBatch = new KafkaTridentSpoutBatchMetadata<>(currBatchTp, batchRecords.get(0).offset(),
+                            batchRecords.get(batchRecords.size() - 1).offset());
                 }
             } finally {
                 kafkaConsumer.resume(pausedTopicPartitions);
@@ -140,7 +150,7 @@ public class KafkaTridentSpoutEmitter<K, V> implements IOpaquePartitionedTrident
         return currentBatch;
     }
 
-    private void emitTuples(TridentCollector collector, ConsumerRecords<K, V> records) {
+    private void emitTuples(TridentCollector collector, List<ConsumerRecord<K, V>> records) {
         for (ConsumerRecord<K, V> record : records) {
             final List<Object> tuple = translator.apply(record);
             collector.emit(tuple);
@@ -24,6 +24,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.apache.commons.lang.Validate;
 import org.apache.storm.mongodb.common.MongoDbClient;
@@ -42,9 +43,11 @@ import org.apache.storm.trident.state.StateType;
 import org.apache.storm.trident.state.TransactionalValue;
 import org.apache.storm.trident.state.map.CachedMap;
 import org.apache.storm.trident.state.map.IBackingMap;
+import org.apache.storm.trident.state.map.MapCacheSpec;
 import org.apache.storm.trident.state.map.MapState;
 import org.apache.storm.trident.state.map.NonTransactionalMap;
 import org.apache.storm.trident.state.map.OpaqueMap;
+import org.apache.storm.trident.state.map.ParallelBackingMap;
 import org.apache.storm.trident.state.map.SnapshottableMap;
 import org.apache.storm.trident.state.map.TransactionalMap;
 import org.apache.storm.tuple.Values;
@@ -90,6 +93,13 @@ public class MongoMapState<T> implements IBackingMap<T> {
         public QueryFilterCreator queryCreator;
         public Serializer<T> serializer;
         public int cacheSize = 5000;
+        /**
+         * How the local cache is bounded and expired, if set it takes precedence over {@link #cacheSize}.
+         */
+        public MapCacheSpec cacheSpec = null;
+        /** Number of chunks of keys read or written concurrently, 1 reads and writes every key in turn. */
+        public int maxParallelism = 1;
+        public int chunkSize = 100;
         public String globalKey = "$MONGO-MAP-STATE-GLOBAL";
         public String serDocumentField = "tridentSerField";
     }
@@ -129,6 +139,7 @@ public class MongoMapState<T> implements IBackingMap<T> {
 
 
     protected static class Factory implements StateFactory {
+        private final String id = UUID.randomUUID().toString();
         private StateType stateType;
         private Options options;
 
@@ -150,8 +161,16 @@ public class MongoMapState<T> implements IBackingMap<T> {
         public State makeState(Map<String, Object> conf, IMetricsContext metrics, int partitionIndex, int numPartitions) {
             IBackingMap state = new MongoMapState(conf, options);
 
-            if (options.cacheSize > 0) {
-                state = new CachedMap(state, options.cacheSize);
+            if (options.maxParallelism > 1) {
+                state = new ParallelBackingMap(state, options.chunkSize, options.maxParallelism);
+            }
+
+            if (options.cacheSpec != null || options.cacheSize > 0) {
+                CachedMap cached = options.cacheSpec != null
+                        ? new CachedMap(state, options.cacheSpec)
+                        : new CachedMap(state, options.cacheSize);
+                cached.registerMetrics(metrics, conf, "mongo-map-cache", id, partitionIndex);
+                state = cached;
             }
 
             MapState mapState;
@@ -28,9 +28,16 @@ import org.apache.storm.redis.common.container.JedisCommandsInstanceContainer;
 import org.apache.storm.topology.base.BaseTickTupleAwareRichBolt;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.utils.TupleUtils;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCommands;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.RedisPipeline;
+import redis.clients.jedis.Response;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 /**
  * AbstractRedisBolt class is for users to implement custom bolts which makes interaction with Redis.
@@ -113,6 +120,43 @@ public abstract class AbstractRedisBolt extends BaseTickTupleAwareRichBolt {
         this.container.returnInstance(instance);
     }
 
+    /**
+     * Runs a read command for each of the keys and returns the replies in the order of the keys.<p/>
+     * With a single Redis environment (JedisPool) the commands are pipelined, so the whole batch costs a single
+     * round trip. With Redis Cluster the keys may be served by different nodes, so the commands are run one by one.
+     *
+     * @param keys the keys to query
+     * @param command runs the command for a key
+     * @param pipelinedCommand queues the same command for a key on a pipeline
+     * @return the replies, in the order of the keys
+     */
+    protected List<Object> queryAll(List<String> keys, BiFunction<JedisCommands, String, Object> command,
+                                    BiFunction<RedisPipeline, String, Response<?>> pipelinedCommand) {
+        List<Object> replies = new ArrayList<>(keys.size());
+        JedisCommands jedisCommand = null;
+        try {
+            jedisCommand = getInstance();
+            if (jedisCommand instanceof Jedis) {
+                Pipeline pipeline = ((Jedis) jedisCommand).pipelined();
+                List<Response<?>> responses = new ArrayList<>(keys.size());
+                for (String key : keys) {
+                    responses.add(pipelinedCommand.apply(pipeline, key));
+                }
+                pipeline.sync();
+                for (Response<?> response : responses) {
+                    replies.add(response.get());
+                }
+            } else {
+                for (String key : keys) {
+                    replies.add(command.apply(jedisCommand, key));
+                }
+            }
+        } finally {
+            returnInstance(jedisCommand);
+        }
+        return replies;
+    }
+
     @Override
     public void cleanup() {
         container.close();
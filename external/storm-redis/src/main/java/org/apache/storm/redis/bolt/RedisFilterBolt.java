@@ -21,12 +21,19 @@ import org.apache.storm.redis.common.config.JedisClusterConfig;
 import org.apache.storm.redis.common.config.JedisPoolConfig;
 import org.apache.storm.redis.common.mapper.RedisDataTypeDescription;
 import org.apache.storm.redis.common.mapper.RedisFilterMapper;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.tuple.Tuple;
-import redis.clients.jedis.GeoCoordinate;
+import org.apache.storm.utils.BatchHelper;
+import org.apache.storm.utils.TupleUtils;
 import redis.clients.jedis.JedisCommands;
+import redis.clients.jedis.RedisPipeline;
+import redis.clients.jedis.Response;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Basic bolt for querying from Redis and filters out if key/field doesn't exist.
@@ -42,11 +49,18 @@ import java.util.List;
  * <p/>
  * Note2: If you want to just query about existence of key regardless of actual data type,
  * specify STRING to data type of RedisFilterMapper.
+ * <p/>
+ * By default every tuple is checked with its own round trip, see {@link #withBatchSize(int)} for batching.
  */
 public class RedisFilterBolt extends AbstractRedisBolt {
+    private static final int DEFAULT_FLUSH_INTERVAL_SECS = 1;
+
     private final RedisFilterMapper filterMapper;
     private final RedisDataTypeDescription.RedisDataType dataType;
     private final String additionalKey;
+    private int batchSize;
+    private int flushIntervalSecs = DEFAULT_FLUSH_INTERVAL_SECS;
+    private transient BatchHelper batchHelper;
 
     /**
      * Constructor for single Redis environment (JedisPool)
@@ -84,51 +98,84 @@ public class RedisFilterBolt extends AbstractRedisBolt {
     }
 
     /**
-     * {@inheritDoc}
+     * Batches up to batchSize tuples and checks their keys with a single pipelined round trip.
+     * A batch is also flushed every flush interval, so that tuples do not wait for a full batch.
+     * With Redis Cluster the commands of a batch are sent one by one.
+     *
+     * @param batchSize the maximum number of tuples in a batch, 0 (the default) checks every tuple right away
+     * @return this bolt
      */
-    @Override
-    public void process(Tuple input) {
-        String key = filterMapper.getKeyFromTuple(input);
-
-        boolean found;
-        JedisCommands jedisCommand = null;
-        try {
-            jedisCommand = getInstance();
-
-            switch (dataType) {
-                case STRING:
-                    found = jedisCommand.exists(key);
-                    break;
-
-                case SET:
-                    found = jedisCommand.sismember(additionalKey, key);
-                    break;
+    public RedisFilterBolt withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
 
-                case HASH:
-                    found = jedisCommand.hexists(additionalKey, key);
-                    break;
+    /**
+     * Sets the interval at which an incomplete batch is flushed. Only used when batching.
+     *
+     * @param flushIntervalSecs the flush interval in seconds, defaults to 1
+     * @return this bolt
+     */
+    public RedisFilterBolt withFlushIntervalSecs(int flushIntervalSecs) {
+        this.flushIntervalSecs = flushIntervalSecs;
+        return this;
+    }
 
-                case SORTED_SET:
-                    found = jedisCommand.zrank(additionalKey, key) != null;
-                    break;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
+        super.prepare(map, topologyContext, collector);
+        if (batchSize > 0) {
+            batchHelper = new BatchHelper(batchSize, collector);
+        }
+    }
 
-                case HYPER_LOG_LOG:
-                    found = jedisCommand.pfcount(key) > 0;
-                    break;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        if (batchSize > 0) {
+            return TupleUtils.putTickFrequencyIntoComponentConfig(super.getComponentConfiguration(), flushIntervalSecs);
+        }
+        return super.getComponentConfiguration();
+    }
 
-                case GEO:
-                    List<GeoCoordinate> geopos = jedisCommand.geopos(additionalKey, key);
-                    found = (geopos != null && geopos.size() > 0);
-                    break;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onTickTuple(Tuple tuple) {
+        if (batchHelper != null) {
+            batchHelper.shouldHandle(tuple);
+            if (batchHelper.shouldFlush()) {
+                flush();
+            }
+        }
+    }
 
-                default:
-                    throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void process(Tuple input) {
+        if (batchHelper != null) {
+            batchHelper.addBatch(input);
+            if (batchHelper.shouldFlush()) {
+                flush();
             }
+            return;
+        }
 
-            if (found) {
+        String key = filterMapper.getKeyFromTuple(input);
+        JedisCommands jedisCommand = null;
+        try {
+            jedisCommand = getInstance();
+            if (isFound(check(jedisCommand, key))) {
                 collector.emit(input, input.getValues());
             }
-
             collector.ack(input);
         } catch (Exception e) {
             this.collector.reportError(e);
@@ -138,6 +185,84 @@ public class RedisFilterBolt extends AbstractRedisBolt {
         }
     }
 
+    private void flush() {
+        List<Tuple> tuples = batchHelper.getBatchTuples();
+        try {
+            List<String> keys = new ArrayList<>(tuples.size());
+            for (Tuple tuple : tuples) {
+                keys.add(filterMapper.getKeyFromTuple(tuple));
+            }
+            List<Object> replies = queryAll(keys, this::check, this::check);
+            for (int i = 0; i < tuples.size(); i++) {
+                if (isFound(replies.get(i))) {
+                    collector.emit(tuples.get(i), tuples.get(i).getValues());
+                }
+            }
+            batchHelper.ack();
+        } catch (Exception e) {
+            batchHelper.fail(e);
+        }
+    }
+
+    private Object check(JedisCommands jedisCommand, String key) {
+        switch (dataType) {
+            case STRING:
+                return jedisCommand.exists(key);
+            case SET:
+                return jedisCommand.sismember(additionalKey, key);
+            case HASH:
+                return jedisCommand.hexists(additionalKey, key);
+            case SORTED_SET:
+                return jedisCommand.zrank(additionalKey, key);
+            case HYPER_LOG_LOG:
+                return jedisCommand.pfcount(key);
+            case GEO:
+                return jedisCommand.geopos(additionalKey, key);
+            default:
+                throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+        }
+    }
+
+    private Response<?> check(RedisPipeline pipeline, String key) {
+        switch (dataType) {
+            case STRING:
+                return pipeline.exists(key);
+            case SET:
+                return pipeline.sismember(additionalKey, key);
+            case HASH:
+                return pipeline.hexists(additionalKey, key);
+            case SORTED_SET:
+                return pipeline.zrank(additionalKey, key);
+            case HYPER_LOG_LOG:
+                return pipeline.pfcount(key);
+            case GEO:
+                return pipeline.geopos(additionalKey, key);
+            default:
+                throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+        }
+    }
+
+    /*
+     * Interprets the reply of check() for the data type.
+     */
+    private boolean isFound(Object reply) {
+        switch (dataType) {
+            case STRING:
+            case SET:
+            case HASH:
+                return (Boolean) reply;
+            case SORTED_SET:
+                return reply != null;
+            case HYPER_LOG_LOG:
+                return (Long) reply > 0;
+            case GEO:
+                List<?> geopos = (List<?>) reply;
+                return (geopos != null && geopos.size() > 0);
+            default:
+                throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
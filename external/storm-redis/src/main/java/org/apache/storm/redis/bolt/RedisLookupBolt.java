@@ -17,26 +17,41 @@
  */
 package org.apache.storm.redis.bolt;
 
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
+import org.apache.storm.utils.BatchHelper;
+import org.apache.storm.utils.TupleUtils;
 import org.apache.storm.redis.common.mapper.RedisDataTypeDescription;
 import org.apache.storm.redis.common.mapper.RedisLookupMapper;
 import org.apache.storm.redis.common.config.JedisClusterConfig;
 import org.apache.storm.redis.common.config.JedisPoolConfig;
 import redis.clients.jedis.JedisCommands;
+import redis.clients.jedis.RedisPipeline;
+import redis.clients.jedis.Response;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Basic bolt for querying from Redis and emits response as tuple.
  * <p/>
  * Various data types are supported: STRING, LIST, HASH, SET, SORTED_SET, HYPER_LOG_LOG, GEO
+ * <p/>
+ * By default every tuple is looked up with its own round trip, see {@link #withBatchSize(int)} for batching.
  */
 public class RedisLookupBolt extends AbstractRedisBolt {
+    private static final int DEFAULT_FLUSH_INTERVAL_SECS = 1;
+
     private final RedisLookupMapper lookupMapper;
     private final RedisDataTypeDescription.RedisDataType dataType;
     private final String additionalKey;
+    private int batchSize;
+    private int flushIntervalSecs = DEFAULT_FLUSH_INTERVAL_SECS;
+    private transient BatchHelper batchHelper;
 
     /**
      * Constructor for single Redis environment (JedisPool)
@@ -69,55 +84,82 @@ public class RedisLookupBolt extends AbstractRedisBolt {
     }
 
     /**
-     * {@inheritDoc}
+     * Batches up to batchSize tuples and queries their keys with a single pipelined round trip.
+     * A batch is also flushed every flush interval, so that tuples do not wait for a full batch.
+     * With Redis Cluster the commands of a batch are sent one by one.
+     *
+     * @param batchSize the maximum number of tuples in a batch, 0 (the default) queries every tuple right away
+     * @return this bolt
      */
-    @Override
-    public void process(Tuple input) {
-        String key = lookupMapper.getKeyFromTuple(input);
-        Object lookupValue;
-
-        JedisCommands jedisCommand = null;
-        try {
-            jedisCommand = getInstance();
-
-            switch (dataType) {
-                case STRING:
-                    lookupValue = jedisCommand.get(key);
-                    break;
-
-                case LIST:
-                    lookupValue = jedisCommand.lpop(key);
-                    break;
-
-                case HASH:
-                    lookupValue = jedisCommand.hget(additionalKey, key);
-                    break;
-
-                case SET:
-                    lookupValue = jedisCommand.scard(key);
-                    break;
+    public RedisLookupBolt withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
 
-                case SORTED_SET:
-                    lookupValue = jedisCommand.zscore(additionalKey, key);
-                    break;
+    /**
+     * Sets the interval at which an incomplete batch is flushed. Only used when batching.
+     *
+     * @param flushIntervalSecs the flush interval in seconds, defaults to 1
+     * @return this bolt
+     */
+    public RedisLookupBolt withFlushIntervalSecs(int flushIntervalSecs) {
+        this.flushIntervalSecs = flushIntervalSecs;
+        return this;
+    }
 
-                case HYPER_LOG_LOG:
-                    lookupValue = jedisCommand.pfcount(key);
-                    break;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
+        super.prepare(map, topologyContext, collector);
+        if (batchSize > 0) {
+            batchHelper = new BatchHelper(batchSize, collector);
+        }
+    }
 
-                case GEO:
-                    lookupValue = jedisCommand.geopos(additionalKey, key);
-                    break;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        if (batchSize > 0) {
+            return TupleUtils.putTickFrequencyIntoComponentConfig(super.getComponentConfiguration(), flushIntervalSecs);
+        }
+        return super.getComponentConfiguration();
+    }
 
-                default:
-                    throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onTickTuple(Tuple tuple) {
+        if (batchHelper != null) {
+            batchHelper.shouldHandle(tuple);
+            if (batchHelper.shouldFlush()) {
+                flush();
             }
+        }
+    }
 
-            List<Values> values = lookupMapper.toTuple(input, lookupValue);
-            for (Values value : values) {
-                collector.emit(input, value);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void process(Tuple input) {
+        if (batchHelper != null) {
+            batchHelper.addBatch(input);
+            if (batchHelper.shouldFlush()) {
+                flush();
             }
+            return;
+        }
 
+        String key = lookupMapper.getKeyFromTuple(input);
+        JedisCommands jedisCommand = null;
+        try {
+            jedisCommand = getInstance();
+            emit(input, lookup(jedisCommand, key));
             collector.ack(input);
         } catch (Exception e) {
             this.collector.reportError(e);
@@ -127,6 +169,72 @@ public class RedisLookupBolt extends AbstractRedisBolt {
         }
     }
 
+    private void flush() {
+        List<Tuple> tuples = batchHelper.getBatchTuples();
+        try {
+            List<String> keys = new ArrayList<>(tuples.size());
+            for (Tuple tuple : tuples) {
+                keys.add(lookupMapper.getKeyFromTuple(tuple));
+            }
+            List<Object> lookupValues = queryAll(keys, this::lookup, this::lookup);
+            for (int i = 0; i < tuples.size(); i++) {
+                emit(tuples.get(i), lookupValues.get(i));
+            }
+            batchHelper.ack();
+        } catch (Exception e) {
+            batchHelper.fail(e);
+        }
+    }
+
+    private void emit(Tuple input, Object lookupValue) {
+        List<Values> values = lookupMapper.toTuple(input, lookupValue);
+        for (Values value : values) {
+            collector.emit(input, value);
+        }
+    }
+
+    private Object lookup(JedisCommands jedisCommand, String key) {
+        switch (dataType) {
+            case STRING:
+                return jedisCommand.get(key);
+            case LIST:
+                return jedisCommand.lpop(key);
+            case HASH:
+                return jedisCommand.hget(additionalKey, key);
+            case SET:
+                return jedisCommand.scard(key);
+            case SORTED_SET:
+                return jedisCommand.zscore(additionalKey, key);
+            case HYPER_LOG_LOG:
+                return jedisCommand.pfcount(key);
+            case GEO:
+                return jedisCommand.geopos(additionalKey, key);
+            default:
+                throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+        }
+    }
+
+    private Response<?> lookup(RedisPipeline pipeline, String key) {
+        switch (dataType) {
+            case STRING:
+                return pipeline.get(key);
+            case LIST:
+                return pipeline.lpop(key);
+            case HASH:
+                return pipeline.hget(additionalKey, key);
+            case SET:
+                return pipeline.scard(key);
+            case SORTED_SET:
+                return pipeline.zscore(additionalKey, key);
+            case HYPER_LOG_LOG:
+                return pipeline.pfcount(key);
+            case GEO:
+                return pipeline.geopos(additionalKey, key);
+            default:
+                throw new IllegalArgumentException("Cannot process such data type: " + dataType);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
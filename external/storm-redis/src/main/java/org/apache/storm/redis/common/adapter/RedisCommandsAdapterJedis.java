@@ -25,6 +25,7 @@ import redis.clients.jedis.ScanResult;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,6 +43,11 @@ public class RedisCommandsAdapterJedis implements RedisCommands, Closeable {
         return jedis.hget(key, field);
     }
 
+    @Override
+    public List<byte[]> hmget(byte[] key, byte[]... fields) {
+        return jedis.hmget(key, fields);
+    }
+
     @Override
     public Boolean exists(byte[] key) {
         return jedis.exists(key);
@@ -21,6 +21,7 @@ package org.apache.storm.redis.common.commands;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -46,6 +47,8 @@ public interface RedisCommands {
     // hash
     byte[] hget(byte[] key, byte[] field);
 
+    List<byte[]> hmget(byte[] key, byte[]... fields);
+
     Map<byte[], byte[]> hgetAll(byte[] key);
 
     Map<String,String> hgetAll(String key);
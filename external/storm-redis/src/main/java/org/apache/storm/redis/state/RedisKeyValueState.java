@@ -23,6 +23,7 @@ import org.apache.storm.redis.common.commands.RedisCommands;
 import org.apache.storm.redis.common.config.JedisClusterConfig;
 import org.apache.storm.redis.common.container.RedisCommandsContainerBuilder;
 import org.apache.storm.redis.common.container.RedisCommandsInstanceContainer;
+import org.apache.storm.state.AsyncCheckpointState;
 import org.apache.storm.state.DefaultStateEncoder;
 import org.apache.storm.state.DefaultStateSerializer;
 import org.apache.storm.state.KeyValueState;
@@ -32,9 +33,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.util.SafeEncoder;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
@@ -45,13 +49,23 @@ import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * A redis based implementation that persists the state in Redis.
+ *
+ * <p>The changes of a transaction are kept in memory from {@link #snapshot(long)} until they are committed, so the
+ * state can be written in the background by {@link #flushPrepared(long)} and {@link #commit(long)}.
+ *
+ * <p>If constructed with a positive cache size, the committed values that were read or written are kept in a
+ * bounded LRU cache, so that hot keys are read from Redis once rather than on every {@link #get(Object)}. Since a state
+ * namespace is only written by the task that owns it, the cache is kept up to date by the commits.
+ * {@link #prefetch(Collection)} can be used to load a set of keys with a single round trip.
  */
-public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
+public class RedisKeyValueState<K, V> implements KeyValueState<K, V>, AsyncCheckpointState {
     public static final int ITERATOR_CHUNK_SIZE = 100;
 
     private static final Logger LOG = LoggerFactory.getLogger(RedisKeyValueState.class);
     private static final String COMMIT_TXID_KEY = "commit";
     private static final String PREPARE_TXID_KEY = "prepare";
+    // caches a key that does not exist in redis, compared by identity
+    private static final byte[] ABSENT = new byte[0];
     public static final NavigableMap<byte[], byte[]> EMPTY_PENDING_COMMIT_MAP = Maps.unmodifiableNavigableMap(
             new TreeMap<byte[], byte[]>(UnsignedBytes.lexicographicalComparator()));
 
@@ -62,8 +76,9 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
     private final DefaultStateEncoder<K, V> encoder;
 
     private final RedisCommandsInstanceContainer container;
-    private ConcurrentNavigableMap<byte[], byte[]> pendingPrepare;
-    private NavigableMap<byte[], byte[]> pendingCommit;
+    private final Map<ByteBuffer, byte[]> cache;
+    private volatile ConcurrentNavigableMap<byte[], byte[]> pendingPrepare;
+    private volatile NavigableMap<byte[], byte[]> pendingCommit;
 
     // the key and value of txIds are guaranteed to be converted to UTF-8 encoded String
     private Map<String, String> txIds;
@@ -86,6 +101,17 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
 
     public RedisKeyValueState(String namespace, RedisCommandsInstanceContainer container,
                               Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(namespace, container, keySerializer, valueSerializer, 0);
+    }
+
+    /**
+     * Creates a state that caches up to cacheSize committed values.
+     *
+     * @param cacheSize the maximum number of committed values to cache, 0 disables the cache
+     */
+    public RedisKeyValueState(String namespace, RedisCommandsInstanceContainer container,
+                              Serializer<K> keySerializer, Serializer<V> valueSerializer, int cacheSize) {
+        this.cache = cacheSize > 0 ? createCache(cacheSize) : null;
         this.namespace = SafeEncoder.encode(namespace);
         this.prepareNamespace = SafeEncoder.encode(namespace + "$prepare");
         this.txidNamespace = namespace + "$txid";
@@ -148,13 +174,7 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
         } else if (pendingCommit.containsKey(redisKey)) {
             redisValue = pendingCommit.get(redisKey);
         } else {
-            RedisCommands commands = null;
-            try {
-                commands = container.getInstance();
-                redisValue = commands.hget(namespace, redisKey);
-            } finally {
-                container.returnInstance(commands);
-            }
+            redisValue = getCommitted(redisKey);
         }
         V value = null;
         if (redisValue != null) {
@@ -164,6 +184,67 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
         return value;
     }
 
+    private byte[] getCommitted(byte[] redisKey) {
+        if (cache != null) {
+            byte[] cached;
+            synchronized (cache) {
+                cached = cache.get(ByteBuffer.wrap(redisKey));
+            }
+            if (cached != null) {
+                return cached == ABSENT ? null : cached;
+            }
+        }
+        byte[] redisValue;
+        RedisCommands commands = null;
+        try {
+            commands = container.getInstance();
+            redisValue = commands.hget(namespace, redisKey);
+        } finally {
+            container.returnInstance(commands);
+        }
+        updateCache(redisKey, redisValue);
+        return redisValue;
+    }
+
+    /**
+     * Loads the committed values of the given keys into the cache with a single round trip, so that the
+     * following {@link #get(Object)} calls for these keys do not have to go to Redis. Keys that have pending
+     * changes or are already cached are skipped. This does nothing if the cache is disabled.
+     *
+     * @param keys the keys that are about to be read
+     */
+    public void prefetch(Collection<K> keys) {
+        if (cache == null) {
+            return;
+        }
+        List<byte[]> toFetch = new ArrayList<>();
+        for (K key : keys) {
+            byte[] redisKey = encoder.encodeKey(key);
+            boolean cached;
+            synchronized (cache) {
+                cached = cache.containsKey(ByteBuffer.wrap(redisKey));
+            }
+            if (!cached && !pendingPrepare.containsKey(redisKey) && !pendingCommit.containsKey(redisKey)) {
+                toFetch.add(redisKey);
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return;
+        }
+        LOG.debug("prefetch {} keys", toFetch.size());
+        List<byte[]> values;
+        RedisCommands commands = null;
+        try {
+            commands = container.getInstance();
+            values = commands.hmget(namespace, toFetch.toArray(new byte[0][]));
+        } finally {
+            container.returnInstance(commands);
+        }
+        for (int i = 0; i < toFetch.size(); i++) {
+            updateCache(toFetch.get(i), values.get(i));
+        }
+    }
+
     @Override
     public V get(K key, V defaultValue) {
         V val = get(key);
@@ -187,30 +268,39 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
 
     @Override
     public void prepareCommit(long txid) {
-        LOG.debug("prepareCommit txid {}", txid);
+        snapshot(txid);
+        flushPrepared(txid);
+    }
+
+    @Override
+    public void snapshot(long txid) {
+        LOG.debug("snapshot txid {}", txid);
         validatePrepareTxid(txid);
+        ConcurrentNavigableMap<byte[], byte[]> currentPending = pendingPrepare;
+        pendingPrepare = createPendingPrepareMap();
+        // the pending commit is what was written by an earlier prepare of the same txn, if any
+        for (Map.Entry<byte[], byte[]> e: pendingCommit.entrySet()) {
+            if (!currentPending.containsKey(e.getKey())) {
+                currentPending.put(e.getKey(), e.getValue());
+            }
+        }
+        pendingCommit = Maps.unmodifiableNavigableMap(currentPending);
+    }
+
+    @Override
+    public void flushPrepared(long txid) {
+        LOG.debug("prepareCommit txid {}", txid);
         RedisCommands commands = null;
         try {
-            ConcurrentNavigableMap<byte[], byte[]> currentPending = pendingPrepare;
-            pendingPrepare = createPendingPrepareMap();
             commands = container.getInstance();
-            if (commands.exists(prepareNamespace)) {
-                LOG.debug("Prepared txn already exists, will merge", txid);
-                for (Map.Entry<byte[], byte[]> e: pendingCommit.entrySet()) {
-                    if (!currentPending.containsKey(e.getKey())) {
-                        currentPending.put(e.getKey(), e.getValue());
-                    }
-                }
-            }
-            if (!currentPending.isEmpty()) {
-                commands.hmset(prepareNamespace, currentPending);
+            if (!pendingCommit.isEmpty()) {
+                commands.hmset(prepareNamespace, pendingCommit);
             } else {
                 LOG.debug("Nothing to save for prepareCommit, txid {}.", txid);
             }
             txIds.put(PREPARE_TXID_KEY, String.valueOf(txid));
 
             commands.hmset(txidNamespace, txIds);
-            pendingCommit = Maps.unmodifiableNavigableMap(currentPending);
         } finally {
             container.returnInstance(commands);
         }
@@ -241,6 +331,13 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
                 if (!keysToDelete.isEmpty()) {
                     commands.hdel(namespace, keysToDelete.toArray(new byte[0][]));
                 }
+                // the committed keys were just written, keep them warm for the next transaction
+                for (Map.Entry<byte[], byte[]> entry : keysToAdd.entrySet()) {
+                    updateCache(entry.getKey(), entry.getValue());
+                }
+                for (byte[] key : keysToDelete) {
+                    updateCache(key, null);
+                }
             } else {
                 LOG.debug("Nothing to save for commit, txid {}.", txid);
             }
@@ -260,6 +357,7 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
             commands = container.getInstance();
             if (!pendingPrepare.isEmpty()) {
                 commands.hmset(namespace, pendingPrepare);
+                invalidateCache(pendingPrepare.keySet());
             } else {
                 LOG.debug("Nothing to save for commit");
             }
@@ -347,6 +445,33 @@ public class RedisKeyValueState<K, V> implements KeyValueState<K, V> {
         return lastId;
     }
 
+    private void updateCache(byte[] redisKey, byte[] redisValue) {
+        if (cache != null) {
+            synchronized (cache) {
+                cache.put(ByteBuffer.wrap(redisKey), redisValue != null ? redisValue : ABSENT);
+            }
+        }
+    }
+
+    private void invalidateCache(Collection<byte[]> redisKeys) {
+        if (cache != null) {
+            synchronized (cache) {
+                for (byte[] redisKey : redisKeys) {
+                    cache.remove(ByteBuffer.wrap(redisKey));
+                }
+            }
+        }
+    }
+
+    private static Map<ByteBuffer, byte[]> createCache(final int cacheSize) {
+        return new LinkedHashMap<ByteBuffer, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
     private ConcurrentNavigableMap<byte[], byte[]> createPendingPrepareMap() {
         return new ConcurrentSkipListMap<>(UnsignedBytes.lexicographicalComparator());
     }
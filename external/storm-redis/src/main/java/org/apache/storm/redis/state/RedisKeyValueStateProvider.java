@@ -18,6 +18,8 @@
 package org.apache.storm.redis.state;
 
 import org.apache.storm.redis.common.config.JedisClusterConfig;
+import org.apache.storm.redis.common.container.RedisCommandsContainerBuilder;
+import org.apache.storm.redis.common.container.RedisCommandsInstanceContainer;
 import org.apache.storm.state.DefaultStateSerializer;
 import org.apache.storm.state.Serializer;
 import org.apache.storm.state.State;
@@ -74,11 +76,14 @@ public class RedisKeyValueStateProvider implements StateProvider {
             jedisPoolConfig = buildDefaultJedisPoolConfig();
         }
 
+        RedisCommandsInstanceContainer container;
         if (jedisPoolConfig != null) {
-            return new RedisKeyValueState(namespace, jedisPoolConfig, getKeySerializer(config), getValueSerializer(config));
+            container = RedisCommandsContainerBuilder.build(jedisPoolConfig);
         } else {
-            return new RedisKeyValueState(namespace, jedisClusterConfig, getKeySerializer(config), getValueSerializer(config));
+            container = RedisCommandsContainerBuilder.build(jedisClusterConfig);
         }
+        return new RedisKeyValueState(namespace, container, getKeySerializer(config), getValueSerializer(config),
+                config.cacheSize);
     }
 
     private Serializer getKeySerializer(StateConfig config) throws Exception {
@@ -126,6 +131,7 @@ public class RedisKeyValueStateProvider implements StateProvider {
         public String valueSerializerClass;
         public JedisPoolConfig jedisPoolConfig;
         public JedisClusterConfig jedisClusterConfig;
+        public int cacheSize;
 
         @Override
         public String toString() {
@@ -136,6 +142,7 @@ public class RedisKeyValueStateProvider implements StateProvider {
                     ", valueSerializerClass='" + valueSerializerClass + '\'' +
                     ", jedisPoolConfig=" + jedisPoolConfig +
                     ", jedisClusterConfig=" + jedisClusterConfig +
+                    ", cacheSize=" + cacheSize +
                     '}';
         }
     }
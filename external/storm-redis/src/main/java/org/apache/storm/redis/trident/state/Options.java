@@ -20,6 +20,7 @@ package org.apache.storm.redis.trident.state;
 
 import org.apache.storm.redis.common.mapper.RedisDataTypeDescription;
 import org.apache.storm.trident.state.Serializer;
+import org.apache.storm.trident.state.map.MapCacheSpec;
 
 import java.io.Serializable;
 
@@ -33,6 +34,10 @@ public class Options<T> implements Serializable {
     private static final RedisDataTypeDescription DEFAULT_REDIS_DATATYPE = new RedisDataTypeDescription(RedisDataTypeDescription.RedisDataType.STRING);
 
     public int localCacheSize = 1000;
+    /**
+     * How the local cache is bounded and expired, if set it takes precedence over {@link #localCacheSize}.
+     */
+    public MapCacheSpec localCacheSpec = null;
     public String globalKey = "$REDIS-MAP-STATE-GLOBAL";
     public KeyFactory keyFactory = null;
     public Serializer<T> serializer = null;
@@ -39,6 +39,7 @@ import org.apache.storm.trident.state.map.TransactionalMap;
 
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * IBackingMap implementation for Redis Cluster environment.
@@ -196,6 +197,7 @@ public class RedisClusterMapState<T> extends AbstractRedisMapState<T> {
 
         JedisClusterConfig jedisClusterConfig;
 
+        String id = UUID.randomUUID().toString();
         StateType type;
         Serializer serializer;
         KeyFactory keyFactory;
@@ -239,7 +241,10 @@ public class RedisClusterMapState<T> extends AbstractRedisMapState<T> {
                     DEFAULT_POOL_CONFIG);
 
             RedisClusterMapState state = new RedisClusterMapState(jedisCluster, options, serializer, keyFactory);
-            CachedMap c = new CachedMap(state, options.localCacheSize);
+            CachedMap c = options.localCacheSpec != null
+                    ? new CachedMap(state, options.localCacheSpec)
+                    : new CachedMap(state, options.localCacheSize);
+            c.registerMetrics(metrics, conf, "redis-cluster-map-cache", id, partitionIndex);
 
             MapState ms;
             if (type == StateType.NON_TRANSACTIONAL) {
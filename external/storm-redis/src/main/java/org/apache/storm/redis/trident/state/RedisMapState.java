@@ -39,6 +39,7 @@ import org.apache.storm.trident.state.map.TransactionalMap;
 
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * IBackingMap implementation for single Redis environment.
@@ -196,6 +197,7 @@ public class RedisMapState<T> extends AbstractRedisMapState<T> {
 
         JedisPoolConfig jedisPoolConfig;
 
+        String id = UUID.randomUUID().toString();
         StateType type;
         Serializer serializer;
         KeyFactory keyFactory;
@@ -238,7 +240,10 @@ public class RedisMapState<T> extends AbstractRedisMapState<T> {
                                                     jedisPoolConfig.getPassword(),
                                                     jedisPoolConfig.getDatabase());
             RedisMapState state = new RedisMapState(jedisPool, options, serializer, keyFactory);
-            CachedMap c = new CachedMap(state, options.localCacheSize);
+            CachedMap c = options.localCacheSpec != null
+                    ? new CachedMap(state, options.localCacheSpec)
+                    : new CachedMap(state, options.localCacheSize);
+            c.registerMetrics(metrics, conf, "redis-map-cache", id, partitionIndex);
 
             MapState ms;
             if (type == StateType.NON_TRANSACTIONAL) {
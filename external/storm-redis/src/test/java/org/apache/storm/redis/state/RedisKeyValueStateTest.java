@@ -29,8 +29,10 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import redis.clients.util.SafeEncoder;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
@@ -97,6 +99,19 @@ public class RedisKeyValueStateTest {
                     }
                 });
 
+        Mockito.when(mockCommands.hmget(Mockito.any(byte[].class), Mockito.<byte[]>anyVararg()))
+                .thenAnswer(new Answer<List<byte[]>>() {
+                    @Override
+                    public List<byte[]> answer(InvocationOnMock invocation) throws Throwable {
+                        Object[] args = invocation.getArguments();
+                        List<byte[]> values = new ArrayList<>();
+                        for (int i = 1; i < args.length; i++) {
+                            values.add(hget(mockMap, (byte[]) args[0], (byte[]) args[i]));
+                        }
+                        return values;
+                    }
+                });
+
         Mockito.when(mockCommands.hdel(Mockito.any(byte[].class), Mockito.<byte[]>anyVararg()))
                 .thenAnswer(new Answer<Long>() {
                     @Override
@@ -194,6 +209,53 @@ public class RedisKeyValueStateTest {
         assertArrayEquals(new String[]{"1", null, null}, getValues());
     }
 
+    @Test
+    public void testCommittedValuesAreCached() throws Exception {
+        RedisKeyValueState<String, String> cachedState = newCachedState();
+        cachedState.put("a", "1");
+        cachedState.put("b", "2");
+        cachedState.prepareCommit(1);
+        cachedState.commit(1);
+        assertEquals("1", cachedState.get("a"));
+        assertEquals("2", cachedState.get("b"));
+        Mockito.verify(mockCommands, Mockito.never()).hget(Mockito.any(byte[].class), Mockito.any(byte[].class));
+
+        assertEquals(null, cachedState.get("c"));
+        assertEquals(null, cachedState.get("c"));
+        Mockito.verify(mockCommands, Mockito.times(1)).hget(Mockito.any(byte[].class), Mockito.any(byte[].class));
+
+        assertEquals("1", cachedState.delete("a"));
+        cachedState.put("c", "3");
+        cachedState.prepareCommit(2);
+        cachedState.commit(2);
+        assertEquals(null, cachedState.get("a"));
+        assertEquals("3", cachedState.get("c"));
+        assertEquals(null, keyValueState.get("a"));
+        assertEquals("3", keyValueState.get("c"));
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+
+        RedisKeyValueState<String, String> cachedState = newCachedState();
+        cachedState.put("b", "20");
+        cachedState.prefetch(Arrays.asList("a", "b", "c"));
+        Mockito.verify(mockCommands, Mockito.times(1)).hmget(Mockito.any(byte[].class), Mockito.<byte[]>anyVararg());
+        assertEquals("1", cachedState.get("a"));
+        assertEquals("20", cachedState.get("b"));
+        assertEquals(null, cachedState.get("c"));
+        Mockito.verify(mockCommands, Mockito.never()).hget(Mockito.any(byte[].class), Mockito.any(byte[].class));
+    }
+
+    private RedisKeyValueState<String, String> newCachedState() {
+        return new RedisKeyValueState<String, String>("test", mockContainer, new DefaultStateSerializer<String>(),
+                                                      new DefaultStateSerializer<String>(), 100);
+    }
+
     private String[] getValues() {
         return new String[]{
                 keyValueState.get("a"),
@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.storm.blobstore.AtomicOutputStream;
+import org.apache.storm.blobstore.BlobStoreAclHandler;
+import org.apache.storm.blobstore.ClientBlobStore;
+import org.apache.storm.generated.KeyAlreadyExistsException;
+import org.apache.storm.generated.KeyNotFoundException;
+import org.apache.storm.generated.SettableBlobMeta;
+import org.apache.storm.utils.ObjectReader;
+import org.apache.storm.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps snapshots in the Storm blob store (which can be backed by HDFS). Each snapshot is zipped into the blob
+ * {@code <namespace>-rocksdb-<txid>}, the blob {@code <namespace>-rocksdb-snapshots} lists the txids of the retained
+ * snapshots, oldest first.
+ *
+ * <p>Config: {@code retainedSnapshots}, the number of snapshots to keep (default 2).
+ */
+public class BlobStoreSnapshotStore implements RocksDbSnapshotStore {
+    public static final String RETAINED_SNAPSHOTS = "retainedSnapshots";
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStoreSnapshotStore.class);
+
+    private ClientBlobStore blobStore;
+    private String keyPrefix;
+    private int retainedSnapshots;
+
+    @Override
+    public void prepare(Map<String, Object> topoConf, String namespace, Map<String, Object> storeConfig) {
+        prepare(Utils.getClientBlobStore(topoConf), namespace, ObjectReader.getInt(storeConfig.get(RETAINED_SNAPSHOTS), 2));
+    }
+
+    // package access for unit tests
+    void prepare(ClientBlobStore blobStore, String namespace, int retainedSnapshots) {
+        this.blobStore = blobStore;
+        this.keyPrefix = namespace + "-rocksdb-";
+        this.retainedSnapshots = retainedSnapshots;
+    }
+
+    @Override
+    public void upload(long txid, File snapshotDir) throws IOException {
+        try {
+            AtomicOutputStream out = openBlob(snapshotKey(txid));
+            try {
+                zip(snapshotDir, out);
+            } catch (IOException e) {
+                out.cancel();
+                throw e;
+            }
+            out.close();
+            List<Long> txids = readSnapshotList();
+            txids.add(txid);
+            List<Long> expired = new ArrayList<>();
+            while (txids.size() > retainedSnapshots) {
+                expired.add(txids.remove(0));
+            }
+            writeSnapshotList(txids);
+            for (Long expiredTxid : expired) {
+                try {
+                    blobStore.deleteBlob(snapshotKey(expiredTxid));
+                } catch (KeyNotFoundException e) {
+                    LOG.debug("Snapshot {} was already deleted", expiredTxid);
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Long latestTxid() throws IOException {
+        try {
+            List<Long> txids = readSnapshotList();
+            return txids.isEmpty() ? null : txids.get(txids.size() - 1);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Long restoreLatest(File targetDir) throws IOException {
+        try {
+            List<Long> txids = readSnapshotList();
+            if (txids.isEmpty()) {
+                return null;
+            }
+            Long txid = txids.get(txids.size() - 1);
+            try (InputStream in = blobStore.getBlob(snapshotKey(txid))) {
+                unzip(in, targetDir);
+            }
+            return txid;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private String snapshotKey(long txid) {
+        return keyPrefix + txid;
+    }
+
+    private String snapshotListKey() {
+        return keyPrefix + "snapshots";
+    }
+
+    private List<Long> readSnapshotList() throws Exception {
+        List<Long> txids = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = blobStore.getBlob(snapshotListKey())) {
+            IOUtils.copy(in, bytes);
+        } catch (KeyNotFoundException e) {
+            return txids;
+        }
+        for (String txid : new String(bytes.toByteArray(), StandardCharsets.UTF_8).split(",")) {
+            if (!txid.isEmpty()) {
+                txids.add(Long.valueOf(txid));
+            }
+        }
+        return txids;
+    }
+
+    private void writeSnapshotList(List<Long> txids) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (Long txid : txids) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(txid);
+        }
+        AtomicOutputStream out = openBlob(snapshotListKey());
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        out.close();
+    }
+
+    private AtomicOutputStream openBlob(String key) throws Exception {
+        try {
+            return blobStore.createBlob(key, new SettableBlobMeta(BlobStoreAclHandler.WORLD_EVERYTHING));
+        } catch (KeyAlreadyExistsException e) {
+            return blobStore.updateBlob(key);
+        }
+    }
+
+    private static void zip(File dir, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out));
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                zip.putNextEntry(new ZipEntry(file.getName()));
+                try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                    IOUtils.copy(in, zip);
+                }
+                zip.closeEntry();
+            }
+        }
+        // the caller closes the underlying stream to commit the blob
+        zip.finish();
+        zip.flush();
+    }
+
+    private static void unzip(InputStream in, File dir) throws IOException {
+        if (!dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Could not create " + dir);
+        }
+        ZipInputStream zip = new ZipInputStream(new BufferedInputStream(in));
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            File file = new File(dir, new File(entry.getName()).getName());
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                IOUtils.copy(zip, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * Keeps snapshots in a directory, typically a mount of a distributed or network file system that is available on all
+ * the supervisor hosts. The snapshots of a state are kept in {@code <dir>/<namespace>/<txid>}.
+ *
+ * <p>Config: {@code dir} (required) and {@code retainedSnapshots}, the number of snapshots to keep (default 2).
+ */
+public class LocalDirectorySnapshotStore implements RocksDbSnapshotStore {
+    public static final String DIR = "dir";
+    public static final String RETAINED_SNAPSHOTS = "retainedSnapshots";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private File namespaceDir;
+    private int retainedSnapshots;
+
+    @Override
+    public void prepare(Map<String, Object> topoConf, String namespace, Map<String, Object> storeConfig) {
+        String dir = (String) storeConfig.get(DIR);
+        if (dir == null) {
+            throw new IllegalArgumentException("The '" + DIR + "' of the snapshot store is not set");
+        }
+        namespaceDir = new File(dir, namespace);
+        retainedSnapshots = ObjectReader.getInt(storeConfig.get(RETAINED_SNAPSHOTS), 2);
+    }
+
+    @Override
+    public void upload(long txid, File snapshotDir) throws IOException {
+        File tmpDir = new File(namespaceDir, txid + TMP_SUFFIX);
+        FileUtils.deleteDirectory(tmpDir);
+        FileUtils.copyDirectory(snapshotDir, tmpDir);
+        File targetDir = new File(namespaceDir, String.valueOf(txid));
+        FileUtils.deleteDirectory(targetDir);
+        // the snapshot only becomes visible to restoreLatest once it is complete
+        Files.move(tmpDir.toPath(), targetDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        List<Long> txids = listSnapshots();
+        for (int i = 0; i < txids.size() - retainedSnapshots; i++) {
+            FileUtils.deleteDirectory(new File(namespaceDir, String.valueOf(txids.get(i))));
+        }
+    }
+
+    @Override
+    public Long latestTxid() {
+        List<Long> txids = listSnapshots();
+        return txids.isEmpty() ? null : txids.get(txids.size() - 1);
+    }
+
+    @Override
+    public Long restoreLatest(File targetDir) throws IOException {
+        List<Long> txids = listSnapshots();
+        if (txids.isEmpty()) {
+            return null;
+        }
+        Long txid = txids.get(txids.size() - 1);
+        FileUtils.copyDirectory(new File(namespaceDir, String.valueOf(txid)), targetDir);
+        return txid;
+    }
+
+    private List<Long> listSnapshots() {
+        List<Long> txids = new ArrayList<>();
+        String[] names = namespaceDir.list();
+        if (names != null) {
+            for (String name : names) {
+                try {
+                    txids.add(Long.parseLong(name));
+                } catch (NumberFormatException e) {
+                    // an incomplete upload
+                }
+            }
+        }
+        Collections.sort(txids);
+        return txids;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+
+/**
+ * The databases opened by this worker. RocksDB does not allow a database to be opened twice, so a state that is
+ * created again in the same worker (e.g. after the executor restarts) reuses the database that is already open.
+ */
+final class RocksDbInstances {
+    private static final Map<String, RocksDB> INSTANCES = new HashMap<>();
+
+    static {
+        RocksDB.loadLibrary();
+    }
+
+    private RocksDbInstances() {
+    }
+
+    static synchronized RocksDB open(File dir) throws IOException, RocksDBException {
+        String path = dir.getCanonicalPath();
+        RocksDB db = INSTANCES.get(path);
+        if (db == null) {
+            FileUtils.forceMkdir(dir.getParentFile());
+            Options options = new Options().setCreateIfMissing(true);
+            db = RocksDB.open(options, path);
+            INSTANCES.put(path, db);
+        }
+        return db;
+    }
+
+    static synchronized boolean isOpen(File dir) throws IOException {
+        return INSTANCES.containsKey(dir.getCanonicalPath());
+    }
+
+    // package access for unit tests
+    static synchronized void close(File dir) throws IOException {
+        RocksDB db = INSTANCES.remove(dir.getCanonicalPath());
+        if (db != null) {
+            db.close();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import com.google.common.collect.Maps;
+import com.google.common.primitives.UnsignedBytes;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.apache.storm.state.DefaultStateEncoder;
+import org.apache.storm.state.KeyValueState;
+import org.apache.storm.state.Serializer;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link KeyValueState} kept in an embedded RocksDB database on local disk.
+ *
+ * <p>Updates are buffered on the heap until the checkpoint; {@link #prepareCommit(long)} and {@link #commit(long)} each
+ * apply the buffered updates in a single {@link WriteBatch}. The committed values, the values of a prepared but not yet
+ * committed transaction and the transaction ids are kept under different key prefixes of the same database, so a
+ * restarted worker picks up the pending commit like the other state backends do.
+ *
+ * <p>If a {@link RocksDbSnapshotter} is given, a snapshot of the database is taken after a commit and uploaded to a
+ * {@link RocksDbSnapshotStore} in the background, so that the state can be restored when the task moves to another
+ * host.
+ */
+public class RocksDbKeyValueState<K, V> implements KeyValueState<K, V> {
+    public static final int ITERATOR_CHUNK_SIZE = 1000;
+
+    static final byte DATA_PREFIX = 0;
+    static final byte PREPARE_PREFIX = 1;
+    static final byte TXID_PREFIX = 2;
+
+    private static final Logger LOG = LoggerFactory.getLogger(RocksDbKeyValueState.class);
+    private static final byte[] COMMIT_TXID_KEY = prefixed(TXID_PREFIX, "commit".getBytes(StandardCharsets.UTF_8));
+    private static final byte[] PREPARE_TXID_KEY = prefixed(TXID_PREFIX, "prepare".getBytes(StandardCharsets.UTF_8));
+    private static final NavigableMap<byte[], byte[]> EMPTY_PENDING_COMMIT_MAP = Maps.unmodifiableNavigableMap(
+        new TreeMap<byte[], byte[]>(UnsignedBytes.lexicographicalComparator()));
+
+    private final String namespace;
+    private final RocksDB db;
+    private final WriteOptions writeOptions;
+    private final DefaultStateEncoder<K, V> encoder;
+    private final RocksDbSnapshotter snapshotter;
+    private ConcurrentNavigableMap<byte[], byte[]> pendingPrepare;
+    private NavigableMap<byte[], byte[]> pendingCommit;
+    private Long committedTxid;
+    private Long preparedTxid;
+
+    /**
+     * Creates a state over an opened database.
+     *
+     * @param namespace the namespace of the state, used for logging
+     * @param db the database, it must not be shared with another state
+     * @param syncWrites whether the writes of a checkpoint should be synced to disk before they are acknowledged
+     * @param keySerializer the serializer of the keys
+     * @param valueSerializer the serializer of the values
+     * @param snapshotter takes and uploads snapshots after commits, null to not take snapshots
+     */
+    public RocksDbKeyValueState(String namespace, RocksDB db, boolean syncWrites, Serializer<K> keySerializer,
+                                Serializer<V> valueSerializer, RocksDbSnapshotter snapshotter) {
+        this.namespace = namespace;
+        this.db = db;
+        this.writeOptions = new WriteOptions().setSync(syncWrites);
+        this.encoder = new DefaultStateEncoder<>(keySerializer, valueSerializer);
+        this.snapshotter = snapshotter;
+        this.pendingPrepare = createPendingPrepareMap();
+        initTxids();
+        initPendingCommit();
+    }
+
+    private void initTxids() {
+        committedTxid = readTxid(COMMIT_TXID_KEY);
+        preparedTxid = readTxid(PREPARE_TXID_KEY);
+        LOG.debug("initTxids namespace {}, committed {}, prepared {}", namespace, committedTxid, preparedTxid);
+    }
+
+    private void initPendingCommit() {
+        NavigableMap<byte[], byte[]> pendingCommitMap = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+        try (RocksIterator it = db.newIterator()) {
+            for (it.seek(new byte[]{PREPARE_PREFIX}); it.isValid() && isPrefixed(PREPARE_PREFIX, it.key()); it.next()) {
+                pendingCommitMap.put(unprefixed(it.key()), it.value());
+            }
+        }
+        if (pendingCommitMap.isEmpty()) {
+            LOG.debug("No previously prepared commits.");
+            pendingCommit = EMPTY_PENDING_COMMIT_MAP;
+        } else {
+            LOG.debug("Loaded {} previously prepared entries of namespace {}", pendingCommitMap.size(), namespace);
+            pendingCommit = Maps.unmodifiableNavigableMap(pendingCommitMap);
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        LOG.debug("put key '{}', value '{}'", key, value);
+        pendingPrepare.put(encoder.encodeKey(key), encoder.encodeValue(value));
+    }
+
+    @Override
+    public V get(K key) {
+        LOG.debug("get key '{}'", key);
+        byte[] encodedKey = encoder.encodeKey(key);
+        byte[] encodedValue;
+        if (pendingPrepare.containsKey(encodedKey)) {
+            encodedValue = pendingPrepare.get(encodedKey);
+        } else if (pendingCommit.containsKey(encodedKey)) {
+            encodedValue = pendingCommit.get(encodedKey);
+        } else {
+            try {
+                encodedValue = db.get(prefixed(DATA_PREFIX, encodedKey));
+            } catch (RocksDBException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        V value = null;
+        if (encodedValue != null && !isTombstone(encodedValue)) {
+            value = encoder.decodeValue(encodedValue);
+        }
+        LOG.debug("Value for key '{}' is '{}'", key, value);
+        return value;
+    }
+
+    @Override
+    public V get(K key, V defaultValue) {
+        V val = get(key);
+        return val != null ? val : defaultValue;
+    }
+
+    @Override
+    public V delete(K key) {
+        LOG.debug("delete key '{}'", key);
+        V curr = get(key);
+        pendingPrepare.put(encoder.encodeKey(key), encoder.getTombstoneValue());
+        return curr;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new RocksDbKeyValueStateIterator<>(db, pendingPrepare.entrySet().iterator(),
+                                                  pendingCommit.entrySet().iterator(), ITERATOR_CHUNK_SIZE,
+                                                  encoder.getKeySerializer(), encoder.getValueSerializer());
+    }
+
+    @Override
+    public void prepareCommit(long txid) {
+        LOG.debug("prepareCommit txid {}", txid);
+        validatePrepareTxid(txid);
+        ConcurrentNavigableMap<byte[], byte[]> currentPending = pendingPrepare;
+        pendingPrepare = createPendingPrepareMap();
+        // a previously prepared txn that is prepared again keeps the updates it had
+        for (Map.Entry<byte[], byte[]> e : pendingCommit.entrySet()) {
+            currentPending.putIfAbsent(e.getKey(), e.getValue());
+        }
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Map.Entry<byte[], byte[]> e : currentPending.entrySet()) {
+                batch.put(prefixed(PREPARE_PREFIX, e.getKey()), e.getValue());
+            }
+            batch.put(PREPARE_TXID_KEY, encodeTxid(txid));
+            db.write(writeOptions, batch);
+        } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+        }
+        preparedTxid = txid;
+        pendingCommit = Maps.unmodifiableNavigableMap(currentPending);
+    }
+
+    @Override
+    public void commit(long txid) {
+        LOG.debug("commit txid {}", txid);
+        validateCommitTxid(txid);
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Map.Entry<byte[], byte[]> e : pendingCommit.entrySet()) {
+                byte[] dataKey = prefixed(DATA_PREFIX, e.getKey());
+                if (isTombstone(e.getValue())) {
+                    batch.remove(dataKey);
+                } else {
+                    batch.put(dataKey, e.getValue());
+                }
+                batch.remove(prefixed(PREPARE_PREFIX, e.getKey()));
+            }
+            batch.put(COMMIT_TXID_KEY, encodeTxid(txid));
+            db.write(writeOptions, batch);
+        } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+        }
+        committedTxid = txid;
+        pendingCommit = EMPTY_PENDING_COMMIT_MAP;
+        if (snapshotter != null) {
+            snapshotter.onCommit(db, txid);
+        }
+    }
+
+    @Override
+    public void commit() {
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Map.Entry<byte[], byte[]> e : pendingPrepare.entrySet()) {
+                byte[] dataKey = prefixed(DATA_PREFIX, e.getKey());
+                if (isTombstone(e.getValue())) {
+                    batch.remove(dataKey);
+                } else {
+                    batch.put(dataKey, e.getValue());
+                }
+            }
+            db.write(writeOptions, batch);
+        } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+        }
+        pendingPrepare = createPendingPrepareMap();
+    }
+
+    @Override
+    public void rollback() {
+        LOG.debug("rollback");
+        try (WriteBatch batch = new WriteBatch(); RocksIterator it = db.newIterator()) {
+            for (it.seek(new byte[]{PREPARE_PREFIX}); it.isValid() && isPrefixed(PREPARE_PREFIX, it.key()); it.next()) {
+                batch.remove(it.key());
+            }
+            if (committedTxid != null) {
+                batch.put(PREPARE_TXID_KEY, encodeTxid(committedTxid));
+            } else {
+                batch.remove(PREPARE_TXID_KEY);
+            }
+            db.write(writeOptions, batch);
+        } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+        }
+        preparedTxid = committedTxid;
+        pendingCommit = EMPTY_PENDING_COMMIT_MAP;
+        pendingPrepare = createPendingPrepareMap();
+    }
+
+    /*
+     * Same txid can be prepared again, but the next txid cannot be prepared
+     * when previous one is not committed yet.
+     */
+    private void validatePrepareTxid(long txid) {
+        if (committedTxid != null && txid <= committedTxid) {
+            throw new RuntimeException("Invalid txid '" + txid + "' for prepare. Txid '" + committedTxid
+                                       + "' is already committed");
+        }
+    }
+
+    /*
+     * Same txid can be committed again but the
+     * txid to be committed must be the last prepared one.
+     */
+    private void validateCommitTxid(long txid) {
+        if (committedTxid != null && txid < committedTxid) {
+            throw new RuntimeException("Invalid txid '" + txid + "' txid '" + committedTxid + "' is already committed");
+        }
+        if (preparedTxid != null && txid != preparedTxid) {
+            throw new RuntimeException("Invalid txid '" + txid + "' not same as prepared txid '" + preparedTxid + "'");
+        }
+    }
+
+    private Long readTxid(byte[] key) {
+        try {
+            return readTxid(db, key);
+        } catch (RocksDBException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Long readTxid(RocksDB db, byte[] key) throws RocksDBException {
+        byte[] value = db.get(key);
+        return value == null ? null : Long.valueOf(new String(value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the txid of the last commit of a database that is not opened as a state.
+     */
+    static Long readCommittedTxid(RocksDB db) throws RocksDBException {
+        return readTxid(db, COMMIT_TXID_KEY);
+    }
+
+    private static byte[] encodeTxid(long txid) {
+        return String.valueOf(txid).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private boolean isTombstone(byte[] value) {
+        return Arrays.equals(encoder.getTombstoneValue(), value);
+    }
+
+    static byte[] prefixed(byte prefix, byte[] key) {
+        byte[] result = new byte[key.length + 1];
+        result[0] = prefix;
+        System.arraycopy(key, 0, result, 1, key.length);
+        return result;
+    }
+
+    static byte[] unprefixed(byte[] key) {
+        return Arrays.copyOfRange(key, 1, key.length);
+    }
+
+    static boolean isPrefixed(byte prefix, byte[] key) {
+        return key.length > 0 && key[0] == prefix;
+    }
+
+    private ConcurrentNavigableMap<byte[], byte[]> createPendingPrepareMap() {
+        return new ConcurrentSkipListMap<>(UnsignedBytes.lexicographicalComparator());
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.state.BaseBinaryStateIterator;
+import org.apache.storm.state.DefaultStateEncoder;
+import org.apache.storm.state.Serializer;
+import org.apache.storm.state.StateEncoder;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+
+/**
+ * An iterator over {@link RocksDbKeyValueState}.
+ */
+public class RocksDbKeyValueStateIterator<K, V> extends BaseBinaryStateIterator<K, V> {
+
+    private final RocksDB db;
+    private final StateEncoder<K, V, byte[], byte[]> encoder;
+    private final int chunkSize;
+
+    private Iterator<Map.Entry<byte[], byte[]>> cachedResultIterator;
+    private byte[] lastKey;
+    private boolean endOfData;
+
+    /**
+     * Constructor.
+     *
+     * @param db The database of the state
+     * @param pendingPrepareIterator The iterator of pendingPrepare
+     * @param pendingCommitIterator The iterator of pendingCommit
+     * @param chunkSize The number of committed entries to read from the database at once
+     * @param keySerializer The serializer of key
+     * @param valueSerializer The serializer of value
+     */
+    public RocksDbKeyValueStateIterator(RocksDB db, Iterator<Map.Entry<byte[], byte[]>> pendingPrepareIterator,
+                                       Iterator<Map.Entry<byte[], byte[]>> pendingCommitIterator,
+                                       int chunkSize, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        super(pendingPrepareIterator, pendingCommitIterator);
+        this.db = db;
+        this.encoder = new DefaultStateEncoder<>(keySerializer, valueSerializer);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected Iterator<Map.Entry<byte[], byte[]>> loadChunkFromStateStorage() {
+        List<Map.Entry<byte[], byte[]>> chunk = new ArrayList<>(Math.min(chunkSize, 128));
+        try (RocksIterator it = db.newIterator()) {
+            if (lastKey == null) {
+                it.seek(new byte[]{RocksDbKeyValueState.DATA_PREFIX});
+            } else {
+                byte[] seekKey = RocksDbKeyValueState.prefixed(RocksDbKeyValueState.DATA_PREFIX, lastKey);
+                it.seek(seekKey);
+                if (it.isValid() && Arrays.equals(it.key(), seekKey)) {
+                    it.next();
+                }
+            }
+            while (chunk.size() < chunkSize && it.isValid()
+                   && RocksDbKeyValueState.isPrefixed(RocksDbKeyValueState.DATA_PREFIX, it.key())) {
+                chunk.add(new AbstractMap.SimpleImmutableEntry<>(RocksDbKeyValueState.unprefixed(it.key()), it.value()));
+                it.next();
+            }
+            endOfData = !it.isValid() || !RocksDbKeyValueState.isPrefixed(RocksDbKeyValueState.DATA_PREFIX, it.key());
+        }
+        if (!chunk.isEmpty()) {
+            lastKey = chunk.get(chunk.size() - 1).getKey();
+        }
+        cachedResultIterator = chunk.iterator();
+        return cachedResultIterator;
+    }
+
+    @Override
+    protected boolean isEndOfDataFromStorage() {
+        return endOfData && (cachedResultIterator == null || !cachedResultIterator.hasNext());
+    }
+
+    @Override
+    protected K decodeKey(byte[] key) {
+        return encoder.decodeKey(key);
+    }
+
+    @Override
+    protected V decodeValue(byte[] value) {
+        return encoder.decodeValue(value);
+    }
+
+    @Override
+    protected boolean isTombstoneValue(byte[] value) {
+        return Arrays.equals(value, encoder.getTombstoneValue());
+    }
+}
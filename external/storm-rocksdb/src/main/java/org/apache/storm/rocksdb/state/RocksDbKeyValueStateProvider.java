@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.state.DefaultStateSerializer;
+import org.apache.storm.state.Serializer;
+import org.apache.storm.state.State;
+import org.apache.storm.state.StateProvider;
+import org.apache.storm.task.TopologyContext;
+import org.rocksdb.RocksDB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides {@link RocksDbKeyValueState}.
+ *
+ * <p>The database of a state is kept in {@code <localDir>/<topology name>/<namespace>}, where {@code localDir} defaults
+ * to {@code <storm.local.dir>/rocksdb-state}.
+ */
+public class RocksDbKeyValueStateProvider implements StateProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(RocksDbKeyValueStateProvider.class);
+    private static final String DEFAULT_LOCAL_DIR_NAME = "rocksdb-state";
+
+    @Override
+    public State newState(String namespace, Map<String, Object> topoConf, TopologyContext context) {
+        try {
+            return getRocksDbKeyValueState(namespace, topoConf, context, getStateConfig(topoConf));
+        } catch (Exception ex) {
+            LOG.error("Error loading config from storm conf {}", topoConf);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    StateConfig getStateConfig(Map<String, Object> topoConf) throws Exception {
+        StateConfig stateConfig;
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        if (topoConf.containsKey(Config.TOPOLOGY_STATE_PROVIDER_CONFIG)) {
+            String providerConfig = (String) topoConf.get(Config.TOPOLOGY_STATE_PROVIDER_CONFIG);
+            stateConfig = mapper.readValue(providerConfig, StateConfig.class);
+        } else {
+            stateConfig = new StateConfig();
+        }
+        return stateConfig;
+    }
+
+    private RocksDbKeyValueState getRocksDbKeyValueState(String namespace, Map<String, Object> topoConf,
+                                                         TopologyContext context, StateConfig config) throws Exception {
+        File dbDir = getDbDir(namespace, topoConf, context, config);
+        RocksDbSnapshotter snapshotter = null;
+        if (config.snapshotStoreClass != null) {
+            RocksDbSnapshotStore store = (RocksDbSnapshotStore) Class.forName(config.snapshotStoreClass).newInstance();
+            Map<String, Object> storeConfig = config.snapshotStoreConfig;
+            store.prepare(topoConf, namespace, storeConfig == null ? Collections.<String, Object>emptyMap() : storeConfig);
+            snapshotter = new RocksDbSnapshotter(namespace, dbDir, store, config.snapshotInterval);
+            snapshotter.restoreIfStale();
+        }
+        RocksDB db = RocksDbInstances.open(dbDir);
+        LOG.info("Opened the state of namespace {} in {}", namespace, dbDir);
+        return new RocksDbKeyValueState(namespace, db, config.syncWrites, getKeySerializer(config),
+                                        getValueSerializer(config), snapshotter);
+    }
+
+    File getDbDir(String namespace, Map<String, Object> topoConf, TopologyContext context, StateConfig config) {
+        File localDir = config.localDir != null ? new File(config.localDir)
+            : new File((String) topoConf.get(Config.STORM_LOCAL_DIR), DEFAULT_LOCAL_DIR_NAME);
+        String topologyName = (String) topoConf.get(Config.TOPOLOGY_NAME);
+        if (topologyName == null) {
+            topologyName = context.getStormId();
+        }
+        return new File(new File(localDir, topologyName), namespace);
+    }
+
+    private Serializer getKeySerializer(StateConfig config) throws Exception {
+        Serializer serializer;
+        if (config.keySerializerClass != null) {
+            Class<?> klass = Class.forName(config.keySerializerClass);
+            serializer = (Serializer) klass.newInstance();
+        } else if (config.keyClass != null) {
+            serializer = new DefaultStateSerializer(Collections.singletonList(Class.forName(config.keyClass)));
+        } else {
+            serializer = new DefaultStateSerializer();
+        }
+        return serializer;
+    }
+
+    private Serializer getValueSerializer(StateConfig config) throws Exception {
+        Serializer serializer;
+        if (config.valueSerializerClass != null) {
+            Class<?> klass = Class.forName(config.valueSerializerClass);
+            serializer = (Serializer) klass.newInstance();
+        } else if (config.valueClass != null) {
+            serializer = new DefaultStateSerializer(Collections.singletonList(Class.forName(config.valueClass)));
+        } else {
+            serializer = new DefaultStateSerializer();
+        }
+        return serializer;
+    }
+
+    public static class StateConfig {
+        public String keyClass;
+        public String valueClass;
+        public String keySerializerClass;
+        public String valueSerializerClass;
+        public String localDir;
+        public boolean syncWrites = false;
+        public String snapshotStoreClass;
+        public Map<String, Object> snapshotStoreConfig;
+        public int snapshotInterval = 1;
+
+        @Override
+        public String toString() {
+            return "StateConfig{"
+                + "keyClass='" + keyClass + '\''
+                + ", valueClass='" + valueClass + '\''
+                + ", keySerializerClass='" + keySerializerClass + '\''
+                + ", valueSerializerClass='" + valueSerializerClass + '\''
+                + ", localDir='" + localDir + '\''
+                + ", syncWrites=" + syncWrites
+                + ", snapshotStoreClass='" + snapshotStoreClass + '\''
+                + ", snapshotStoreConfig=" + snapshotStoreConfig
+                + ", snapshotInterval=" + snapshotInterval
+                + '}';
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Durable storage for the snapshots of a {@link RocksDbKeyValueState}, used to restore the state of a task that is
+ * started on a host that does not have its database.
+ *
+ * <p>Implementations must have a public no-arg constructor, they are configured through the
+ * {@code snapshotStoreConfig} of the provider config.
+ */
+public interface RocksDbSnapshotStore {
+
+    /**
+     * Called once before the store is used.
+     *
+     * @param topoConf the topology configuration
+     * @param namespace the namespace of the state the snapshots belong to
+     * @param storeConfig the {@code snapshotStoreConfig} of the provider config, never null
+     */
+    void prepare(Map<String, Object> topoConf, String namespace, Map<String, Object> storeConfig);
+
+    /**
+     * Uploads a snapshot. This is called from a background thread, one upload at a time.
+     *
+     * @param txid the txid of the last commit contained in the snapshot
+     * @param snapshotDir the directory with the files of the snapshot
+     */
+    void upload(long txid, File snapshotDir) throws IOException;
+
+    /**
+     * Gets the txid of the most recent snapshot without fetching it.
+     *
+     * @return the txid of the most recent snapshot, or null if there is no snapshot
+     */
+    Long latestTxid() throws IOException;
+
+    /**
+     * Copies the files of the most recent snapshot into the given directory.
+     *
+     * @param targetDir the directory the database will be opened from, it does not exist yet
+     * @return the txid of the restored snapshot, or null if there is no snapshot
+     */
+    Long restoreLatest(File targetDir) throws IOException;
+}
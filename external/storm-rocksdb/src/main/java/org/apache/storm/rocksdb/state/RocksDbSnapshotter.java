@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.rocksdb.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.io.FileUtils;
+import org.rocksdb.Checkpoint;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes local snapshots of the database of a {@link RocksDbKeyValueState} and uploads them to a
+ * {@link RocksDbSnapshotStore} in the background.
+ *
+ * <p>A snapshot is a RocksDB checkpoint, i.e. hard links to the immutable table files of the database, so taking one
+ * on the committing thread is cheap. It is taken right after a commit, every {@code snapshotInterval} commits, and
+ * deleted locally once uploaded. If the previous upload is still running the snapshot is taken after a later commit,
+ * uploads never queue up.
+ */
+public class RocksDbSnapshotter {
+    private static final Logger LOG = LoggerFactory.getLogger(RocksDbSnapshotter.class);
+
+    private final String namespace;
+    private final File dbDir;
+    private final File snapshotRoot;
+    private final RocksDbSnapshotStore store;
+    private final int snapshotInterval;
+    private final ExecutorService uploader;
+    private Future<?> pendingUpload;
+    private int commits;
+
+    /**
+     * Creates a snapshotter.
+     *
+     * @param namespace the namespace of the state
+     * @param dbDir the directory of the database
+     * @param store where the snapshots are uploaded to
+     * @param snapshotInterval the number of commits between snapshots
+     */
+    public RocksDbSnapshotter(String namespace, File dbDir, RocksDbSnapshotStore store, int snapshotInterval) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval " + snapshotInterval + " must be positive");
+        }
+        this.namespace = namespace;
+        this.dbDir = dbDir;
+        this.snapshotRoot = new File(dbDir.getParentFile(), dbDir.getName() + ".snapshots");
+        this.store = store;
+        this.snapshotInterval = snapshotInterval;
+        this.uploader = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "rocksdb-snapshot-uploader-" + namespace);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Restores the latest snapshot from the store if there is no local database, e.g. because the task was moved to
+     * this host, or if the local database is older than the snapshot, e.g. because the task ran elsewhere in between.
+     * A database that is already open in this worker is always up to date and kept.
+     */
+    public void restoreIfStale() throws IOException {
+        if (RocksDbInstances.isOpen(dbDir)) {
+            return;
+        }
+        Long latestTxid = store.latestTxid();
+        if (latestTxid == null) {
+            LOG.info("No snapshot to restore for namespace {}", namespace);
+            return;
+        }
+        if (dbDir.exists()) {
+            Long localTxid = readLocalCommittedTxid();
+            if (localTxid != null && localTxid >= latestTxid) {
+                return;
+            }
+            LOG.info("Local database of namespace {} at txid {} is older than the snapshot of txid {}", namespace,
+                     localTxid, latestTxid);
+        }
+        File tmpDir = new File(dbDir.getParentFile(), dbDir.getName() + ".restore");
+        FileUtils.deleteDirectory(tmpDir);
+        Long txid = store.restoreLatest(tmpDir);
+        if (txid == null) {
+            LOG.info("No snapshot to restore for namespace {}", namespace);
+            return;
+        }
+        FileUtils.deleteDirectory(dbDir);
+        if (!tmpDir.renameTo(dbDir)) {
+            throw new IOException("Could not move the restored snapshot " + tmpDir + " to " + dbDir);
+        }
+        LOG.info("Restored namespace {} from the snapshot of txid {}", namespace, txid);
+    }
+
+    private Long readLocalCommittedTxid() throws IOException {
+        try (RocksDB db = RocksDB.openReadOnly(dbDir.getAbsolutePath())) {
+            return RocksDbKeyValueState.readCommittedTxid(db);
+        } catch (RocksDBException e) {
+            LOG.warn("Could not read the committed txid of the local database of namespace {}", namespace, e);
+            return null;
+        }
+    }
+
+    void onCommit(RocksDB db, long txid) {
+        if (++commits < snapshotInterval) {
+            return;
+        }
+        if (pendingUpload != null && !pendingUpload.isDone()) {
+            LOG.debug("Upload of the previous snapshot of {} is still running, skipping txid {}", namespace, txid);
+            return;
+        }
+        commits = 0;
+        File snapshotDir = new File(snapshotRoot, String.valueOf(txid));
+        try (Checkpoint checkpoint = Checkpoint.create(db)) {
+            FileUtils.deleteDirectory(snapshotDir);
+            FileUtils.forceMkdir(snapshotRoot);
+            checkpoint.createCheckpoint(snapshotDir.getAbsolutePath());
+        } catch (RocksDBException | IOException e) {
+            LOG.warn("Could not take a snapshot of namespace {} at txid {}", namespace, txid, e);
+            return;
+        }
+        pendingUpload = uploader.submit(() -> {
+            try {
+                store.upload(txid, snapshotDir);
+                LOG.debug("Uploaded the snapshot of namespace {} at txid {}", namespace, txid);
+            } catch (Exception e) {
+                LOG.warn("Could not upload the snapshot of namespace {} at txid {}", namespace, txid, e);
+            } finally {
+                FileUtils.deleteQuietly(snapshotDir);
+            }
+        });
+    }
+
+    // package access for unit tests
+    void awaitUpload() throws ExecutionException, InterruptedException {
+        if (pendingUpload != null) {
+            pendingUpload.get();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.rocksdb.state;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link RocksDbKeyValueStateProvider}
+ */
+public class RocksDbKeyValueStateProviderTest {
+
+    @Test
+    public void testGetDefaultConfig() throws Exception {
+        RocksDbKeyValueStateProvider provider = new RocksDbKeyValueStateProvider();
+        RocksDbKeyValueStateProvider.StateConfig config = provider.getStateConfig(new HashMap<String, Object>());
+        assertNotNull(config);
+        assertNull(config.snapshotStoreClass);
+        assertFalse(config.syncWrites);
+        assertEquals(1, config.snapshotInterval);
+    }
+
+    @Test
+    public void testGetConfigWithProviderConfig() throws Exception {
+        RocksDbKeyValueStateProvider provider = new RocksDbKeyValueStateProvider();
+        Map<String, Object> topoConf = new HashMap<>();
+        topoConf.put(Config.TOPOLOGY_STATE_PROVIDER_CONFIG, "{\"keyClass\":\"String\", \"localDir\":\"/data/state\","
+            + " \"snapshotStoreClass\":\"org.apache.storm.rocksdb.state.LocalDirectorySnapshotStore\","
+            + " \"snapshotStoreConfig\":{\"dir\":\"/mnt/snapshots\"}, \"snapshotInterval\":10}");
+        RocksDbKeyValueStateProvider.StateConfig config = provider.getStateConfig(topoConf);
+        assertEquals("String", config.keyClass);
+        assertEquals("/data/state", config.localDir);
+        assertEquals(LocalDirectorySnapshotStore.class.getName(), config.snapshotStoreClass);
+        assertEquals("/mnt/snapshots", config.snapshotStoreConfig.get(LocalDirectorySnapshotStore.DIR));
+        assertEquals(10, config.snapshotInterval);
+    }
+
+    @Test
+    public void testDbDir() throws Exception {
+        RocksDbKeyValueStateProvider provider = new RocksDbKeyValueStateProvider();
+        Map<String, Object> topoConf = new HashMap<>();
+        topoConf.put(Config.STORM_LOCAL_DIR, "/storm");
+        topoConf.put(Config.TOPOLOGY_NAME, "wordcount");
+        File dir = provider.getDbDir("counter-1", topoConf, null, provider.getStateConfig(topoConf));
+        assertEquals(new File("/storm/rocksdb-state/wordcount/counter-1"), dir);
+    }
+}
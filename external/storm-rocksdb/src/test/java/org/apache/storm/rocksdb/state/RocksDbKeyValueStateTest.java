@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.rocksdb.state;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.storm.state.DefaultStateSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rocksdb.RocksDB;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for {@link RocksDbKeyValueState}
+ */
+public class RocksDbKeyValueStateTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dbDir;
+    private RocksDbKeyValueState<String, String> keyValueState;
+
+    @Before
+    public void setUp() throws Exception {
+        dbDir = new File(folder.getRoot(), "db");
+        keyValueState = newState(null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        RocksDbInstances.close(dbDir);
+    }
+
+    private RocksDbKeyValueState<String, String> newState(RocksDbSnapshotter snapshotter) throws Exception {
+        RocksDB db = RocksDbInstances.open(dbDir);
+        return new RocksDbKeyValueState<>("test", db, false, new DefaultStateSerializer<String>(),
+                                          new DefaultStateSerializer<String>(), snapshotter);
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        assertEquals("1", keyValueState.get("a"));
+        assertEquals("2", keyValueState.get("b"));
+        assertEquals(null, keyValueState.get("c"));
+    }
+
+    @Test
+    public void testPutAndDelete() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        assertEquals("1", keyValueState.delete("a"));
+        assertEquals(null, keyValueState.get("a"));
+        assertEquals("2", keyValueState.get("b"));
+        keyValueState.prepareCommit(2);
+        keyValueState.commit(2);
+        assertEquals(null, keyValueState.get("a"));
+        assertEquals("2", keyValueState.get("b"));
+    }
+
+    @Test
+    public void testPrepareCommitRollback() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(1);
+        keyValueState.put("c", "3");
+        assertArrayEquals(new String[]{"1", "2", "3"}, getValues());
+        keyValueState.rollback();
+        assertArrayEquals(new String[]{null, null, null}, getValues());
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("c", "3");
+        assertArrayEquals(new String[]{"1", "2", "3"}, getValues());
+        keyValueState.rollback();
+        assertArrayEquals(new String[]{"1", "2", null}, getValues());
+        keyValueState.put("c", "3");
+        assertEquals("2", keyValueState.delete("b"));
+        assertEquals("3", keyValueState.delete("c"));
+        assertArrayEquals(new String[]{"1", null, null}, getValues());
+        keyValueState.prepareCommit(2);
+        assertArrayEquals(new String[]{"1", null, null}, getValues());
+        keyValueState.commit(2);
+        assertArrayEquals(new String[]{"1", null, null}, getValues());
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(3);
+        keyValueState.put("c", "3");
+        assertArrayEquals(new String[]{"1", "2", "3"}, getValues());
+        keyValueState.rollback();
+        assertArrayEquals(new String[]{"1", null, null}, getValues());
+    }
+
+    @Test
+    public void testPreparedCommitSurvivesRestart() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(2);
+        keyValueState.put("c", "3");
+        RocksDbInstances.close(dbDir);
+
+        keyValueState = newState(null);
+        assertArrayEquals(new String[]{"1", "2", null}, getValues());
+        keyValueState.commit(2);
+        RocksDbInstances.close(dbDir);
+
+        keyValueState = newState(null);
+        assertArrayEquals(new String[]{"1", "2", null}, getValues());
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.put("c", "3");
+        keyValueState.put("d", "4");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("e", "5");
+        keyValueState.prepareCommit(2);
+        keyValueState.delete("a");
+        keyValueState.put("b", "20");
+
+        Map<String, String> entries = new HashMap<>();
+        Iterator<Map.Entry<String, String>> it = keyValueState.iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        Map<String, String> expected = new HashMap<>();
+        expected.put("b", "20");
+        expected.put("c", "3");
+        expected.put("d", "4");
+        expected.put("e", "5");
+        assertEquals(expected, entries);
+    }
+
+    @Test
+    public void testIteratorReadsInChunks() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            keyValueState.put("k" + i, "v" + i);
+        }
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        RocksDB db = RocksDbInstances.open(dbDir);
+        Iterator<Map.Entry<String, String>> it = new RocksDbKeyValueStateIterator<>(
+            db, Collections.<Map.Entry<byte[], byte[]>>emptyIterator(), Collections.<Map.Entry<byte[], byte[]>>emptyIterator(),
+            2, new DefaultStateSerializer<String>(), new DefaultStateSerializer<String>());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v" + i, it.next().getValue());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testRestoreFromSnapshot() throws Exception {
+        LocalDirectorySnapshotStore store = new LocalDirectorySnapshotStore();
+        Map<String, Object> storeConfig = new HashMap<>();
+        storeConfig.put(LocalDirectorySnapshotStore.DIR, new File(folder.getRoot(), "snapshots").getAbsolutePath());
+        store.prepare(Collections.<String, Object>emptyMap(), "test", storeConfig);
+        RocksDbSnapshotter snapshotter = new RocksDbSnapshotter("test", dbDir, store, 1);
+        RocksDbInstances.close(dbDir);
+        keyValueState = newState(snapshotter);
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        snapshotter.awaitUpload();
+        keyValueState.put("c", "3");
+        keyValueState.prepareCommit(2);
+        keyValueState.commit(2);
+        snapshotter.awaitUpload();
+
+        // the task moves to a host without the database
+        RocksDbInstances.close(dbDir);
+        FileUtils.deleteDirectory(dbDir);
+        snapshotter = new RocksDbSnapshotter("test", dbDir, store, 1);
+        snapshotter.restoreIfStale();
+        keyValueState = newState(snapshotter);
+        assertArrayEquals(new String[]{"1", "2", "3"}, getValues());
+        // the committed txid was restored as well
+        keyValueState.put("d", "4");
+        keyValueState.prepareCommit(3);
+        keyValueState.commit(3);
+        assertEquals("4", keyValueState.get("d"));
+        // don't let the upload of txid 3 outlive the temporary folder
+        snapshotter.awaitUpload();
+    }
+
+    @Test
+    public void testRestoreOverStaleDatabase() throws Exception {
+        LocalDirectorySnapshotStore store = new LocalDirectorySnapshotStore();
+        Map<String, Object> storeConfig = new HashMap<>();
+        storeConfig.put(LocalDirectorySnapshotStore.DIR, new File(folder.getRoot(), "snapshots").getAbsolutePath());
+        store.prepare(Collections.<String, Object>emptyMap(), "test", storeConfig);
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        // the task runs on another host for a while, which uploads a snapshot of a later txid
+        RocksDbInstances.close(dbDir);
+        File staleDir = new File(folder.getRoot(), "stale");
+        FileUtils.copyDirectory(dbDir, staleDir);
+        RocksDbSnapshotter snapshotter = new RocksDbSnapshotter("test", dbDir, store, 1);
+        keyValueState = newState(snapshotter);
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(2);
+        keyValueState.commit(2);
+        snapshotter.awaitUpload();
+
+        // and moves back to the host that still has the old database
+        RocksDbInstances.close(dbDir);
+        FileUtils.deleteDirectory(dbDir);
+        FileUtils.moveDirectory(staleDir, dbDir);
+        snapshotter = new RocksDbSnapshotter("test", dbDir, store, 1);
+        snapshotter.restoreIfStale();
+        keyValueState = newState(snapshotter);
+        assertArrayEquals(new String[]{"1", "2", null}, getValues());
+    }
+
+    @Test
+    public void testKeepUpToDateDatabase() throws Exception {
+        LocalDirectorySnapshotStore store = new LocalDirectorySnapshotStore();
+        Map<String, Object> storeConfig = new HashMap<>();
+        storeConfig.put(LocalDirectorySnapshotStore.DIR, new File(folder.getRoot(), "snapshots").getAbsolutePath());
+        store.prepare(Collections.<String, Object>emptyMap(), "test", storeConfig);
+        RocksDbSnapshotter snapshotter = new RocksDbSnapshotter("test", dbDir, store, 2);
+        RocksDbInstances.close(dbDir);
+        keyValueState = newState(snapshotter);
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("b", "2");
+        keyValueState.prepareCommit(2);
+        keyValueState.commit(2);
+        snapshotter.awaitUpload();
+        // committed after the latest snapshot, only in the local database
+        keyValueState.put("c", "3");
+        keyValueState.prepareCommit(3);
+        keyValueState.commit(3);
+
+        RocksDbInstances.close(dbDir);
+        snapshotter = new RocksDbSnapshotter("test", dbDir, store, 2);
+        snapshotter.restoreIfStale();
+        keyValueState = newState(snapshotter);
+        assertArrayEquals(new String[]{"1", "2", "3"}, getValues());
+    }
+
+    private String[] getValues() {
+        return new String[]{
+            keyValueState.get("a"),
+            keyValueState.get("b"),
+            keyValueState.get("c")
+        };
+    }
+}
@@ -246,6 +246,31 @@ public class Config extends HashMap<String, Object> {
     @isPositiveNumber
     public static final String TOPOLOGY_STATE_CHECKPOINT_INTERVAL = "topology.state.checkpoint.interval.ms";
 
+    /**
+     * Whether {@link org.apache.storm.topology.IStatefulBolt} bolts write their checkpoints in the background. When
+     * enabled and the state implements {@link org.apache.storm.state.AsyncCheckpointState}, the bolt keeps processing
+     * tuples while a prepared or committed checkpoint is written to the state store, and the checkpoint tuple is acked
+     * once the write completes. Other states are still checkpointed synchronously. This can be overridden at the
+     * component level.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_STATE_CHECKPOINT_ASYNC = "topology.state.checkpoint.async";
+
+    /**
+     * The class name of the {@link org.apache.storm.state.StateProvider} whose key value states are wrapped by
+     * {@link org.apache.storm.state.CachingKeyValueStateProvider}. Required when that provider is used, the
+     * {@link #TOPOLOGY_STATE_PROVIDER_CONFIG} is passed on to it unchanged.
+     */
+    @isString
+    public static final String TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER = "topology.state.cache.delegate.provider";
+
+    /**
+     * The maximum number of values a {@link org.apache.storm.state.CachingKeyValueState} keeps in its read cache.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_STATE_CACHE_SIZE = "topology.state.cache.size";
+
     /**
      * A per topology config that specifies the maximum amount of memory a worker can use for that specific topology
      */
@@ -342,6 +367,25 @@ public class Config extends HashMap<String, Object> {
     @isListEntryCustom(entryValidatorClasses={MetricRegistryValidator.class})
     public static final String TOPOLOGY_METRICS_CONSUMER_REGISTER = "topology.metrics.consumer.register";
 
+    /**
+     * A list of metrics reporters for the dimensional worker metrics (see {@link org.apache.storm.metrics2}).
+     * Each entry is a map with a "class" key naming an implementation of
+     * {@link org.apache.storm.metrics2.reporters.StormReporter}; the whole map is passed to the reporter, so
+     * reporter specific settings like "report.period" go next to it. Reporters run in every worker on their own
+     * threads, so unlike the metrics consumers they do not add any tuples to the topology.
+     */
+    @isListEntryCustom(entryValidatorClasses={MetricReportersValidator.class})
+    public static final String TOPOLOGY_METRICS_REPORTERS = "topology.metrics.reporters";
+
+    /**
+     * Whether the built-in task stats (emitted, transferred, acked, failed, executed and latencies) are also
+     * published per task and stream to the dimensional worker metrics. They are only of use to the reporters in
+     * {@link #TOPOLOGY_METRICS_REPORTERS}, as the UI reads the executor stats, so this is off by default to keep
+     * the tuple path free of the extra updates.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_METRICS_TASK_STATS_ENABLE = "topology.metrics.task.stats.enable";
+
     /**
      * A map of metric name to class name implementing IMetric that will be created once per worker JVM
      */
@@ -406,6 +450,32 @@ public class Config extends HashMap<String, Object> {
     @isPositiveNumber
     public static final String TOPOLOGY_STATS_SAMPLE_RATE="topology.stats.sample.rate";
 
+    /**
+     * Whether to trace a sample of tuples through the topology, see {@link org.apache.storm.tracing.Tracer}.
+     * Every worker of the topology must agree on this setting because it changes how tuples are serialized.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_TRACING_ENABLE = "topology.tracing.enable";
+
+    /**
+     * The fraction of spout tuples that start a new trace when tracing is enabled.
+     */
+    @isPositiveNumber
+    public static final String TOPOLOGY_TRACING_SAMPLE_RATE = "topology.tracing.sample.rate";
+
+    /**
+     * The {@link org.apache.storm.tracing.ITraceSink} the spans of each worker are exported to.
+     */
+    @isString
+    public static final String TOPOLOGY_TRACING_SINK = "topology.tracing.sink";
+
+    /**
+     * How many finished spans a worker buffers for its trace sink. Spans are dropped, not waited for, when it is full.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_TRACING_BUFFER_SIZE = "topology.tracing.buffer.size";
+
     /**
      * The time period that builtin metrics data in bucketed into.
      */
@@ -497,6 +567,14 @@ public class Config extends HashMap<String, Object> {
     @isPositiveNumber
     public static final String TOPOLOGY_BOLTS_SLIDING_INTERVAL_DURATION_MS = "topology.bolts.window.sliding.interval.duration.ms";
 
+    /*
+     * Bolt-specific configuration for windowed bolts to use per key session windows that end after this many
+     * milliseconds without a tuple for the key, instead of sliding or tumbling windows.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_BOLTS_SESSION_GAP_DURATION_MS = "topology.bolts.window.session.gap.duration.ms";
+
     /**
      * Bolt-specific configuration for windowed bolts to specify the name of the stream on which late tuples are
      * going to be emitted. This configuration should only be used from the BaseWindowedBolt.withLateTupleStream builder
@@ -523,6 +601,60 @@ public class Config extends HashMap<String, Object> {
     @isPositiveNumber
     public static final String TOPOLOGY_BOLTS_WATERMARK_EVENT_INTERVAL_MS = "topology.bolts.watermark.event.interval.ms";
 
+    /**
+     * Bolt-specific configuration for windowed bolts to track the tuple timestamps per input partition (source task
+     * of each input stream) and leave a partition out of the watermark once it has not received a tuple for this
+     * many milliseconds. This config is effective only if {@link org.apache.storm.windowing.TimestampExtractor} is specified.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_BOLTS_WATERMARK_IDLE_TIMEOUT_MS = "topology.bolts.watermark.idle.timeout.ms";
+
+    /**
+     * Bolt-specific configuration for windowed bolts to advance the watermark as soon as the tuple timestamps allow
+     * it, instead of only every {@link #TOPOLOGY_BOLTS_WATERMARK_EVENT_INTERVAL_MS}.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_BOLTS_WATERMARK_PUNCTUATED = "topology.bolts.watermark.punctuated";
+
+    /**
+     * Bolt-specific configuration for windowed bolts to forward their watermarks to the downstream windowed bolts on
+     * the {@link org.apache.storm.topology.WindowedBoltExecutor#WATERMARK_STREAM_ID} stream. This configuration should
+     * only be used from the BaseWindowedBolt.withWatermarkStream builder method.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_BOLTS_WATERMARK_FORWARD = "topology.bolts.watermark.forward";
+
+    /**
+     * Bolt-specific configuration for windowed bolts to page the tuples of large windows out to local disk instead of
+     * keeping them all on the heap. Tuples are acked as soon as they are added to the window when this is enabled.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_BOLTS_WINDOW_SPILL_ENABLE = "topology.bolts.window.spill.enable";
+
+    /**
+     * Bolt-specific configuration for windowed bolts that spill to disk, the number of tuples per window segment.
+     * Segments are the unit in which tuples are written to and expired from disk.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_BOLTS_WINDOW_SPILL_SEGMENT_EVENTS = "topology.bolts.window.spill.segment.events";
+
+    /**
+     * Bolt-specific configuration for windowed bolts that spill to disk, the number of most recent window segments
+     * that are kept on the heap.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_BOLTS_WINDOW_SPILL_MEMORY_SEGMENTS = "topology.bolts.window.spill.memory.segments";
+
+    /**
+     * Bolt-specific configuration for windowed bolts that spill to disk, the local directory the window segments are
+     * written to. Defaults to the java temp directory.
+     */
+    @isString
+    public static final String TOPOLOGY_BOLTS_WINDOW_SPILL_DIR = "topology.bolts.window.spill.dir";
+
     /*
      * Bolt-specific configuration for windowed bolts to specify the name of the field in the tuple that holds
      * the message id. This is used to track the windowing boundaries and avoid re-evaluating the windows
@@ -611,6 +743,76 @@ public class Config extends HashMap<String, Object> {
     @isPositiveNumber
     public static final String TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS="topology.trident.batch.emit.interval.millis";
 
+    /**
+     * If true, a Trident batch that is emitted once every earlier batch has been committed is committed as part of
+     * processing it, saving the separate round trip through the master batch coordinator on the commit stream.
+     * Later batches that are already in flight still wait for the commit stream, so commits stay ordered by txid.
+     * Ignored for topologies with an ICommitterTridentSpout other than the opaque partitioned spouts.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_TRIDENT_INLINE_COMMIT = "topology.trident.inline.commit";
+
+    /**
+     * The end-to-end latency, from a batch being started until it is committed, that Trident aims for when sizing
+     * batches. When set, the master batch coordinator adapts the batch size hint it sends to the spouts and the
+     * interval between batches to the observed batch latency, see {@link #TOPOLOGY_TRIDENT_BATCH_SIZE_HINT_MIN} and
+     * {@link #TOPOLOGY_TRIDENT_BATCH_SIZE_HINT_MAX}. 0 disables the adaptive sizing and batches are emitted every
+     * {@link #TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS} with whatever size the spouts are configured for.
+     */
+    @isInteger
+    @isPositiveNumber(includeZero = true)
+    public static final String TOPOLOGY_TRIDENT_BATCH_LATENCY_TARGET_MILLIS = "topology.trident.batch.latency.target.millis";
+
+    /**
+     * The smallest batch size hint the adaptive batch sizing sends to the spouts, in tuples per emitter and partition.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_TRIDENT_BATCH_SIZE_HINT_MIN = "topology.trident.batch.size.hint.min";
+
+    /**
+     * The largest batch size hint the adaptive batch sizing sends to the spouts, in tuples per emitter and partition.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_TRIDENT_BATCH_SIZE_HINT_MAX = "topology.trident.batch.size.hint.max";
+
+    /**
+     * The maximum number of distinct groups a map-side partial aggregation (the local stage of a grouped aggregate
+     * made only of combiners) holds per batch before it emits its partial results early and starts over. Keeps the
+     * memory of a batch with many distinct keys bounded; the global stage still merges the partials correctly.
+     * 0 means no limit.
+     */
+    @isInteger
+    @isPositiveNumber(includeZero = true)
+    public static final String TOPOLOGY_TRIDENT_PARTIAL_AGGREGATION_MAX_GROUPS = "topology.trident.partial.aggregation.max.groups";
+
+    /**
+     * The class of the {@link org.apache.storm.trident.topology.state.TransactionalStateStore} that keeps the
+     * per batch metadata of Trident coordinators and spouts. Defaults to ZooKeeper; use
+     * {@link org.apache.storm.trident.topology.state.LogTransactionalStateStore} to keep it in append only logs on a
+     * file system instead.
+     */
+    @isString
+    public static final String TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE = "topology.trident.transactional.state.store";
+
+    /**
+     * The directory {@link org.apache.storm.trident.topology.state.LogTransactionalStateStore} keeps its logs in. In a
+     * distributed cluster it has to be shared by all the supervisors. If null, a directory under storm.local.dir is
+     * used, which only works in local mode and on a single host.
+     */
+    @isString
+    public static final String TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_DIR = "topology.trident.transactional.state.log.dir";
+
+    /**
+     * The number of records a log of {@link org.apache.storm.trident.topology.state.LogTransactionalStateStore} may
+     * grow to before it is compacted, as long as it also holds more than twice as many records as live entries.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_COMPACT_RECORDS =
+        "topology.trident.transactional.state.log.compact.records";
+
     /**
      * Maximum number of tuples that can be stored inmemory cache in windowing operators for fast access without fetching
      * them from store.
@@ -1497,6 +1699,43 @@ public class Config extends HashMap<String, Object> {
     @isPositiveNumber
     public static final String TASK_HEARTBEAT_FREQUENCY_SECS = "task.heartbeat.frequency.secs";
 
+    /**
+     * Whether workers should write their executor heartbeats in the compact binary format of
+     * {@link org.apache.storm.cluster.WorkerHeartbeatCodec} instead of the meta serialization delegate.
+     * Only enable this once nimbus and pacemaker have been upgraded to a version that can read it.
+     */
+    @isBoolean
+    public static final String TASK_HEARTBEAT_COMPACT = "task.heartbeat.compact";
+
+    /**
+     * Whether workers run the always-on sampling profiler, see {@link org.apache.storm.profiling.SamplingProfiler}.
+     * The flame graph data it produces can be fetched from the logviewer.
+     */
+    @isBoolean
+    public static final String TOPOLOGY_WORKER_PROFILER_ENABLE = "topology.worker.profiler.enable";
+
+    /**
+     * How often the worker profiler samples the stacks of all threads. Every sample walks the stack of every thread
+     * in the worker, so short intervals cost noticeable cpu on workers with many executors.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_WORKER_PROFILER_SAMPLE_INTERVAL_MS = "topology.worker.profiler.sample.interval.ms";
+
+    /**
+     * The length of the rolling window the worker profiler reports. The data is refreshed every fifth of the window.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_WORKER_PROFILER_WINDOW_SECS = "topology.worker.profiler.window.secs";
+
+    /**
+     * How many frames of each stack the worker profiler keeps.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String TOPOLOGY_WORKER_PROFILER_MAX_STACK_DEPTH = "topology.worker.profiler.max.stack.depth";
+
     /**
      * How often a task should sync its connections with other tasks (if a task is
      * reassigned, the other tasks sending messages to it need to refresh their connections).
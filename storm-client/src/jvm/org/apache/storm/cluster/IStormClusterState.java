@@ -95,6 +95,16 @@ public interface IStormClusterState {
 
     public void workerHeartbeat(String stormId, String node, Long port, ClusterWorkerHeartbeat info);
 
+    /**
+     * Write a worker heartbeat that has already been serialized, either by the meta serialization delegate
+     * or by {@link WorkerHeartbeatCodec}. Implementations should override this to write the bytes as they are,
+     * the default decodes them again and writes the heartbeat through
+     * {@link #workerHeartbeat(String, String, Long, ClusterWorkerHeartbeat)}.
+     */
+    default void workerHeartbeat(String stormId, String node, Long port, byte[] serializedInfo) {
+        workerHeartbeat(stormId, node, port, WorkerHeartbeatCodec.deserialize(serializedInfo));
+    }
+
     public void removeWorkerHeartbeat(String stormId, String node, Long port);
 
     public void supervisorHeartbeat(String supervisorId, SupervisorInfo info);
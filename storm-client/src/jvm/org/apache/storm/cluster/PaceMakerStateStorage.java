@@ -155,9 +155,9 @@ public class PaceMakerStateStorage implements IStateStorage {
                     if(details == null) {
                         continue;
                     }
-                    ClusterWorkerHeartbeat cwh = Utils.deserialize(details, ClusterWorkerHeartbeat.class);
-                    if(cwh != null && cwh.get_time_secs() > latest_time_secs) {
-                        latest_time_secs = cwh.get_time_secs();
+                    int time_secs = WorkerHeartbeatCodec.timeSecs(details);
+                    if(time_secs > latest_time_secs) {
+                        latest_time_secs = time_secs;
                         ret = details;
                     }
                 }
@@ -245,7 +245,7 @@ public class StormClusterStateImpl implements IStormClusterState {
     @Override
     public ClusterWorkerHeartbeat getWorkerHeartbeat(String stormId, String node, Long port) {
         byte[] bytes = stateStorage.get_worker_hb(ClusterUtils.workerbeatPath(stormId, node, port), false);
-        return ClusterUtils.maybeDeserialize(bytes, ClusterWorkerHeartbeat.class);
+        return WorkerHeartbeatCodec.deserialize(bytes);
 
     }
 
@@ -405,8 +405,15 @@ public class StormClusterStateImpl implements IStormClusterState {
     @Override
     public void workerHeartbeat(String stormId, String node, Long port, ClusterWorkerHeartbeat info) {
         if (info != null) {
+            workerHeartbeat(stormId, node, port, Utils.serialize(info));
+        }
+    }
+
+    @Override
+    public void workerHeartbeat(String stormId, String node, Long port, byte[] serializedInfo) {
+        if (serializedInfo != null) {
             String path = ClusterUtils.workerbeatPath(stormId, node, port);
-            stateStorage.set_worker_hb(path, Utils.serialize(info), acls);
+            stateStorage.set_worker_hb(path, serializedInfo, acls);
         }
     }
 
@@ -0,0 +1,456 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.storm.generated.BoltStats;
+import org.apache.storm.generated.ClusterWorkerHeartbeat;
+import org.apache.storm.generated.ExecutorInfo;
+import org.apache.storm.generated.ExecutorSpecificStats;
+import org.apache.storm.generated.ExecutorStats;
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.generated.SpoutStats;
+import org.apache.storm.utils.Utils;
+
+/**
+ * A compact binary encoding of {@link ClusterWorkerHeartbeat}, used instead of the meta serialization delegate when
+ * {@link org.apache.storm.Config#TASK_HEARTBEAT_COMPACT} is set.
+ *
+ * <p>Window, component and stream ids are written once into a string table and referenced by index afterwards, and
+ * all integers are written as varints. Everything but a small header with the topology id and times is gzipped.
+ * Windows of a stat are written from the shortest to the longest, and each counter is encoded as the difference to the
+ * same key in the previous window, which keeps the numbers small because the windows are nested. Every payload is
+ * self-contained, as ZooKeeper and Pacemaker only keep the latest write of a worker and a reader may skip any number
+ * of writes.
+ *
+ * <p>Payloads start with a magic header that can not start a serialized thrift struct or a gzip stream, so
+ * {@link #deserialize(byte[])} reads both this and the regular format.
+ */
+public class WorkerHeartbeatCodec {
+    private static final byte MAGIC_0 = 'S';
+    private static final byte MAGIC_1 = 'H';
+    private static final byte VERSION = 1;
+
+    private static final int TYPE_NONE = 0;
+    private static final int TYPE_BOLT = 1;
+    private static final int TYPE_SPOUT = 2;
+
+    private static final Comparator<String> WINDOW_ORDER = Comparator.comparingLong(WorkerHeartbeatCodec::windowLength);
+
+    /**
+     * Encode a heartbeat in the compact format.
+     */
+    public static byte[] serialize(ClusterWorkerHeartbeat heartbeat) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC_0);
+            out.writeByte(MAGIC_1);
+            out.writeByte(VERSION);
+            writeString(out, heartbeat.get_storm_id());
+            writeVarInt(out, heartbeat.get_time_secs());
+            writeVarInt(out, heartbeat.get_uptime_secs());
+            out.flush();
+
+            StringTable strings = new StringTable();
+            ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bodyBytes);
+            Map<ExecutorInfo, ExecutorStats> executorStats = heartbeat.get_executor_stats();
+            writeVarInt(body, executorStats.size());
+            for (Map.Entry<ExecutorInfo, ExecutorStats> entry : executorStats.entrySet()) {
+                ExecutorInfo info = entry.getKey();
+                ExecutorStats stats = entry.getValue();
+                writeVarInt(body, info.get_task_start());
+                writeVarInt(body, info.get_task_end() - info.get_task_start());
+                body.writeDouble(stats.get_rate());
+                writeStreamCounts(body, strings, stats.get_emitted());
+                writeStreamCounts(body, strings, stats.get_transferred());
+                ExecutorSpecificStats specific = stats.get_specific();
+                if (specific != null && specific.is_set_bolt()) {
+                    BoltStats bolt = specific.get_bolt();
+                    body.writeByte(TYPE_BOLT);
+                    writeGlobalStreamCounts(body, strings, bolt.get_acked());
+                    writeGlobalStreamCounts(body, strings, bolt.get_failed());
+                    writeGlobalStreamAvgs(body, strings, bolt.get_process_ms_avg());
+                    writeGlobalStreamCounts(body, strings, bolt.get_executed());
+                    writeGlobalStreamAvgs(body, strings, bolt.get_execute_ms_avg());
+                } else if (specific != null && specific.is_set_spout()) {
+                    SpoutStats spout = specific.get_spout();
+                    body.writeByte(TYPE_SPOUT);
+                    writeStreamCounts(body, strings, spout.get_acked());
+                    writeStreamCounts(body, strings, spout.get_failed());
+                    writeStreamAvgs(body, strings, spout.get_complete_ms_avg());
+                } else {
+                    body.writeByte(TYPE_NONE);
+                }
+            }
+            body.flush();
+
+            DataOutputStream compressed = new DataOutputStream(new GZIPOutputStream(bytes));
+            writeVarInt(compressed, strings.values.size());
+            for (String s : strings.values) {
+                writeString(compressed, s);
+            }
+            bodyBytes.writeTo(compressed);
+            compressed.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decode a heartbeat written either by {@link #serialize(ClusterWorkerHeartbeat)} or by the meta serialization
+     * delegate.
+     *
+     * @param serialized the stored heartbeat, may be null
+     * @return the heartbeat or null if serialized was null
+     */
+    public static ClusterWorkerHeartbeat deserialize(byte[] serialized) {
+        if (serialized == null) {
+            return null;
+        }
+        if (!isCompact(serialized)) {
+            return Utils.deserialize(serialized, ClusterWorkerHeartbeat.class);
+        }
+        try {
+            ByteArrayInputStream bytes = new ByteArrayInputStream(serialized, 3, serialized.length - 3);
+            DataInputStream header = new DataInputStream(bytes);
+            ClusterWorkerHeartbeat ret = new ClusterWorkerHeartbeat();
+            ret.set_storm_id(readString(header));
+            ret.set_time_secs(readVarInt(header));
+            ret.set_uptime_secs(readVarInt(header));
+
+            DataInputStream in = new DataInputStream(new GZIPInputStream(bytes));
+
+            int numStrings = readVarInt(in);
+            String[] strings = new String[numStrings];
+            for (int i = 0; i < numStrings; i++) {
+                strings[i] = readString(in);
+            }
+
+            int numExecutors = readVarInt(in);
+            Map<ExecutorInfo, ExecutorStats> executorStats = new HashMap<>();
+            for (int i = 0; i < numExecutors; i++) {
+                int start = readVarInt(in);
+                ExecutorInfo info = new ExecutorInfo(start, start + readVarInt(in));
+                ExecutorStats stats = new ExecutorStats();
+                stats.set_rate(in.readDouble());
+                stats.set_emitted(readStreamCounts(in, strings));
+                stats.set_transferred(readStreamCounts(in, strings));
+                int type = in.readByte();
+                if (type == TYPE_BOLT) {
+                    BoltStats bolt = new BoltStats();
+                    bolt.set_acked(readGlobalStreamCounts(in, strings));
+                    bolt.set_failed(readGlobalStreamCounts(in, strings));
+                    bolt.set_process_ms_avg(readGlobalStreamAvgs(in, strings));
+                    bolt.set_executed(readGlobalStreamCounts(in, strings));
+                    bolt.set_execute_ms_avg(readGlobalStreamAvgs(in, strings));
+                    stats.set_specific(ExecutorSpecificStats.bolt(bolt));
+                } else if (type == TYPE_SPOUT) {
+                    SpoutStats spout = new SpoutStats();
+                    spout.set_acked(readStreamCounts(in, strings));
+                    spout.set_failed(readStreamCounts(in, strings));
+                    spout.set_complete_ms_avg(readStreamAvgs(in, strings));
+                    stats.set_specific(ExecutorSpecificStats.spout(spout));
+                }
+                executorStats.put(info, stats);
+            }
+            ret.set_executor_stats(executorStats);
+            return ret;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read only the time the heartbeat was written at. This does not decode the executor stats of compact heartbeats.
+     *
+     * @param serialized the stored heartbeat, must not be null
+     * @return the time_secs of the heartbeat
+     */
+    public static int timeSecs(byte[] serialized) {
+        if (!isCompact(serialized)) {
+            return Utils.deserialize(serialized, ClusterWorkerHeartbeat.class).get_time_secs();
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized, 3, serialized.length - 3));
+            in.skipBytes(readVarInt(in));
+            return readVarInt(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Check if the bytes were written by {@link #serialize(ClusterWorkerHeartbeat)}.
+     */
+    public static boolean isCompact(byte[] serialized) {
+        return serialized != null && serialized.length >= 3
+            && serialized[0] == MAGIC_0 && serialized[1] == MAGIC_1 && serialized[2] == VERSION;
+    }
+
+    private static long windowLength(String window) {
+        try {
+            return Long.parseLong(window);
+        } catch (NumberFormatException e) {
+            // ":all-time"
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static List<String> sortedWindows(Map<String, ?> stats) {
+        List<String> windows = new ArrayList<>(stats.keySet());
+        windows.sort(WINDOW_ORDER);
+        return windows;
+    }
+
+    private static void writeStreamCounts(DataOutputStream out, StringTable strings,
+                                          Map<String, Map<String, Long>> stats) throws IOException {
+        if (stats == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, stats.size());
+        Map<String, Long> previous = new HashMap<>();
+        for (String window : sortedWindows(stats)) {
+            Map<String, Long> counts = stats.get(window);
+            writeVarInt(out, strings.index(window));
+            writeVarInt(out, counts.size());
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                long value = entry.getValue();
+                Long prev = previous.put(entry.getKey(), value);
+                writeVarInt(out, strings.index(entry.getKey()));
+                writeVarLong(out, value - (prev == null ? 0 : prev));
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Long>> readStreamCounts(DataInputStream in, String[] strings)
+        throws IOException {
+        int numWindows = readVarInt(in);
+        Map<String, Map<String, Long>> ret = new HashMap<>();
+        Map<String, Long> previous = new HashMap<>();
+        for (int i = 0; i < numWindows; i++) {
+            String window = strings[readVarInt(in)];
+            int size = readVarInt(in);
+            Map<String, Long> counts = new HashMap<>();
+            for (int j = 0; j < size; j++) {
+                String key = strings[readVarInt(in)];
+                Long prev = previous.get(key);
+                long value = readVarLong(in) + (prev == null ? 0 : prev);
+                previous.put(key, value);
+                counts.put(key, value);
+            }
+            ret.put(window, counts);
+        }
+        return ret;
+    }
+
+    private static void writeStreamAvgs(DataOutputStream out, StringTable strings,
+                                        Map<String, Map<String, Double>> stats) throws IOException {
+        if (stats == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, stats.size());
+        for (Map.Entry<String, Map<String, Double>> windowEntry : stats.entrySet()) {
+            writeVarInt(out, strings.index(windowEntry.getKey()));
+            writeVarInt(out, windowEntry.getValue().size());
+            for (Map.Entry<String, Double> entry : windowEntry.getValue().entrySet()) {
+                writeVarInt(out, strings.index(entry.getKey()));
+                out.writeDouble(entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Map<String, Double>> readStreamAvgs(DataInputStream in, String[] strings)
+        throws IOException {
+        int numWindows = readVarInt(in);
+        Map<String, Map<String, Double>> ret = new HashMap<>();
+        for (int i = 0; i < numWindows; i++) {
+            String window = strings[readVarInt(in)];
+            int size = readVarInt(in);
+            Map<String, Double> avgs = new HashMap<>();
+            for (int j = 0; j < size; j++) {
+                avgs.put(strings[readVarInt(in)], in.readDouble());
+            }
+            ret.put(window, avgs);
+        }
+        return ret;
+    }
+
+    private static void writeGlobalStreamCounts(DataOutputStream out, StringTable strings,
+                                                Map<String, Map<GlobalStreamId, Long>> stats) throws IOException {
+        if (stats == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, stats.size());
+        Map<GlobalStreamId, Long> previous = new HashMap<>();
+        for (String window : sortedWindows(stats)) {
+            Map<GlobalStreamId, Long> counts = stats.get(window);
+            writeVarInt(out, strings.index(window));
+            writeVarInt(out, counts.size());
+            for (Map.Entry<GlobalStreamId, Long> entry : counts.entrySet()) {
+                long value = entry.getValue();
+                Long prev = previous.put(entry.getKey(), value);
+                writeGlobalStreamId(out, strings, entry.getKey());
+                writeVarLong(out, value - (prev == null ? 0 : prev));
+            }
+        }
+    }
+
+    private static Map<String, Map<GlobalStreamId, Long>> readGlobalStreamCounts(DataInputStream in, String[] strings)
+        throws IOException {
+        int numWindows = readVarInt(in);
+        Map<String, Map<GlobalStreamId, Long>> ret = new HashMap<>();
+        Map<GlobalStreamId, Long> previous = new HashMap<>();
+        for (int i = 0; i < numWindows; i++) {
+            String window = strings[readVarInt(in)];
+            int size = readVarInt(in);
+            Map<GlobalStreamId, Long> counts = new HashMap<>();
+            for (int j = 0; j < size; j++) {
+                GlobalStreamId key = readGlobalStreamId(in, strings);
+                Long prev = previous.get(key);
+                long value = readVarLong(in) + (prev == null ? 0 : prev);
+                previous.put(key, value);
+                counts.put(key, value);
+            }
+            ret.put(window, counts);
+        }
+        return ret;
+    }
+
+    private static void writeGlobalStreamAvgs(DataOutputStream out, StringTable strings,
+                                              Map<String, Map<GlobalStreamId, Double>> stats) throws IOException {
+        if (stats == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, stats.size());
+        for (Map.Entry<String, Map<GlobalStreamId, Double>> windowEntry : stats.entrySet()) {
+            writeVarInt(out, strings.index(windowEntry.getKey()));
+            writeVarInt(out, windowEntry.getValue().size());
+            for (Map.Entry<GlobalStreamId, Double> entry : windowEntry.getValue().entrySet()) {
+                writeGlobalStreamId(out, strings, entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Map<GlobalStreamId, Double>> readGlobalStreamAvgs(DataInputStream in, String[] strings)
+        throws IOException {
+        int numWindows = readVarInt(in);
+        Map<String, Map<GlobalStreamId, Double>> ret = new HashMap<>();
+        for (int i = 0; i < numWindows; i++) {
+            String window = strings[readVarInt(in)];
+            int size = readVarInt(in);
+            Map<GlobalStreamId, Double> avgs = new HashMap<>();
+            for (int j = 0; j < size; j++) {
+                GlobalStreamId key = readGlobalStreamId(in, strings);
+                avgs.put(key, in.readDouble());
+            }
+            ret.put(window, avgs);
+        }
+        return ret;
+    }
+
+    private static void writeGlobalStreamId(DataOutputStream out, StringTable strings, GlobalStreamId id)
+        throws IOException {
+        writeVarInt(out, strings.index(id.get_componentId()));
+        writeVarInt(out, strings.index(id.get_streamId()));
+    }
+
+    private static GlobalStreamId readGlobalStreamId(DataInputStream in, String[] strings) throws IOException {
+        String componentId = strings[readVarInt(in)];
+        return new GlobalStreamId(componentId, strings[readVarInt(in)]);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    /**
+     * Zig-zag encoded varint, so the occasional negative delta (e.g. after a counter reset) stays small.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int index(String s) {
+            Integer idx = indexes.get(s);
+            if (idx == null) {
+                idx = values.size();
+                indexes.put(s, idx);
+                values.add(s);
+            }
+            return idx;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.storm.grouping.LoadAwareCustomStreamGrouping;
 import org.apache.storm.grouping.LoadMapping;
 import org.apache.storm.hooks.ITaskHook;
 import org.apache.storm.hooks.info.EmitInfo;
+import org.apache.storm.metrics2.TaskMetrics;
 import org.apache.storm.spout.ShellSpout;
 import org.apache.storm.stats.CommonStats;
 import org.apache.storm.task.ShellBolt;
@@ -71,6 +72,7 @@ public class Task {
     private CommonStats executorStats;
     private Map<String, Map<String, LoadAwareCustomStreamGrouping>> streamComponentToGrouper;
     private BuiltinMetrics builtInMetrics;
+    private TaskMetrics taskMetrics;
     private boolean debug;
 
     public Task(Executor executor, Integer taskId) throws IOException {
@@ -82,6 +84,7 @@ public class Task {
         this.streamComponentToGrouper = executor.getStreamToComponentToGrouper();
         this.executorStats = executor.getStats();
         this.builtInMetrics = BuiltinMetricsUtil.mkData(executor.getType(), this.executorStats);
+        this.taskMetrics = new TaskMetrics(workerData.getMetricRegistry(), componentId, taskId, topoConf);
         this.workerTopologyContext = executor.getWorkerTopologyContext();
         this.emitSampler = ConfigUtils.mkStatsSampler(topoConf);
         this.loadMapping = workerData.getLoadMapping();
@@ -109,8 +112,10 @@ public class Task {
         try {
             if (emitSampler.call()) {
                 executorStats.emittedTuple(stream);
+                taskMetrics.emitted(stream);
                 if (null != outTaskId) {
                     executorStats.transferredTuples(stream, 1);
+                    taskMetrics.transferred(stream, 1);
                 }
             }
         } catch (Exception e) {
@@ -146,6 +151,8 @@ public class Task {
             if (emitSampler.call()) {
                 executorStats.emittedTuple(stream);
                 executorStats.transferredTuples(stream, outTasks.size());
+                taskMetrics.emitted(stream);
+                taskMetrics.transferred(stream, outTasks.size());
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -177,6 +184,10 @@ public class Task {
         return builtInMetrics;
     }
 
+    public TaskMetrics getTaskMetrics() {
+        return taskMetrics;
+    }
+
     private TopologyContext mkTopologyContext(StormTopology topology) throws IOException {
         Map<String, Object> conf = workerData.getConf();
         return new TopologyContext(
@@ -197,7 +208,8 @@ public class Task {
             workerData.getUserSharedResources(),
             executor.getSharedExecutorData(),
             executor.getIntervalToTaskToMetricToRegistry(),
-            executor.getOpenOrPrepareWasCalled());
+            executor.getOpenOrPrepareWasCalled(),
+            workerData.getMetricRegistry());
     }
 
     private Object mkTaskObject() {
@@ -43,6 +43,7 @@ import org.apache.storm.cluster.ClusterUtils;
 import org.apache.storm.cluster.DaemonType;
 import org.apache.storm.cluster.IStateStorage;
 import org.apache.storm.cluster.IStormClusterState;
+import org.apache.storm.cluster.WorkerHeartbeatCodec;
 import org.apache.storm.daemon.DaemonCommon;
 import org.apache.storm.daemon.Shutdownable;
 import org.apache.storm.daemon.StormCommon;
@@ -50,6 +51,7 @@ import org.apache.storm.executor.Executor;
 import org.apache.storm.executor.ExecutorShutdown;
 import org.apache.storm.executor.IRunningExecutor;
 import org.apache.storm.executor.LocalExecutor;
+import org.apache.storm.generated.ClusterWorkerHeartbeat;
 import org.apache.storm.generated.Credentials;
 import org.apache.storm.generated.ExecutorInfo;
 import org.apache.storm.generated.ExecutorStats;
@@ -58,6 +60,7 @@ import org.apache.storm.generated.LogConfig;
 import org.apache.storm.messaging.IConnection;
 import org.apache.storm.messaging.IContext;
 import org.apache.storm.messaging.TaskMessage;
+import org.apache.storm.profiling.SamplingProfiler;
 import org.apache.storm.security.auth.AuthUtils;
 import org.apache.storm.security.auth.IAutoCredentials;
 import org.apache.storm.stats.StatsUtil;
@@ -95,6 +98,7 @@ public class Worker implements Shutdownable, DaemonCommon {
     private AtomicReference<List<IRunningExecutor>> executorsAtom;
     private Thread transferThread;
     private WorkerBackpressureThread backpressureThread;
+    private SamplingProfiler profiler;
 
     private AtomicReference<Credentials> credentialsAtom;
     private Subject subject;
@@ -191,6 +195,14 @@ public class Worker implements Shutdownable, DaemonCommon {
 
                 workerState.runWorkerStartHooks();
 
+                workerState.metricRegistry.startReporters(topologyConf);
+                workerState.tracer.start();
+
+                if (SamplingProfiler.isEnabled(topologyConf)) {
+                    profiler = new SamplingProfiler(topologyConf, new File(ConfigUtils.workerArtifactsRoot(conf, topologyId, port)));
+                    profiler.start();
+                }
+
                 List<IRunningExecutor> newExecutors = new ArrayList<IRunningExecutor>();
                 for (List<Long> e : workerState.getExecutors()) {
                     if (ConfigUtils.isLocalMode(topologyConf)) {
@@ -307,9 +319,15 @@ public class Worker implements Shutdownable, DaemonCommon {
         }
         Map<String, Object> zkHB = StatsUtil.mkZkWorkerHb(workerState.topologyId, stats, workerState.uptime.upTime());
         try {
-            workerState.stormClusterState
-                .workerHeartbeat(workerState.topologyId, workerState.assignmentId, (long) workerState.port,
-                    StatsUtil.thriftifyZkWorkerHb(zkHB));
+            ClusterWorkerHeartbeat workerHb = StatsUtil.thriftifyZkWorkerHb(zkHB);
+            if (ObjectReader.getBoolean(workerState.getTopologyConf().get(Config.TASK_HEARTBEAT_COMPACT), false)) {
+                workerState.stormClusterState
+                    .workerHeartbeat(workerState.topologyId, workerState.assignmentId, (long) workerState.port,
+                        WorkerHeartbeatCodec.serialize(workerHb));
+            } else {
+                workerState.stormClusterState
+                    .workerHeartbeat(workerState.topologyId, workerState.assignmentId, (long) workerState.port, workerHb);
+            }
         } catch (Exception ex) {
             LOG.error("Worker failed to write heartbeats to ZK or Pacemaker...will retry", ex);
         }
@@ -462,6 +480,11 @@ public class Worker implements Shutdownable, DaemonCommon {
             workerState.refreshLoadTimer.close();
             workerState.resetLogLevelsTimer.close();
             workerState.closeResources();
+            workerState.metricRegistry.stopReporters();
+            workerState.tracer.stop();
+            if (profiler != null) {
+                profiler.stop();
+            }
 
             LOG.info("Trigger any worker shutdown hooks");
             workerState.runWorkerShutdownHooks();
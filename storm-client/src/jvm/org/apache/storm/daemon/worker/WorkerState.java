@@ -46,8 +46,10 @@ import org.apache.storm.messaging.IConnection;
 import org.apache.storm.messaging.IContext;
 import org.apache.storm.messaging.TaskMessage;
 import org.apache.storm.messaging.TransportFactory;
+import org.apache.storm.metrics2.StormMetricRegistry;
 import org.apache.storm.serialization.KryoTupleSerializer;
 import org.apache.storm.task.WorkerTopologyContext;
+import org.apache.storm.tracing.Tracer;
 import org.apache.storm.tuple.AddressedTuple;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.utils.ConfigUtils;
@@ -166,6 +168,14 @@ public class WorkerState {
         return defaultSharedResources;
     }
 
+    public StormMetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
     public Map<String, Object> getUserSharedResources() {
         return userSharedResources;
     }
@@ -209,6 +219,8 @@ public class WorkerState {
     final Map<String, Object> defaultSharedResources;
     final Map<String, Object> userSharedResources;
     final LoadMapping loadMapping;
+    final StormMetricRegistry metricRegistry;
+    final Tracer tracer;
     final AtomicReference<Map<String, VersionedData<Assignment>>> assignmentVersions;
     // Whether this worker is going slow
     final AtomicBoolean backpressure = new AtomicBoolean(false);
@@ -324,6 +336,8 @@ public class WorkerState {
         this.defaultSharedResources = makeDefaultResources();
         this.userSharedResources = makeUserResources();
         this.loadMapping = new LoadMapping();
+        this.metricRegistry = new StormMetricRegistry(topologyId, Utils.hostname(), port);
+        this.tracer = Tracer.create(topologyConf, topologyId, port);
         this.assignmentVersions = new AtomicReference<>(new HashMap<>());
         this.outboundTasks = workerOutboundTasks();
         this.trySerializeLocal = topologyConf.containsKey(Config.TOPOLOGY_TESTING_ALWAYS_TRY_SERIALIZE)
@@ -17,6 +17,7 @@
  */
 package org.apache.storm.drpc;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -27,6 +28,7 @@ import org.apache.storm.generated.DRPCExecutionException;
 import org.apache.storm.security.auth.ThriftClient;
 import org.apache.storm.security.auth.ThriftConnectionType;
 import org.apache.thrift.transport.TTransportException;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -108,6 +110,50 @@ public class DRPCInvocationsClient extends ThriftClient implements DistributedRP
         }
     }
 
+    /**
+     * Fetch all the requests for a function that are queued on the server, up to a limit set by the server. If there
+     * are none the server may hold the call for a while until one arrives.
+     */
+    @Override
+    public List<DRPCRequest> fetchRequests(String func) throws TException, AuthorizationException {
+        DistributedRPCInvocations.Client c = client.get();
+        try {
+            if (c == null) {
+                throw new TException("Client is not connected...");
+            }
+            return c.fetchRequests(func);
+        } catch(AuthorizationException aze) {
+            throw aze;
+        } catch(TApplicationException ae) {
+            // the server answered, for example that it does not know the method, so the connection is still good
+            throw ae;
+        } catch(TException e) {
+            client.compareAndSet(c, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Return the results of several requests, keyed by request id, in one call.
+     */
+    @Override
+    public void results(Map<String, String> results) throws TException, AuthorizationException {
+        DistributedRPCInvocations.Client c = client.get();
+        try {
+            if (c == null) {
+                throw new TException("Client is not connected...");
+            }
+            c.results(results);
+        } catch(AuthorizationException aze) {
+            throw aze;
+        } catch(TApplicationException ae) {
+            throw ae;
+        } catch(TException e) {
+            client.compareAndSet(c, null);
+            throw e;
+        }
+    }
+
     public DistributedRPCInvocations.Client getClient() {
         return client.get();
     }
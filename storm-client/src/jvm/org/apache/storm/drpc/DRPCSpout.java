@@ -17,6 +17,7 @@
  */
 package org.apache.storm.drpc;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.storm.Config;
 import org.apache.storm.ILocalDRPC;
 import org.apache.storm.generated.DRPCRequest;
@@ -34,22 +35,36 @@ import org.apache.storm.utils.DRPCClient;
 import org.apache.storm.utils.ExtendedThreadPoolExecutor;
 import org.apache.storm.utils.ServiceRegistry;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
 import org.json.simple.JSONValue;
 
+/**
+ * Emits the requests for a DRPC function.
+ *
+ * <p>Requests are fetched in the background, one thread per DRPC server, with the batched {@code fetchRequests} call
+ * which returns every request the server has queued and holds the call for a while when it has none. Against servers
+ * that do not support it yet the spout falls back to fetching one request at a time. Failed requests are reported
+ * over a second connection to each server, so that they do not have to wait for, or interleave with, a held fetch.
+ */
 public class DRPCSpout extends BaseRichSpout {
     //ANY CHANGE TO THIS CODE MUST BE SERIALIZABLE COMPATIBLE OR THERE WILL BE PROBLEMS
     static final long serialVersionUID = 2387848310969237877L;
@@ -58,10 +73,21 @@ public class DRPCSpout extends BaseRichSpout {
     
     SpoutOutputCollector _collector;
     List<DRPCInvocationsClient> _clients = new ArrayList<>();
+    // the connections fail() reports on, one per entry of _clients, as the fetchers hold theirs in long polls
+    transient List<DRPCInvocationsClient> _failClients = null;
     transient LinkedList<Future<Void>> _futures = null;
     transient ExecutorService _backround = null;
+    transient List<Future<Void>> _fetchers = null;
+    transient BlockingQueue<FetchedRequest> _fetched = null;
+    transient volatile boolean _closed = false;
     final String _function;
     final String _local_drpc_id;
+
+    // how many fetched requests may wait to be emitted before the fetchers stop fetching, unless
+    // topology.max.spout.pending is lower
+    private static final int MAX_FETCHED_REQUESTS = 1000;
+    // the longest a fetcher waits before it fetches again after fetches that returned nothing
+    private static final long MAX_EMPTY_FETCH_BACKOFF_MS = 100;
     
     private static class DRPCMessageId {
         String id;
@@ -72,6 +98,20 @@ public class DRPCSpout extends BaseRichSpout {
             this.index = index;
         }
     }
+
+    private static class FetchedRequest {
+        final DRPCRequest request;
+        final String host;
+        final int port;
+        final int index;
+
+        FetchedRequest(DRPCRequest request, String host, int port, int index) {
+            this.request = request;
+            this.host = host;
+            this.port = port;
+            this.index = index;
+        }
+    }
     
     
     public DRPCSpout(String function) {
@@ -105,22 +145,108 @@ public class DRPCSpout extends BaseRichSpout {
 
         @Override
         public Void call() throws Exception {
-            DRPCInvocationsClient c = new DRPCInvocationsClient(conf, server, port);
+            DRPCInvocationsClient c = newClient(conf, server, port);
+            DRPCInvocationsClient failClient = newClient(conf, server, port);
+            int index;
             synchronized (_clients) {
                 _clients.add(c);
+                _failClients.add(failClient);
+                index = _clients.size() - 1;
             }
+            _fetchers.add(_backround.submit(new Fetcher(index)));
             return null;
         }
     }
 
-    private void reconnectAsync(final DRPCInvocationsClient client) {
-        _futures.add(_backround.submit(new Callable<Void>() {
-            @Override
-            public Void call() throws Exception {
-                client.reconnectClient();
-                return null;
+    /*
+     * Keeps fetching the requests of one DRPC server (or of the local DRPC) into _fetched until the spout is closed.
+     */
+    private class Fetcher implements Callable<Void> {
+        private final int index;
+        private boolean batched = true;
+        private int emptyFetches = 0;
+
+        public Fetcher(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            while (!_closed) {
+                List<DRPCRequest> reqs = Collections.emptyList();
+                String host;
+                int port;
+                long start = System.currentTimeMillis();
+                if (_local_drpc_id == null) {
+                    DRPCInvocationsClient client;
+                    synchronized (_clients) {
+                        client = _clients.get(index);
+                    }
+                    host = client.getHost();
+                    port = client.getPort();
+                    if (!client.isConnected()) {
+                        LOG.warn("DRPCInvocationsClient [{}:{}] is not connected.", host, port);
+                        reconnectSync(client);
+                        if (!client.isConnected()) {
+                            Utils.sleep(1000);
+                        }
+                        continue;
+                    }
+                    try {
+                        reqs = fetch(client);
+                    } catch (AuthorizationException aze) {
+                        reconnectSync(client);
+                        LOG.error("Not authorized to fetch DRPC result from DRPC server", aze);
+                    } catch (TException e) {
+                        reconnectSync(client);
+                        LOG.error("Failed to fetch DRPC result from DRPC server", e);
+                    }
+                } else {
+                    host = _local_drpc_id;
+                    port = 0;
+                    DistributedRPCInvocations.Iface drpc = (DistributedRPCInvocations.Iface) ServiceRegistry.getService(_local_drpc_id);
+                    if (drpc != null) { // can happen during shutdown of drpc while topology is still up
+                        reqs = fetch(drpc);
+                    }
+                }
+                if (reqs.isEmpty() && System.currentTimeMillis() - start < MAX_EMPTY_FETCH_BACKOFF_MS) {
+                    // the fetch returned right away, as it does in local mode, against servers that cannot hold
+                    // fetches and when the server has too many waiting already, so back off instead of polling
+                    Utils.sleep(Math.min(MAX_EMPTY_FETCH_BACKOFF_MS, 1L << Math.min(emptyFetches, 16)));
+                    emptyFetches++;
+                } else {
+                    emptyFetches = 0;
+                }
+                for (DRPCRequest req : reqs) {
+                    _fetched.put(new FetchedRequest(req, host, port, index));
+                }
+            }
+            return null;
+        }
+
+        private List<DRPCRequest> fetch(DistributedRPCInvocations.Iface client) throws TException {
+            if (batched) {
+                try {
+                    return client.fetchRequests(_function);
+                } catch (TApplicationException e) {
+                    if (e.getType() != TApplicationException.UNKNOWN_METHOD) {
+                        throw e;
+                    }
+                    LOG.info("DRPC server does not support fetching requests in batches, fetching them one at a time");
+                    batched = false;
+                }
+            }
+            DRPCRequest req = client.fetchRequest(_function);
+            if (req.get_request_id().length() > 0) {
+                return Collections.singletonList(req);
             }
-        }));
+            return Collections.emptyList();
+        }
+    }
+
+    @VisibleForTesting
+    DRPCInvocationsClient newClient(Map<String, Object> conf, String host, int port) throws TTransportException {
+        return new DRPCInvocationsClient(conf, host, port);
     }
 
     private void reconnectSync(DRPCInvocationsClient client) {
@@ -145,17 +271,35 @@ public class DRPCSpout extends BaseRichSpout {
                 throw new RuntimeException(e);
             }
         }
+        for (Future<Void> f : _fetchers) {
+            if (f.isDone()) {
+                try {
+                    f.get();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
     }
  
     @Override
     public void open(Map<String, Object> conf, TopologyContext context, SpoutOutputCollector collector) {
         _collector = collector;
+        _backround = new ExtendedThreadPoolExecutor(0, Integer.MAX_VALUE,
+            60L, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>());
+        _futures = new LinkedList<>();
+        _fetchers = new CopyOnWriteArrayList<>();
+        _failClients = new ArrayList<>();
+        // the executor stops calling nextTuple once max spout pending tuples are in flight, so fetching more than
+        // that ahead would only leave requests waiting here while they time out on the server
+        int maxFetched = MAX_FETCHED_REQUESTS;
+        Number maxPending = (Number) conf.get(Config.TOPOLOGY_MAX_SPOUT_PENDING);
+        if (maxPending != null && maxPending.intValue() > 0) {
+            maxFetched = Math.min(maxFetched, maxPending.intValue());
+        }
+        _fetched = new LinkedBlockingQueue<>(maxFetched);
         if(_local_drpc_id==null) {
-            _backround = new ExtendedThreadPoolExecutor(0, Integer.MAX_VALUE,
-                60L, TimeUnit.SECONDS,
-                new SynchronousQueue<Runnable>());
-            _futures = new LinkedList<>();
-
             int numTasks = context.getComponentTasks(context.getThisComponentId()).size();
             int index = context.getThisTaskIndex();
 
@@ -173,80 +317,47 @@ public class DRPCSpout extends BaseRichSpout {
                 int i = index % servers.size();
                 _futures.add(_backround.submit(new Adder(servers.get(i), port, conf)));
             }
+        } else {
+            _fetchers.add(_backround.submit(new Fetcher(0)));
         }
-        
     }
 
     @Override
     public void close() {
-        for(DRPCInvocationsClient client: _clients) {
-            client.close();
+        _closed = true;
+        if (_backround != null) {
+            _backround.shutdownNow();
+        }
+        synchronized (_clients) {
+            for (DRPCInvocationsClient client : _clients) {
+                client.close();
+            }
+            if (_failClients != null) {
+                for (DRPCInvocationsClient client : _failClients) {
+                    client.close();
+                }
+            }
         }
     }
 
     @Override
     public void nextTuple() {
-        boolean gotRequest = false;
-        if(_local_drpc_id==null) {
-            int size = 0;
-            synchronized (_clients) {
-                size = _clients.size(); //This will only ever grow, so no need to worry about falling off the end
-            }
-            for(int i=0; i<size; i++) {
-                DRPCInvocationsClient client;
-                synchronized (_clients) {
-                    client = _clients.get(i);
-                }
-                if (!client.isConnected()) {
-                    LOG.warn("DRPCInvocationsClient [{}:{}] is not connected.", client.getHost(), client.getPort());
-                    reconnectAsync(client);
-                    continue;
-                }
-                try {
-                    DRPCRequest req = client.fetchRequest(_function);
-                    if(req.get_request_id().length() > 0) {
-                        Map returnInfo = new HashMap();
-                        returnInfo.put("id", req.get_request_id());
-                        returnInfo.put("host", client.getHost());
-                        returnInfo.put("port", client.getPort());
-                        gotRequest = true;
-                        _collector.emit(new Values(req.get_func_args(), JSONValue.toJSONString(returnInfo)), new DRPCMessageId(req.get_request_id(), i));
-                        break;
-                    }
-                } catch (AuthorizationException aze) {
-                    reconnectAsync(client);
-                    LOG.error("Not authorized to fetch DRPC result from DRPC server", aze);
-                } catch (TException e) {
-                    reconnectAsync(client);
-                    LOG.error("Failed to fetch DRPC result from DRPC server", e);
-                } catch (Exception e) {
-                    LOG.error("Failed to fetch DRPC result from DRPC server", e);
-                }
-            }
-            checkFutures();
-        } else {
-            DistributedRPCInvocations.Iface drpc = (DistributedRPCInvocations.Iface) ServiceRegistry.getService(_local_drpc_id);
-            if(drpc!=null) { // can happen during shutdown of drpc while topology is still up
-                try {
-                    DRPCRequest req = drpc.fetchRequest(_function);
-                    if(req.get_request_id().length() > 0) {
-                        Map returnInfo = new HashMap();
-                        returnInfo.put("id", req.get_request_id());
-                        returnInfo.put("host", _local_drpc_id);
-                        returnInfo.put("port", 0);
-                        gotRequest = true;
-                        _collector.emit(new Values(req.get_func_args(), JSONValue.toJSONString(returnInfo)), 
-                                        new DRPCMessageId(req.get_request_id(), 0));
-                    }
-                } catch (AuthorizationException aze) {
-                    throw new RuntimeException(aze);
-                } catch (TException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        checkFutures();
+        FetchedRequest fetched;
+        try {
+            fetched = _fetched.poll(1, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
         }
-        if(!gotRequest) {
-            Utils.sleep(1);
+        if (fetched != null) {
+            DRPCRequest req = fetched.request;
+            Map returnInfo = new HashMap();
+            returnInfo.put("id", req.get_request_id());
+            returnInfo.put("host", fetched.host);
+            returnInfo.put("port", fetched.port);
+            _collector.emit(new Values(req.get_func_args(), JSONValue.toJSONString(returnInfo)),
+                            new DRPCMessageId(req.get_request_id(), fetched.index));
         }
     }
 
@@ -260,7 +371,10 @@ public class DRPCSpout extends BaseRichSpout {
         DistributedRPCInvocations.Iface client;
         
         if (_local_drpc_id == null) {
-            client = _clients.get(did.index);
+            // not the fetcher's connection, a thrift client must not be used by two threads at once
+            synchronized (_clients) {
+                client = _failClients.get(did.index);
+            }
         } else {
             client = (DistributedRPCInvocations.Iface) ServiceRegistry.getService(_local_drpc_id);
         }
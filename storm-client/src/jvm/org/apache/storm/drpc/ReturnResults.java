@@ -17,6 +17,7 @@
  */
 package org.apache.storm.drpc;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.storm.Config;
 import org.apache.storm.generated.DistributedRPCInvocations;
 import org.apache.storm.generated.AuthorizationException;
@@ -32,14 +33,23 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.apache.thrift.transport.TTransportException;
 import org.json.simple.JSONValue;
 import org.json.simple.parser.ParseException;
 
-
+/**
+ * Returns the results of DRPC requests to the DRPC servers they came from.
+ *
+ * <p>In a cluster every DRPC server gets a sender thread that returns all the results that queued up while its
+ * previous call was in flight with one {@code results} call, so the bolt never waits for a DRPC server and the number
+ * of calls drops as the load goes up. The input tuples are acked once their results were returned. Against servers
+ * that do not support {@code results} yet the sender falls back to returning one result at a time.
+ */
 public class ReturnResults extends BaseRichBolt {
     //ANY CHANGE TO THIS CODE MUST BE SERIALIZABLE COMPATIBLE OR THERE WILL BE PROBLEMS
     static final long serialVersionUID = -774882142710631591L;
@@ -49,12 +59,124 @@ public class ReturnResults extends BaseRichBolt {
     boolean local;
     Map _conf; 
     Map<List, DRPCInvocationsClient> _clients = new HashMap<List, DRPCInvocationsClient>();
+    transient Map<List, ResultSender> _senders;
+    transient volatile boolean _closed;
+
+    // the most results returned with one call
+    private static final int MAX_RESULTS_PER_CALL = 100;
+
+    private static class PendingResult {
+        final Tuple input;
+        final String id;
+        final String result;
+
+        PendingResult(Tuple input, String id, String result) {
+            this.input = input;
+            this.id = id;
+            this.result = result;
+        }
+    }
+
+    /*
+     * Returns the results for one DRPC server in batches, from a thread of its own.
+     */
+    private class ResultSender implements Runnable {
+        private final DRPCInvocationsClient client;
+        private final LinkedBlockingQueue<PendingResult> pending = new LinkedBlockingQueue<>();
+        private Thread thread;
+        private boolean batched = true;
+
+        ResultSender(DRPCInvocationsClient client) {
+            this.client = client;
+        }
+
+        void add(PendingResult result) {
+            pending.add(result);
+        }
+
+        @Override
+        public void run() {
+            List<PendingResult> batch = new ArrayList<>();
+            while (!_closed) {
+                try {
+                    batch.add(pending.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                pending.drainTo(batch, MAX_RESULTS_PER_CALL - 1);
+                send(batch);
+                batch.clear();
+            }
+        }
+
+        private void send(List<PendingResult> batch) {
+            Map<String, String> results = new HashMap<>();
+            for (PendingResult r : batch) {
+                // like separate calls would, the first result for a request wins
+                results.putIfAbsent(r.id, r.result);
+            }
+            int retryCnt = 0;
+            int maxRetries = 3;
+            while (retryCnt < maxRetries) {
+                retryCnt++;
+                try {
+                    returnResults(results);
+                    synchronized (_collector) {
+                        for (PendingResult r : batch) {
+                            _collector.ack(r.input);
+                        }
+                    }
+                    return;
+                } catch (AuthorizationException aze) {
+                    LOG.error("Not authorized to return results to DRPC server", aze);
+                    failAll(batch);
+                    synchronized (_collector) {
+                        _collector.reportError(aze);
+                    }
+                    return;
+                } catch (TException tex) {
+                    if (retryCnt >= maxRetries) {
+                        LOG.error("Failed to return results to DRPC server", tex);
+                        failAll(batch);
+                    }
+                    reconnectClient(client);
+                }
+            }
+        }
+
+        private void returnResults(Map<String, String> results) throws TException {
+            if (batched) {
+                try {
+                    client.results(results);
+                    return;
+                } catch (TApplicationException e) {
+                    if (e.getType() != TApplicationException.UNKNOWN_METHOD) {
+                        throw e;
+                    }
+                    LOG.info("DRPC server does not support returning results in batches, returning them one at a time");
+                    batched = false;
+                }
+            }
+            for (Map.Entry<String, String> entry : results.entrySet()) {
+                client.result(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private void failAll(List<PendingResult> batch) {
+            synchronized (_collector) {
+                for (PendingResult r : batch) {
+                    _collector.fail(r.input);
+                }
+            }
+        }
+    }
 
     @Override
     public void prepare(Map<String, Object> topoConf, TopologyContext context, OutputCollector collector) {
         _conf = topoConf;
         _collector = collector;
         local = topoConf.get(Config.STORM_CLUSTER_MODE).equals("local");
+        _senders = new HashMap<>();
     }
 
     @Override
@@ -73,48 +195,49 @@ public class ReturnResults extends BaseRichBolt {
             final String host = (String) retMap.get("host");
             final int port = ObjectReader.getInt(retMap.get("port"));
             String id = (String) retMap.get("id");
-            DistributedRPCInvocations.Iface client;
             if (local) {
-                client = (DistributedRPCInvocations.Iface) ServiceRegistry.getService(host);
-            } else {
-                List server = new ArrayList() {{
-                    add(host);
-                    add(port);
-                }};
-            
-                if(!_clients.containsKey(server)) {
-                    try {
-                        _clients.put(server, new DRPCInvocationsClient(_conf, host, port));
-                    } catch (TTransportException ex) {
-                        throw new RuntimeException(ex);
-                    }
-                }
-                client = _clients.get(server);
-            }
- 
-
-            int retryCnt = 0;
-            int maxRetries = 3;
-            while (retryCnt < maxRetries) {
-                retryCnt++;
+                DistributedRPCInvocations.Iface client = (DistributedRPCInvocations.Iface) ServiceRegistry.getService(host);
                 try {
                     client.result(id, result);
                     _collector.ack(input);
-                    break;
                 } catch (AuthorizationException aze) {
                     LOG.error("Not authorized to return results to DRPC server", aze);
                     _collector.fail(input);
                     throw new RuntimeException(aze);
                 } catch (TException tex) {
-                    if (retryCnt >= maxRetries) {
-                        LOG.error("Failed to return results to DRPC server", tex);
-                        _collector.fail(input);
+                    LOG.error("Failed to return results to DRPC server", tex);
+                    _collector.fail(input);
+                }
+            } else {
+                List server = new ArrayList() {{
+                    add(host);
+                    add(port);
+                }};
+
+                ResultSender sender = _senders.get(server);
+                if (sender == null) {
+                    DRPCInvocationsClient client;
+                    try {
+                        client = newClient(host, port);
+                    } catch (TTransportException ex) {
+                        throw new RuntimeException(ex);
                     }
-                    reconnectClient((DRPCInvocationsClient) client);
+                    _clients.put(server, client);
+                    sender = new ResultSender(client);
+                    _senders.put(server, sender);
+                    sender.thread = new Thread(sender, "drpc-return-results-" + host + ":" + port);
+                    sender.thread.setDaemon(true);
+                    sender.thread.start();
                 }
+                sender.add(new PendingResult(input, id, result));
             }
         }
-    }    
+    }
+
+    @VisibleForTesting
+    DRPCInvocationsClient newClient(String host, int port) throws TTransportException {
+        return new DRPCInvocationsClient(_conf, host, port);
+    }
 
     private void reconnectClient(DRPCInvocationsClient client) {
         if (client instanceof DRPCInvocationsClient) {
@@ -128,6 +251,10 @@ public class ReturnResults extends BaseRichBolt {
     }
     @Override
     public void cleanup() {
+        _closed = true;
+        for (ResultSender sender : _senders.values()) {
+            sender.thread.interrupt();
+        }
         for(DRPCInvocationsClient c: _clients.values()) {
             c.close();
         }
@@ -31,6 +31,7 @@ import org.apache.storm.task.IBolt;
 import org.apache.storm.task.IOutputCollector;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tracing.TraceContext;
 import org.apache.storm.tuple.TupleImpl;
 import org.apache.storm.utils.ConfigUtils;
 import org.apache.storm.utils.Utils;
@@ -122,7 +123,14 @@ public class BoltExecutor extends Executor {
             if (isExecuteSampler) {
                 tuple.setExecuteSampleStartTime(now);
             }
+            TraceContext trace = tuple.getTraceContext();
+            if (trace != null) {
+                trace.setExecuteStartMs(Time.currentTimeMillis());
+            }
             boltObject.execute(tuple);
+            if (trace != null) {
+                workerData.getTracer().recordExecute(tuple, componentId, taskId, trace.getExecuteStartMs(), Time.currentTimeMillis());
+            }
 
             Long ms = tuple.getExecuteSampleStartTime();
             long delta = (ms != null) ? Time.deltaMs(ms) : -1;
@@ -132,6 +140,7 @@ public class BoltExecutor extends Executor {
             new BoltExecuteInfo(tuple, taskId, delta).applyOn(idToTask.get(taskId).getUserContext());
             if (delta >= 0) {
                 ((BoltExecutorStats) stats).boltExecuteTuple(tuple.getSourceComponent(), tuple.getSourceStreamId(), delta);
+                idToTask.get(taskId).getTaskMetrics().boltExecuted(tuple.getSourceComponent(), tuple.getSourceStreamId(), delta);
             }
         }
     }
@@ -29,6 +29,7 @@ import org.apache.storm.hooks.info.BoltAckInfo;
 import org.apache.storm.hooks.info.BoltFailInfo;
 import org.apache.storm.stats.BoltExecutorStats;
 import org.apache.storm.task.IOutputCollector;
+import org.apache.storm.tracing.Tracer;
 import org.apache.storm.tuple.MessageId;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.TupleImpl;
@@ -48,6 +49,7 @@ public class BoltOutputCollectorImpl implements IOutputCollector {
     private final Random random;
     private final boolean isEventLoggers;
     private final boolean isDebug;
+    private final Tracer tracer;
 
     public BoltOutputCollectorImpl(BoltExecutor executor, Task taskData, int taskId, Random random,
                                    boolean isEventLoggers, boolean isDebug) {
@@ -57,6 +59,7 @@ public class BoltOutputCollectorImpl implements IOutputCollector {
         this.random = random;
         this.isEventLoggers = isEventLoggers;
         this.isDebug = isDebug;
+        this.tracer = executor.getWorkerData().getTracer();
     }
 
     public List<Integer> emit(String streamId, Collection<Tuple> anchors, List<Object> tuple) {
@@ -75,6 +78,7 @@ public class BoltOutputCollectorImpl implements IOutputCollector {
         } else {
             outTasks = taskData.getOutgoingTasks(streamId, values);
         }
+        long traceId = tracer.traceIdOf(anchors);
 
         for (Integer t : outTasks) {
             Map<Long, Long> anchorsToIds = new HashMap<>();
@@ -92,6 +96,7 @@ public class BoltOutputCollectorImpl implements IOutputCollector {
             }
             MessageId msgId = MessageId.makeId(anchorsToIds);
             TupleImpl tupleExt = new TupleImpl(executor.getWorkerTopologyContext(), values, taskId, streamId, msgId);
+            tracer.stamp(tupleExt, traceId);
             executor.getExecutorTransfer().transfer(t, tupleExt);
         }
         if (isEventLoggers) {
@@ -118,6 +123,10 @@ public class BoltOutputCollectorImpl implements IOutputCollector {
         if (delta >= 0) {
             ((BoltExecutorStats) executor.getStats()).boltAckedTuple(
                     input.getSourceComponent(), input.getSourceStreamId(), delta);
+            taskData.getTaskMetrics().boltAcked(input.getSourceComponent(), input.getSourceStreamId(), delta);
+        }
+        if (((TupleImpl) input).getTraceContext() != null) {
+            tracer.recordAck((TupleImpl) input, executor.getComponentId(), taskId);
         }
     }
 
@@ -137,6 +146,7 @@ public class BoltOutputCollectorImpl implements IOutputCollector {
         if (delta >= 0) {
             ((BoltExecutorStats) executor.getStats()).boltFailedTuple(
                     input.getSourceComponent(), input.getSourceStreamId(), delta);
+            taskData.getTaskMetrics().boltFailed(input.getSourceComponent(), input.getSourceStreamId());
         }
     }
 
@@ -22,6 +22,7 @@ import org.apache.storm.daemon.Task;
 import org.apache.storm.executor.TupleInfo;
 import org.apache.storm.spout.ISpout;
 import org.apache.storm.spout.ISpoutOutputCollector;
+import org.apache.storm.tracing.Tracer;
 import org.apache.storm.tuple.MessageId;
 import org.apache.storm.tuple.TupleImpl;
 import org.apache.storm.tuple.Values;
@@ -44,6 +45,7 @@ public class SpoutOutputCollectorImpl implements ISpoutOutputCollector {
     private final Boolean isEventLoggers;
     private final Boolean isDebug;
     private final RotatingMap<Long, TupleInfo> pending;
+    private final Tracer tracer;
 
     @SuppressWarnings("unused")
     public SpoutOutputCollectorImpl(ISpout spout, SpoutExecutor executor, Task taskData, int taskId,
@@ -58,6 +60,7 @@ public class SpoutOutputCollectorImpl implements ISpoutOutputCollector {
         this.isEventLoggers = isEventLoggers;
         this.isDebug = isDebug;
         this.pending = pending;
+        this.tracer = executor.getWorkerData().getTracer();
     }
 
     @Override
@@ -94,6 +97,7 @@ public class SpoutOutputCollectorImpl implements ISpoutOutputCollector {
         boolean needAck = (messageId != null) && hasAckers;
 
         long rootId = MessageId.generateId(random);
+        long traceId = tracer.sampleTraceId();
         for (Integer t : outTasks) {
             MessageId msgId;
             if (needAck) {
@@ -105,6 +109,7 @@ public class SpoutOutputCollectorImpl implements ISpoutOutputCollector {
             }
 
             TupleImpl tuple = new TupleImpl(executor.getWorkerTopologyContext(), values, this.taskId, stream, msgId);
+            tracer.stamp(tuple, traceId);
             executor.getExecutorTransfer().transfer(t, tuple);
         }
         if (isEventLoggers) {
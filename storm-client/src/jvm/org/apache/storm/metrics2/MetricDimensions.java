@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The name and tags of a worker metric. Instances are immutable, the {@code with*} methods return copies.
+ */
+public final class MetricDimensions {
+    public static final String TOPOLOGY = "topology";
+    public static final String HOST = "host";
+    public static final String PORT = "port";
+    public static final String COMPONENT = "component";
+    public static final String TASK = "task";
+    public static final String STREAM = "stream";
+
+    private final String name;
+    private final String topologyId;
+    private final String host;
+    private final int port;
+    private final String componentId;
+    private final Integer taskId;
+    private final String streamId;
+
+    private MetricDimensions(String name, String topologyId, String host, int port, String componentId, Integer taskId,
+                             String streamId) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.topologyId = topologyId;
+        this.host = host;
+        this.port = port;
+        this.componentId = componentId;
+        this.taskId = taskId;
+        this.streamId = streamId;
+    }
+
+    /**
+     * Dimensions of a metric that belongs to a task.
+     */
+    public static MetricDimensions forTask(String name, String topologyId, String host, int port, String componentId,
+                                           int taskId) {
+        return new MetricDimensions(name, topologyId, host, port, componentId, taskId, null);
+    }
+
+    /**
+     * Dimensions of a metric that belongs to the worker as a whole.
+     */
+    public static MetricDimensions forWorker(String name, String topologyId, String host, int port) {
+        return new MetricDimensions(name, topologyId, host, port, null, null, null);
+    }
+
+    public MetricDimensions withName(String name) {
+        return new MetricDimensions(name, topologyId, host, port, componentId, taskId, streamId);
+    }
+
+    public MetricDimensions withStream(String streamId) {
+        return new MetricDimensions(name, topologyId, host, port, componentId, taskId, streamId);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTopologyId() {
+        return topologyId;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getComponentId() {
+        return componentId;
+    }
+
+    public Integer getTaskId() {
+        return taskId;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    /**
+     * The tags of this metric, in a stable order. Dimensions that are not set are left out.
+     */
+    public Map<String, String> getTags() {
+        Map<String, String> tags = new LinkedHashMap<>();
+        putIfSet(tags, TOPOLOGY, topologyId);
+        putIfSet(tags, HOST, host);
+        tags.put(PORT, String.valueOf(port));
+        putIfSet(tags, COMPONENT, componentId);
+        putIfSet(tags, TASK, taskId == null ? null : String.valueOf(taskId));
+        putIfSet(tags, STREAM, streamId);
+        return tags;
+    }
+
+    private static void putIfSet(Map<String, String> tags, String key, String value) {
+        if (value != null) {
+            tags.put(key, value);
+        }
+    }
+
+    /**
+     * Flatten the dimensions into a dotted name for reporters that do not support tags.
+     * The result looks like {@code storm.worker.<topology>.<host>.<port>.<component>.<task>.<stream>.<name>}.
+     */
+    public String toMetricName() {
+        StringBuilder sb = new StringBuilder("storm.worker");
+        for (String value : getTags().values()) {
+            sb.append('.').append(sanitize(value));
+        }
+        return sb.append('.').append(sanitize(name)).toString();
+    }
+
+    static String sanitize(String value) {
+        return value.replace('.', '_').replace(':', '-').replace(' ', '_');
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricDimensions)) {
+            return false;
+        }
+        MetricDimensions other = (MetricDimensions) o;
+        return port == other.port && name.equals(other.name) && Objects.equals(topologyId, other.topologyId)
+            && Objects.equals(host, other.host) && Objects.equals(componentId, other.componentId)
+            && Objects.equals(taskId, other.taskId) && Objects.equals(streamId, other.streamId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, topologyId, host, port, componentId, taskId, streamId);
+    }
+
+    @Override
+    public String toString() {
+        return name + getTags();
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.storm.Config;
+import org.apache.storm.metrics2.reporters.StormReporter;
+import org.apache.storm.utils.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Worker wide registry of dimensional metrics.
+ *
+ * <p>Every metric is registered under a {@link MetricDimensions} which tags it with the topology, host, port,
+ * component, task and (optionally) stream it belongs to. The flattened name is used as the key in the underlying
+ * {@link MetricRegistry}, the dimensions can be looked up again by reporters that understand tags.
+ *
+ * <p>Updating a metric never does more than bump the metric itself; all reporting is done by the
+ * {@link StormReporter}s configured through {@link Config#TOPOLOGY_METRICS_REPORTERS}, each of which runs on its own
+ * thread outside of the tuple path.
+ */
+public class StormMetricRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(StormMetricRegistry.class);
+
+    private final MetricRegistry registry = new MetricRegistry();
+    private final Map<String, MetricDimensions> dimensions = new ConcurrentHashMap<>();
+    private final List<StormReporter> reporters = new ArrayList<>();
+    private final String topologyId;
+    private final String host;
+    private final int port;
+
+    public StormMetricRegistry(String topologyId, String host, int port) {
+        this.topologyId = topologyId;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Dimensions for a metric of a task running in this worker.
+     */
+    public MetricDimensions taskDimensions(String name, String componentId, int taskId) {
+        return MetricDimensions.forTask(name, topologyId, host, port, componentId, taskId);
+    }
+
+    /**
+     * Dimensions for a metric of this worker that does not belong to any single task.
+     */
+    public MetricDimensions workerDimensions(String name) {
+        return MetricDimensions.forWorker(name, topologyId, host, port);
+    }
+
+    public MetricRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Get the dimensions a metric was registered with.
+     * @param metricName the flattened name of the metric in {@link #getRegistry()}.
+     * @return the dimensions or null if the metric was not registered through this class.
+     */
+    public MetricDimensions getDimensions(String metricName) {
+        return dimensions.get(metricName);
+    }
+
+    public Counter counter(MetricDimensions dims) {
+        return registry.counter(track(dims));
+    }
+
+    public Meter meter(MetricDimensions dims) {
+        return registry.meter(track(dims));
+    }
+
+    public Histogram histogram(MetricDimensions dims) {
+        return registry.histogram(track(dims));
+    }
+
+    public Timer timer(MetricDimensions dims) {
+        return registry.timer(track(dims));
+    }
+
+    /**
+     * Register a gauge. If a gauge with the same dimensions already exists the existing one is returned.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Gauge<T> gauge(MetricDimensions dims, Gauge<T> gauge) {
+        String name = track(dims);
+        synchronized (registry) {
+            Metric existing = registry.getMetrics().get(name);
+            if (existing instanceof Gauge) {
+                return (Gauge<T>) existing;
+            }
+            return registry.register(name, gauge);
+        }
+    }
+
+    private String track(MetricDimensions dims) {
+        String name = dims.toMetricName();
+        dimensions.putIfAbsent(name, dims);
+        return name;
+    }
+
+    /**
+     * Create, prepare and start the reporters configured in {@link Config#TOPOLOGY_METRICS_REPORTERS}.
+     */
+    @SuppressWarnings("unchecked")
+    public void startReporters(Map<String, Object> topoConf) {
+        Object reporterConfs = topoConf.get(Config.TOPOLOGY_METRICS_REPORTERS);
+        if (reporterConfs == null) {
+            return;
+        }
+        for (Map<String, Object> reporterConf : (List<Map<String, Object>>) reporterConfs) {
+            String clazz = (String) reporterConf.get(StormReporter.REPORTER_CLASS);
+            LOG.info("Attempting to instantiate metrics reporter class {}", clazz);
+            StormReporter reporter = ReflectionUtils.newInstance(clazz);
+            reporter.prepare(this, topoConf, reporterConf);
+            reporter.start();
+            reporters.add(reporter);
+        }
+    }
+
+    public void stopReporters() {
+        for (StormReporter reporter : reporters) {
+            try {
+                reporter.stop();
+            } catch (Exception e) {
+                LOG.warn("Failed to stop metrics reporter {}", reporter, e);
+            }
+        }
+        reporters.clear();
+    }
+
+    List<StormReporter> getReporters() {
+        return Collections.unmodifiableList(reporters);
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.storm.Config;
+import org.apache.storm.utils.ConfigUtils;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * The built-in per task stats (emitted, transferred, acked, failed, executed and latencies) as dimensional metrics.
+ *
+ * <p>Callers update these from the same sampled code paths that update the executor stats, so each update is
+ * scaled by the sampling rate exactly like {@link org.apache.storm.stats.CommonStats} does. Nothing is recorded
+ * unless {@link Config#TOPOLOGY_METRICS_TASK_STATS_ENABLE} is set. The metrics of a stream are looked up in the
+ * registry once and kept with the stream, so an update does not build dimensions or hit the registry.
+ */
+public class TaskMetrics {
+    public static final String EMITTED = "emitted";
+    public static final String TRANSFERRED = "transferred";
+    public static final String ACKED = "acked";
+    public static final String FAILED = "failed";
+    public static final String EXECUTED = "executed";
+    public static final String COMPLETE_LATENCY = "complete-latency-ms";
+    public static final String PROCESS_LATENCY = "process-latency-ms";
+    public static final String EXECUTE_LATENCY = "execute-latency-ms";
+
+    private static final String[] COUNTERS = {EMITTED, TRANSFERRED, ACKED, FAILED, EXECUTED};
+    private static final int EMITTED_IDX = 0;
+    private static final int TRANSFERRED_IDX = 1;
+    private static final int ACKED_IDX = 2;
+    private static final int FAILED_IDX = 3;
+    private static final int EXECUTED_IDX = 4;
+    private static final String[] HISTOGRAMS = {COMPLETE_LATENCY, PROCESS_LATENCY, EXECUTE_LATENCY};
+    private static final int COMPLETE_LATENCY_IDX = 0;
+    private static final int PROCESS_LATENCY_IDX = 1;
+    private static final int EXECUTE_LATENCY_IDX = 2;
+
+    private final StormMetricRegistry registry;
+    private final String componentId;
+    private final int taskId;
+    private final int samplingRate;
+    private final boolean enabled;
+    private final ConcurrentMap<String, StreamMetrics> outputStreams = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, StreamMetrics>> inputStreams = new ConcurrentHashMap<>();
+
+    public TaskMetrics(StormMetricRegistry registry, String componentId, int taskId, Map<String, Object> topoConf) {
+        this.registry = registry;
+        this.componentId = componentId;
+        this.taskId = taskId;
+        this.samplingRate = ConfigUtils.samplingRate(topoConf);
+        this.enabled = ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_METRICS_TASK_STATS_ENABLE), false);
+    }
+
+    public void emitted(String stream) {
+        if (enabled) {
+            output(stream).counter(EMITTED_IDX).inc(samplingRate);
+        }
+    }
+
+    public void transferred(String stream, int amount) {
+        if (enabled) {
+            output(stream).counter(TRANSFERRED_IDX).inc((long) samplingRate * amount);
+        }
+    }
+
+    public void spoutAcked(String stream, long latencyMs) {
+        if (enabled) {
+            StreamMetrics metrics = output(stream);
+            metrics.counter(ACKED_IDX).inc(samplingRate);
+            metrics.histogram(COMPLETE_LATENCY_IDX).update(latencyMs);
+        }
+    }
+
+    public void spoutFailed(String stream) {
+        if (enabled) {
+            output(stream).counter(FAILED_IDX).inc(samplingRate);
+        }
+    }
+
+    public void boltExecuted(String sourceComponent, String stream, long latencyMs) {
+        if (enabled) {
+            StreamMetrics metrics = input(sourceComponent, stream);
+            metrics.counter(EXECUTED_IDX).inc(samplingRate);
+            metrics.histogram(EXECUTE_LATENCY_IDX).update(latencyMs);
+        }
+    }
+
+    public void boltAcked(String sourceComponent, String stream, long latencyMs) {
+        if (enabled) {
+            StreamMetrics metrics = input(sourceComponent, stream);
+            metrics.counter(ACKED_IDX).inc(samplingRate);
+            metrics.histogram(PROCESS_LATENCY_IDX).update(latencyMs);
+        }
+    }
+
+    public void boltFailed(String sourceComponent, String stream) {
+        if (enabled) {
+            input(sourceComponent, stream).counter(FAILED_IDX).inc(samplingRate);
+        }
+    }
+
+    private StreamMetrics output(String stream) {
+        StreamMetrics metrics = outputStreams.get(stream);
+        if (metrics == null) {
+            metrics = outputStreams.computeIfAbsent(stream, StreamMetrics::new);
+        }
+        return metrics;
+    }
+
+    private StreamMetrics input(String sourceComponent, String stream) {
+        ConcurrentMap<String, StreamMetrics> byStream = inputStreams.get(sourceComponent);
+        if (byStream == null) {
+            byStream = inputStreams.computeIfAbsent(sourceComponent, k -> new ConcurrentHashMap<>());
+        }
+        StreamMetrics metrics = byStream.get(stream);
+        if (metrics == null) {
+            metrics = byStream.computeIfAbsent(stream, k -> new StreamMetrics(sourceComponent + ":" + stream));
+        }
+        return metrics;
+    }
+
+    /**
+     * The metrics of one stream, registered the first time they are updated. Concurrent first updates may both look
+     * the metric up, which is harmless as the registry hands out the same instance for the same dimensions.
+     */
+    private class StreamMetrics {
+        private final String stream;
+        private final Counter[] counters = new Counter[COUNTERS.length];
+        private final Histogram[] histograms = new Histogram[HISTOGRAMS.length];
+
+        StreamMetrics(String stream) {
+            this.stream = stream;
+        }
+
+        Counter counter(int idx) {
+            Counter counter = counters[idx];
+            if (counter == null) {
+                counter = registry.counter(registry.taskDimensions(COUNTERS[idx], componentId, taskId).withStream(stream));
+                counters[idx] = counter;
+            }
+            return counter;
+        }
+
+        Histogram histogram(int idx) {
+            Histogram histogram = histograms[idx];
+            if (histogram == null) {
+                histogram = registry.histogram(registry.taskDimensions(HISTOGRAMS[idx], componentId, taskId).withStream(stream));
+                histograms[idx] = histogram;
+            }
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2.reporters;
+
+import com.codahale.metrics.ConsoleReporter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.metrics2.StormMetricRegistry;
+
+/**
+ * Prints all worker metrics to stdout, which ends up in the worker log. Mostly useful for debugging.
+ */
+public class ConsoleStormReporter extends ScheduledStormReporter {
+
+    @Override
+    public void prepare(StormMetricRegistry metricsRegistry, Map<String, Object> topoConf, Map<String, Object> reporterConf) {
+        preparePeriod(reporterConf);
+        reporter = ConsoleReporter.forRegistry(metricsRegistry.getRegistry())
+            .convertRatesTo(getTimeUnit(reporterConf, RATE_UNITS, TimeUnit.SECONDS))
+            .convertDurationsTo(getTimeUnit(reporterConf, DURATION_UNITS, TimeUnit.MILLISECONDS))
+            .build();
+    }
+}
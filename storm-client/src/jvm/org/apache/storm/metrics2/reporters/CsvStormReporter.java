@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2.reporters;
+
+import com.codahale.metrics.CsvReporter;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.metrics2.StormMetricRegistry;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * Writes one csv file per worker metric into {@link #CSV_LOG_DIR}.
+ */
+public class CsvStormReporter extends ScheduledStormReporter {
+    public static final String CSV_LOG_DIR = "csv.log.dir";
+
+    @Override
+    public void prepare(StormMetricRegistry metricsRegistry, Map<String, Object> topoConf, Map<String, Object> reporterConf) {
+        preparePeriod(reporterConf);
+        String dir = ObjectReader.getString(reporterConf.get(CSV_LOG_DIR), null);
+        if (dir == null) {
+            throw new IllegalArgumentException(CSV_LOG_DIR + " must be set for " + getClass().getSimpleName());
+        }
+        File csvDir = new File(dir);
+        if (!csvDir.exists() && !csvDir.mkdirs()) {
+            throw new IllegalStateException("Could not create csv metrics dir " + csvDir);
+        }
+        reporter = CsvReporter.forRegistry(metricsRegistry.getRegistry())
+            .convertRatesTo(getTimeUnit(reporterConf, RATE_UNITS, TimeUnit.SECONDS))
+            .convertDurationsTo(getTimeUnit(reporterConf, DURATION_UNITS, TimeUnit.MILLISECONDS))
+            .build(csvDir);
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2.reporters;
+
+import com.codahale.metrics.JmxReporter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.metrics2.StormMetricRegistry;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * Exposes the worker metrics as JMX MBeans. JMX is pull based, so this reporter has no period of its own.
+ */
+public class JmxStormReporter implements StormReporter {
+    public static final String JMX_DOMAIN = "jmx.domain";
+
+    private JmxReporter reporter;
+
+    @Override
+    public void prepare(StormMetricRegistry metricsRegistry, Map<String, Object> topoConf, Map<String, Object> reporterConf) {
+        reporter = JmxReporter.forRegistry(metricsRegistry.getRegistry())
+            .inDomain(ObjectReader.getString(reporterConf.get(JMX_DOMAIN), "storm"))
+            .convertRatesTo(ScheduledStormReporter.getTimeUnit(reporterConf, RATE_UNITS, TimeUnit.SECONDS))
+            .convertDurationsTo(ScheduledStormReporter.getTimeUnit(reporterConf, DURATION_UNITS, TimeUnit.MILLISECONDS))
+            .build();
+    }
+
+    @Override
+    public void start() {
+        if (reporter == null) {
+            throw new IllegalStateException("Attempt to start without preparing " + getClass().getSimpleName());
+        }
+        reporter.start();
+    }
+
+    @Override
+    public void stop() {
+        if (reporter == null) {
+            throw new IllegalStateException("Attempt to stop without preparing " + getClass().getSimpleName());
+        }
+        reporter.stop();
+    }
+}
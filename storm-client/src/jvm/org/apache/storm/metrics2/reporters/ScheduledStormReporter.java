@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2.reporters;
+
+import com.codahale.metrics.ScheduledReporter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.utils.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for reporters that poll the registry periodically on a {@link ScheduledReporter} thread.
+ */
+public abstract class ScheduledStormReporter implements StormReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledStormReporter.class);
+
+    protected ScheduledReporter reporter;
+    protected long reportingPeriod;
+    protected TimeUnit reportingPeriodUnit;
+
+    protected void preparePeriod(Map<String, Object> reporterConf) {
+        reportingPeriod = ObjectReader.getInt(reporterConf.get(REPORT_PERIOD), 10);
+        reportingPeriodUnit = getTimeUnit(reporterConf, REPORT_PERIOD_UNITS, TimeUnit.SECONDS);
+    }
+
+    protected static TimeUnit getTimeUnit(Map<String, Object> reporterConf, String key, TimeUnit defaultUnit) {
+        String unit = ObjectReader.getString(reporterConf.get(key), null);
+        return unit == null ? defaultUnit : TimeUnit.valueOf(unit);
+    }
+
+    @Override
+    public void start() {
+        if (reporter == null) {
+            throw new IllegalStateException("Attempt to start without preparing " + getClass().getSimpleName());
+        }
+        LOG.debug("Starting {} with a period of {} {}", getClass().getSimpleName(), reportingPeriod, reportingPeriodUnit);
+        reporter.start(reportingPeriod, reportingPeriodUnit);
+    }
+
+    @Override
+    public void stop() {
+        if (reporter == null) {
+            throw new IllegalStateException("Attempt to stop without preparing " + getClass().getSimpleName());
+        }
+        reporter.stop();
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.metrics2.reporters;
+
+import java.util.Map;
+import org.apache.storm.metrics2.StormMetricRegistry;
+
+/**
+ * A reporter that pushes the metrics of a worker's {@link StormMetricRegistry} somewhere.
+ *
+ * <p>Reporters are configured per topology through {@link org.apache.storm.Config#TOPOLOGY_METRICS_REPORTERS}. Each
+ * entry is a map holding at least {@link #REPORTER_CLASS}; the whole map is handed to {@link #prepare}.
+ * Implementations must do their reporting on their own thread, never on the thread that calls {@link #start()}.
+ */
+public interface StormReporter {
+    String REPORTER_CLASS = "class";
+    String REPORT_PERIOD = "report.period";
+    String REPORT_PERIOD_UNITS = "report.period.units";
+    String RATE_UNITS = "report.rate.units";
+    String DURATION_UNITS = "report.duration.units";
+
+    void prepare(StormMetricRegistry metricsRegistry, Map<String, Object> topoConf, Map<String, Object> reporterConf);
+
+    void start();
+
+    void stop();
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stack samples in the "folded" format understood by flame graph tools: one line per distinct stack with the frames
+ * from the root down separated by {@code ;}, followed by a space and the weight of that stack.
+ */
+public class FoldedStacks {
+    private final Map<String, Long> weights = new HashMap<>();
+
+    /**
+     * Add a sample.
+     * @param root the synthetic root frame, usually the thread or executor the stack was taken from
+     * @param stack the stack as returned by the JVM, innermost frame first
+     * @param weight the weight of the sample (1 for a cpu sample, bytes for an allocation sample)
+     */
+    public void add(String root, StackTraceElement[] stack, long weight) {
+        StringBuilder sb = new StringBuilder(root.length() + stack.length * 48);
+        sb.append(root);
+        for (int i = stack.length - 1; i >= 0; i--) {
+            StackTraceElement frame = stack[i];
+            sb.append(';').append(frame.getClassName()).append('.').append(frame.getMethodName());
+        }
+        weights.merge(sb.toString(), weight, Long::sum);
+    }
+
+    public void addAll(FoldedStacks other) {
+        for (Map.Entry<String, Long> entry : other.weights.entrySet()) {
+            weights.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+    }
+
+    public boolean isEmpty() {
+        return weights.isEmpty();
+    }
+
+    public Map<String, Long> getWeights() {
+        return weights;
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        for (Map.Entry<String, Long> entry : weights.entrySet()) {
+            out.write(entry.getKey());
+            out.write(' ');
+            out.write(Long.toString(entry.getValue()));
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.storm.Config;
+import org.apache.storm.utils.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An always-on sampling profiler for a worker.
+ *
+ * <p>Every {@link Config#TOPOLOGY_WORKER_PROFILER_SAMPLE_INTERVAL_MS} the stacks of all threads are taken. A thread
+ * that is runnable counts one cpu sample for its stack; the bytes a thread allocated since the previous sample are
+ * charged to its current stack as an allocation sample. The latter is an approximation, the stack at sampling time
+ * stands for everything the thread did in between.
+ *
+ * <p>Samples are kept per thread, with executor threads named after their component and executor, in a rolling window
+ * of {@link Config#TOPOLOGY_WORKER_PROFILER_WINDOW_SECS} split into {@link #NUM_BUCKETS} buckets. Whenever a bucket
+ * is full the whole window is written as folded stacks to {@link #CPU_FILE} and {@link #ALLOC_FILE} in the worker's
+ * artifacts directory, where the logviewer serves them as flame graph data.
+ */
+public class SamplingProfiler {
+    private static final Logger LOG = LoggerFactory.getLogger(SamplingProfiler.class);
+    public static final String CPU_FILE = "flamegraph-cpu.folded";
+    public static final String ALLOC_FILE = "flamegraph-alloc.folded";
+    static final int NUM_BUCKETS = 5;
+    private static final Pattern THREAD_NUMBER = Pattern.compile("^Thread-\\d+-");
+
+    private final ThreadMXBean threadMx = ManagementFactory.getThreadMXBean();
+    private final File outputDir;
+    private final long sampleIntervalMs;
+    private final int samplesPerBucket;
+    private final int maxStackDepth;
+    private final boolean allocationSampling;
+    private final Deque<FoldedStacks[]> buckets = new ArrayDeque<>();
+    private final Map<Long, Long> lastAllocatedBytes = new HashMap<>();
+    private FoldedStacks[] current;
+    private int samplesInBucket;
+    private ScheduledExecutorService sampler;
+
+    public SamplingProfiler(Map<String, Object> topoConf, File outputDir) {
+        this.outputDir = outputDir;
+        this.sampleIntervalMs = ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_WORKER_PROFILER_SAMPLE_INTERVAL_MS), 1000);
+        long windowMs = TimeUnit.SECONDS.toMillis(ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_WORKER_PROFILER_WINDOW_SECS), 300));
+        this.samplesPerBucket = (int) Math.max(1, windowMs / NUM_BUCKETS / sampleIntervalMs);
+        this.maxStackDepth = ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_WORKER_PROFILER_MAX_STACK_DEPTH), 64);
+        this.allocationSampling = enableAllocationSampling(threadMx);
+        this.current = newBucket();
+    }
+
+    public static boolean isEnabled(Map<String, Object> topoConf) {
+        return ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_WORKER_PROFILER_ENABLE), false);
+    }
+
+    private static boolean enableAllocationSampling(ThreadMXBean threadMx) {
+        if (!(threadMx instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        com.sun.management.ThreadMXBean sunThreadMx = (com.sun.management.ThreadMXBean) threadMx;
+        if (!sunThreadMx.isThreadAllocatedMemorySupported()) {
+            return false;
+        }
+        if (!sunThreadMx.isThreadAllocatedMemoryEnabled()) {
+            sunThreadMx.setThreadAllocatedMemoryEnabled(true);
+        }
+        return true;
+    }
+
+    private static FoldedStacks[] newBucket() {
+        return new FoldedStacks[]{new FoldedStacks(), new FoldedStacks()};
+    }
+
+    public synchronized void start() {
+        if (sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "worker-profiler");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleWithFixedDelay(this::sampleSafely, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            if (sampler == null) {
+                return;
+            }
+            stopping = sampler;
+            sampler = null;
+        }
+        stopping.shutdown();
+        // a running sample holds the lock, so wait for it without holding the lock
+        stopping.awaitTermination(10, TimeUnit.SECONDS);
+        synchronized (this) {
+            writeWindow();
+        }
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Throwable t) {
+            // never let a profiling problem take the worker down, just skip this sample
+            LOG.warn("Failed to take a profiling sample", t);
+        }
+    }
+
+    synchronized void sample() {
+        long self = Thread.currentThread().getId();
+        long[] ids = threadMx.getAllThreadIds();
+        ThreadInfo[] infos = threadMx.getThreadInfo(ids, maxStackDepth);
+        for (ThreadInfo info : infos) {
+            if (info == null || info.getThreadId() == self) {
+                continue;
+            }
+            StackTraceElement[] stack = info.getStackTrace();
+            if (stack.length == 0) {
+                continue;
+            }
+            String root = rootFrame(info.getThreadName());
+            if (info.getThreadState() == Thread.State.RUNNABLE) {
+                current[0].add(root, stack, 1);
+            }
+            if (allocationSampling) {
+                long allocated = ((com.sun.management.ThreadMXBean) threadMx).getThreadAllocatedBytes(info.getThreadId());
+                Long last = lastAllocatedBytes.put(info.getThreadId(), allocated);
+                if (last != null && allocated > last) {
+                    current[1].add(root, stack, allocated - last);
+                }
+            }
+        }
+        if (lastAllocatedBytes.size() > ids.length * 2) {
+            // forget threads that are gone
+            lastAllocatedBytes.keySet().retainAll(Arrays.stream(ids).boxed().collect(Collectors.toSet()));
+        }
+        if (++samplesInBucket >= samplesPerBucket) {
+            rotate();
+        }
+    }
+
+    static String rootFrame(String threadName) {
+        return THREAD_NUMBER.matcher(threadName).replaceFirst("").replace(';', ':');
+    }
+
+    private void rotate() {
+        buckets.addLast(current);
+        if (buckets.size() > NUM_BUCKETS) {
+            buckets.removeFirst();
+        }
+        current = newBucket();
+        samplesInBucket = 0;
+        writeWindow();
+    }
+
+    /**
+     * The samples of the completed buckets of the rolling window.
+     * @return cpu samples at index 0, allocated bytes at index 1
+     */
+    synchronized FoldedStacks[] window() {
+        FoldedStacks[] ret = newBucket();
+        for (FoldedStacks[] bucket : buckets) {
+            ret[0].addAll(bucket[0]);
+            ret[1].addAll(bucket[1]);
+        }
+        return ret;
+    }
+
+    private void writeWindow() {
+        FoldedStacks[] window = window();
+        write(window[0], CPU_FILE);
+        if (allocationSampling) {
+            write(window[1], ALLOC_FILE);
+        }
+    }
+
+    private void write(FoldedStacks stacks, String fileName) {
+        File target = new File(outputDir, fileName);
+        File tmp = new File(outputDir, fileName + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                stacks.writeTo(out);
+            }
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Failed to write profile {}", target, e);
+        }
+    }
+}
@@ -18,9 +18,12 @@
 package org.apache.storm.serialization;
 
 import org.apache.storm.task.GeneralTopologyContext;
+import org.apache.storm.tracing.TraceContext;
+import org.apache.storm.tracing.Tracer;
 import org.apache.storm.tuple.MessageId;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.TupleImpl;
+import org.apache.storm.utils.Time;
 import com.esotericsoftware.kryo.io.Input;
 import java.io.IOException;
 import java.util.List;
@@ -31,12 +34,14 @@ public class KryoTupleDeserializer implements ITupleDeserializer {
     KryoValuesDeserializer _kryo;
     SerializationFactory.IdDictionary _ids;
     Input _kryoInput;
+    boolean _tracing;
     
     public KryoTupleDeserializer(final Map<String, Object> conf, final GeneralTopologyContext context) {
         _kryo = new KryoValuesDeserializer(conf);
         _context = context;
         _ids = new SerializationFactory.IdDictionary(context.getRawTopology());
         _kryoInput = new Input(1);
+        _tracing = Tracer.isEnabled(conf);
     }        
 
     public Tuple deserialize(byte[] ser) {
@@ -47,8 +52,14 @@ public class KryoTupleDeserializer implements ITupleDeserializer {
             String componentName = _context.getComponentId(taskId);
             String streamName = _ids.getStreamName(componentName, streamId);
             MessageId id = MessageId.deserialize(_kryoInput);
+            TraceContext trace = TraceContext.read(_kryoInput, Time.currentTimeMillis());
+            if (!_tracing) {
+                trace = null;
+            }
             List<Object> values = _kryo.deserializeFrom(_kryoInput);
-            return new TupleImpl(_context, values, taskId, streamName, id);
+            TupleImpl tuple = new TupleImpl(_context, values, taskId, streamName, id);
+            tuple.setTraceContext(trace);
+            return tuple;
         } catch(IOException e) {
             throw new RuntimeException(e);
         }
@@ -18,7 +18,11 @@
 package org.apache.storm.serialization;
 
 import org.apache.storm.task.GeneralTopologyContext;
+import org.apache.storm.tracing.TraceContext;
+import org.apache.storm.tracing.Tracer;
 import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.TupleImpl;
+import org.apache.storm.utils.Time;
 import com.esotericsoftware.kryo.io.Output;
 import java.io.IOException;
 import java.util.Map;
@@ -27,11 +31,13 @@ public class KryoTupleSerializer implements ITupleSerializer {
     KryoValuesSerializer _kryo;
     SerializationFactory.IdDictionary _ids;   
     Output _kryoOut;
+    boolean _tracing;
     
     public KryoTupleSerializer(final Map<String, Object> conf, final GeneralTopologyContext context) {
         _kryo = new KryoValuesSerializer(conf);
         _kryoOut = new Output(2000, 2000000000);
         _ids = new SerializationFactory.IdDictionary(context.getRawTopology());
+        _tracing = Tracer.isEnabled(conf);
     }
 
     public byte[] serialize(Tuple tuple) {
@@ -41,6 +47,11 @@ public class KryoTupleSerializer implements ITupleSerializer {
             _kryoOut.writeInt(tuple.getSourceTask(), true);
             _kryoOut.writeInt(_ids.getStreamId(tuple.getSourceComponent(), tuple.getSourceStreamId()), true);
             tuple.getMessageId().serialize(_kryoOut);
+            // the trace flag is written whether or not tracing is enabled, as spilled and persisted windows are
+            // written with this format too and may be read back after tracing was switched
+            TraceContext trace = (_tracing && tuple instanceof TupleImpl)
+                ? ((TupleImpl) tuple).getTraceContext() : null;
+            TraceContext.write(trace, _kryoOut, Time.currentTimeMillis());
             _kryo.serializeInto(tuple.getValues(), _kryoOut);
             return _kryoOut.toBytes();
         } catch (IOException e) {
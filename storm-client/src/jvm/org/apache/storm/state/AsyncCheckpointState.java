@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.state;
+
+import org.apache.storm.Config;
+
+/**
+ * A {@link State} whose checkpoint writes can be done off the executor thread, so that a stateful bolt keeps
+ * processing tuples while a checkpoint is written to the store. It is used when
+ * {@link Config#TOPOLOGY_STATE_CHECKPOINT_ASYNC} is enabled.
+ *
+ * <p>A prepare is split in two steps. {@link #snapshot(long)} is called on the executor thread and only moves the
+ * changes made since the last prepare aside, {@link #flushPrepared(long)} is then called on a background thread to
+ * write them to the store. {@link #commit(long)} also runs on the background thread. At most one flush or commit is in
+ * flight at any time, but {@code get}, {@code put} and {@code delete} may be called concurrently with it, and must
+ * see the snapshotted changes while they are being written.
+ */
+public interface AsyncCheckpointState extends State {
+    /**
+     * Moves the changes made since the last prepare aside as the changes of transaction txid. Changes made after this
+     * returns belong to the next transaction. This is called on the executor thread and should not do any I/O.
+     *
+     * @param txid the transaction id
+     */
+    void snapshot(long txid);
+
+    /**
+     * Writes the changes captured by {@link #snapshot(long)} to the store so that the transaction can be committed
+     * later. {@code snapshot(txid)} followed by {@code flushPrepared(txid)} is equivalent to
+     * {@link #prepareCommit(long) prepareCommit(txid)}.
+     *
+     * @param txid the transaction id
+     */
+    void flushPrepared(long txid);
+}
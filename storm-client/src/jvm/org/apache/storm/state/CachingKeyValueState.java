@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.state;
+
+import com.codahale.metrics.Counter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link KeyValueState} that caches the values of another key value state.
+ *
+ * <p>Reads are served from a bounded LRU cache of the values of the wrapped state and only go to it on a miss.
+ * Writes are buffered and pushed down to the wrapped state in one go when a transaction is prepared, so a key that
+ * is updated many times between two checkpoints costs a single write. The wrapped state still implements the
+ * {@link #prepareCommit(long)}, {@link #commit(long)} and {@link #rollback()} protocol, this class only decides when
+ * it sees the changes.
+ *
+ * <p>The cache holds what the wrapped state would return, including its not yet committed changes, so it stays valid
+ * across a prepare and a commit and is dropped on a rollback.
+ *
+ * <p>Use {@link #wrap(KeyValueState, int, Counter, Counter)} to keep asynchronous checkpointing working: if the
+ * wrapped state is an {@link AsyncCheckpointState} the returned state is one too.
+ */
+public class CachingKeyValueState<K, V> implements KeyValueState<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(CachingKeyValueState.class);
+    // marks a deleted key in the write buffer and a missing key in the cache
+    private static final Object ABSENT = new Object();
+
+    private final KeyValueState<K, V> delegate;
+    private final Map<K, Object> cache;
+    private final Map<K, Object> writeBuffer = new LinkedHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Creates a caching state.
+     *
+     * @param delegate the state to cache
+     * @param cacheSize the maximum number of values to cache
+     * @param hits counts the reads served from the cache or the write buffer
+     * @param misses counts the reads that went to the wrapped state
+     */
+    public CachingKeyValueState(KeyValueState<K, V> delegate, final int cacheSize, Counter hits, Counter misses) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive, got " + cacheSize);
+        }
+        this.delegate = delegate;
+        this.cache = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Object> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Creates a caching state that is an {@link AsyncCheckpointState} if the wrapped state is one.
+     *
+     * @see #CachingKeyValueState(KeyValueState, int, Counter, Counter)
+     */
+    public static <K, V> CachingKeyValueState<K, V> wrap(KeyValueState<K, V> delegate, int cacheSize, Counter hits,
+                                                         Counter misses) {
+        if (delegate instanceof AsyncCheckpointState) {
+            return new AsyncCaching<>(delegate, cacheSize, hits, misses);
+        }
+        return new CachingKeyValueState<>(delegate, cacheSize, hits, misses);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        writeBuffer.put(key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Object value = writeBuffer.get(key);
+        if (value == null) {
+            value = cache.get(key);
+        }
+        if (value != null) {
+            hits.inc();
+            return value == ABSENT ? null : (V) value;
+        }
+        misses.inc();
+        V delegateValue = delegate.get(key);
+        cache.put(key, delegateValue != null ? delegateValue : ABSENT);
+        return delegateValue;
+    }
+
+    @Override
+    public V get(K key, V defaultValue) {
+        V val = get(key);
+        return val != null ? val : defaultValue;
+    }
+
+    @Override
+    public V delete(K key) {
+        V val = get(key);
+        writeBuffer.put(key, ABSENT);
+        return val;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The buffered writes are pushed down to the wrapped state first, so that its iterator sees them.
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        flushWrites();
+        return delegate.iterator();
+    }
+
+    @Override
+    public void prepareCommit(long txid) {
+        LOG.debug("prepareCommit txid {}, {} buffered writes", txid, writeBuffer.size());
+        flushWrites();
+        delegate.prepareCommit(txid);
+    }
+
+    @Override
+    public void commit(long txid) {
+        delegate.commit(txid);
+    }
+
+    @Override
+    public void commit() {
+        flushWrites();
+        delegate.commit();
+    }
+
+    @Override
+    public void rollback() {
+        LOG.debug("rollback, dropping {} buffered writes and {} cached values", writeBuffer.size(), cache.size());
+        writeBuffer.clear();
+        cache.clear();
+        delegate.rollback();
+    }
+
+    /**
+     * The fraction of the reads that were served without going to the wrapped state.
+     */
+    public double getHitRatio() {
+        long total = hits.getCount() + misses.getCount();
+        return total == 0 ? 0.0 : (double) hits.getCount() / total;
+    }
+
+    @SuppressWarnings("unchecked")
+    void flushWrites() {
+        for (Map.Entry<K, Object> e : writeBuffer.entrySet()) {
+            if (e.getValue() == ABSENT) {
+                delegate.delete(e.getKey());
+            } else {
+                delegate.put(e.getKey(), (V) e.getValue());
+            }
+            cache.put(e.getKey(), e.getValue());
+        }
+        writeBuffer.clear();
+    }
+
+    /*
+     * The buffered writes are pushed down on the executor thread in snapshot, the wrapped state only buffers them
+     * itself until its flushPrepared. The cache and the write buffer are never touched from the background thread.
+     */
+    private static class AsyncCaching<K, V> extends CachingKeyValueState<K, V> implements AsyncCheckpointState {
+        private final AsyncCheckpointState asyncDelegate;
+
+        AsyncCaching(KeyValueState<K, V> delegate, int cacheSize, Counter hits, Counter misses) {
+            super(delegate, cacheSize, hits, misses);
+            this.asyncDelegate = (AsyncCheckpointState) delegate;
+        }
+
+        @Override
+        public void snapshot(long txid) {
+            flushWrites();
+            asyncDelegate.snapshot(txid);
+        }
+
+        @Override
+        public void flushPrepared(long txid) {
+            asyncDelegate.flushPrepared(txid);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachingKeyValueState{"
+            + "delegate=" + delegate
+            + ", cached=" + cache.size()
+            + ", buffered=" + writeBuffer.size()
+            + '}';
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.state;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * Provides {@link CachingKeyValueState}s on top of the key value states of the provider set in
+ * {@link Config#TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER}. The size of the read cache is set by
+ * {@link Config#TOPOLOGY_STATE_CACHE_SIZE}.
+ *
+ * <p>The cache hits and misses are reported as the {@code state-cache-hits} and {@code state-cache-misses} counters
+ * and the {@code state-cache-hit-ratio} gauge of the task.
+ */
+public class CachingKeyValueStateProvider implements StateProvider {
+    public static final String CACHE_HITS = "state-cache-hits";
+    public static final String CACHE_MISSES = "state-cache-misses";
+    public static final String CACHE_HIT_RATIO = "state-cache-hit-ratio";
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+
+    @Override
+    public State newState(String namespace, Map<String, Object> topoConf, TopologyContext context) {
+        String delegateProvider = (String) topoConf.get(Config.TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER);
+        if (delegateProvider == null) {
+            throw new IllegalArgumentException(Config.TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER + " is not set");
+        }
+        if (delegateProvider.equals(CachingKeyValueStateProvider.class.getName())) {
+            throw new IllegalArgumentException(Config.TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER
+                                               + " can not be the caching provider itself");
+        }
+        State delegate = StateFactory.newState(delegateProvider, namespace, topoConf, context);
+        if (!(delegate instanceof KeyValueState)) {
+            throw new IllegalArgumentException("Provider " + delegateProvider + " does not provide a KeyValueState");
+        }
+        int cacheSize = ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_STATE_CACHE_SIZE), DEFAULT_CACHE_SIZE);
+        Counter hits = context != null ? context.registerCounter(CACHE_HITS) : new Counter();
+        Counter misses = context != null ? context.registerCounter(CACHE_MISSES) : new Counter();
+        CachingKeyValueState<?, ?> state = CachingKeyValueState.wrap((KeyValueState<?, ?>) delegate, cacheSize, hits, misses);
+        if (context != null) {
+            context.registerGauge(CACHE_HIT_RATIO, (Gauge<Double>) state::getHitRatio);
+        }
+        return state;
+    }
+}
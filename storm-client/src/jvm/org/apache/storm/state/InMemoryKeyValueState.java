@@ -17,50 +17,51 @@
  */
 package org.apache.storm.state;
 
+import com.google.common.collect.Iterators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.util.AbstractMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * An in-memory implementation of the {@link State}
+ * An in-memory implementation of the {@link State}.
+ *
+ * <p>The state is kept as a committed base map with two overlays of the keys changed since: the changes of the
+ * prepared transaction and the changes made after it was prepared. Preparing a transaction and rolling back only swap
+ * overlays, committing merges the prepared overlay into the base, so the cost of a checkpoint is proportional to the
+ * number of keys changed since the previous one rather than to the size of the state.
+ *
+ * <p>There is nothing to write for a prepare, so {@link #flushPrepared(long)} is a no-op.
  */
-public class InMemoryKeyValueState<K, V> implements KeyValueState<K, V> {
+public class InMemoryKeyValueState<K, V> implements KeyValueState<K, V>, AsyncCheckpointState {
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryKeyValueState.class);
-    private static final long DEFAULT_TXID = -1;
-    private TxIdState<K, V> commitedState;
-    private TxIdState<K, V> preparedState;
-    private Map<K, V> state = new ConcurrentHashMap<>();
-
-    private static class TxIdState<K, V> {
-        private long txid;
-        private Map<K, V> state;
-
-        TxIdState(long txid, Map<K, V> state) {
-            this.txid = txid;
-            this.state = state;
-        }
-
-        @Override
-        public String toString() {
-            return "TxIdState{" +
-                    "txid=" + txid +
-                    ", state=" + state +
-                    '}';
-        }
-    }
+    // marks a deleted key in an overlay
+    private static final Object TOMBSTONE = new Object();
+    private final Map<K, V> committed = new ConcurrentHashMap<>();
+    private volatile Map<K, Object> prepared = new ConcurrentHashMap<>();
+    private volatile Map<K, Object> current = new ConcurrentHashMap<>();
+    private volatile Long preparedTxid;
+    private volatile Long committedTxid;
 
     @Override
     public void put(K key, V value) {
-        state.put(key, value);
+        current.put(key, value);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V get(K key) {
-        return state.get(key);
+        Object value = current.get(key);
+        if (value == null) {
+            value = prepared.get(key);
+        }
+        if (value == null) {
+            return committed.get(key);
+        }
+        return value == TOMBSTONE ? null : (V) value;
     }
 
     @Override
@@ -71,56 +72,107 @@ public class InMemoryKeyValueState<K, V> implements KeyValueState<K, V> {
 
     @Override
     public V delete(K key) {
-        return state.remove(key);
+        V val = get(key);
+        if (val != null) {
+            current.put(key, TOMBSTONE);
+        }
+        return val;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Iterator<Map.Entry<K, V>> iterator() {
-        return state.entrySet().iterator();
+        final Map<K, Object> current = this.current;
+        final Map<K, Object> prepared = this.prepared;
+        Iterator<Map.Entry<K, Object>> currentEntries = current.entrySet().iterator();
+        Iterator<Map.Entry<K, Object>> preparedEntries = Iterators.filter(prepared.entrySet().iterator(),
+            e -> !current.containsKey(e.getKey()));
+        Iterator<Map.Entry<K, Object>> overlayEntries = Iterators.filter(Iterators.concat(currentEntries, preparedEntries),
+            e -> e.getValue() != TOMBSTONE);
+        Iterator<Map.Entry<K, V>> committedEntries = Iterators.filter(committed.entrySet().iterator(),
+            e -> !current.containsKey(e.getKey()) && !prepared.containsKey(e.getKey()));
+        return Iterators.concat(
+            Iterators.transform(overlayEntries, e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), (V) e.getValue())),
+            committedEntries);
     }
 
     @Override
     public void commit() {
-        commitedState = new TxIdState<>(DEFAULT_TXID, new ConcurrentHashMap<>(state));
+        merge(prepared);
+        merge(current);
+        prepared = new ConcurrentHashMap<>();
+        current = new ConcurrentHashMap<>();
+        preparedTxid = null;
     }
 
     @Override
     public void prepareCommit(long txid) {
+        snapshot(txid);
+        flushPrepared(txid);
+    }
+
+    @Override
+    public void snapshot(long txid) {
         LOG.debug("prepare commit, txid {}", txid);
-        if (preparedState != null && txid > preparedState.txid) {
+        if (preparedTxid != null && txid > preparedTxid) {
             throw new RuntimeException("Cannot prepare a new txn while there is a pending txn");
         }
-        preparedState = new TxIdState<>(txid, new ConcurrentHashMap<K, V>(state));
+        if (preparedTxid == null) {
+            prepared = current;
+        } else {
+            // the pending txn is prepared again, it also gets the changes made since
+            prepared.putAll(current);
+        }
+        current = new ConcurrentHashMap<>();
+        preparedTxid = txid;
+    }
+
+    @Override
+    public void flushPrepared(long txid) {
+        // the prepared overlay is kept in memory
     }
 
     @Override
     public void commit(long txid) {
         LOG.debug("commit, txid {}", txid);
-        if (preparedState != null && txid == preparedState.txid) {
-            commitedState = preparedState;
-            preparedState = null;
+        if (preparedTxid != null && txid == preparedTxid) {
+            // the merged keys are still in the prepared overlay, so concurrent reads see them in either place
+            merge(prepared);
+            prepared = new ConcurrentHashMap<>();
+            preparedTxid = null;
+            committedTxid = txid;
         } else {
-            throw new RuntimeException("Invalid prepared state for commit, " +
-                                               "preparedState " + preparedState + " txid " + txid);
+            throw new RuntimeException("Invalid prepared state for commit, "
+                                       + "preparedTxid " + preparedTxid + " txid " + txid);
         }
     }
 
     @Override
     public void rollback() {
-        preparedState = null;
-        if (commitedState != null) {
-            state = commitedState.state;
-        } else {
-            state = new ConcurrentHashMap<>();
+        prepared = new ConcurrentHashMap<>();
+        current = new ConcurrentHashMap<>();
+        preparedTxid = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void merge(Map<K, Object> overlay) {
+        for (Map.Entry<K, Object> e : overlay.entrySet()) {
+            if (e.getValue() == TOMBSTONE) {
+                committed.remove(e.getKey());
+            } else {
+                committed.put(e.getKey(), (V) e.getValue());
+            }
         }
     }
 
     @Override
     public String toString() {
-        return "InMemoryKeyValueState{" +
-                "commitedState=" + commitedState +
-                ", preparedState=" + preparedState +
-                ", state=" + state +
-                '}';
+        return "InMemoryKeyValueState{"
+            + "committedTxid=" + committedTxid
+            + ", committed=" + committed
+            + ", preparedTxid=" + preparedTxid
+            + ", prepared=" + prepared
+            + ", current=" + current
+            + '}';
     }
 }
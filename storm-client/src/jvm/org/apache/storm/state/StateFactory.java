@@ -42,14 +42,21 @@ public class StateFactory {
      * @return the state instance
      */
     public static State getState(String namespace, Map<String, Object> topoConf, TopologyContext context) {
+        String provider = null;
+        if (topoConf.containsKey(Config.TOPOLOGY_STATE_PROVIDER)) {
+            provider = (String) topoConf.get(Config.TOPOLOGY_STATE_PROVIDER);
+        } else {
+            provider = DEFAULT_PROVIDER;
+        }
+        return newState(provider, namespace, topoConf, context);
+    }
+
+    /**
+     * Returns a new state instance from the given {@link StateProvider} class.
+     */
+    static State newState(String provider, String namespace, Map<String, Object> topoConf, TopologyContext context) {
         State state;
         try {
-            String provider = null;
-            if (topoConf.containsKey(Config.TOPOLOGY_STATE_PROVIDER)) {
-                provider = (String) topoConf.get(Config.TOPOLOGY_STATE_PROVIDER);
-            } else {
-                provider = DEFAULT_PROVIDER;
-            }
             Class<?> klazz = Class.forName(provider);
             Object object = klazz.newInstance();
             if (object instanceof StateProvider) {
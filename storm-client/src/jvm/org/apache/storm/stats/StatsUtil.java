@@ -41,7 +41,6 @@ import org.apache.storm.generated.SpoutAggregateStats;
 import org.apache.storm.generated.SpoutStats;
 import org.apache.storm.generated.StormTopology;
 import org.apache.storm.generated.TopologyPageInfo;
-import org.apache.storm.generated.TopologyStats;
 import org.apache.storm.generated.WorkerResources;
 import org.apache.storm.generated.WorkerSummary;
 import org.apache.storm.scheduler.WorkerSlot;
@@ -112,11 +111,8 @@ public class StatsUtil {
     private static final String WIN_TO_EXEC_LAT_WGT_AVG = "window->exec-lat-wgt-avg";
     private static final String WIN_TO_PROC_LAT_WGT_AVG = "window->proc-lat-wgt-avg";
 
-    private static final String BOLT_TO_STATS = "bolt-id->stats";
-    private static final String SPOUT_TO_STATS = "spout-id->stats";
     private static final String SID_TO_OUT_STATS = "sid->output-stats";
     private static final String CID_SID_TO_IN_STATS = "cid+sid->input-stats";
-    private static final String WORKERS_SET = "workers-set";
 
     public static final int TEN_MIN_IN_SECONDS = 60 * 10;
     public static final String TEN_MIN_IN_SECONDS_STR = TEN_MIN_IN_SECONDS + "";
@@ -318,82 +314,22 @@ public class StatsUtil {
      * @param window     specified window
      * @param includeSys whether to include system streams
      * @return { comp id -> comp-stats }
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
      */
+    @Deprecated
     public static <K, V extends Number> Map<String, Object> aggPreMergeTopoPageBolt(
             Map<String, Object> beat, String window, boolean includeSys) {
-        Map<String, Object> ret = new HashMap<>();
-
-        Map<String, Object> subRet = new HashMap<>();
-        putKV(subRet, NUM_EXECUTORS, 1);
-        putKV(subRet, NUM_TASKS, getByKey(beat, NUM_TASKS));
-
-        Map<String, Object> stat2win2sid2num = getMapByKey(beat, STATS);
-        putKV(subRet, CAPACITY, computeAggCapacity(stat2win2sid2num, getByKeyOr0(beat, UPTIME).intValue()));
-
-        for (String key : new String[]{EMITTED, TRANSFERRED, ACKED, FAILED}) {
-            Map<String, Map<K, V>> stat = windowSetConverter(getMapByKey(stat2win2sid2num, key), TO_STRING);
-            if (EMITTED.equals(key) || TRANSFERRED.equals(key)) {
-                stat = filterSysStreams(stat, includeSys);
-            }
-            Map<K, V> winStat = stat.get(window);
-            long sum = 0;
-            if (winStat != null) {
-                for (V v : winStat.values()) {
-                    sum += v.longValue();
-                }
-            }
-            putKV(subRet, key, sum);
-        }
-
-        Map<String, Map<List<String>, Double>> win2sid2execLat =
-                windowSetConverter(getMapByKey(stat2win2sid2num, EXEC_LATENCIES), TO_STRING);
-        Map<String, Map<List<String>, Double>> win2sid2procLat =
-                windowSetConverter(getMapByKey(stat2win2sid2num, PROC_LATENCIES), TO_STRING);
-        Map<String, Map<List<String>, Long>> win2sid2exec =
-                windowSetConverter(getMapByKey(stat2win2sid2num, EXECUTED), TO_STRING);
-        subRet.putAll(aggBoltLatAndCount(
-                win2sid2execLat.get(window), win2sid2procLat.get(window), win2sid2exec.get(window)));
-
-        ret.put((String) getByKey(beat, "comp-id"), subRet);
-        return ret;
+        return TopologyPageAggregator.preMergeComponent(beat, BOLT, window, includeSys);
     }
 
     /**
      * pre-merge component stats of specified spout id and returns { comp id -> comp-stats }
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
      */
+    @Deprecated
     public static <K, V extends Number> Map<String, Object> aggPreMergeTopoPageSpout(
             Map<String, Object> m, String window, boolean includeSys) {
-        Map<String, Object> ret = new HashMap<>();
-
-        Map<String, Object> subRet = new HashMap<>();
-        putKV(subRet, NUM_EXECUTORS, 1);
-        putKV(subRet, NUM_TASKS, getByKey(m, NUM_TASKS));
-
-        // no capacity for spout
-        Map<String, Map<String, Map<String, V>>> stat2win2sid2num = getMapByKey(m, STATS);
-        for (String key : new String[]{EMITTED, TRANSFERRED, FAILED}) {
-            Map<String, Map<K, V>> stat = windowSetConverter(stat2win2sid2num.get(key), TO_STRING);
-            if (EMITTED.equals(key) || TRANSFERRED.equals(key)) {
-                stat = filterSysStreams(stat, includeSys);
-            }
-            Map<K, V> winStat = stat.get(window);
-            long sum = 0;
-            if (winStat != null) {
-                for (V v : winStat.values()) {
-                    sum += v.longValue();
-                }
-            }
-            putKV(subRet, key, sum);
-        }
-
-        Map<String, Map<String, Double>> win2sid2compLat =
-                windowSetConverter(getMapByKey(stat2win2sid2num, COMP_LATENCIES), TO_STRING);
-        Map<String, Map<String, Long>> win2sid2acked =
-                windowSetConverter(getMapByKey(stat2win2sid2num, ACKED), TO_STRING);
-        subRet.putAll(aggSpoutLatAndCount(win2sid2compLat.get(window), win2sid2acked.get(window)));
-
-        ret.put((String) getByKey(m, "comp-id"), subRet);
-        return ret;
+        return TopologyPageAggregator.preMergeComponent(m, SPOUT, window, includeSys);
     }
 
     /**
@@ -498,145 +434,33 @@ public class StatsUtil {
      * @param accBoltStats accumulated bolt stats
      * @param boltStats    new input bolt stats
      * @return merged bolt stats
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
      */
+    @Deprecated
     public static Map<String, Object> mergeAggCompStatsTopoPageBolt(Map<String, Object> accBoltStats,
                                                                     Map<String, Object> boltStats) {
-        Map<String, Object> ret = new HashMap<>();
-
-        Integer numExecutors = getByKeyOr0(accBoltStats, NUM_EXECUTORS).intValue();
-        putKV(ret, NUM_EXECUTORS, numExecutors + 1);
-        putKV(ret, NUM_TASKS,
-                sumOr0(getByKeyOr0(accBoltStats, NUM_TASKS), getByKeyOr0(boltStats, NUM_TASKS)));
-        putKV(ret, EMITTED,
-                sumOr0(getByKeyOr0(accBoltStats, EMITTED), getByKeyOr0(boltStats, EMITTED)));
-        putKV(ret, TRANSFERRED,
-                sumOr0(getByKeyOr0(accBoltStats, TRANSFERRED), getByKeyOr0(boltStats, TRANSFERRED)));
-        putKV(ret, EXEC_LAT_TOTAL,
-                sumOr0(getByKeyOr0(accBoltStats, EXEC_LAT_TOTAL), getByKeyOr0(boltStats, EXEC_LAT_TOTAL)));
-        putKV(ret, PROC_LAT_TOTAL,
-                sumOr0(getByKeyOr0(accBoltStats, PROC_LAT_TOTAL), getByKeyOr0(boltStats, PROC_LAT_TOTAL)));
-        putKV(ret, EXECUTED,
-                sumOr0(getByKeyOr0(accBoltStats, EXECUTED), getByKeyOr0(boltStats, EXECUTED)));
-        putKV(ret, ACKED,
-                sumOr0(getByKeyOr0(accBoltStats, ACKED), getByKeyOr0(boltStats, ACKED)));
-        putKV(ret, FAILED,
-                sumOr0(getByKeyOr0(accBoltStats, FAILED), getByKeyOr0(boltStats, FAILED)));
-        putKV(ret, CAPACITY,
-                maxOr0(getByKeyOr0(accBoltStats, CAPACITY), getByKeyOr0(boltStats, CAPACITY)));
-
-        return ret;
+        return TopologyPageAggregator.mergeComponents(accBoltStats, boltStats, false);
     }
 
     /**
      * merge accumulated bolt stats with new bolt stats
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
      */
+    @Deprecated
     public static Map<String, Object> mergeAggCompStatsTopoPageSpout(Map<String, Object> accSpoutStats,
                                                                      Map<String, Object> spoutStats) {
-        Map<String, Object> ret = new HashMap<>();
-
-        Integer numExecutors = getByKeyOr0(accSpoutStats, NUM_EXECUTORS).intValue();
-        putKV(ret, NUM_EXECUTORS, numExecutors + 1);
-        putKV(ret, NUM_TASKS,
-                sumOr0(getByKeyOr0(accSpoutStats, NUM_TASKS), getByKeyOr0(spoutStats, NUM_TASKS)));
-        putKV(ret, EMITTED,
-                sumOr0(getByKeyOr0(accSpoutStats, EMITTED), getByKeyOr0(spoutStats, EMITTED)));
-        putKV(ret, TRANSFERRED,
-                sumOr0(getByKeyOr0(accSpoutStats, TRANSFERRED), getByKeyOr0(spoutStats, TRANSFERRED)));
-        putKV(ret, COMP_LAT_TOTAL,
-                sumOr0(getByKeyOr0(accSpoutStats, COMP_LAT_TOTAL), getByKeyOr0(spoutStats, COMP_LAT_TOTAL)));
-        putKV(ret, ACKED,
-                sumOr0(getByKeyOr0(accSpoutStats, ACKED), getByKeyOr0(spoutStats, ACKED)));
-        putKV(ret, FAILED,
-                sumOr0(getByKeyOr0(accSpoutStats, FAILED), getByKeyOr0(spoutStats, FAILED)));
-
-        return ret;
+        return TopologyPageAggregator.mergeComponents(accSpoutStats, spoutStats, true);
     }
 
     /**
      * A helper function that does the common work to aggregate stats of one
      * executor with the given map for the topology page.
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
      */
+    @Deprecated
     public static Map<String, Object> aggTopoExecStats(
             String window, boolean includeSys, Map<String, Object> accStats, Map<String, Object> beat, String compType) {
-        Map<String, Object> ret = new HashMap<>();
-
-        Set workerSet = (Set) accStats.get(WORKERS_SET);
-        Map bolt2stats = getMapByKey(accStats, BOLT_TO_STATS);
-        Map spout2stats = getMapByKey(accStats, SPOUT_TO_STATS);
-        Map win2emitted = getMapByKey(accStats, WIN_TO_EMITTED);
-        Map win2transferred = getMapByKey(accStats, WIN_TO_TRANSFERRED);
-        Map win2compLatWgtAvg = getMapByKey(accStats, WIN_TO_COMP_LAT_WGT_AVG);
-        Map win2acked = getMapByKey(accStats, WIN_TO_ACKED);
-        Map win2failed = getMapByKey(accStats, WIN_TO_FAILED);
-
-        boolean isSpout = compType.equals(SPOUT);
-        // component id -> stats
-        Map<String, Object> cid2stats;
-        if (isSpout) {
-            cid2stats = aggPreMergeTopoPageSpout(beat, window, includeSys);
-        } else {
-            cid2stats = aggPreMergeTopoPageBolt(beat, window, includeSys);
-        }
-
-        Map stats = getMapByKey(beat, STATS);
-        Map w2compLatWgtAvg, w2acked;
-        Map compLatStats = getMapByKey(stats, COMP_LATENCIES);
-        if (isSpout) { // agg spout stats
-            Map mm = new HashMap();
-
-            Map acked = getMapByKey(stats, ACKED);
-            for (Object win : acked.keySet()) {
-                mm.put(win, aggSpoutLatAndCount((Map) compLatStats.get(win), (Map) acked.get(win)));
-            }
-            mm = swapMapOrder(mm);
-            w2compLatWgtAvg = getMapByKey(mm, COMP_LAT_TOTAL);
-            w2acked = getMapByKey(mm, ACKED);
-        } else {
-            w2compLatWgtAvg = null;
-            w2acked = aggregateCountStreams(getMapByKey(stats, ACKED));
-        }
-
-        workerSet.add(Lists.newArrayList(getByKey(beat, HOST), getByKey(beat, PORT)));
-        putKV(ret, WORKERS_SET, workerSet);
-        putKV(ret, BOLT_TO_STATS, bolt2stats);
-        putKV(ret, SPOUT_TO_STATS, spout2stats);
-        putKV(ret, WIN_TO_EMITTED, mergeWithSumLong(win2emitted, aggregateCountStreams(
-                filterSysStreams(getMapByKey(stats, EMITTED), includeSys))));
-        putKV(ret, WIN_TO_TRANSFERRED, mergeWithSumLong(win2transferred, aggregateCountStreams(
-                filterSysStreams(getMapByKey(stats, TRANSFERRED), includeSys))));
-        putKV(ret, WIN_TO_COMP_LAT_WGT_AVG, mergeWithSumDouble(win2compLatWgtAvg, w2compLatWgtAvg));
-
-        //boolean isSpoutStat = SPOUT.equals(((Keyword) getByKey(stats, TYPE)).getName());
-        putKV(ret, WIN_TO_ACKED, isSpout ? mergeWithSumLong(win2acked, w2acked) : win2acked);
-        putKV(ret, WIN_TO_FAILED, isSpout ?
-                mergeWithSumLong(aggregateCountStreams(getMapByKey(stats, FAILED)), win2failed) : win2failed);
-        putKV(ret, TYPE, getByKey(stats, TYPE));
-
-        // (merge-with merge-agg-comp-stats-topo-page-bolt/spout (acc-stats comp-key) cid->statk->num)
-        // (acc-stats comp-key) ==> bolt2stats/spout2stats
-        if (isSpout) {
-            Set<String> spouts = new HashSet<>();
-            spouts.addAll(spout2stats.keySet());
-            spouts.addAll(cid2stats.keySet());
-
-            Map<String, Object> mm = new HashMap<>();
-            for (String spout : spouts) {
-                mm.put(spout, mergeAggCompStatsTopoPageSpout((Map) spout2stats.get(spout), (Map) cid2stats.get(spout)));
-            }
-            putKV(ret, SPOUT_TO_STATS, mm);
-        } else {
-            Set<String> bolts = new HashSet<>();
-            bolts.addAll(bolt2stats.keySet());
-            bolts.addAll(cid2stats.keySet());
-
-            Map<String, Object> mm = new HashMap<>();
-            for (String bolt : bolts) {
-                mm.put(bolt, mergeAggCompStatsTopoPageBolt((Map) bolt2stats.get(bolt), (Map) cid2stats.get(bolt)));
-            }
-            putKV(ret, BOLT_TO_STATS, mm);
-        }
-
-        return ret;
+        return TopologyPageAggregator.addBeat(accStats, beat, compType, window, includeSys);
     }
 
     /**
@@ -651,93 +475,31 @@ public class StatsUtil {
      * @param includeSys     whether to include system streams
      * @param clusterState   cluster state
      * @return TopologyPageInfo thrift structure
+     * @see TopologyPageAggregator for a variant that can be reused across calls
      */
     public static TopologyPageInfo aggTopoExecsStats(
             String topologyId, Map exec2nodePort, Map task2component, Map<List<Integer>, Map<String, Object>> beats,
             StormTopology topology, String window, boolean includeSys, IStormClusterState clusterState) {
-        List<Map<String, Object>> beatList = extractDataFromHb(exec2nodePort, task2component, beats, includeSys, topology);
-        Map<String, Object> topoStats = aggregateTopoStats(window, includeSys, beatList);
-        return postAggregateTopoStats(task2component, exec2nodePort, topoStats, topologyId, clusterState);
+        return new TopologyPageAggregator(topologyId).aggTopoExecsStats(exec2nodePort, task2component, beats, window,
+                includeSys, clusterState);
     }
 
+    /**
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
+     */
+    @Deprecated
     public static Map<String, Object> aggregateTopoStats(String win, boolean includeSys, List<Map<String, Object>> heartbeats) {
-        Map<String, Object> initVal = new HashMap<>();
-        putKV(initVal, WORKERS_SET, new HashSet());
-        putKV(initVal, BOLT_TO_STATS, new HashMap());
-        putKV(initVal, SPOUT_TO_STATS, new HashMap());
-        putKV(initVal, WIN_TO_EMITTED, new HashMap());
-        putKV(initVal, WIN_TO_TRANSFERRED, new HashMap());
-        putKV(initVal, WIN_TO_COMP_LAT_WGT_AVG, new HashMap());
-        putKV(initVal, WIN_TO_ACKED, new HashMap());
-        putKV(initVal, WIN_TO_FAILED, new HashMap());
-
-        for (Map<String, Object> heartbeat : heartbeats) {
-            String compType = (String) getByKey(heartbeat, TYPE);
-            initVal = aggTopoExecStats(win, includeSys, initVal, heartbeat, compType);
-        }
-
-        return initVal;
+        return TopologyPageAggregator.aggregateBeats(heartbeats, win, includeSys);
     }
 
+    /**
+     * @deprecated the topology page is aggregated by {@link TopologyPageAggregator}, which does not use this
+     */
+    @Deprecated
     public static TopologyPageInfo postAggregateTopoStats(Map task2comp, Map exec2nodePort, Map<String, Object> accData,
                                                           String topologyId, IStormClusterState clusterState) {
-        TopologyPageInfo ret = new TopologyPageInfo(topologyId);
-
-        ret.set_num_tasks(task2comp.size());
-        ret.set_num_workers(((Set) getByKey(accData, WORKERS_SET)).size());
-        ret.set_num_executors(exec2nodePort != null ? exec2nodePort.size() : 0);
-
-        Map bolt2stats = getMapByKey(accData, BOLT_TO_STATS);
-        Map<String, ComponentAggregateStats> aggBolt2stats = new HashMap<>();
-        for (Object o : bolt2stats.entrySet()) {
-            Map.Entry e = (Map.Entry) o;
-            String id = (String) e.getKey();
-            Map m = (Map) e.getValue();
-            long executed = getByKeyOr0(m, EXECUTED).longValue();
-            if (executed > 0) {
-                double execLatencyTotal = getByKeyOr0(m, EXEC_LAT_TOTAL).doubleValue();
-                putKV(m, EXEC_LATENCY, execLatencyTotal / executed);
-
-                double procLatencyTotal = getByKeyOr0(m, PROC_LAT_TOTAL).doubleValue();
-                putKV(m, PROC_LATENCY, procLatencyTotal / executed);
-            }
-            remove(m, EXEC_LAT_TOTAL);
-            remove(m, PROC_LAT_TOTAL);
-            putKV(m, "last-error", getLastError(clusterState, topologyId, id));
-
-            aggBolt2stats.put(id, thriftifyBoltAggStats(m));
-        }
-
-        Map spout2stats = getMapByKey(accData, SPOUT_TO_STATS);
-        Map<String, ComponentAggregateStats> aggSpout2stats = new HashMap<>();
-        for (Object o : spout2stats.entrySet()) {
-            Map.Entry e = (Map.Entry) o;
-            String id = (String) e.getKey();
-            Map m = (Map) e.getValue();
-            long acked = getByKeyOr0(m, ACKED).longValue();
-            if (acked > 0) {
-                double compLatencyTotal = getByKeyOr0(m, COMP_LAT_TOTAL).doubleValue();
-                putKV(m, COMP_LATENCY, compLatencyTotal / acked);
-            }
-            remove(m, COMP_LAT_TOTAL);
-            putKV(m, "last-error", getLastError(clusterState, topologyId, id));
-
-            aggSpout2stats.put(id, thriftifySpoutAggStats(m));
-        }
-
-        TopologyStats topologyStats = new TopologyStats();
-        topologyStats.set_window_to_acked(mapKeyStr(getMapByKey(accData, WIN_TO_ACKED)));
-        topologyStats.set_window_to_emitted(mapKeyStr(getMapByKey(accData, WIN_TO_EMITTED)));
-        topologyStats.set_window_to_failed(mapKeyStr(getMapByKey(accData, WIN_TO_FAILED)));
-        topologyStats.set_window_to_transferred(mapKeyStr(getMapByKey(accData, WIN_TO_TRANSFERRED)));
-        topologyStats.set_window_to_complete_latencies_ms(computeWeightedAveragesPerWindow(
-                accData, WIN_TO_COMP_LAT_WGT_AVG, WIN_TO_ACKED));
-
-        ret.set_topology_stats(topologyStats);
-        ret.set_id_to_spout_agg_stats(aggSpout2stats);
-        ret.set_id_to_bolt_agg_stats(aggBolt2stats);
-
-        return ret;
+        return TopologyPageAggregator.toTopologyPageInfo(accData, topologyId, task2comp.size(),
+                exec2nodePort != null ? exec2nodePort.size() : 0, clusterState);
     }
 
     /**
@@ -1247,6 +1009,15 @@ public class StatsUtil {
 
         List<Map<String, Object>> beatList =
                 extractDataFromHb(exec2hostPort, task2component, beats, includeSys, topology, componentId);
+        return aggCompExecsStats(beatList, window, includeSys, topologyId, topology, componentId);
+    }
+
+    /**
+     * aggregate component executor stats from executor data as returned by extractDataFromHb. The stats in the
+     * executor data may be modified, so callers that keep them around must pass copies.
+     */
+    static ComponentPageInfo aggCompExecsStats(List<Map<String, Object>> beatList, String window, boolean includeSys,
+                                               String topologyId, StormTopology topology, String componentId) {
         Map<String, Object> compStats = aggregateCompStats(window, includeSys, beatList, componentType(topology, componentId));
         compStats = postAggregateCompStats(compStats);
         return thriftifyCompPageData(topologyId, topology, componentId, compStats);
@@ -2285,7 +2056,7 @@ public class StatsUtil {
      * }
      * </pre>
      */
-    private static double computeAggCapacity(Map m, Integer uptime) {
+    static double computeAggCapacity(Map m, Integer uptime) {
         if (uptime != null && uptime != 0) {
             Map execAvg = (Map) ((Map) getByKey(m, EXEC_LATENCIES)).get(TEN_MIN_IN_SECONDS_STR);
             Map exec = (Map) ((Map) getByKey(m, EXECUTED)).get(TEN_MIN_IN_SECONDS_STR);
@@ -2516,10 +2287,6 @@ public class StatsUtil {
         return errorStr.substring(0, 200);
     }
 
-    private static ErrorInfo getLastError(IStormClusterState stormClusterState, String stormId, String compId) {
-        return stormClusterState.lastError(stormId, compId);
-    }
-
 
     // =====================================================================================
     // key transformers
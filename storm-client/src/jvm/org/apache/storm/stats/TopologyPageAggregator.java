@@ -0,0 +1,822 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.storm.cluster.IStormClusterState;
+import org.apache.storm.generated.BoltAggregateStats;
+import org.apache.storm.generated.CommonAggregateStats;
+import org.apache.storm.generated.ComponentAggregateStats;
+import org.apache.storm.generated.ComponentPageInfo;
+import org.apache.storm.generated.ComponentType;
+import org.apache.storm.generated.SpecificAggregateStats;
+import org.apache.storm.generated.SpoutAggregateStats;
+import org.apache.storm.generated.StormTopology;
+import org.apache.storm.generated.TopologyPageInfo;
+import org.apache.storm.generated.TopologyStats;
+import org.apache.storm.utils.Utils;
+
+/**
+ * Typed, incrementally maintained aggregation of executor heartbeats for the topology and component pages.
+ *
+ * <p>Each executor heartbeat is reduced once into a flat {@link ExecutorAggregate} holding per-window counters. The
+ * reduction is only redone when the executor reports a new heartbeat or moves to another worker, so repeated page
+ * requests between heartbeat rounds do not walk the nested heartbeat maps again. Topology and component totals are
+ * folded from the executor aggregates on demand and memoized per (window, includeSys) until an executor changes.
+ *
+ * <p>Instances are meant to be kept around (e.g. by nimbus, one per topology, refreshed with
+ * {@link #update(Map, Map, Map)} whenever the heartbeats are read) and are thread safe.
+ */
+public class TopologyPageAggregator {
+    private static final String TIME_SECS = "time-secs";
+    private static final String UPTIME = "uptime";
+    private static final String HEARTBEAT = "heartbeat";
+    private static final String STATS = "stats";
+    private static final String TYPE = "type";
+    private static final String EMITTED = "emitted";
+    private static final String TRANSFERRED = "transferred";
+    private static final String ACKED = "acked";
+    private static final String FAILED = "failed";
+    private static final String EXECUTED = "executed";
+    private static final String EXEC_LATENCIES = "execute-latencies";
+    private static final String PROC_LATENCIES = "process-latencies";
+    private static final String COMP_LATENCIES = "complete-latencies";
+
+    // keys of the map form used by the deprecated StatsUtil topology page helpers
+    private static final String EXEC_ID = "exec-id";
+    private static final String COMP_ID = "comp-id";
+    private static final String NUM_TASKS = "num-tasks";
+    private static final String NUM_EXECUTORS = "num-executors";
+    private static final String HOST = "host";
+    private static final String PORT = "port";
+    private static final String CAPACITY = "capacity";
+    private static final String EXEC_LAT_TOTAL = "executeLatencyTotal";
+    private static final String PROC_LAT_TOTAL = "processLatencyTotal";
+    private static final String COMP_LAT_TOTAL = "completeLatencyTotal";
+    private static final String WORKERS_SET = "workers-set";
+    private static final String BOLT_TO_STATS = "bolt-id->stats";
+    private static final String SPOUT_TO_STATS = "spout-id->stats";
+    private static final String WIN_TO_EMITTED = "window->emitted";
+    private static final String WIN_TO_TRANSFERRED = "window->transferred";
+    private static final String WIN_TO_ACKED = "window->acked";
+    private static final String WIN_TO_FAILED = "window->failed";
+    private static final String WIN_TO_COMP_LAT_WGT_AVG = "window->comp-lat-wgt-avg";
+
+    private final String topologyId;
+    private final Map<List<Integer>, ExecutorAggregate> executors = new HashMap<>();
+    private final Map<String, TopologyAggregate> aggregates = new HashMap<>();
+    private final Map<String, ComponentPageInfo> componentPages = new HashMap<>();
+    private Map<Integer, String> task2component;
+    private int numExecutors;
+
+    public TopologyPageAggregator(String topologyId) {
+        this.topologyId = topologyId;
+    }
+
+    /**
+     * Brings the executor aggregates up to date with the given heartbeats and builds the topology page stats.
+     *
+     * <p>Use {@link #update(Map, Map, Map, Map)} and {@link #getTopologyPageInfo(String, boolean, IStormClusterState)}
+     * instead when the aggregator is refreshed separately from serving pages.
+     *
+     * @param exec2nodePort  executor -> [node, port]
+     * @param task2component task -> component
+     * @param beats          executor[start, end] -> executor heartbeat, as kept in the nimbus heartbeat cache
+     * @param window         the window to be aggregated
+     * @param includeSys     whether to include system components and streams
+     * @param clusterState   cluster state used to look up the last error of each component
+     * @return a newly created TopologyPageInfo thrift structure
+     */
+    public synchronized TopologyPageInfo aggTopoExecsStats(Map<?, ?> exec2nodePort, Map<Integer, String> task2component,
+                                                           Map<List<Integer>, Map<String, Object>> beats,
+                                                           String window, boolean includeSys,
+                                                           IStormClusterState clusterState) {
+        update(exec2nodePort, null, task2component, beats);
+        return getTopologyPageInfo(window, includeSys, clusterState);
+    }
+
+    /**
+     * Re-reduces the heartbeats of executors that reported since the last update and drops executors that are gone.
+     *
+     * @param exec2nodePort  executor -> [node, port]
+     * @param nodeToHost     node -> host, or null to report the node as the host of its executors
+     * @param task2component task -> component
+     * @param beats          executor[start, end] -> executor heartbeat, as kept in the nimbus heartbeat cache
+     */
+    public synchronized void update(Map<?, ?> exec2nodePort, Map<String, String> nodeToHost,
+                                    Map<Integer, String> task2component,
+                                    Map<List<Integer>, Map<String, Object>> beats) {
+        this.task2component = task2component;
+        refresh(exec2nodePort, nodeToHost, beats);
+    }
+
+    /**
+     * Same as {@link #update(Map, Map, Map, Map)}, reusing the task to component mapping of the previous update, which
+     * does not change over the lifetime of a topology. Does nothing if there was no previous update.
+     */
+    public synchronized void update(Map<?, ?> exec2nodePort, Map<String, String> nodeToHost,
+                                    Map<List<Integer>, Map<String, Object>> beats) {
+        if (task2component != null) {
+            refresh(exec2nodePort, nodeToHost, beats);
+        }
+    }
+
+    /**
+     * Builds the topology page stats from the executor aggregates as of the last update.
+     *
+     * @param window       the window to be aggregated
+     * @param includeSys   whether to include system components and streams
+     * @param clusterState cluster state used to look up the last error of each component
+     * @return a newly created TopologyPageInfo thrift structure
+     */
+    public synchronized TopologyPageInfo getTopologyPageInfo(String window, boolean includeSys,
+                                                             IStormClusterState clusterState) {
+        String key = window + "/" + includeSys;
+        TopologyAggregate aggregate = aggregates.get(key);
+        if (aggregate == null) {
+            aggregate = aggregate(window, includeSys);
+            aggregates.put(key, aggregate);
+        }
+        int numTasks = task2component == null ? 0 : task2component.size();
+        return aggregate.toTopologyPageInfo(topologyId, numTasks, numExecutors, clusterState);
+    }
+
+    /**
+     * Builds the component page stats from the executor aggregates as of the last update. Only the stats are filled
+     * in, the same as {@link StatsUtil#aggCompExecsStats}.
+     *
+     * @param componentId component id
+     * @param window      the window to be aggregated
+     * @param includeSys  whether to include system streams
+     * @param topology    storm topology
+     * @return a newly created ComponentPageInfo thrift structure
+     */
+    public synchronized ComponentPageInfo getComponentPageInfo(String componentId, String window, boolean includeSys,
+                                                               StormTopology topology) {
+        String key = componentId + "/" + window + "/" + includeSys;
+        ComponentPageInfo page = componentPages.get(key);
+        if (page == null) {
+            String type = StatsUtil.componentType(topology, componentId);
+            List<Map<String, Object>> beatList = new ArrayList<>();
+            for (ExecutorAggregate exec : executors.values()) {
+                if (!componentId.equals(exec.componentId) || (!includeSys && Utils.isSystemId(exec.componentId))) {
+                    continue;
+                }
+                Map<String, Object> m = new HashMap<>();
+                m.put("exec-id", exec.executor);
+                m.put("comp-id", exec.componentId);
+                m.put("num-tasks", exec.numTasks);
+                m.put("host", exec.host);
+                m.put("port", exec.port);
+                m.put(UPTIME, exec.uptime);
+                // the component page pipeline filters system streams in place
+                m.put(STATS, copyMaps(exec.stats));
+                m.put(TYPE, type != null ? type : exec.stats.get(TYPE));
+                beatList.add(m);
+            }
+            page = StatsUtil.aggCompExecsStats(beatList, window, includeSys, topologyId, topology, componentId);
+            componentPages.put(key, page);
+        }
+        return new ComponentPageInfo(page);
+    }
+
+    private void refresh(Map<?, ?> exec2nodePort, Map<String, String> nodeToHost,
+                         Map<List<Integer>, Map<String, Object>> beats) {
+        numExecutors = exec2nodePort == null ? 0 : exec2nodePort.size();
+        boolean changed = false;
+        Set<List<Integer>> seen = new HashSet<>();
+        if (exec2nodePort != null && beats != null) {
+            for (Map.Entry<?, ?> entry : exec2nodePort.entrySet()) {
+                List<?> executor = (List<?>) entry.getKey();
+                List<?> nodePort = (List<?>) entry.getValue();
+                List<Integer> execId = new ArrayList<>(2);
+                execId.add(((Number) executor.get(0)).intValue());
+                execId.add(((Number) executor.get(1)).intValue());
+
+                Map<String, Object> beat = beats.get(execId);
+                Map<?, ?> hb = beat == null ? null : (Map<?, ?>) beat.get(HEARTBEAT);
+                Map<?, ?> stats = hb == null ? null : (Map<?, ?>) hb.get(STATS);
+                if (stats == null) {
+                    continue;
+                }
+                seen.add(execId);
+
+                String compId = task2component.get(execId.get(0));
+                String node = (String) nodePort.get(0);
+                String host = nodeToHost == null ? node : nodeToHost.get(node);
+                int port = ((Number) nodePort.get(1)).intValue();
+                ExecutorAggregate current = executors.get(execId);
+                if (current == null || !current.isUpToDate(compId, node, host, port, hb)) {
+                    executors.put(execId, new ExecutorAggregate(executor, compId, execId.get(1) - execId.get(0) + 1,
+                                                                node, host, port,
+                                                                StatsUtil.SPOUT.equals(stats.get(TYPE)), hb, stats));
+                    changed = true;
+                }
+            }
+        }
+        for (Iterator<List<Integer>> it = executors.keySet().iterator(); it.hasNext(); ) {
+            if (!seen.contains(it.next())) {
+                it.remove();
+                changed = true;
+            }
+        }
+        if (changed) {
+            aggregates.clear();
+            componentPages.clear();
+        }
+    }
+
+    private TopologyAggregate aggregate(String window, boolean includeSys) {
+        TopologyAggregate ret = new TopologyAggregate();
+        for (ExecutorAggregate exec : executors.values()) {
+            if (includeSys || !Utils.isSystemId(exec.componentId)) {
+                ret.add(exec, window, includeSys);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Pre-merges the stats of a single executor into { component id -> component stats } for the given window.
+     *
+     * @param beat     executor data as returned by {@link StatsUtil#extractDataFromHb}
+     * @param compType {@link StatsUtil#SPOUT} or {@link StatsUtil#BOLT}
+     */
+    static Map<String, Object> preMergeComponent(Map<String, Object> beat, String compType, String window,
+                                                 boolean includeSys) {
+        ExecutorAggregate exec = ExecutorAggregate.fromBeat(beat, compType);
+        ComponentAggregate comp = new ComponentAggregate(exec.isSpout);
+        comp.add(exec, exec.windows.get(window), includeSys);
+        Map<String, Object> ret = new HashMap<>();
+        ret.put(exec.componentId, comp.toMap());
+        return ret;
+    }
+
+    /**
+     * Merges two component stats as returned by {@link #preMergeComponent}.
+     */
+    static Map<String, Object> mergeComponents(Map<String, Object> accStats, Map<String, Object> stats,
+                                               boolean isSpout) {
+        ComponentAggregate ret = ComponentAggregate.fromMap(accStats, isSpout);
+        ret.merge(ComponentAggregate.fromMap(stats, isSpout));
+        return ret.toMap();
+    }
+
+    /**
+     * Folds the stats of a single executor into the accumulated topology stats.
+     *
+     * @param accStats topology stats as returned by {@link #aggregateBeats}, or null to start from scratch
+     * @param beat     executor data as returned by {@link StatsUtil#extractDataFromHb}
+     * @param compType {@link StatsUtil#SPOUT} or {@link StatsUtil#BOLT}
+     */
+    static Map<String, Object> addBeat(Map<String, Object> accStats, Map<String, Object> beat, String compType,
+                                       String window, boolean includeSys) {
+        TopologyAggregate ret = TopologyAggregate.fromMap(accStats);
+        ret.add(ExecutorAggregate.fromBeat(beat, compType), window, includeSys);
+        return ret.toMap();
+    }
+
+    /**
+     * Aggregates the stats of the given executors into topology stats for the given window.
+     *
+     * @param beats executor data as returned by {@link StatsUtil#extractDataFromHb}
+     */
+    static Map<String, Object> aggregateBeats(List<Map<String, Object>> beats, String window, boolean includeSys) {
+        TopologyAggregate ret = new TopologyAggregate();
+        for (Map<String, Object> beat : beats) {
+            ret.add(ExecutorAggregate.fromBeat(beat, (String) beat.get(TYPE)), window, includeSys);
+        }
+        return ret.toMap();
+    }
+
+    /**
+     * Builds the topology page stats from topology stats as returned by {@link #aggregateBeats}.
+     */
+    static TopologyPageInfo toTopologyPageInfo(Map<String, Object> accStats, String topologyId, int numTasks,
+                                               int numExecutors, IStormClusterState clusterState) {
+        return TopologyAggregate.fromMap(accStats).toTopologyPageInfo(topologyId, numTasks, numExecutors, clusterState);
+    }
+
+    private static void addTo(Map<String, Long> m, String key, long value) {
+        Long current = m.get(key);
+        m.put(key, current == null ? value : current + value);
+    }
+
+    private static Object copyMaps(Object o) {
+        if (!(o instanceof Map)) {
+            return o;
+        }
+        Map<Object, Object> ret = new HashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+            ret.put(entry.getKey(), copyMaps(entry.getValue()));
+        }
+        return ret;
+    }
+
+    private static long longOf(Map<?, ?> m, String key) {
+        Object v = m.get(key);
+        return v == null ? 0 : ((Number) v).longValue();
+    }
+
+    private static double doubleOf(Map<?, ?> m, String key) {
+        Object v = m.get(key);
+        return v == null ? 0.0 : ((Number) v).doubleValue();
+    }
+
+    private static boolean isSysStream(Object stream) {
+        return stream instanceof String && Utils.isSystemId((String) stream);
+    }
+
+    private static long sum(Map<?, ?> m) {
+        long ret = 0;
+        if (m != null) {
+            for (Object v : m.values()) {
+                if (v != null) {
+                    ret += ((Number) v).longValue();
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static double weightedTotal(Map<?, ?> avgs, Map<?, ?> counts) {
+        double ret = 0;
+        if (avgs == null || counts == null) {
+            return ret;
+        }
+        for (Map.Entry<?, ?> entry : avgs.entrySet()) {
+            Object count = counts.get(entry.getKey());
+            if (entry.getValue() != null && count != null) {
+                ret += ((Number) entry.getValue()).doubleValue() * ((Number) count).doubleValue();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Counters of a single executor for a single window. Emitted and transferred counts are split by system and
+     * non-system streams so that both includeSys variants can be served from the same aggregate.
+     */
+    static class WindowCounts {
+        static final int EMITTED = 1;
+        static final int TRANSFERRED = 1 << 1;
+        static final int ACKED = 1 << 2;
+        static final int FAILED = 1 << 3;
+
+        int present;
+        long emitted;
+        long emittedSys;
+        long transferred;
+        long transferredSys;
+        long acked;
+        long failed;
+        long executed;
+        double executeLatencyTotal;
+        double processLatencyTotal;
+        double completeLatencyTotal;
+
+        boolean has(int flag) {
+            return (present & flag) != 0;
+        }
+
+        long emitted(boolean includeSys) {
+            return includeSys ? emitted + emittedSys : emitted;
+        }
+
+        long transferred(boolean includeSys) {
+            return includeSys ? transferred + transferredSys : transferred;
+        }
+    }
+
+    /**
+     * The reduced heartbeat of one executor.
+     */
+    static class ExecutorAggregate {
+        final Object executor;
+        final String componentId;
+        final int numTasks;
+        final String node;
+        final String host;
+        final int port;
+        final Object timeSecs;
+        final Object uptime;
+        final boolean isSpout;
+        final double capacity;
+        final Map<String, WindowCounts> windows = new HashMap<>();
+        final Map<?, ?> stats;
+
+        ExecutorAggregate(Object executor, String componentId, int numTasks, String node, String host, int port,
+                          boolean isSpout, Map<?, ?> hb, Map<?, ?> stats) {
+            this.executor = executor;
+            this.componentId = componentId;
+            this.numTasks = numTasks;
+            this.node = node;
+            this.host = host;
+            this.port = port;
+            this.timeSecs = hb.get(TIME_SECS);
+            this.uptime = hb.get(UPTIME);
+            this.isSpout = isSpout;
+            this.stats = stats;
+
+            addStreamCounts((Map<?, ?>) stats.get(EMITTED), WindowCounts.EMITTED);
+            addStreamCounts((Map<?, ?>) stats.get(TRANSFERRED), WindowCounts.TRANSFERRED);
+            Map<?, ?> acked = (Map<?, ?>) stats.get(ACKED);
+            Map<?, ?> failed = (Map<?, ?>) stats.get(FAILED);
+            if (acked != null) {
+                for (Map.Entry<?, ?> entry : acked.entrySet()) {
+                    WindowCounts counts = window(entry.getKey());
+                    counts.present |= WindowCounts.ACKED;
+                    counts.acked = sum((Map<?, ?>) entry.getValue());
+                }
+            }
+            if (failed != null) {
+                for (Map.Entry<?, ?> entry : failed.entrySet()) {
+                    WindowCounts counts = window(entry.getKey());
+                    counts.present |= WindowCounts.FAILED;
+                    counts.failed = sum((Map<?, ?>) entry.getValue());
+                }
+            }
+
+            if (isSpout) {
+                Map<?, ?> compLat = (Map<?, ?>) stats.get(COMP_LATENCIES);
+                if (acked != null && compLat != null) {
+                    for (Map.Entry<?, ?> entry : acked.entrySet()) {
+                        window(entry.getKey()).completeLatencyTotal =
+                            weightedTotal((Map<?, ?>) compLat.get(entry.getKey()), (Map<?, ?>) entry.getValue());
+                    }
+                }
+                this.capacity = 0.0;
+            } else {
+                Map<?, ?> executed = (Map<?, ?>) stats.get(EXECUTED);
+                Map<?, ?> execLat = (Map<?, ?>) stats.get(EXEC_LATENCIES);
+                Map<?, ?> procLat = (Map<?, ?>) stats.get(PROC_LATENCIES);
+                if (executed != null) {
+                    for (Map.Entry<?, ?> entry : executed.entrySet()) {
+                        WindowCounts counts = window(entry.getKey());
+                        counts.executed = sum((Map<?, ?>) entry.getValue());
+                        if (execLat != null) {
+                            counts.executeLatencyTotal = weightedTotal((Map<?, ?>) execLat.get(entry.getKey()),
+                                                                      (Map<?, ?>) entry.getValue());
+                        }
+                        if (procLat != null) {
+                            counts.processLatencyTotal = weightedTotal((Map<?, ?>) procLat.get(entry.getKey()),
+                                                                      (Map<?, ?>) entry.getValue());
+                        }
+                    }
+                }
+                this.capacity = StatsUtil.computeAggCapacity(stats, uptime == null ? 0 : ((Number) uptime).intValue());
+            }
+        }
+
+        /**
+         * Reduces executor data as returned by {@link StatsUtil#extractDataFromHb}, which already carries its uptime.
+         */
+        static ExecutorAggregate fromBeat(Map<String, Object> beat, String compType) {
+            Map<?, ?> stats = (Map<?, ?>) beat.get(STATS);
+            String host = (String) beat.get(HOST);
+            return new ExecutorAggregate(beat.get(EXEC_ID), (String) beat.get(COMP_ID), (int) longOf(beat, NUM_TASKS),
+                                         host, host, (int) longOf(beat, PORT), StatsUtil.SPOUT.equals(compType), beat,
+                                         stats == null ? Collections.emptyMap() : stats);
+        }
+
+        private WindowCounts window(Object win) {
+            String key = win.toString();
+            WindowCounts counts = windows.get(key);
+            if (counts == null) {
+                counts = new WindowCounts();
+                windows.put(key, counts);
+            }
+            return counts;
+        }
+
+        private void addStreamCounts(Map<?, ?> win2stream2count, int flag) {
+            if (win2stream2count == null) {
+                return;
+            }
+            for (Map.Entry<?, ?> entry : win2stream2count.entrySet()) {
+                WindowCounts counts = window(entry.getKey());
+                counts.present |= flag;
+                long sys = 0;
+                long nonSys = 0;
+                if (entry.getValue() != null) {
+                    for (Map.Entry<?, ?> streamCount : ((Map<?, ?>) entry.getValue()).entrySet()) {
+                        long count = ((Number) streamCount.getValue()).longValue();
+                        if (isSysStream(streamCount.getKey())) {
+                            sys += count;
+                        } else {
+                            nonSys += count;
+                        }
+                    }
+                }
+                if (flag == WindowCounts.EMITTED) {
+                    counts.emitted = nonSys;
+                    counts.emittedSys = sys;
+                } else {
+                    counts.transferred = nonSys;
+                    counts.transferredSys = sys;
+                }
+            }
+        }
+
+        boolean isUpToDate(String componentId, String node, String host, int port, Map<?, ?> hb) {
+            return this.port == port
+                && Objects.equals(this.componentId, componentId)
+                && Objects.equals(this.node, node)
+                && Objects.equals(this.host, host)
+                && Objects.equals(this.timeSecs, hb.get(TIME_SECS))
+                && Objects.equals(this.uptime, hb.get(UPTIME));
+        }
+    }
+
+    /**
+     * Totals of all executors of one component for a single window.
+     */
+    static class ComponentAggregate {
+        final boolean isSpout;
+        int numExecutors;
+        int numTasks;
+        long emitted;
+        long transferred;
+        long acked;
+        long failed;
+        long executed;
+        double executeLatencyTotal;
+        double processLatencyTotal;
+        double completeLatencyTotal;
+        double capacity;
+
+        ComponentAggregate(boolean isSpout) {
+            this.isSpout = isSpout;
+        }
+
+        void add(ExecutorAggregate exec, WindowCounts counts, boolean includeSys) {
+            numExecutors++;
+            numTasks += exec.numTasks;
+            capacity = Math.max(capacity, exec.capacity);
+            if (counts != null) {
+                emitted += counts.emitted(includeSys);
+                transferred += counts.transferred(includeSys);
+                acked += counts.acked;
+                failed += counts.failed;
+                executed += counts.executed;
+                executeLatencyTotal += counts.executeLatencyTotal;
+                processLatencyTotal += counts.processLatencyTotal;
+                completeLatencyTotal += counts.completeLatencyTotal;
+            }
+        }
+
+        void merge(ComponentAggregate other) {
+            numExecutors += other.numExecutors;
+            numTasks += other.numTasks;
+            capacity = Math.max(capacity, other.capacity);
+            emitted += other.emitted;
+            transferred += other.transferred;
+            acked += other.acked;
+            failed += other.failed;
+            executed += other.executed;
+            executeLatencyTotal += other.executeLatencyTotal;
+            processLatencyTotal += other.processLatencyTotal;
+            completeLatencyTotal += other.completeLatencyTotal;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> ret = new HashMap<>();
+            ret.put(NUM_EXECUTORS, numExecutors);
+            ret.put(NUM_TASKS, numTasks);
+            ret.put(EMITTED, emitted);
+            ret.put(TRANSFERRED, transferred);
+            ret.put(ACKED, acked);
+            ret.put(FAILED, failed);
+            if (isSpout) {
+                ret.put(COMP_LAT_TOTAL, completeLatencyTotal);
+            } else {
+                ret.put(EXECUTED, executed);
+                ret.put(EXEC_LAT_TOTAL, executeLatencyTotal);
+                ret.put(PROC_LAT_TOTAL, processLatencyTotal);
+                ret.put(CAPACITY, capacity);
+            }
+            return ret;
+        }
+
+        static ComponentAggregate fromMap(Map<?, ?> m, boolean isSpout) {
+            ComponentAggregate ret = new ComponentAggregate(isSpout);
+            if (m != null) {
+                ret.numExecutors = (int) longOf(m, NUM_EXECUTORS);
+                ret.numTasks = (int) longOf(m, NUM_TASKS);
+                ret.emitted = longOf(m, EMITTED);
+                ret.transferred = longOf(m, TRANSFERRED);
+                ret.acked = longOf(m, ACKED);
+                ret.failed = longOf(m, FAILED);
+                ret.executed = longOf(m, EXECUTED);
+                ret.executeLatencyTotal = doubleOf(m, EXEC_LAT_TOTAL);
+                ret.processLatencyTotal = doubleOf(m, PROC_LAT_TOTAL);
+                ret.completeLatencyTotal = doubleOf(m, COMP_LAT_TOTAL);
+                ret.capacity = doubleOf(m, CAPACITY);
+            }
+            return ret;
+        }
+
+        ComponentAggregateStats toThrift() {
+            ComponentAggregateStats ret = new ComponentAggregateStats();
+            CommonAggregateStats commonStats = new CommonAggregateStats();
+            commonStats.set_num_tasks(numTasks);
+            commonStats.set_num_executors(numExecutors);
+            commonStats.set_emitted(emitted);
+            commonStats.set_transferred(transferred);
+            commonStats.set_acked(acked);
+            commonStats.set_failed(failed);
+            ret.set_common_stats(commonStats);
+
+            if (isSpout) {
+                ret.set_type(ComponentType.SPOUT);
+                SpoutAggregateStats spoutStats = new SpoutAggregateStats();
+                spoutStats.set_complete_latency_ms(acked > 0 ? completeLatencyTotal / acked : 0.0);
+                ret.set_specific_stats(SpecificAggregateStats.spout(spoutStats));
+            } else {
+                ret.set_type(ComponentType.BOLT);
+                BoltAggregateStats boltStats = new BoltAggregateStats();
+                boltStats.set_execute_latency_ms(executed > 0 ? executeLatencyTotal / executed : 0.0);
+                boltStats.set_process_latency_ms(executed > 0 ? processLatencyTotal / executed : 0.0);
+                boltStats.set_executed(executed);
+                boltStats.set_capacity(capacity);
+                ret.set_specific_stats(SpecificAggregateStats.bolt(boltStats));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Totals of a whole topology for a given (window, includeSys).
+     */
+    static class TopologyAggregate {
+        final Set<Object> workers = new HashSet<>();
+        final Map<String, ComponentAggregate> spouts = new HashMap<>();
+        final Map<String, ComponentAggregate> bolts = new HashMap<>();
+        final Map<String, Long> winToEmitted = new HashMap<>();
+        final Map<String, Long> winToTransferred = new HashMap<>();
+        final Map<String, Long> winToAcked = new HashMap<>();
+        final Map<String, Long> winToFailed = new HashMap<>();
+        final Map<String, Double> winToCompleteLatencyTotal = new HashMap<>();
+
+        void add(ExecutorAggregate exec, String window, boolean includeSys) {
+            workers.add(Arrays.<Object>asList(exec.node, exec.port));
+
+            Map<String, ComponentAggregate> comps = exec.isSpout ? spouts : bolts;
+            ComponentAggregate comp = comps.get(exec.componentId);
+            if (comp == null) {
+                comp = new ComponentAggregate(exec.isSpout);
+                comps.put(exec.componentId, comp);
+            }
+            comp.add(exec, exec.windows.get(window), includeSys);
+
+            for (Map.Entry<String, WindowCounts> entry : exec.windows.entrySet()) {
+                String win = entry.getKey();
+                WindowCounts counts = entry.getValue();
+                if (counts.has(WindowCounts.EMITTED)) {
+                    addTo(winToEmitted, win, counts.emitted(includeSys));
+                }
+                if (counts.has(WindowCounts.TRANSFERRED)) {
+                    addTo(winToTransferred, win, counts.transferred(includeSys));
+                }
+                if (exec.isSpout) {
+                    if (counts.has(WindowCounts.ACKED)) {
+                        addTo(winToAcked, win, counts.acked);
+                        Double total = winToCompleteLatencyTotal.get(win);
+                        winToCompleteLatencyTotal.put(win, (total == null ? 0.0 : total) + counts.completeLatencyTotal);
+                    }
+                    if (counts.has(WindowCounts.FAILED)) {
+                        addTo(winToFailed, win, counts.failed);
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> ret = new HashMap<>();
+            ret.put(WORKERS_SET, new HashSet<>(workers));
+            ret.put(SPOUT_TO_STATS, toMaps(spouts));
+            ret.put(BOLT_TO_STATS, toMaps(bolts));
+            ret.put(WIN_TO_EMITTED, new HashMap<>(winToEmitted));
+            ret.put(WIN_TO_TRANSFERRED, new HashMap<>(winToTransferred));
+            ret.put(WIN_TO_ACKED, new HashMap<>(winToAcked));
+            ret.put(WIN_TO_FAILED, new HashMap<>(winToFailed));
+            ret.put(WIN_TO_COMP_LAT_WGT_AVG, new HashMap<>(winToCompleteLatencyTotal));
+            return ret;
+        }
+
+        static TopologyAggregate fromMap(Map<?, ?> m) {
+            TopologyAggregate ret = new TopologyAggregate();
+            if (m == null) {
+                return ret;
+            }
+            Set<?> workers = (Set<?>) m.get(WORKERS_SET);
+            if (workers != null) {
+                ret.workers.addAll(workers);
+            }
+            readComponents((Map<?, ?>) m.get(SPOUT_TO_STATS), true, ret.spouts);
+            readComponents((Map<?, ?>) m.get(BOLT_TO_STATS), false, ret.bolts);
+            readCounts((Map<?, ?>) m.get(WIN_TO_EMITTED), ret.winToEmitted);
+            readCounts((Map<?, ?>) m.get(WIN_TO_TRANSFERRED), ret.winToTransferred);
+            readCounts((Map<?, ?>) m.get(WIN_TO_ACKED), ret.winToAcked);
+            readCounts((Map<?, ?>) m.get(WIN_TO_FAILED), ret.winToFailed);
+            Map<?, ?> compLatTotals = (Map<?, ?>) m.get(WIN_TO_COMP_LAT_WGT_AVG);
+            if (compLatTotals != null) {
+                for (Map.Entry<?, ?> entry : compLatTotals.entrySet()) {
+                    ret.winToCompleteLatencyTotal.put(entry.getKey().toString(),
+                                                      ((Number) entry.getValue()).doubleValue());
+                }
+            }
+            return ret;
+        }
+
+        private static Map<String, Object> toMaps(Map<String, ComponentAggregate> comps) {
+            Map<String, Object> ret = new HashMap<>();
+            for (Map.Entry<String, ComponentAggregate> entry : comps.entrySet()) {
+                ret.put(entry.getKey(), entry.getValue().toMap());
+            }
+            return ret;
+        }
+
+        private static void readComponents(Map<?, ?> from, boolean isSpout, Map<String, ComponentAggregate> to) {
+            if (from != null) {
+                for (Map.Entry<?, ?> entry : from.entrySet()) {
+                    to.put((String) entry.getKey(), ComponentAggregate.fromMap((Map<?, ?>) entry.getValue(), isSpout));
+                }
+            }
+        }
+
+        private static void readCounts(Map<?, ?> from, Map<String, Long> to) {
+            if (from != null) {
+                for (Map.Entry<?, ?> entry : from.entrySet()) {
+                    to.put(entry.getKey().toString(), ((Number) entry.getValue()).longValue());
+                }
+            }
+        }
+
+        TopologyPageInfo toTopologyPageInfo(String topologyId, int numTasks, int numExecutors,
+                                            IStormClusterState clusterState) {
+            TopologyPageInfo ret = new TopologyPageInfo(topologyId);
+            ret.set_num_tasks(numTasks);
+            ret.set_num_workers(workers.size());
+            ret.set_num_executors(numExecutors);
+
+            Map<String, ComponentAggregateStats> spoutStats = new HashMap<>();
+            for (Map.Entry<String, ComponentAggregate> entry : spouts.entrySet()) {
+                ComponentAggregateStats stats = entry.getValue().toThrift();
+                stats.set_last_error(clusterState.lastError(topologyId, entry.getKey()));
+                spoutStats.put(entry.getKey(), stats);
+            }
+            Map<String, ComponentAggregateStats> boltStats = new HashMap<>();
+            for (Map.Entry<String, ComponentAggregate> entry : bolts.entrySet()) {
+                ComponentAggregateStats stats = entry.getValue().toThrift();
+                stats.set_last_error(clusterState.lastError(topologyId, entry.getKey()));
+                boltStats.put(entry.getKey(), stats);
+            }
+
+            Map<String, Double> winToCompleteLatency = new HashMap<>();
+            for (Map.Entry<String, Double> entry : winToCompleteLatencyTotal.entrySet()) {
+                Long acked = winToAcked.get(entry.getKey());
+                if (acked != null && acked > 0) {
+                    winToCompleteLatency.put(entry.getKey(), entry.getValue() / acked);
+                }
+            }
+
+            TopologyStats topologyStats = new TopologyStats();
+            topologyStats.set_window_to_acked(new HashMap<>(winToAcked));
+            topologyStats.set_window_to_emitted(new HashMap<>(winToEmitted));
+            topologyStats.set_window_to_failed(new HashMap<>(winToFailed));
+            topologyStats.set_window_to_transferred(new HashMap<>(winToTransferred));
+            topologyStats.set_window_to_complete_latencies_ms(winToCompleteLatency);
+
+            ret.set_topology_stats(topologyStats);
+            ret.set_id_to_spout_agg_stats(spoutStats);
+            ret.set_id_to_bolt_agg_stats(boltStats);
+            return ret;
+        }
+    }
+}
@@ -53,6 +53,15 @@ abstract class GroupingInfo implements Serializable {
         };
     }
 
+    public static GroupingInfo localOrShuffle() {
+        return new GroupingInfo() {
+            @Override
+            public void declareGrouping(BoltDeclarer declarer, String componentId, String streamId, Fields fields) {
+                declarer.localOrShuffleGrouping(componentId, streamId);
+            }
+        };
+    }
+
     public static GroupingInfo global() {
         return new GroupingInfo() {
             @Override
@@ -68,9 +77,21 @@ abstract class GroupingInfo implements Serializable {
             public void declareGrouping(BoltDeclarer declarer, String componentId, String streamId, Fields fields) {
                 declarer.allGrouping(componentId, streamId);
             }
+
+            @Override
+            boolean isBroadcast() {
+                return true;
+            }
         };
     }
 
+    /*
+     * whether every task of the child receives all the values, which does not partition the child at all.
+     */
+    boolean isBroadcast() {
+        return false;
+    }
+
     public Fields getFields() {
         return fields;
     }
@@ -36,8 +36,10 @@ import org.apache.storm.streams.processors.JoinProcessor;
 import org.apache.storm.streams.processors.MapValuesProcessor;
 import org.apache.storm.streams.processors.MergeAggregateByKeyProcessor;
 import org.apache.storm.streams.processors.ReduceByKeyProcessor;
+import org.apache.storm.streams.processors.TableJoinProcessor;
 import org.apache.storm.streams.processors.UpdateStateByKeyProcessor;
 import org.apache.storm.streams.windowing.Window;
+import org.apache.storm.topology.base.BaseWindowedBolt;
 import org.apache.storm.tuple.Fields;
 
 import java.util.ArrayList;
@@ -323,6 +325,61 @@ public class PairStream<K, V> extends Stream<Pair<K, V>> {
                         JoinProcessor.JoinType.OUTER);
     }
 
+    /**
+     * Join the values of this stream with the latest value having the same key in the table stream.
+     * <p>
+     * The table stream is treated as a changelog: it is replicated to every task of the join, where the
+     * latest value per key is cached locally and a null value removes the key. Unlike {@link #join(PairStream)},
+     * this stream is not re-partitioned on the key, its values are joined in place against the cached table.
+     * This suits joining a large stream with a comparatively small, slowly changing table.
+     * </p>
+     *
+     * @param table the table stream
+     * @param <V1>  the type of the values in the table stream
+     * @return the new stream
+     */
+    public <V1> PairStream<K, Pair<V, V1>> joinTable(PairStream<K, V1> table) {
+        return joinTable(table, new PairValueJoiner<>(), 0, null);
+    }
+
+    /**
+     * Join the values of this stream with the latest value having the same key in the table stream. See
+     * {@link #joinTable(PairStream)}.
+     *
+     * @param table            the table stream
+     * @param valueJoiner      the {@link ValueJoiner}
+     * @param maxEntries       the maximum number of table keys each task caches, or zero for no limit
+     * @param expireAfterWrite how long a cached table value is used after its last update, or null for ever
+     * @param <R>              the type of the values resulting from the join
+     * @param <V1>             the type of the values in the table stream
+     * @return the new stream
+     */
+    public <R, V1> PairStream<K, R> joinTable(PairStream<K, V1> table,
+                                              ValueJoiner<? super V, ? super V1, ? extends R> valueJoiner,
+                                              long maxEntries,
+                                              BaseWindowedBolt.Duration expireAfterWrite) {
+        return joinTablePartition(table, valueJoiner, JoinProcessor.JoinType.INNER, maxEntries, expireAfterWrite);
+    }
+
+    /**
+     * Does a left outer join of the values of this stream with the latest value having the same key in the
+     * table stream. Values with no table value are joined with null. See {@link #joinTable(PairStream)}.
+     *
+     * @param table            the table stream
+     * @param valueJoiner      the {@link ValueJoiner}
+     * @param maxEntries       the maximum number of table keys each task caches, or zero for no limit
+     * @param expireAfterWrite how long a cached table value is used after its last update, or null for ever
+     * @param <R>              the type of the values resulting from the join
+     * @param <V1>             the type of the values in the table stream
+     * @return the new stream
+     */
+    public <R, V1> PairStream<K, R> leftOuterJoinTable(PairStream<K, V1> table,
+                                                       ValueJoiner<? super V, ? super V1, ? extends R> valueJoiner,
+                                                       long maxEntries,
+                                                       BaseWindowedBolt.Duration expireAfterWrite) {
+        return joinTablePartition(table, valueJoiner, JoinProcessor.JoinType.OUTER, maxEntries, expireAfterWrite);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -400,6 +457,24 @@ public class PairStream<K, V> extends Stream<Pair<K, V>> {
         return new PairStream<>(streamBuilder, joinNode);
     }
 
+    private <R, V1> PairStream<K, R> joinTablePartition(PairStream<K, V1> table,
+                                                        ValueJoiner<? super V, ? super V1, ? extends R> valueJoiner,
+                                                        JoinProcessor.JoinType joinType,
+                                                        long maxEntries,
+                                                        BaseWindowedBolt.Duration expireAfterWrite) {
+        int parallelism = node.getParallelism();
+        // the table is replicated to every task, the stream only needs to reach some task, preferably a local one
+        Stream<Pair<K, V>> local = partition(GroupingInfo.localOrShuffle(), parallelism);
+        Stream<Pair<K, V1>> broadcast = table.partition(GroupingInfo.all(), parallelism);
+        long expireAfterWriteMs = expireAfterWrite == null ? 0 : expireAfterWrite.value;
+        Node joinNode = local.addProcessorNode(
+                new TableJoinProcessor<>(broadcast.stream, valueJoiner, joinType, maxEntries, expireAfterWriteMs),
+                KEY_VALUE,
+                true);
+        addNode(broadcast.getNode(), joinNode, joinNode.getParallelism());
+        return new PairStream<>(streamBuilder, joinNode);
+    }
+
     private PairStream<K, V> partitionByKey() {
         return shouldPartitionByKey() ? partitionBy(KEY) : this;
     }
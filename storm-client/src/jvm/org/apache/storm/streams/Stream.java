@@ -156,10 +156,14 @@ public class Stream<T> {
      *
      * // time duration based tumbling window
      * stream.window(TumblingWindows.of(Duration.seconds(10));
+     *
+     * // session window that closes after 30 seconds of inactivity (per key on a PairStream)
+     * stream.window(SessionWindows.of(Duration.seconds(30));
      * </p>
      *
      * @see org.apache.storm.streams.windowing.SlidingWindows
      * @see org.apache.storm.streams.windowing.TumblingWindows
+     * @see org.apache.storm.streams.windowing.SessionWindows
      * @param window the window configuration
      * @return the new stream
      */
@@ -439,9 +443,13 @@ public class Stream<T> {
     }
 
     protected Stream<T> partitionBy(Fields fields, int parallelism) {
+        return partition(GroupingInfo.fields(fields), parallelism);
+    }
+
+    Stream<T> partition(GroupingInfo groupingInfo, int parallelism) {
         return new Stream<>(
                 streamBuilder,
-                addNode(node, new PartitionNode(stream, node.getOutputFields(), GroupingInfo.fields(fields)), parallelism));
+                addNode(node, new PartitionNode(stream, node.getOutputFields(), groupingInfo), parallelism));
     }
 
     private boolean shouldPartition() {
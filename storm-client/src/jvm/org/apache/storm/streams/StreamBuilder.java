@@ -229,7 +229,9 @@ public class StreamBuilder {
         } else {
             child.addParentStream(parent, parentStreamId);
         }
-        if (!(child instanceof PartitionNode)) {
+        // a broadcast parent replicates its values to every task, so it does not decide how the child is partitioned
+        boolean broadcast = parent.getGroupingInfo() != null && parent.getGroupingInfo().isBroadcast();
+        if (!(child instanceof PartitionNode) && !broadcast) {
             if (child.getGroupingInfo() != null) {
                 if (!child.getGroupingInfo().equals(parent.getGroupingInfo())) {
                     throw new IllegalStateException("Trying to assign grouping info for node" +
@@ -402,7 +404,8 @@ public class StreamBuilder {
             processorNode.setWindowedParentStreams(getWindowedParentStreams(processorNode));
         }
         final Set<ProcessorNode> initialProcessors = initialProcessors(group);
-        Set<Window<?, ?>> windowParams = getWindowParams(initialProcessors);
+        Set<WindowNode> windowNodes = getWindowNodes(initialProcessors);
+        Set<Window<?, ?>> windowParams = windowNodes.stream().map(WindowNode::getWindowParams).collect(Collectors.toSet());
         if (windowParams.isEmpty()) {
             if (hasStatefulProcessor(group)) {
                 addStatefulBolt(topologyBuilder, boltId, initialProcessors, group);
@@ -410,7 +413,13 @@ public class StreamBuilder {
                 addBolt(topologyBuilder, boltId, initialProcessors, group);
             }
         } else if (windowParams.size() == 1) {
-            addWindowedBolt(topologyBuilder, boltId, initialProcessors, windowParams.iterator().next(), group);
+            Set<String> pairStreams = new HashSet<>();
+            for (WindowNode windowNode : windowNodes) {
+                if (windowNode.emitsPair()) {
+                    pairStreams.addAll(windowNode.getOutputStreams());
+                }
+            }
+            addWindowedBolt(topologyBuilder, boltId, initialProcessors, windowParams.iterator().next(), pairStreams, group);
         } else {
             throw new IllegalStateException("More than one window config for current group " + group);
         }
@@ -436,6 +445,10 @@ public class StreamBuilder {
     }
 
     private Set<Window<?, ?>> getWindowParams(Set<ProcessorNode> initialProcessors) {
+        return getWindowNodes(initialProcessors).stream().map(WindowNode::getWindowParams).collect(Collectors.toSet());
+    }
+
+    private Set<WindowNode> getWindowNodes(Set<ProcessorNode> initialProcessors) {
         Set<WindowNode> windowNodes = new HashSet<>();
         Set<Node> parents;
         for (ProcessorNode processorNode : initialProcessors) {
@@ -447,7 +460,7 @@ public class StreamBuilder {
             }
         }
 
-        return windowNodes.stream().map(WindowNode::getWindowParams).collect(Collectors.toSet());
+        return windowNodes;
     }
 
     private void addSpout(TopologyBuilder topologyBuilder, SpoutNode spout) {
@@ -519,8 +532,9 @@ public class StreamBuilder {
                                        String boltId,
                                        Set<ProcessorNode> initialProcessors,
                                        Window<?, ?> windowParam,
+                                       Set<String> pairStreams,
                                        List<ProcessorNode> group) {
-        WindowedProcessorBolt bolt = new WindowedProcessorBolt(boltId, graph, group, windowParam);
+        WindowedProcessorBolt bolt = new WindowedProcessorBolt(boltId, graph, group, windowParam, pairStreams);
         BoltDeclarer boltDeclarer = topologyBuilder.setBolt(boltId, bolt, getParallelism(group));
         bolt.setStreamToInitialProcessors(wireBolt(group, boltDeclarer, initialProcessors));
         streamBolts.put(bolt, boltDeclarer);
@@ -18,6 +18,7 @@
 package org.apache.storm.streams;
 
 import com.google.common.collect.Multimap;
+import org.apache.storm.streams.windowing.SessionWindows;
 import org.apache.storm.streams.windowing.SlidingWindows;
 import org.apache.storm.streams.windowing.TumblingWindows;
 import org.apache.storm.streams.windowing.Window;
@@ -26,14 +27,17 @@ import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.topology.base.BaseWindowedBolt;
 import org.apache.storm.tuple.Tuple;
+import org.apache.storm.windowing.SessionKeyExtractor;
 import org.apache.storm.windowing.TupleWindow;
 import org.jgrapht.DirectedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.apache.storm.streams.WindowNode.PUNCTUATION;
 
@@ -44,12 +48,16 @@ class WindowedProcessorBolt extends BaseWindowedBolt implements StreamBolt {
     private static final Logger LOG = LoggerFactory.getLogger(WindowedProcessorBolt.class);
     private final ProcessorBoltDelegate delegate;
     private final Window<?, ?> window;
+    // the input streams that carry key-value pairs, i.e. the windowed streams of a PairStream
+    private final Set<String> pairStreams;
 
     WindowedProcessorBolt(String id, DirectedGraph<Node, Edge> graph,
                           List<ProcessorNode> nodes,
-                          Window<?, ?> window) {
+                          Window<?, ?> window,
+                          Set<String> pairStreams) {
         delegate = new ProcessorBoltDelegate(id, graph, nodes);
         this.window = window;
+        this.pairStreams = new HashSet<>(pairStreams);
         setWindowConfig();
     }
 
@@ -95,6 +103,8 @@ class WindowedProcessorBolt extends BaseWindowedBolt implements StreamBolt {
             setSlidingWindowParams(window.getWindowLength(), window.getSlidingInterval());
         } else if (window instanceof TumblingWindows) {
             setTumblingWindowParams(window.getWindowLength());
+        } else if (window instanceof SessionWindows) {
+            withSessionWindow(((SessionWindows) window).getWindowLength(), new PairKeyExtractor(pairStreams));
         }
         if (window.getTimestampField() != null) {
             withTimestampField(window.getTimestampField());
@@ -107,6 +117,22 @@ class WindowedProcessorBolt extends BaseWindowedBolt implements StreamBolt {
         }
     }
 
+    /**
+     * Keys the sessions of a {@link PairStream} by the key of the pair, values of other streams share a single session.
+     */
+    private static class PairKeyExtractor implements SessionKeyExtractor {
+        private final Set<String> pairStreams;
+
+        PairKeyExtractor(Set<String> pairStreams) {
+            this.pairStreams = pairStreams;
+        }
+
+        @Override
+        public Object extractKey(Tuple tuple) {
+            return pairStreams.contains(tuple.getSourceStreamId()) ? tuple.getValue(0) : null;
+        }
+    }
+
     private void setSlidingWindowParams(Object windowLength, Object slidingInterval) {
         if (windowLength instanceof Count) {
             if (slidingInterval instanceof Count) {
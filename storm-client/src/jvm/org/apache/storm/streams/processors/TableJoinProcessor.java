@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.streams.processors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.streams.Pair;
+import org.apache.storm.streams.operations.ValueJoiner;
+
+/**
+ * Joins a stream against a table that is replicated to every task of the join.
+ *
+ * <p>Records from the table stream update a local cache of the latest value per key, a null value removes
+ * the key. Records from the other stream are looked up in the cache and forwarded right away, so the
+ * (usually much larger) stream never has to be re-partitioned on the key. The cache can be bounded in
+ * size and entries can be expired after a while so that stale table values are not joined forever.
+ */
+public class TableJoinProcessor<K, R, V1, V2> extends BaseProcessor<Pair<K, ?>> {
+    private final String tableStream;
+    private final ValueJoiner<V1, V2, R> valueJoiner;
+    private final JoinProcessor.JoinType joinType;
+    private final long maxEntries;
+    private final long expireAfterWriteMs;
+    private transient Cache<K, V2> table;
+
+    /**
+     * Creates a new table join processor.
+     *
+     * @param tableStream        the id of the stream carrying the table updates
+     * @param valueJoiner        joins the stream value with the table value
+     * @param joinType           {@link JoinProcessor.JoinType#OUTER} to forward stream values with no table value
+     * @param maxEntries         the maximum number of keys cached, or zero for no limit
+     * @param expireAfterWriteMs how long a table value is used after it was last updated, or zero for ever
+     */
+    public TableJoinProcessor(String tableStream, ValueJoiner<V1, V2, R> valueJoiner, JoinProcessor.JoinType joinType,
+                              long maxEntries, long expireAfterWriteMs) {
+        this.tableStream = tableStream;
+        this.valueJoiner = valueJoiner;
+        this.joinType = joinType;
+        this.maxEntries = maxEntries;
+        this.expireAfterWriteMs = expireAfterWriteMs;
+    }
+
+    @Override
+    public void init(ProcessorContext context) {
+        super.init(context);
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (maxEntries > 0) {
+            builder.maximumSize(maxEntries);
+        }
+        if (expireAfterWriteMs > 0) {
+            builder.expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS);
+        }
+        table = builder.build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(Pair<K, ?> input, String sourceStream) {
+        K key = input.getFirst();
+        if (sourceStream.equals(tableStream)) {
+            V2 val = (V2) input.getSecond();
+            if (val == null) {
+                table.invalidate(key);
+            } else {
+                table.put(key, val);
+            }
+        } else {
+            V2 tableVal = table.getIfPresent(key);
+            if (tableVal != null || joinType == JoinProcessor.JoinType.OUTER) {
+                context.forward(Pair.of(key, valueJoiner.apply((V1) input.getSecond(), tableVal)));
+            }
+        }
+    }
+
+    public String getTableStream() {
+        return tableStream;
+    }
+}
@@ -17,6 +17,11 @@
  */
 package org.apache.storm.task;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.storm.generated.GlobalStreamId;
 import org.apache.storm.generated.Grouping;
@@ -27,6 +32,8 @@ import org.apache.storm.metric.api.IReducer;
 import org.apache.storm.metric.api.ICombiner;
 import org.apache.storm.metric.api.ReducedMetric;
 import org.apache.storm.metric.api.CombinedMetric;
+import org.apache.storm.metrics2.MetricDimensions;
+import org.apache.storm.metrics2.StormMetricRegistry;
 import org.apache.storm.state.ISubscribedState;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.utils.Utils;
@@ -57,6 +64,7 @@ public class TopologyContext extends WorkerTopologyContext implements IMetricsCo
     private Map<String, Object> _executorData;
     private Map<Integer,Map<Integer, Map<String, IMetric>>> _registeredMetrics;
     private AtomicBoolean _openOrPrepareWasCalled;
+    private StormMetricRegistry _metricRegistry;
     // This is updated by the Worker and the topology has shared access to it
     private Map<String, Long> blobToLastKnownVersion;
 
@@ -77,6 +85,30 @@ public class TopologyContext extends WorkerTopologyContext implements IMetricsCo
                            Map<String, Object> executorData,
                            Map<Integer, Map<Integer, Map<String, IMetric>>> registeredMetrics,
                            AtomicBoolean openOrPrepareWasCalled) {
+        this(topology, topoConf, taskToComponent, componentToSortedTasks, componentToStreamToFields,
+                blobToLastKnownVersionShared, stormId, codeDir, pidDir, taskId, workerPort, workerTasks,
+                defaultResources, userResources, executorData, registeredMetrics, openOrPrepareWasCalled,
+                new StormMetricRegistry(stormId, null, workerPort == null ? 0 : workerPort));
+    }
+
+    public TopologyContext(StormTopology topology,
+                           Map<String, Object> topoConf,
+                           Map<Integer, String> taskToComponent,
+                           Map<String, List<Integer>> componentToSortedTasks,
+                           Map<String, Map<String, Fields>> componentToStreamToFields,
+                           Map<String, Long> blobToLastKnownVersionShared,
+                           String stormId,
+                           String codeDir,
+                           String pidDir,
+                           Integer taskId,
+                           Integer workerPort,
+                           List<Integer> workerTasks,
+                           Map<String, Object> defaultResources,
+                           Map<String, Object> userResources,
+                           Map<String, Object> executorData,
+                           Map<Integer, Map<Integer, Map<String, IMetric>>> registeredMetrics,
+                           AtomicBoolean openOrPrepareWasCalled,
+                           StormMetricRegistry metricRegistry) {
         super(topology, topoConf, taskToComponent, componentToSortedTasks,
                 componentToStreamToFields, stormId, codeDir, pidDir,
                 workerPort, workerTasks, defaultResources, userResources);
@@ -84,6 +116,7 @@ public class TopologyContext extends WorkerTopologyContext implements IMetricsCo
         _executorData = executorData;
         _registeredMetrics = registeredMetrics;
         _openOrPrepareWasCalled = openOrPrepareWasCalled;
+        _metricRegistry = metricRegistry;
         blobToLastKnownVersion = blobToLastKnownVersionShared;
     }
 
@@ -405,4 +438,47 @@ public class TopologyContext extends WorkerTopologyContext implements IMetricsCo
     public CombinedMetric registerMetric(String name, ICombiner combiner, int timeBucketSizeInSecs) {
         return registerMetric(name, new CombinedMetric(combiner), timeBucketSizeInSecs);
     }
+
+    /**
+     * Register a counter in the dimensional worker metrics, tagged with this task.
+     * Unlike {@link #registerMetric(String, IMetric, int)} the value is not sent through the topology but pushed by
+     * the reporters configured in {@link org.apache.storm.Config#TOPOLOGY_METRICS_REPORTERS}.
+     * Registering the same name twice returns the same counter.
+     */
+    public Counter registerCounter(String name) {
+        return _metricRegistry.counter(metricDimensions(name));
+    }
+
+    /**
+     * Register a meter in the dimensional worker metrics, see {@link #registerCounter(String)}.
+     */
+    public Meter registerMeter(String name) {
+        return _metricRegistry.meter(metricDimensions(name));
+    }
+
+    /**
+     * Register a histogram in the dimensional worker metrics, see {@link #registerCounter(String)}.
+     */
+    public Histogram registerHistogram(String name) {
+        return _metricRegistry.histogram(metricDimensions(name));
+    }
+
+    /**
+     * Register a timer in the dimensional worker metrics, see {@link #registerCounter(String)}.
+     */
+    public Timer registerTimer(String name) {
+        return _metricRegistry.timer(metricDimensions(name));
+    }
+
+    /**
+     * Register a gauge in the dimensional worker metrics, see {@link #registerCounter(String)}.
+     * If a gauge with the same name was already registered for this task that one is returned.
+     */
+    public <T> Gauge<T> registerGauge(String name, Gauge<T> gauge) {
+        return _metricRegistry.gauge(metricDimensions(name), gauge);
+    }
+
+    private MetricDimensions metricDimensions(String name) {
+        return _metricRegistry.taskDimensions(name, getThisComponentId(), _taskId);
+    }
 }
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.topology;
+
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.windowing.AggregateWindow;
+import org.apache.storm.windowing.WindowAggregator;
+
+/**
+ * A windowed bolt that aggregates its windows incrementally.
+ *
+ * <p>Instead of buffering the tuples of a window and handing them to {@link #execute(org.apache.storm.windowing.TupleWindow)},
+ * the {@link WindowedBoltExecutor} folds every tuple into a pane with the {@link #getAggregator() aggregator} as soon
+ * as it arrives and calls {@link #execute(AggregateWindow)} with the combined result each time the window is
+ * triggered. The window length and sliding interval must both be counts or both be durations.
+ *
+ * <p>Input tuples are acked once they are folded into a pane, so tuples emitted from {@link #execute(AggregateWindow)}
+ * are not anchored and a window does not need to fit into the message timeout.
+ *
+ * @param <A> the type of the accumulator
+ * @param <R> the type of the window result
+ */
+public interface IIncrementalWindowedBolt<A, R> extends IWindowedBolt {
+    /**
+     * Returns the aggregator used to build the per pane and per window accumulators.
+     */
+    WindowAggregator<Tuple, A, R> getAggregator();
+
+    /**
+     * Process the aggregated result of a window and optionally emit new tuples.
+     */
+    void execute(AggregateWindow<R> window);
+}
@@ -23,4 +23,14 @@ import org.apache.storm.state.State;
  * A windowed bolt abstraction for supporting windowing operation with state
  */
 public interface IStatefulWindowedBolt<T extends State> extends IStatefulComponent<T>, IWindowedBolt {
+    /**
+     * If this returns true, the window contents are saved in the state backend with each checkpoint and the input
+     * tuples are acked once they are checkpointed, instead of being held un-acked until they expire. This lets the
+     * window be larger than what the message timeout and max spout pending would allow.
+     *
+     * @return whether the window is persisted, false by default
+     */
+    default boolean isPersistent() {
+        return false;
+    }
 }
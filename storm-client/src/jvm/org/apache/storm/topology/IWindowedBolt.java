@@ -19,6 +19,7 @@ package org.apache.storm.topology;
 
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
+import org.apache.storm.windowing.SessionKeyExtractor;
 import org.apache.storm.windowing.TimestampExtractor;
 import org.apache.storm.windowing.TupleWindow;
 
@@ -48,4 +49,14 @@ public interface IWindowedBolt extends IComponent {
      * @return the timestamp extractor
      */
     TimestampExtractor getTimestampExtractor();
+
+    /**
+     * Return a {@link SessionKeyExtractor} for extracting the session key of a tuple when session windows are used,
+     * or null to have a single session across all tuples.
+     *
+     * @return the session key extractor
+     */
+    default SessionKeyExtractor getSessionKeyExtractor() {
+        return null;
+    }
 }
@@ -0,0 +1,415 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.topology;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.storm.Config;
+import org.apache.storm.serialization.ITupleDeserializer;
+import org.apache.storm.serialization.ITupleSerializer;
+import org.apache.storm.serialization.KryoTupleDeserializer;
+import org.apache.storm.serialization.KryoTupleSerializer;
+import org.apache.storm.state.KeyValueState;
+import org.apache.storm.state.State;
+import org.apache.storm.state.StateFactory;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.windowing.WindowLifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Wraps a {@link IStatefulWindowedBolt} whose {@link IStatefulWindowedBolt#isPersistent()} is true and saves the
+ * window contents in the state backend, so that the input tuples can be acked once they are checkpointed rather than
+ * when they expire.
+ *
+ * <p>The window is kept as an append-only log of segments. Every checkpoint appends one segment with the tuples that
+ * were added to the window and the ids of the events that expired since the previous checkpoint, so the cost of a
+ * checkpoint depends on the rate of the input and not on the size of the window. A segment is deleted once it is at
+ * the head of the log and none of its events are in the window anymore. During recovery the live segments are
+ * replayed in order to rebuild the window before it is started.
+ *
+ * <p>Since the input tuples are acked after the checkpoint commits, the windows are emitted un-anchored. Tuples that
+ * were added after the last committed checkpoint are replayed by the spout if the checkpoint is rolled back.
+ */
+public class PersistentWindowedBoltExecutor<T extends State> extends WindowedBoltExecutor implements IStatefulBolt<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentWindowedBoltExecutor.class);
+    static final String LOG_KEY = "log";
+    static final String SEGMENT_KEY_PREFIX = "segment-";
+    private final IStatefulWindowedBolt<T> statefulWindowedBolt;
+    private transient KeyValueState<String, Object> windowState;
+    private transient ITupleSerializer serializer;
+    private transient ITupleDeserializer deserializer;
+    private transient boolean stateInitialized;
+    // the index of the segments in the log as of the last prepared checkpoint
+    private transient WindowLog log;
+    // the log as of the last committed checkpoint, restored on rollback
+    private transient WindowLog committedLog;
+    private transient long nextEventId;
+    // ids of the tuples that are in the window
+    private transient Map<Tuple, Long> eventIds;
+    // tuples added to the window since the last checkpoint, by event id
+    private transient LinkedHashMap<Long, PendingEvent> pendingEvents;
+    // ids of the saved events that expired since the last checkpoint
+    private transient List<Long> pendingExpired;
+    // the pending events and expired ids of the last prepared checkpoint
+    private transient LinkedHashMap<Long, PendingEvent> preparedEvents;
+    private transient List<Long> preparedExpired;
+
+    public PersistentWindowedBoltExecutor(IStatefulWindowedBolt<T> bolt) {
+        super(bolt);
+        this.statefulWindowedBolt = bolt;
+    }
+
+    @Override
+    public void prepare(Map<String, Object> topoConf, TopologyContext context, OutputCollector collector) {
+        prepare(topoConf, context, collector, getWindowState(topoConf, context),
+                new KryoTupleSerializer(topoConf, context), new KryoTupleDeserializer(topoConf, context));
+    }
+
+    // package access for unit tests
+    void prepare(Map<String, Object> topoConf, TopologyContext context, OutputCollector collector,
+                 KeyValueState<String, Object> windowState, ITupleSerializer serializer, ITupleDeserializer deserializer) {
+        if (isSpillToDisk(topoConf)) {
+            throw new IllegalArgumentException("Persistent windowed bolts cannot spill their windows to disk");
+        }
+        if (topoConf.containsKey(Config.TOPOLOGY_BOLTS_SESSION_GAP_DURATION_MS)) {
+            throw new IllegalArgumentException("Persistent windowed bolts do not support session windows");
+        }
+        this.windowState = windowState;
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        stateInitialized = false;
+        log = new WindowLog();
+        committedLog = log.copy();
+        nextEventId = 0;
+        eventIds = new IdentityHashMap<>();
+        pendingEvents = new LinkedHashMap<>();
+        pendingExpired = new ArrayList<>();
+        preparedEvents = new LinkedHashMap<>();
+        preparedExpired = new ArrayList<>();
+        super.prepare(topoConf, context, collector);
+    }
+
+    @Override
+    protected boolean isAckOnArrival() {
+        return true;
+    }
+
+    @Override
+    public void execute(Tuple input) {
+        if (!stateInitialized) {
+            throw new IllegalStateException("execute invoked before initState with input tuple " + input);
+        }
+        super.execute(input);
+    }
+
+    @Override
+    protected void addToWindow(Tuple input, long ts) {
+        synchronized (this) {
+            long id = nextEventId++;
+            eventIds.put(input, id);
+            pendingEvents.put(id, new PendingEvent(input, ts));
+        }
+        // outside the lock, adding can trigger the window which calls back onExpiry from the window manager
+        super.addToWindow(input, ts);
+    }
+
+    @Override
+    protected void start() {
+        if (!stateInitialized) {
+            LOG.debug("Will invoke start after the window is restored.");
+        } else {
+            super.start();
+        }
+    }
+
+    @Override
+    public void initState(T state) {
+        if (stateInitialized) {
+            LOG.warn("State is already initialized. Ignoring initState");
+            return;
+        }
+        statefulWindowedBolt.initState(state);
+        restoreWindow();
+        stateInitialized = true;
+        start();
+    }
+
+    private void restoreWindow() {
+        WindowLog savedLog = (WindowLog) windowState.get(LOG_KEY);
+        if (savedLog == null) {
+            synchronized (this) {
+                log = new WindowLog();
+                committedLog = log.copy();
+                nextEventId = 0;
+            }
+            return;
+        }
+        // replay the log, the events that are still in the window are the ones not expired by a later segment
+        LinkedHashMap<Long, Object[]> liveEvents = new LinkedHashMap<>();
+        for (Long segmentId : savedLog.liveCounts.keySet()) {
+            WindowSegment segment = (WindowSegment) windowState.get(SEGMENT_KEY_PREFIX + segmentId);
+            for (int i = 0; i < segment.eventIds.length; i++) {
+                liveEvents.put(segment.eventIds[i], new Object[] {segment.timestamps[i], segment.tuples.get(i), segmentId});
+            }
+            for (long expiredId : segment.expiredIds) {
+                liveEvents.remove(expiredId);
+            }
+        }
+        log = new WindowLog();
+        log.nextSegmentId = savedLog.nextSegmentId;
+        log.nextEventId = savedLog.nextEventId;
+        for (Long segmentId : savedLog.liveCounts.keySet()) {
+            log.liveCounts.put(segmentId, 0);
+        }
+        log.segmentByFirstEventId.putAll(savedLog.segmentByFirstEventId);
+        nextEventId = savedLog.nextEventId;
+        List<Tuple> restored = new ArrayList<>(liveEvents.size());
+        List<Long> restoredTs = new ArrayList<>(liveEvents.size());
+        synchronized (this) {
+            for (Map.Entry<Long, Object[]> entry : liveEvents.entrySet()) {
+                Object[] event = entry.getValue();
+                Tuple tuple = deserializer.deserialize((byte[]) event[1]);
+                Long segmentId = (Long) event[2];
+                log.liveCounts.put(segmentId, log.liveCounts.get(segmentId) + 1);
+                eventIds.put(tuple, entry.getKey());
+                restored.add(tuple);
+                restoredTs.add((Long) event[0]);
+            }
+            committedLog = log.copy();
+        }
+        LOG.info("Restored {} events from {} window segments", restored.size(), log.liveCounts.size());
+        for (int i = 0; i < restored.size(); i++) {
+            super.addToWindow(restored.get(i), restoredTs.get(i));
+        }
+    }
+
+    @Override
+    public void prePrepare(long txid) {
+        if (!stateInitialized) {
+            LOG.warn("Cannot prepare before initState");
+            return;
+        }
+        synchronized (this) {
+            appendSegment();
+        }
+        LOG.debug("Prepare window state, txid {}", txid);
+        windowState.prepareCommit(txid);
+        statefulWindowedBolt.prePrepare(txid);
+    }
+
+    private void appendSegment() {
+        preparedEvents = pendingEvents;
+        preparedExpired = pendingExpired;
+        pendingEvents = new LinkedHashMap<>();
+        pendingExpired = new ArrayList<>();
+        if (preparedEvents.isEmpty() && preparedExpired.isEmpty()) {
+            return;
+        }
+        long segmentId = log.nextSegmentId++;
+        WindowSegment segment = new WindowSegment(preparedEvents.size(), preparedExpired);
+        int i = 0;
+        for (Map.Entry<Long, PendingEvent> entry : preparedEvents.entrySet()) {
+            segment.eventIds[i] = entry.getKey();
+            segment.timestamps[i] = entry.getValue().ts;
+            segment.tuples.add(serializer.serialize(entry.getValue().tuple));
+            i++;
+        }
+        windowState.put(SEGMENT_KEY_PREFIX + segmentId, segment);
+        log.liveCounts.put(segmentId, segment.eventIds.length);
+        if (segment.eventIds.length > 0) {
+            log.segmentByFirstEventId.put(segment.eventIds[0], segmentId);
+        }
+        for (long expiredId : preparedExpired) {
+            Long expiredSegmentId = log.segmentByFirstEventId.floorEntry(expiredId).getValue();
+            log.liveCounts.put(expiredSegmentId, log.liveCounts.get(expiredSegmentId) - 1);
+        }
+        // a segment can only go once the segments its expired ids refer to are gone, so drop from the head only
+        Iterator<Map.Entry<Long, Integer>> it = log.liveCounts.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Integer> head = it.next();
+            if (head.getValue() > 0) {
+                break;
+            }
+            windowState.delete(SEGMENT_KEY_PREFIX + head.getKey());
+            Map.Entry<Long, Long> first = log.segmentByFirstEventId.firstEntry();
+            if (first != null && first.getValue().equals(head.getKey())) {
+                log.segmentByFirstEventId.pollFirstEntry();
+            }
+            it.remove();
+        }
+        log.nextEventId = nextEventId;
+        windowState.put(LOG_KEY, log.copy());
+        LOG.debug("Appended window segment {} with {} events and {} expired ids, {} segments in the log",
+                  segmentId, segment.eventIds.length, preparedExpired.size(), log.liveCounts.size());
+    }
+
+    @Override
+    public void preCommit(long txid) {
+        if (!stateInitialized) {
+            LOG.warn("Cannot commit before initState");
+            return;
+        }
+        LOG.debug("Commit window state, txid {}", txid);
+        windowState.commit(txid);
+        synchronized (this) {
+            committedLog = log.copy();
+            preparedEvents = new LinkedHashMap<>();
+            preparedExpired = new ArrayList<>();
+        }
+        statefulWindowedBolt.preCommit(txid);
+    }
+
+    @Override
+    public void preRollback() {
+        LOG.debug("Rollback window state, stateInitialized {}", stateInitialized);
+        windowState.rollback();
+        if (stateInitialized) {
+            // the tuples since the last commit are failed and replayed, so the window goes back to what was committed
+            synchronized (this) {
+                eventIds.clear();
+                pendingEvents = new LinkedHashMap<>();
+                pendingExpired = new ArrayList<>();
+                preparedEvents = new LinkedHashMap<>();
+                preparedExpired = new ArrayList<>();
+            }
+            resetWindow(this::restoreWindow);
+        }
+        statefulWindowedBolt.preRollback();
+    }
+
+    @Override
+    protected WindowLifecycleListener<Tuple> newWindowLifecycleListener() {
+        final WindowLifecycleListener<Tuple> parentListener = super.newWindowLifecycleListener();
+        return new WindowLifecycleListener<Tuple>() {
+            @Override
+            public void onExpiry(List<Tuple> events) {
+                expired(events);
+                parentListener.onExpiry(events);
+            }
+
+            @Override
+            public void onActivation(List<Tuple> events, List<Tuple> newEvents, List<Tuple> expired, Long timestamp) {
+                parentListener.onActivation(events, newEvents, expired, timestamp);
+            }
+        };
+    }
+
+    private synchronized void expired(List<Tuple> events) {
+        for (Tuple event : events) {
+            Long id = eventIds.remove(event);
+            // events that were never saved are just dropped from the next segment
+            if (id != null && pendingEvents.remove(id) == null) {
+                pendingExpired.add(id);
+            }
+        }
+    }
+
+    private KeyValueState<String, Object> getWindowState(Map<String, Object> topoConf, TopologyContext context) {
+        String namespace = context.getThisComponentId() + "-" + context.getThisTaskId() + "-window-log";
+        return (KeyValueState<String, Object>) StateFactory.getState(namespace, topoConf, context);
+    }
+
+    private static class PendingEvent {
+        private final Tuple tuple;
+        private final long ts;
+
+        PendingEvent(Tuple tuple, long ts) {
+            this.tuple = tuple;
+            this.ts = ts;
+        }
+    }
+
+    /**
+     * The index of the segment log.
+     */
+    static class WindowLog {
+        private long nextSegmentId;
+        private long nextEventId;
+        // live event count of the segments in the log, in the order they were appended
+        private LinkedHashMap<Long, Integer> liveCounts = new LinkedHashMap<>();
+        // the segment of the events, by the first event id of each segment that has events
+        private TreeMap<Long, Long> segmentByFirstEventId = new TreeMap<>();
+
+        // for kryo
+        WindowLog() {
+        }
+
+        WindowLog copy() {
+            WindowLog copy = new WindowLog();
+            copy.nextSegmentId = nextSegmentId;
+            copy.nextEventId = nextEventId;
+            copy.liveCounts = new LinkedHashMap<>(liveCounts);
+            copy.segmentByFirstEventId = new TreeMap<>(segmentByFirstEventId);
+            return copy;
+        }
+
+        List<Long> getSegmentIds() {
+            return new ArrayList<>(liveCounts.keySet());
+        }
+
+        @Override
+        public String toString() {
+            return "WindowLog{" +
+                    "nextSegmentId=" + nextSegmentId +
+                    ", nextEventId=" + nextEventId +
+                    ", liveCounts=" + liveCounts +
+                    '}';
+        }
+    }
+
+    /**
+     * The events added to the window and the ids of the events that expired between two checkpoints.
+     */
+    static class WindowSegment {
+        private long[] eventIds;
+        private long[] timestamps;
+        private List<byte[]> tuples;
+        private long[] expiredIds;
+
+        // for kryo
+        WindowSegment() {
+        }
+
+        WindowSegment(int eventCount, List<Long> expired) {
+            eventIds = new long[eventCount];
+            timestamps = new long[eventCount];
+            tuples = new ArrayList<>(eventCount);
+            expiredIds = new long[expired.size()];
+            for (int i = 0; i < expiredIds.length; i++) {
+                expiredIds[i] = expired.get(i);
+            }
+        }
+
+        long[] getEventIds() {
+            return eventIds;
+        }
+
+        long[] getExpiredIds() {
+            return expiredIds;
+        }
+    }
+}
@@ -17,22 +17,30 @@
  */
 package org.apache.storm.topology;
 
+import org.apache.storm.Config;
 import org.apache.storm.spout.CheckpointSpout;
+import org.apache.storm.state.AsyncCheckpointState;
 import org.apache.storm.state.State;
 import org.apache.storm.state.StateFactory;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
+import org.apache.storm.utils.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.storm.spout.CheckPointState.Action;
 import static org.apache.storm.spout.CheckPointState.Action.COMMIT;
@@ -41,6 +49,11 @@ import static org.apache.storm.spout.CheckPointState.Action.ROLLBACK;
 import static org.apache.storm.spout.CheckPointState.Action.INITSTATE;
 /**
  * Wraps a {@link IStatefulBolt} and manages the state of the bolt.
+ *
+ * <p>If {@link Config#TOPOLOGY_STATE_CHECKPOINT_ASYNC} is enabled and the state is an {@link AsyncCheckpointState},
+ * the prepare and commit writes are done on a background thread. The checkpoint tuple is forwarded right away so that
+ * the downstream bolts can start their own writes, and it is acked (or failed) only when the write completes, so
+ * the {@link CheckpointSpout} does not move on to the next action before the state is durable.
  */
 public class StatefulBoltExecutor<T extends State> extends BaseStatefulBoltExecutor {
     private static final Logger LOG = LoggerFactory.getLogger(StatefulBoltExecutor.class);
@@ -50,6 +63,8 @@ public class StatefulBoltExecutor<T extends State> extends BaseStatefulBoltExecu
     private List<Tuple> pendingTuples = new ArrayList<>();
     private List<Tuple> preparedTuples = new ArrayList<>();
     private AckTrackingOutputCollector collector;
+    private ExecutorService checkpointExecutor;
+    private Future<?> pendingCheckpoint;
 
     public StatefulBoltExecutor(IStatefulBolt<T> bolt) {
         this.bolt = bolt;
@@ -68,10 +83,26 @@ public class StatefulBoltExecutor<T extends State> extends BaseStatefulBoltExecu
         this.collector = new AckTrackingOutputCollector(collector);
         bolt.prepare(topoConf, context, this.collector);
         this.state = state;
+        if (ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_STATE_CHECKPOINT_ASYNC), false)) {
+            if (state instanceof AsyncCheckpointState) {
+                String threadName = "state-checkpoint-" + context.getThisComponentId() + "-" + context.getThisTaskId();
+                checkpointExecutor = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            } else {
+                LOG.warn("{} is enabled but {} is not an AsyncCheckpointState, the checkpoints will be written synchronously",
+                         Config.TOPOLOGY_STATE_CHECKPOINT_ASYNC, state.getClass().getName());
+            }
+        }
     }
 
     @Override
     public void cleanup() {
+        if (checkpointExecutor != null) {
+            checkpointExecutor.shutdownNow();
+        }
         bolt.cleanup();
     }
 
@@ -90,9 +121,18 @@ public class StatefulBoltExecutor<T extends State> extends BaseStatefulBoltExecu
     @Override
     protected void handleCheckpoint(Tuple checkpointTuple, Action action, long txid) {
         LOG.debug("handleCheckPoint with tuple {}, action {}, txid {}", checkpointTuple, action, txid);
+        // normally done by now, but a rollback can be issued while a write is still in flight
+        awaitPendingCheckpoint();
         if (action == PREPARE) {
             if (boltInitialized) {
                 bolt.prePrepare(txid);
+                if (checkpointExecutor != null) {
+                    ((AsyncCheckpointState) state).snapshot(txid);
+                    preparedTuples.addAll(collector.ackedTuples());
+                    checkpointAsync(checkpointTuple, action, txid, () -> ((AsyncCheckpointState) state).flushPrepared(txid),
+                                    Collections.emptyList());
+                    return;
+                }
                 state.prepareCommit(txid);
                 preparedTuples.addAll(collector.ackedTuples());
             } else {
@@ -106,6 +146,12 @@ public class StatefulBoltExecutor<T extends State> extends BaseStatefulBoltExecu
             }
         } else if (action == COMMIT) {
             bolt.preCommit(txid);
+            if (checkpointExecutor != null) {
+                List<Tuple> committedTuples = preparedTuples;
+                preparedTuples = new ArrayList<>();
+                checkpointAsync(checkpointTuple, action, txid, () -> state.commit(txid), committedTuples);
+                return;
+            }
             state.commit(txid);
             ack(preparedTuples);
         } else if (action == ROLLBACK) {
@@ -131,6 +177,45 @@ public class StatefulBoltExecutor<T extends State> extends BaseStatefulBoltExecu
         collector.delegate.ack(checkpointTuple);
     }
 
+    /*
+     * Forwards the checkpoint tuple and runs the write in the background. The checkpoint tuple and the tuples
+     * that are part of the transaction are acked once the write completes, or failed if it does not.
+     */
+    private void checkpointAsync(Tuple checkpointTuple, Action action, long txid, Runnable write, List<Tuple> tuples) {
+        collector.emit(CheckpointSpout.CHECKPOINT_STREAM_ID, checkpointTuple, new Values(txid, action));
+        pendingCheckpoint = checkpointExecutor.submit(() -> {
+            try {
+                write.run();
+                LOG.debug("Completed action {}, txid {}", action, txid);
+                ack(tuples);
+                collector.delegate.ack(checkpointTuple);
+            } catch (Throwable th) {
+                LOG.error("Got error while writing checkpoint, action {}, txid {}", action, txid, th);
+                fail(tuples);
+                collector.fail(checkpointTuple);
+                collector.reportError(th);
+            }
+        });
+    }
+
+    /*
+     * Waits for an in flight checkpoint write, the write itself takes care of its failures.
+     * Package access for unit tests.
+     */
+    void awaitPendingCheckpoint() {
+        if (pendingCheckpoint != null) {
+            try {
+                pendingCheckpoint.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                LOG.debug("Pending checkpoint write failed", e);
+            }
+            pendingCheckpoint = null;
+        }
+    }
+
     @Override
     protected void handleTuple(Tuple input) {
         if (boltInitialized) {
@@ -76,6 +76,12 @@ public class StatefulWindowedBoltExecutor<T extends State> extends WindowedBoltE
         } else {
             throw new IllegalArgumentException(Config.TOPOLOGY_BOLTS_MESSAGE_ID_FIELD_NAME + " is not set");
         }
+        if (isSpillToDisk(topoConf)) {
+            throw new IllegalArgumentException("Stateful windowed bolts cannot spill their windows to disk");
+        }
+        if (topoConf.containsKey(Config.TOPOLOGY_BOLTS_SESSION_GAP_DURATION_MS)) {
+            throw new IllegalArgumentException("Stateful windowed bolts do not support session windows");
+        }
         topologyContext = context;
         outputCollector = collector;
         streamState = windowState;
@@ -89,6 +95,9 @@ public class StatefulWindowedBoltExecutor<T extends State> extends WindowedBoltE
     public void execute(Tuple input) {
         if (!isStateInitialized()) {
             throw new IllegalStateException("execute invoked before initState with input tuple " + input);
+        } else if (isRecovering() && isWaterMarkTuple(input)) {
+            // the windows are not evaluated while recovering, a later watermark will catch up
+            outputCollector.ack(input);
         } else if (isRecovering()) {
             handleRecovery(input);
         } else {
@@ -308,6 +308,7 @@ public class TopologyBuilder {
      * windowing operations. The {@link IStatefulWindowedBolt#execute(TupleWindow)} method is triggered
      * for each window interval with the list of current events in the window. During initialization of
      * this bolt {@link IStatefulWindowedBolt#initState(State)} is invoked with its previously saved state.
+     * If {@link IStatefulWindowedBolt#isPersistent()} is true the window contents are saved with the state too.
      *
      * @param id the id of this component. This id is referenced by other components that want to consume this bolt's outputs.
      * @param bolt the stateful windowed bolt
@@ -318,7 +319,13 @@ public class TopologyBuilder {
      */
     public <T extends State> BoltDeclarer setBolt(String id, IStatefulWindowedBolt<T> bolt, Number parallelism_hint) throws IllegalArgumentException {
         hasStatefulBolt = true;
-        return setBolt(id, new StatefulBoltExecutor<T>(new StatefulWindowedBoltExecutor<T>(bolt)), parallelism_hint);
+        IStatefulBolt<T> executor;
+        if (bolt.isPersistent()) {
+            executor = new PersistentWindowedBoltExecutor<T>(bolt);
+        } else {
+            executor = new StatefulWindowedBoltExecutor<T>(bolt);
+        }
+        return setBolt(id, new StatefulBoltExecutor<T>(executor), parallelism_hint);
     }
 
     /**
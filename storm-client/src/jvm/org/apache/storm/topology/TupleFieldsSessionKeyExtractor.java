@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.topology;
+
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.windowing.SessionKeyExtractor;
+
+/**
+ * A {@link SessionKeyExtractor} that uses the values of specific fields in the tuple as the session key.
+ */
+public final class TupleFieldsSessionKeyExtractor implements SessionKeyExtractor {
+    private final Fields keyFields;
+
+    private TupleFieldsSessionKeyExtractor(Fields keyFields) {
+        this.keyFields = keyFields;
+    }
+
+    @Override
+    public Object extractKey(Tuple tuple) {
+        return tuple.select(keyFields);
+    }
+
+    public static TupleFieldsSessionKeyExtractor of(Fields keyFields) {
+        return new TupleFieldsSessionKeyExtractor(keyFields);
+    }
+
+    @Override
+    public String toString() {
+        return "TupleFieldsSessionKeyExtractor{" +
+                "keyFields=" + keyFields +
+                '}';
+    }
+}
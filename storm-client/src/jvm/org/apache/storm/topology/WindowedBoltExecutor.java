@@ -19,6 +19,8 @@ package org.apache.storm.topology;
 
 import org.apache.storm.Config;
 import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.serialization.KryoTupleDeserializer;
+import org.apache.storm.serialization.KryoTupleSerializer;
 import org.apache.storm.spout.CheckpointSpout;
 import org.apache.storm.task.IOutputCollector;
 import org.apache.storm.task.OutputCollector;
@@ -27,51 +29,98 @@ import org.apache.storm.topology.base.BaseWindowedBolt;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
+import org.apache.storm.utils.ObjectReader;
+import org.apache.storm.windowing.AggregateWindow;
 import org.apache.storm.windowing.CountEvictionPolicy;
 import org.apache.storm.windowing.CountTriggerPolicy;
+import org.apache.storm.windowing.Event;
 import org.apache.storm.windowing.EvictionPolicy;
+import org.apache.storm.windowing.InMemoryWindowEventStore;
+import org.apache.storm.windowing.PaneWindowManager;
+import org.apache.storm.windowing.SegmentedWindowEventStore;
+import org.apache.storm.windowing.SessionKeyExtractor;
+import org.apache.storm.windowing.SessionWindowManager;
 import org.apache.storm.windowing.TimeEvictionPolicy;
 import org.apache.storm.windowing.TimeTriggerPolicy;
 import org.apache.storm.windowing.TimestampExtractor;
 import org.apache.storm.windowing.TriggerPolicy;
 import org.apache.storm.windowing.TupleWindowImpl;
+import org.apache.storm.windowing.TupleWindowIterImpl;
 import org.apache.storm.windowing.WaterMarkEventGenerator;
 import org.apache.storm.windowing.WatermarkCountEvictionPolicy;
 import org.apache.storm.windowing.WatermarkCountTriggerPolicy;
 import org.apache.storm.windowing.WatermarkTimeEvictionPolicy;
 import org.apache.storm.windowing.WatermarkTimeTriggerPolicy;
+import org.apache.storm.windowing.WindowAggregator;
+import org.apache.storm.windowing.WindowEventStore;
 import org.apache.storm.windowing.WindowLifecycleListener;
 import org.apache.storm.windowing.WindowManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.apache.storm.topology.base.BaseWindowedBolt.Count;
 import static org.apache.storm.topology.base.BaseWindowedBolt.Duration;
 
 /**
  * An {@link IWindowedBolt} wrapper that does the windowing of tuples.
+ * {@link IIncrementalWindowedBolt}s are evaluated with a {@link PaneWindowManager} that keeps per pane aggregates
+ * instead of the tuples of the window.
  */
 public class WindowedBoltExecutor implements IRichBolt {
     private static final Logger LOG = LoggerFactory.getLogger(WindowedBoltExecutor.class);
     private static final int DEFAULT_WATERMARK_EVENT_INTERVAL_MS = 1000; // 1s
     private static final int DEFAULT_MAX_LAG_MS = 0; // no lag
+    private static final int DEFAULT_SPILL_SEGMENT_EVENTS = 10000;
+    private static final int DEFAULT_SPILL_MEMORY_SEGMENTS = 2;
     public static final String LATE_TUPLE_FIELD = "late_tuple";
+    public static final String WATERMARK_FIELD = "watermark";
+    /**
+     * The stream windowed bolts forward their watermarks on. Every windowed bolt treats the tuples it receives on this
+     * stream as watermarks of their source task, whether or not it forwards watermarks itself.
+     */
+    public static final String WATERMARK_STREAM_ID = "$watermark";
     private final IWindowedBolt bolt;
     private transient WindowedOutputCollector windowedOutputCollector;
     private transient WindowLifecycleListener<Tuple> listener;
     private transient WindowManager<Tuple> windowManager;
+    // kept to build a new window manager on resetWindow
+    private transient Map<String, Object> topoConf;
+    private transient TopologyContext context;
     private transient int maxLagMs;
     private TimestampExtractor timestampExtractor;
     private transient String lateTupleStream;
+    private transient boolean punctuatedWaterMarks;
     private transient TriggerPolicy<Tuple> triggerPolicy;
     private transient EvictionPolicy<Tuple> evictionPolicy;
     private transient Duration windowLengthDuration;
+    private transient boolean spillToDisk;
+    // the tuples are acked as soon as they are added to the window instead of when they expire
+    private transient boolean ackOnArrival;
+    private transient PaneWindowManager<Tuple, ?, ?> paneWindowManager;
+    private transient SessionWindowManager<Object, Tuple, ?, ?> sessionWindowManager;
+    private transient SessionKeyExtractor sessionKeyExtractor;
+    // incremental session windows do not keep the tuples
+    private transient boolean sessionAckOnAdd;
+    private transient ScheduledExecutorService timerExecutor;
+    private transient ScheduledFuture<?> timerFuture;
     // package level for unit tests
     transient WaterMarkEventGenerator<Tuple> waterMarkEventGenerator;
 
@@ -126,6 +175,10 @@ public class WindowedBoltExecutor implements IRichBolt {
         if (windowLengthCount == null && windowLengthDuration == null) {
             throw new IllegalArgumentException("Window length is not specified");
         }
+        if (ackOnArrival) {
+            // the tuples do not have to stay un-acked until they expire
+            return;
+        }
 
         if (windowLengthDuration != null && slidingIntervalDuration != null) {
             ensureDurationLessThanTimeout(windowLengthDuration.value + slidingIntervalDuration.value, topologyTimeout);
@@ -146,7 +199,7 @@ public class WindowedBoltExecutor implements IRichBolt {
 
     private WindowManager<Tuple> initWindowManager(WindowLifecycleListener<Tuple> lifecycleListener, Map<String, Object> topoConf,
                                                    TopologyContext context) {
-        WindowManager<Tuple> manager = new WindowManager<>(lifecycleListener);
+        WindowManager<Tuple> manager = new WindowManager<>(lifecycleListener, newWindowEventStore(topoConf, context));
         Count windowLengthCount = null;
         Duration slidingIntervalDuration = null;
         Count slidingIntervalCount = null;
@@ -167,7 +220,42 @@ public class WindowedBoltExecutor implements IRichBolt {
             // default is a sliding window of count 1
             slidingIntervalCount = new Count(1);
         }
-        // tuple ts
+        // tuple ts, the watermarks go to whichever window manager is current so the generator outlives resetWindow
+        if (waterMarkEventGenerator == null) {
+            initWaterMarkEventGenerator(topoConf, context, event -> windowManager.add(event));
+        }
+        // validate
+        validate(topoConf, windowLengthCount, windowLengthDuration,
+                 slidingIntervalCount, slidingIntervalDuration);
+        evictionPolicy = getEvictionPolicy(windowLengthCount, windowLengthDuration);
+        triggerPolicy = getTriggerPolicy(slidingIntervalCount, slidingIntervalDuration,
+                                                              manager, evictionPolicy);
+        manager.setEvictionPolicy(evictionPolicy);
+        manager.setTriggerPolicy(triggerPolicy);
+        return manager;
+    }
+
+    private WindowEventStore<Tuple> newWindowEventStore(Map<String, Object> topoConf, TopologyContext context) {
+        if (!spillToDisk) {
+            return new InMemoryWindowEventStore<>();
+        }
+        int segmentEvents = ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_SEGMENT_EVENTS),
+                                                DEFAULT_SPILL_SEGMENT_EVENTS);
+        int memorySegments = ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_MEMORY_SEGMENTS),
+                                                 DEFAULT_SPILL_MEMORY_SEGMENTS);
+        String root = ObjectReader.getString(topoConf.get(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_DIR),
+                                             System.getProperty("java.io.tmpdir"));
+        File dir = Paths.get(root, "storm-window-spill", context.getStormId(),
+                             context.getThisComponentId() + "-" + context.getThisTaskId()).toFile();
+        KryoTupleSerializer serializer = new KryoTupleSerializer(topoConf, context);
+        KryoTupleDeserializer deserializer = new KryoTupleDeserializer(topoConf, context);
+        LOG.info("Spilling window segments of {} tuples beyond the {} most recent to {}", segmentEvents, memorySegments, dir);
+        return new SegmentedWindowEventStore<>(dir, segmentEvents, memorySegments, serializer::serialize,
+                                               deserializer::deserialize);
+    }
+
+    private void initWaterMarkEventGenerator(Map<String, Object> topoConf, TopologyContext context,
+                                             Consumer<Event<Tuple>> eventSink) {
         if (timestampExtractor != null) {
             // late tuple stream
             lateTupleStream = (String) topoConf.get(Config.TOPOLOGY_BOLTS_LATE_TUPLE_STREAM);
@@ -189,24 +277,117 @@ public class WindowedBoltExecutor implements IRichBolt {
             } else {
                 watermarkInterval = DEFAULT_WATERMARK_EVENT_INTERVAL_MS;
             }
-            waterMarkEventGenerator = new WaterMarkEventGenerator<>(manager, watermarkInterval,
-                                                                    maxLagMs, getComponentStreams(context));
+            // watermark stream
+            if (ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_BOLTS_WATERMARK_FORWARD), false)) {
+                if (!context.getThisStreams().contains(WATERMARK_STREAM_ID)) {
+                    throw new IllegalArgumentException("Stream for watermarks must be defined with the builder method withWatermarkStream");
+                }
+                eventSink = forwardWaterMarks(eventSink);
+            }
+            punctuatedWaterMarks = ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_BOLTS_WATERMARK_PUNCTUATED), false);
+            if (topoConf.containsKey(Config.TOPOLOGY_BOLTS_WATERMARK_IDLE_TIMEOUT_MS)) {
+                waterMarkEventGenerator = new WaterMarkEventGenerator<>(eventSink, watermarkInterval,
+                                                                        maxLagMs, getComponentTasks(context));
+                waterMarkEventGenerator.setIdleTimeoutMs(
+                    ((Number) topoConf.get(Config.TOPOLOGY_BOLTS_WATERMARK_IDLE_TIMEOUT_MS)).longValue());
+            } else {
+                waterMarkEventGenerator = new WaterMarkEventGenerator<>(eventSink, watermarkInterval,
+                                                                        maxLagMs, getComponentStreams(context));
+            }
         } else {
             if (topoConf.containsKey(Config.TOPOLOGY_BOLTS_LATE_TUPLE_STREAM)) {
                 throw new IllegalArgumentException("Late tuple stream can be defined only when specifying a timestamp field");
             }
+            if (ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_BOLTS_WATERMARK_FORWARD), false)) {
+                throw new IllegalArgumentException("Watermark stream can be defined only when specifying a timestamp field");
+            }
         }
-        // validate
-        validate(topoConf, windowLengthCount, windowLengthDuration,
-                 slidingIntervalCount, slidingIntervalDuration);
-        evictionPolicy = getEvictionPolicy(windowLengthCount, windowLengthDuration);
-        triggerPolicy = getTriggerPolicy(slidingIntervalCount, slidingIntervalDuration,
-                                                              manager, evictionPolicy);
-        manager.setEvictionPolicy(evictionPolicy);
-        manager.setTriggerPolicy(triggerPolicy);
+    }
+
+    private <A, R> PaneWindowManager<Tuple, A, R> initPaneWindowManager(IIncrementalWindowedBolt<A, R> incrementalBolt,
+                                                                       Map<String, Object> topoConf,
+                                                                       TopologyContext context) {
+        Consumer<AggregateWindow<R>> windowListener = window -> {
+            windowedOutputCollector.setContext(Collections.<Tuple>emptyList());
+            incrementalBolt.execute(window);
+        };
+        PaneWindowManager<Tuple, A, R> manager;
+        Number lengthCount = (Number) topoConf.get(Config.TOPOLOGY_BOLTS_WINDOW_LENGTH_COUNT);
+        Number lengthMs = (Number) topoConf.get(Config.TOPOLOGY_BOLTS_WINDOW_LENGTH_DURATION_MS);
+        Number slidingCount = (Number) topoConf.get(Config.TOPOLOGY_BOLTS_SLIDING_INTERVAL_COUNT);
+        Number slidingMs = (Number) topoConf.get(Config.TOPOLOGY_BOLTS_SLIDING_INTERVAL_DURATION_MS);
+        if (lengthCount != null && slidingMs == null) {
+            if (isTupleTs()) {
+                throw new IllegalArgumentException("Incremental count windows cannot be used with tuple timestamps");
+            }
+            // default is a sliding window of count 1
+            int sliding = slidingCount == null ? 1 : slidingCount.intValue();
+            manager = PaneWindowManager.countWindows(incrementalBolt.getAggregator(), windowListener,
+                                                     lengthCount.intValue(), sliding);
+            initWaterMarkEventGenerator(topoConf, context, manager::add);
+        } else if (lengthMs != null && slidingMs != null) {
+            manager = PaneWindowManager.timeWindows(incrementalBolt.getAggregator(), windowListener,
+                                                    lengthMs.longValue(), slidingMs.longValue());
+            initWaterMarkEventGenerator(topoConf, context, manager::add);
+        } else {
+            throw new IllegalArgumentException("Incremental windows need the window length and the sliding interval to be"
+                                               + " both counts or both durations");
+        }
+        LOG.info("Incremental windowing with pane size {}", manager.getPaneSize());
         return manager;
     }
 
+    private SessionWindowManager<Object, Tuple, ?, ?> initSessionWindowManager(Map<String, Object> topoConf,
+                                                                               TopologyContext context) {
+        long gap = ((Number) topoConf.get(Config.TOPOLOGY_BOLTS_SESSION_GAP_DURATION_MS)).longValue();
+        sessionKeyExtractor = bolt.getSessionKeyExtractor();
+        SessionWindowManager<Object, Tuple, ?, ?> manager;
+        if (bolt instanceof IIncrementalWindowedBolt) {
+            manager = newIncrementalSessionWindowManager((IIncrementalWindowedBolt<?, ?>) bolt, gap);
+            sessionAckOnAdd = true;
+        } else {
+            manager = new SessionWindowManager<>(new TupleCollector(), window -> {
+                List<Tuple> tuples = window.get();
+                windowedOutputCollector.setContext(tuples);
+                bolt.execute(new TupleWindowImpl(tuples, tuples, Collections.<Tuple>emptyList(),
+                                                 window.getStartTimestamp(), window.getEndTimestamp()));
+                for (Tuple tuple : tuples) {
+                    windowedOutputCollector.ack(tuple);
+                }
+            }, gap);
+            sessionAckOnAdd = false;
+        }
+        initWaterMarkEventGenerator(topoConf, context, event -> manager.advance(event.getTimestamp()));
+        return manager;
+    }
+
+    private <A, R> SessionWindowManager<Object, Tuple, A, R> newIncrementalSessionWindowManager(
+        IIncrementalWindowedBolt<A, R> incrementalBolt, long gap) {
+        return new SessionWindowManager<>(incrementalBolt.getAggregator(), window -> {
+            windowedOutputCollector.setContext(Collections.<Tuple>emptyList());
+            incrementalBolt.execute(window);
+        }, gap);
+    }
+
+    /**
+     * Emits each watermark on the watermark stream once the windows it closes have been evaluated.
+     */
+    private Consumer<Event<Tuple>> forwardWaterMarks(Consumer<Event<Tuple>> eventSink) {
+        return event -> {
+            eventSink.accept(event);
+            windowedOutputCollector.emit(WATERMARK_STREAM_ID, Collections.<Tuple>emptyList(),
+                                         new Values(event.getTimestamp()));
+        };
+    }
+
+    private Map<GlobalStreamId, List<Integer>> getComponentTasks(TopologyContext context) {
+        Map<GlobalStreamId, List<Integer>> tasks = new HashMap<>();
+        for (GlobalStreamId streamId : getComponentStreams(context)) {
+            tasks.put(streamId, context.getComponentTasks(streamId.get_componentId()));
+        }
+        return tasks;
+    }
+
     private Set<GlobalStreamId> getComponentStreams(TopologyContext context) {
         Set<GlobalStreamId> streams = new HashSet<>();
         for (GlobalStreamId streamId : context.getThisSources().keySet()) {
@@ -225,8 +406,69 @@ public class WindowedBoltExecutor implements IRichBolt {
             LOG.debug("Starting waterMarkEventGenerator");
             waterMarkEventGenerator.start();
         }
-        LOG.debug("Starting trigger policy");
-        triggerPolicy.start();
+        if (sessionWindowManager != null) {
+            startSessionTrigger();
+        } else if (paneWindowManager != null) {
+            startPaneTrigger();
+        } else {
+            LOG.debug("Starting trigger policy");
+            triggerPolicy.start();
+        }
+    }
+
+    /**
+     * Processing time windows of an incremental bolt are evaluated every sliding interval from a timer thread, event
+     * time windows are evaluated when the watermark advances.
+     */
+    private void startPaneTrigger() {
+        if (paneWindowManager.isCountBased() || isTupleTs()) {
+            return;
+        }
+        long interval = paneWindowManager.getSlidingInterval();
+        timerExecutor = Executors.newSingleThreadScheduledExecutor();
+        timerFuture = timerExecutor.scheduleAtFixedRate(() -> {
+            try {
+                // do not process current timestamp since tuples might arrive while the trigger is executing
+                paneWindowManager.advance(System.currentTimeMillis() - 1);
+            } catch (Throwable th) {
+                LOG.error("Evaluating the incremental window failed ", th);
+                throw th;
+            }
+        }, interval - System.currentTimeMillis() % interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Processing time sessions are checked for their end from a timer thread, event time sessions are evaluated
+     * when the watermark advances.
+     */
+    private void startSessionTrigger() {
+        if (isTupleTs()) {
+            return;
+        }
+        long interval = Math.max(1, Math.min(sessionWindowManager.getGap() / 2, DEFAULT_WATERMARK_EVENT_INTERVAL_MS));
+        timerExecutor = Executors.newSingleThreadScheduledExecutor();
+        timerFuture = timerExecutor.scheduleAtFixedRate(() -> {
+            try {
+                sessionWindowManager.advance(System.currentTimeMillis() - 1);
+            } catch (Throwable th) {
+                LOG.error("Evaluating the session windows failed ", th);
+                throw th;
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkTimerFailures() {
+        if (timerFuture != null && timerFuture.isDone()) {
+            try {
+                timerFuture.get();
+            } catch (InterruptedException ex) {
+                LOG.error("Got exception ", ex);
+                throw new FailedException(ex);
+            } catch (ExecutionException ex) {
+                LOG.error("Got exception ", ex);
+                throw new FailedException(ex.getCause());
+            }
+        }
     }
 
     private boolean isTupleTs() {
@@ -270,34 +512,180 @@ public class WindowedBoltExecutor implements IRichBolt {
     public void prepare(Map<String, Object> topoConf, TopologyContext context, OutputCollector collector) {
         this.windowedOutputCollector = new WindowedOutputCollector(collector);
         bolt.prepare(topoConf, context, windowedOutputCollector);
+        if (topoConf.containsKey(Config.TOPOLOGY_BOLTS_SESSION_GAP_DURATION_MS)) {
+            this.sessionWindowManager = initSessionWindowManager(topoConf, context);
+            start();
+            LOG.info("Initialized session window manager {} ", sessionWindowManager);
+            return;
+        }
+        if (bolt instanceof IIncrementalWindowedBolt) {
+            this.paneWindowManager = initPaneWindowManager((IIncrementalWindowedBolt<?, ?>) bolt, topoConf, context);
+            start();
+            LOG.info("Initialized pane window manager {} ", paneWindowManager);
+            return;
+        }
+        this.spillToDisk = isSpillToDisk(topoConf);
+        this.ackOnArrival = spillToDisk || isAckOnArrival();
         this.listener = newWindowLifecycleListener();
+        this.topoConf = topoConf;
+        this.context = context;
         this.windowManager = initWindowManager(listener, topoConf, context);
         start();
         LOG.info("Initialized window manager {} ", windowManager);
     }
 
+    protected static boolean isSpillToDisk(Map<String, Object> topoConf) {
+        return ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_ENABLE), false);
+    }
+
+    /**
+     * Whether the input tuples should be acked as soon as they are added to the window rather than when they
+     * expire. Sub-classes that keep the window contents somewhere durable can override this. Activations are
+     * emitted un-anchored in that case.
+     */
+    protected boolean isAckOnArrival() {
+        return false;
+    }
+
+    /**
+     * Replaces the window with an empty one, as it was right after prepare, and starts its trigger once the refill
+     * has added the events the window should start with. The watermarks seen so far are kept.
+     */
+    protected void resetWindow(Runnable refill) {
+        windowManager.shutdown();
+        windowManager = initWindowManager(listener, topoConf, context);
+        refill.run();
+        LOG.debug("Starting trigger policy of the reset window");
+        triggerPolicy.start();
+    }
+
+    /**
+     * Adds a tuple that is not late to the window.
+     */
+    protected void addToWindow(Tuple input, long ts) {
+        windowManager.add(input, ts);
+    }
+
+    /**
+     * Whether the tuple is a watermark forwarded by an upstream windowed bolt rather than a data tuple.
+     */
+    protected boolean isWaterMarkTuple(Tuple input) {
+        return WATERMARK_STREAM_ID.equals(input.getSourceStreamId());
+    }
+
     @Override
     public void execute(Tuple input) {
+        if (isWaterMarkTuple(input)) {
+            // without tuple timestamps the windows follow the clock and have no use for upstream watermarks
+            if (waterMarkEventGenerator != null) {
+                waterMarkEventGenerator.trackWaterMark(input.getSourceGlobalStreamId(), input.getSourceTask(),
+                                                       input.getLongByField(WATERMARK_FIELD));
+                punctuate();
+            }
+            windowedOutputCollector.ack(input);
+            return;
+        }
+        if (sessionWindowManager != null) {
+            executeSession(input);
+            return;
+        }
+        if (paneWindowManager != null) {
+            executeIncremental(input);
+            return;
+        }
         if (isTupleTs()) {
             long ts = timestampExtractor.extractTimestamp(input);
-            if (waterMarkEventGenerator.track(input.getSourceGlobalStreamId(), ts)) {
-                windowManager.add(input, ts);
+            if (waterMarkEventGenerator.track(input.getSourceGlobalStreamId(), input.getSourceTask(), ts)) {
+                addToWindow(input, ts);
+                punctuate();
             } else {
                 if (lateTupleStream != null) {
                     windowedOutputCollector.emit(lateTupleStream, input, new Values(input));
                 } else {
                     LOG.info("Received a late tuple {} with ts {}. This will not be processed.", input, ts);
                 }
-                windowedOutputCollector.ack(input);
+                if (!ackOnArrival) {
+                    windowedOutputCollector.ack(input);
+                }
+            }
+        } else {
+            addToWindow(input, System.currentTimeMillis());
+        }
+        if (ackOnArrival) {
+            windowedOutputCollector.ack(input);
+        }
+    }
+
+    /**
+     * Folds the tuple into its pane and acks it right away, the pane aggregate is all that is kept of it.
+     */
+    private void executeIncremental(Tuple input) {
+        checkTimerFailures();
+        if (isTupleTs()) {
+            long ts = timestampExtractor.extractTimestamp(input);
+            if (!waterMarkEventGenerator.track(input.getSourceGlobalStreamId(), input.getSourceTask(), ts)
+                || !paneWindowManager.add(input, ts)) {
+                if (lateTupleStream != null) {
+                    windowedOutputCollector.emit(lateTupleStream, input, new Values(input));
+                } else {
+                    LOG.info("Received a late tuple {} with ts {}. This will not be processed.", input, ts);
+                }
+            } else {
+                punctuate();
             }
         } else {
-            windowManager.add(input);
+            paneWindowManager.add(input, System.currentTimeMillis());
+        }
+        windowedOutputCollector.ack(input);
+    }
+
+    /**
+     * Adds the tuple to the session of its key. Incremental bolts only keep the aggregate of a session so the tuple is
+     * acked right away, otherwise it is acked once its session has been evaluated.
+     */
+    private void executeSession(Tuple input) {
+        checkTimerFailures();
+        Object key = sessionKeyExtractor == null ? null : sessionKeyExtractor.extractKey(input);
+        boolean added;
+        long ts;
+        if (isTupleTs()) {
+            ts = timestampExtractor.extractTimestamp(input);
+            added = waterMarkEventGenerator.track(input.getSourceGlobalStreamId(), input.getSourceTask(), ts)
+                && sessionWindowManager.add(key, input, ts);
+        } else {
+            ts = System.currentTimeMillis();
+            added = sessionWindowManager.add(key, input, ts);
+        }
+        if (!added) {
+            if (lateTupleStream != null) {
+                windowedOutputCollector.emit(lateTupleStream, input, new Values(input));
+            } else {
+                LOG.info("Received a late tuple {} with ts {}. This will not be processed.", input, ts);
+            }
+            windowedOutputCollector.ack(input);
+            return;
+        }
+        punctuate();
+        if (sessionAckOnAdd) {
+            windowedOutputCollector.ack(input);
+        }
+    }
+
+    private void punctuate() {
+        if (punctuatedWaterMarks) {
+            waterMarkEventGenerator.punctuate();
         }
     }
 
     @Override
     public void cleanup() {
-        windowManager.shutdown();
+        if (paneWindowManager != null || sessionWindowManager != null) {
+            if (timerExecutor != null) {
+                timerExecutor.shutdownNow();
+            }
+        } else {
+            windowManager.shutdown();
+        }
         bolt.cleanup();
     }
 
@@ -307,6 +695,9 @@ public class WindowedBoltExecutor implements IRichBolt {
         if (lateTupleStream != null) {
             declarer.declareStream(lateTupleStream, new Fields(LATE_TUPLE_FIELD));
         }
+        if (ObjectReader.getBoolean(getComponentConfiguration().get(Config.TOPOLOGY_BOLTS_WATERMARK_FORWARD), false)) {
+            declarer.declareStream(WATERMARK_STREAM_ID, new Fields(WATERMARK_FIELD));
+        }
         bolt.declareOutputFields(declarer);
     }
 
@@ -319,6 +710,9 @@ public class WindowedBoltExecutor implements IRichBolt {
         return new WindowLifecycleListener<Tuple>() {
             @Override
             public void onExpiry(List<Tuple> tuples) {
+                if (ackOnArrival) {
+                    return;
+                }
                 for (Tuple tuple : tuples) {
                     windowedOutputCollector.ack(tuple);
                 }
@@ -326,10 +720,16 @@ public class WindowedBoltExecutor implements IRichBolt {
 
             @Override
             public void onActivation(List<Tuple> tuples, List<Tuple> newTuples, List<Tuple> expiredTuples, Long timestamp) {
-                windowedOutputCollector.setContext(tuples);
+                windowedOutputCollector.setContext(ackOnArrival ? Collections.<Tuple>emptyList() : tuples);
                 bolt.execute(new TupleWindowImpl(tuples, newTuples, expiredTuples, getWindowStartTs(timestamp), timestamp));
             }
 
+            @Override
+            public void onActivation(Supplier<Iterator<Tuple>> tuplesIt, Long timestamp) {
+                windowedOutputCollector.setContext(Collections.<Tuple>emptyList());
+                bolt.execute(new TupleWindowIterImpl(tuplesIt, getWindowStartTs(timestamp), timestamp));
+            }
+
             private Long getWindowStartTs(Long endTs) {
                 Long res = null;
                 if (endTs != null && windowLengthDuration != null) {
@@ -340,6 +740,33 @@ public class WindowedBoltExecutor implements IRichBolt {
         };
     }
 
+    /**
+     * Keeps the tuples of a session for windowed bolts that are handed the whole {@link TupleWindow}.
+     */
+    private static class TupleCollector implements WindowAggregator<Tuple, List<Tuple>, List<Tuple>> {
+        @Override
+        public List<Tuple> init() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<Tuple> add(List<Tuple> acc, Tuple tuple) {
+            acc.add(tuple);
+            return acc;
+        }
+
+        @Override
+        public List<Tuple> merge(List<Tuple> acc1, List<Tuple> acc2) {
+            acc1.addAll(acc2);
+            return acc1;
+        }
+
+        @Override
+        public List<Tuple> result(List<Tuple> acc) {
+            return acc;
+        }
+    }
+
     /**
      * Creates an {@link OutputCollector} wrapper that automatically
      * anchors the tuples to inputTuples while emitting.
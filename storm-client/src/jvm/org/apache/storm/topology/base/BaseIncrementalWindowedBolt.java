@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.topology.base;
+
+import org.apache.storm.topology.IIncrementalWindowedBolt;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.windowing.SessionKeyExtractor;
+import org.apache.storm.windowing.TimestampExtractor;
+import org.apache.storm.windowing.TupleWindow;
+
+public abstract class BaseIncrementalWindowedBolt<A, R> extends BaseWindowedBolt implements IIncrementalWindowedBolt<A, R> {
+    /**
+     * Incremental windowed bolts are handed the aggregated window, the tuples of a window are never buffered.
+     */
+    @Override
+    public final void execute(TupleWindow inputWindow) {
+        throw new UnsupportedOperationException("Incremental windowed bolts only receive aggregated windows");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWindow(Count windowLength, Count slidingInterval) {
+        super.withWindow(windowLength, slidingInterval);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWindow(Count windowLength, Duration slidingInterval) {
+        super.withWindow(windowLength, slidingInterval);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWindow(Duration windowLength, Count slidingInterval) {
+        super.withWindow(windowLength, slidingInterval);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWindow(Duration windowLength, Duration slidingInterval) {
+        super.withWindow(windowLength, slidingInterval);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWindow(Count windowLength) {
+        super.withWindow(windowLength);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWindow(Duration windowLength) {
+        super.withWindow(windowLength);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withTumblingWindow(Count count) {
+        super.withTumblingWindow(count);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withTumblingWindow(Duration duration) {
+        super.withTumblingWindow(duration);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withSessionWindow(Duration gap) {
+        super.withSessionWindow(gap);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withSessionWindow(Duration gap, Fields keyFields) {
+        super.withSessionWindow(gap, keyFields);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withSessionWindow(Duration gap, SessionKeyExtractor sessionKeyExtractor) {
+        super.withSessionWindow(gap, sessionKeyExtractor);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withTimestampField(String fieldName) {
+        super.withTimestampField(fieldName);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withTimestampExtractor(TimestampExtractor timestampExtractor) {
+        super.withTimestampExtractor(timestampExtractor);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withLateTupleStream(String streamName) {
+        super.withLateTupleStream(streamName);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withLag(Duration duration) {
+        super.withLag(duration);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWatermarkInterval(Duration interval) {
+        super.withWatermarkInterval(interval);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withPartitionWatermarks(Duration idleTimeout) {
+        super.withPartitionWatermarks(idleTimeout);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withPunctuatedWatermarks() {
+        super.withPunctuatedWatermarks();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseIncrementalWindowedBolt<A, R> withWatermarkStream() {
+        super.withWatermarkStream();
+        return this;
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.storm.topology.IStatefulWindowedBolt;
 import org.apache.storm.windowing.TimestampExtractor;
 
 public abstract class BaseStatefulWindowedBolt<T extends State> extends BaseWindowedBolt implements IStatefulWindowedBolt<T> {
+    private boolean persistent;
+
     /**
      * {@inheritDoc}
      */
@@ -140,6 +142,33 @@ public abstract class BaseStatefulWindowedBolt<T extends State> extends BaseWind
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseStatefulWindowedBolt<T> withPartitionWatermarks(Duration idleTimeout) {
+        super.withPartitionWatermarks(idleTimeout);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseStatefulWindowedBolt<T> withPunctuatedWatermarks() {
+        super.withPunctuatedWatermarks();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseStatefulWindowedBolt<T> withWatermarkStream() {
+        super.withWatermarkStream();
+        return this;
+    }
+
     /**
      * Specify the name of the field in the tuple that holds the message id. This is used to track
      * the windowing boundaries and re-evaluating the windowing operation during recovery of IStatefulWindowedBolt
@@ -151,6 +180,21 @@ public abstract class BaseStatefulWindowedBolt<T extends State> extends BaseWind
         return this;
     }
 
+    /**
+     * Save the window contents in the state backend with each checkpoint, so that the input tuples can be acked
+     * once they are checkpointed instead of when they expire. Only the tuples added to the window and the ids
+     * of the expired tuples since the previous checkpoint are written.
+     */
+    public BaseStatefulWindowedBolt<T> withPersistence() {
+        persistent = true;
+        return this;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return persistent;
+    }
+
     @Override
     public void preCommit(long txid) {
         // NOOP
@@ -23,6 +23,9 @@ import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.IWindowedBolt;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.topology.TupleFieldTimestampExtractor;
+import org.apache.storm.topology.TupleFieldsSessionKeyExtractor;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.windowing.SessionKeyExtractor;
 import org.apache.storm.windowing.TimestampExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +40,7 @@ public abstract class BaseWindowedBolt implements IWindowedBolt {
 
     protected final transient Map<String, Object> windowConfiguration;
     protected TimestampExtractor timestampExtractor;
+    protected SessionKeyExtractor sessionKeyExtractor;
 
     /**
      * Holds a count value for count based windows and sliding intervals.
@@ -279,6 +283,38 @@ public abstract class BaseWindowedBolt implements IWindowedBolt {
         return withWindowLength(duration).withSlidingInterval(duration);
     }
 
+    /**
+     * A session window over all the tuples. The window ends once no tuple has arrived for the gap.
+     *
+     * @param gap the time without tuples after which the session ends
+     */
+    public BaseWindowedBolt withSessionWindow(Duration gap) {
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_SESSION_GAP_DURATION_MS, gap.value);
+        return this;
+    }
+
+    /**
+     * Per key session windows, where the key is made up of the values of the given fields. The window of a key ends
+     * once no tuple with that key has arrived for the gap.
+     *
+     * @param gap the time without tuples after which the session of a key ends
+     * @param keyFields the fields that make up the session key
+     */
+    public BaseWindowedBolt withSessionWindow(Duration gap, Fields keyFields) {
+        return withSessionWindow(gap, TupleFieldsSessionKeyExtractor.of(keyFields));
+    }
+
+    /**
+     * Per key session windows, where the key is extracted by the given {@link SessionKeyExtractor}.
+     *
+     * @param gap the time without tuples after which the session of a key ends
+     * @param sessionKeyExtractor the session key extractor
+     */
+    public BaseWindowedBolt withSessionWindow(Duration gap, SessionKeyExtractor sessionKeyExtractor) {
+        this.sessionKeyExtractor = sessionKeyExtractor;
+        return withSessionWindow(gap);
+    }
+
     /**
      * Specify a field in the tuple that represents the timestamp as a long value. If this
      * field is not present in the incoming tuple, an {@link IllegalArgumentException} will be thrown.
@@ -307,6 +343,11 @@ public abstract class BaseWindowedBolt implements IWindowedBolt {
         return timestampExtractor;
     }
 
+    @Override
+    public SessionKeyExtractor getSessionKeyExtractor() {
+        return sessionKeyExtractor;
+    }
+
     /**
      * Specify a stream id on which late tuples are going to be emitted. They are going to be accessible via the
      * {@link org.apache.storm.topology.WindowedBoltExecutor#LATE_TUPLE_FIELD} field.
@@ -343,6 +384,53 @@ public abstract class BaseWindowedBolt implements IWindowedBolt {
         return this;
     }
 
+    /**
+     * Track the tuple timestamps per input partition, i.e. per source task of each input stream, so that the tuples
+     * of a slow partition do not become late because of a faster one. A partition that has not received a tuple for
+     * the idle timeout is left out of the watermark until it receives one again.
+     *
+     * @param idleTimeout the time after which a partition without tuples is considered idle
+     */
+    public BaseWindowedBolt withPartitionWatermarks(Duration idleTimeout) {
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_WATERMARK_IDLE_TIMEOUT_MS, idleTimeout.value);
+        return this;
+    }
+
+    /**
+     * Advance the watermark as soon as the tuple timestamps allow it, so that the windows are evaluated without
+     * waiting for the next watermark interval.
+     */
+    public BaseWindowedBolt withPunctuatedWatermarks() {
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_WATERMARK_PUNCTUATED, true);
+        return this;
+    }
+
+    /**
+     * Emit the watermarks of this bolt on the {@link org.apache.storm.topology.WindowedBoltExecutor#WATERMARK_STREAM_ID}
+     * stream, in the {@link org.apache.storm.topology.WindowedBoltExecutor#WATERMARK_FIELD} field. A downstream
+     * windowed bolt that subscribes to that stream with an all grouping advances its windows with the watermarks of
+     * this bolt even when this bolt emits nothing.
+     */
+    public BaseWindowedBolt withWatermarkStream() {
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_WATERMARK_FORWARD, true);
+        return this;
+    }
+
+    /**
+     * Keep only the most recent tuples of the window on the heap and page older ones out to local disk. The window
+     * is then only available through {@link org.apache.storm.windowing.TupleWindow#getIter()} and the tuples are acked
+     * as soon as they are added to the window, so the emitted tuples are not anchored.
+     *
+     * @param segmentEvents the number of tuples per segment, tuples are written to and expired from disk a segment at a time
+     * @param memorySegments the number of most recent segments to keep on the heap
+     */
+    public BaseWindowedBolt withSpillToDisk(int segmentEvents, int memorySegments) {
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_ENABLE, true);
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_SEGMENT_EVENTS, segmentEvents);
+        windowConfiguration.put(Config.TOPOLOGY_BOLTS_WINDOW_SPILL_MEMORY_SEGMENTS, memorySegments);
+        return this;
+    }
+
     @Override
     public void prepare(Map<String, Object> topoConf, TopologyContext context, OutputCollector collector) {
         // NOOP
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.tracing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.utils.ConfigUtils;
+import org.json.simple.JSONValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends spans as JSON lines to {@code traces.log} in the worker's artifacts directory, next to the worker log.
+ */
+public class FileTraceSink implements ITraceSink {
+    private static final Logger LOG = LoggerFactory.getLogger(FileTraceSink.class);
+    public static final String FILE_NAME = "traces.log";
+
+    private BufferedWriter writer;
+
+    @Override
+    public void prepare(Map<String, Object> topoConf, String topologyId, int port) {
+        File dir = new File(ConfigUtils.workerArtifactsRoot(topoConf, topologyId, port));
+        try {
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Could not create " + dir);
+            }
+            writer = Files.newBufferedWriter(new File(dir, FILE_NAME).toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void export(List<Span> spans) {
+        try {
+            for (Span span : spans) {
+                writer.write(JSONValue.toJSONString(span.toMap()));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            LOG.warn("Failed to write {} spans", spans.size(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close trace file", e);
+        }
+    }
+}
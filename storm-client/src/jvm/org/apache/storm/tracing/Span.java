@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The time a traced tuple spent in one stage of its way through a task.
+ */
+public class Span {
+
+    public enum Stage {
+        /** From the emit until the sending worker serialized the tuple (executor send and transfer queues). */
+        SEND_QUEUE,
+        /** From serialization on the sender until deserialization on the receiver (worker transfer queue and netty). */
+        TRANSFER,
+        /** From arriving in the worker (or being emitted, for local tuples) until the bolt starts executing it. */
+        RECEIVE_QUEUE,
+        /** The bolt's execute method. */
+        EXECUTE,
+        /** From the start of execute until the bolt acked the tuple. */
+        ACK
+    }
+
+    private final long traceId;
+    private final Stage stage;
+    private final String componentId;
+    private final int taskId;
+    private final String sourceComponent;
+    private final String streamId;
+    private final long startMs;
+    private final long durationMs;
+
+    public Span(long traceId, Stage stage, String componentId, int taskId, String sourceComponent, String streamId,
+                long startMs, long durationMs) {
+        this.traceId = traceId;
+        this.stage = stage;
+        this.componentId = componentId;
+        this.taskId = taskId;
+        this.sourceComponent = sourceComponent;
+        this.streamId = streamId;
+        this.startMs = startMs;
+        this.durationMs = durationMs;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public String getComponentId() {
+        return componentId;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public String getSourceComponent() {
+        return sourceComponent;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public long getStartMs() {
+        return startMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * A JSON friendly view of this span.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("trace", Long.toHexString(traceId));
+        ret.put("stage", stage.name());
+        ret.put("component", componentId);
+        ret.put("task", taskId);
+        ret.put("source", sourceComponent);
+        ret.put("stream", streamId);
+        ret.put("start", startMs);
+        ret.put("duration", durationMs);
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
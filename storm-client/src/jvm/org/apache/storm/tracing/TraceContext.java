@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.tracing;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * The trace a sampled tuple belongs to plus the timestamps needed to split its latency into {@link Span.Stage}s.
+ * Every traced tuple instance carries its own context; all tuples of a trace share the trace id.
+ *
+ * <p>Only the trace id, the emit time and the serialization time travel over the wire, the other timestamps are
+ * local to the worker that processes the tuple.
+ */
+public class TraceContext {
+    private final long traceId;
+    private final long emitTimeMs;
+    private final long serializeTimeMs;
+    private final long receiveTimeMs;
+    private long executeStartMs;
+
+    public TraceContext(long traceId, long emitTimeMs) {
+        this(traceId, emitTimeMs, 0, 0);
+    }
+
+    private TraceContext(long traceId, long emitTimeMs, long serializeTimeMs, long receiveTimeMs) {
+        this.traceId = traceId;
+        this.emitTimeMs = emitTimeMs;
+        this.serializeTimeMs = serializeTimeMs;
+        this.receiveTimeMs = receiveTimeMs;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getEmitTimeMs() {
+        return emitTimeMs;
+    }
+
+    /**
+     * When the sending worker serialized the tuple, 0 if it never left the worker that emitted it.
+     */
+    public long getSerializeTimeMs() {
+        return serializeTimeMs;
+    }
+
+    /**
+     * When this worker deserialized the tuple, 0 if it never left the worker that emitted it.
+     */
+    public long getReceiveTimeMs() {
+        return receiveTimeMs;
+    }
+
+    public boolean isRemote() {
+        return serializeTimeMs != 0;
+    }
+
+    public long getExecuteStartMs() {
+        return executeStartMs;
+    }
+
+    public void setExecuteStartMs(long executeStartMs) {
+        this.executeStartMs = executeStartMs;
+    }
+
+    /**
+     * Write the wire form of a (possibly absent) context. Untraced tuples cost a single byte.
+     */
+    public static void write(TraceContext context, Output out, long nowMs) {
+        if (context == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeLong(context.traceId);
+            out.writeLong(context.emitTimeMs, true);
+            out.writeLong(nowMs, true);
+        }
+    }
+
+    /**
+     * Read what {@link #write} wrote.
+     * @return the context or null if the tuple is not traced.
+     */
+    public static TraceContext read(Input in, long nowMs) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long traceId = in.readLong();
+        long emitTimeMs = in.readLong(true);
+        long serializeTimeMs = in.readLong(true);
+        return new TraceContext(traceId, emitTimeMs, serializeTimeMs, nowMs);
+    }
+
+    @Override
+    public String toString() {
+        return "TraceContext{traceId=" + Long.toHexString(traceId) + ", emit=" + emitTimeMs + ", serialize="
+            + serializeTimeMs + ", receive=" + receiveTimeMs + "}";
+    }
+}
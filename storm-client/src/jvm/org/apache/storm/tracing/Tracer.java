@@ -0,0 +1,247 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.tracing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.storm.Config;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.TupleImpl;
+import org.apache.storm.utils.ObjectReader;
+import org.apache.storm.utils.ReflectionUtils;
+import org.apache.storm.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sampled per-tuple latency tracing for one worker.
+ *
+ * <p>Spouts start a trace for a sample of their emits ({@link Config#TOPOLOGY_TRACING_SAMPLE_RATE}), bolts carry the
+ * trace over to tuples anchored to a traced input. The trace context is stamped into the tuple by
+ * {@link org.apache.storm.serialization.KryoTupleSerializer}, so a trace follows the tuple tree across workers.
+ * Whenever a bolt executes or acks a traced tuple the spans of the stages it went through are recorded.
+ *
+ * <p>Recording a span only offers it to a bounded queue; a dedicated thread hands the spans to the configured
+ * {@link ITraceSink}. When the sink cannot keep up spans are dropped rather than slowing down the executors.
+ * Spans crossing workers compare wall clocks of two hosts, so {@link Span.Stage#TRANSFER} is only as accurate as
+ * the clock synchronization of the cluster.
+ */
+public class Tracer {
+    private static final Logger LOG = LoggerFactory.getLogger(Tracer.class);
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final long EXPORT_POLL_MS = 100;
+    private static final Tracer DISABLED = new Tracer();
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final BlockingQueue<Span> spans;
+    private final ITraceSink sink;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private Thread exporter;
+
+    private Tracer() {
+        this.enabled = false;
+        this.sampleRate = 0;
+        this.spans = null;
+        this.sink = null;
+    }
+
+    Tracer(double sampleRate, int bufferSize, ITraceSink sink) {
+        this.enabled = true;
+        this.sampleRate = sampleRate;
+        this.spans = new ArrayBlockingQueue<>(bufferSize);
+        this.sink = sink;
+    }
+
+    /**
+     * Create the tracer of a worker. The sink is prepared but nothing is exported until {@link #start()}.
+     */
+    public static Tracer create(Map<String, Object> topoConf, String topologyId, int port) {
+        if (!isEnabled(topoConf)) {
+            return DISABLED;
+        }
+        ITraceSink sink = ReflectionUtils.newInstance((String) topoConf.get(Config.TOPOLOGY_TRACING_SINK));
+        sink.prepare(topoConf, topologyId, port);
+        return new Tracer(ObjectReader.getDouble(topoConf.get(Config.TOPOLOGY_TRACING_SAMPLE_RATE)),
+            ObjectReader.getInt(topoConf.get(Config.TOPOLOGY_TRACING_BUFFER_SIZE)), sink);
+    }
+
+    public static boolean isEnabled(Map<String, Object> topoConf) {
+        return ObjectReader.getBoolean(topoConf.get(Config.TOPOLOGY_TRACING_ENABLE), false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getDroppedSpans() {
+        return dropped.get();
+    }
+
+    /**
+     * Decide whether a spout emit starts a new trace.
+     * @return the id of the new trace or 0 if this emit is not traced.
+     */
+    public long sampleTraceId() {
+        if (!enabled) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= sampleRate) {
+            return 0;
+        }
+        long traceId;
+        do {
+            traceId = random.nextLong();
+        } while (traceId == 0);
+        return traceId;
+    }
+
+    /**
+     * The trace a bolt emit belongs to, taken from the first traced anchor.
+     * @return the trace id or 0 if no anchor is traced.
+     */
+    public long traceIdOf(Collection<Tuple> anchors) {
+        if (!enabled || anchors == null) {
+            return 0;
+        }
+        for (Tuple anchor : anchors) {
+            TraceContext context = ((TupleImpl) anchor).getTraceContext();
+            if (context != null) {
+                return context.getTraceId();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Attach a new context for the given trace to a tuple that is about to be emitted.
+     */
+    public void stamp(TupleImpl tuple, long traceId) {
+        if (traceId != 0) {
+            tuple.setTraceContext(new TraceContext(traceId, Time.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Record the stages a traced tuple went through up to and including its execution.
+     */
+    public void recordExecute(TupleImpl tuple, String componentId, int taskId, long executeStartMs, long executeEndMs) {
+        TraceContext context = tuple.getTraceContext();
+        long arrival = context.getEmitTimeMs();
+        if (context.isRemote()) {
+            record(context, Span.Stage.SEND_QUEUE, tuple, componentId, taskId, context.getEmitTimeMs(),
+                context.getSerializeTimeMs());
+            record(context, Span.Stage.TRANSFER, tuple, componentId, taskId, context.getSerializeTimeMs(),
+                context.getReceiveTimeMs());
+            arrival = context.getReceiveTimeMs();
+        }
+        record(context, Span.Stage.RECEIVE_QUEUE, tuple, componentId, taskId, arrival, executeStartMs);
+        record(context, Span.Stage.EXECUTE, tuple, componentId, taskId, executeStartMs, executeEndMs);
+    }
+
+    /**
+     * Record the time from the start of execute until the traced tuple was acked.
+     */
+    public void recordAck(TupleImpl tuple, String componentId, int taskId) {
+        TraceContext context = tuple.getTraceContext();
+        if (context.getExecuteStartMs() != 0) {
+            record(context, Span.Stage.ACK, tuple, componentId, taskId, context.getExecuteStartMs(), Time.currentTimeMillis());
+        }
+    }
+
+    private void record(TraceContext context, Span.Stage stage, TupleImpl tuple, String componentId, int taskId,
+                        long startMs, long endMs) {
+        Span span = new Span(context.getTraceId(), stage, componentId, taskId, tuple.getSourceComponent(),
+            tuple.getSourceStreamId(), startMs, Math.max(0, endMs - startMs));
+        if (!spans.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Start the thread that exports recorded spans to the sink.
+     */
+    public synchronized void start() {
+        if (!enabled || exporter != null) {
+            return;
+        }
+        running = true;
+        exporter = new Thread(this::exportLoop, "trace-exporter");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    private void exportLoop() {
+        List<Span> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+        try {
+            while (running) {
+                // the sink is never interrupted, a file channel would be closed by that
+                Span span = spans.poll(EXPORT_POLL_MS, TimeUnit.MILLISECONDS);
+                if (span != null) {
+                    batch.add(span);
+                    spans.drainTo(batch, EXPORT_BATCH_SIZE - 1);
+                    export(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void export(List<Span> batch) {
+        try {
+            sink.export(batch);
+        } catch (RuntimeException e) {
+            LOG.warn("Trace sink failed to export {} spans", batch.size(), e);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Stop exporting, flush whatever is still buffered and close the sink.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        if (exporter != null) {
+            running = false;
+            exporter.join();
+            exporter = null;
+        }
+        List<Span> rest = new ArrayList<>();
+        spans.drainTo(rest);
+        if (!rest.isEmpty()) {
+            export(rest);
+        }
+        if (dropped.get() > 0) {
+            LOG.info("Dropped {} spans because the trace sink could not keep up", dropped.get());
+        }
+        sink.close();
+    }
+}
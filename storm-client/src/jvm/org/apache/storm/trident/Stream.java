@@ -28,6 +28,7 @@ import org.apache.storm.trident.fluent.GroupedStream;
 import org.apache.storm.trident.fluent.IAggregatableStream;
 import org.apache.storm.trident.operation.Aggregator;
 import org.apache.storm.trident.operation.Assembly;
+import org.apache.storm.trident.operation.BatchFilter;
 import org.apache.storm.trident.operation.CombinerAggregator;
 import org.apache.storm.trident.operation.Consumer;
 import org.apache.storm.trident.operation.Filter;
@@ -42,6 +43,7 @@ import org.apache.storm.trident.operation.builtin.Min;
 import org.apache.storm.trident.operation.builtin.MinWithComparator;
 import org.apache.storm.trident.operation.impl.CombinerAggStateUpdater;
 import org.apache.storm.trident.operation.impl.ConsumerExecutor;
+import org.apache.storm.trident.operation.impl.BatchFilterExecutor;
 import org.apache.storm.trident.operation.impl.FilterExecutor;
 import org.apache.storm.trident.operation.impl.FlatMapFunctionExecutor;
 import org.apache.storm.trident.operation.impl.GlobalBatchToPartition;
@@ -70,10 +72,12 @@ import org.apache.storm.trident.state.StateUpdater;
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.apache.storm.trident.util.TridentUtils;
 import org.apache.storm.trident.windowing.InMemoryWindowsStoreFactory;
+import org.apache.storm.trident.windowing.PaneBasedTridentWindowManager;
 import org.apache.storm.trident.windowing.WindowTridentProcessor;
 import org.apache.storm.trident.windowing.WindowsStateFactory;
 import org.apache.storm.trident.windowing.WindowsStateUpdater;
 import org.apache.storm.trident.windowing.WindowsStoreFactory;
+import org.apache.storm.trident.windowing.config.SessionWindow;
 import org.apache.storm.trident.windowing.config.SlidingCountWindow;
 import org.apache.storm.trident.windowing.config.SlidingDurationWindow;
 import org.apache.storm.trident.windowing.config.TumblingCountWindow;
@@ -379,6 +383,9 @@ public class Stream implements IAggregatableStream, ResourceDeclarer<Stream> {
     }
 
     public Stream each(Fields inputFields, Filter filter) {
+        if (filter instanceof BatchFilter) {
+            return each(inputFields, new BatchFilterExecutor((BatchFilter) filter), new Fields());
+        }
         return each(inputFields, new FilterExecutor(filter), new Fields());
     }
 
@@ -698,6 +705,23 @@ public class Stream implements IAggregatableStream, ResourceDeclarer<Stream> {
         return window(TumblingDurationWindow.of(windowDuration), windowStoreFactory, inputFields, aggregator, functionFields);
     }
 
+    /**
+     * Returns a stream of tuples which are aggregated results of a session window. A session ends once no tuple has
+     * arrived for the {@code gap} duration, sessions are tracked in processing time for each partition of the stream.
+     *
+     * @param gap represents the inactivity gap after which a session ends
+     * @param windowStoreFactory intermediary tuple store for storing windowing tuples
+     * @param inputFields projected fields for aggregator
+     * @param aggregator aggregator to run on the window of tuples to compute the result and emit to the stream.
+     * @param functionFields fields of values to emit with aggregation.
+     *
+     * @return the new stream with this operation.
+     */
+    public Stream sessionWindow(BaseWindowedBolt.Duration gap, WindowsStoreFactory windowStoreFactory,
+                                Fields inputFields, Aggregator aggregator, Fields functionFields) {
+        return window(SessionWindow.of(gap), windowStoreFactory, inputFields, aggregator, functionFields);
+    }
+
     /**
      * Returns a stream of tuples which are aggregated results of a window which slides at duration of {@code slidingInterval}
      * and completes a window at {@code windowDuration}
@@ -749,11 +773,61 @@ public class Stream implements IAggregatableStream, ResourceDeclarer<Stream> {
         return window(windowConfig, windowStoreFactory, inputFields, aggregator, functionFields, true);
     }
 
+    /**
+     * Returns a stream of aggregated results based on the given window configuration which uses inmemory windowing store.
+     * The windows are aggregated incrementally, see {@link #window(WindowConfig, WindowsStoreFactory, Fields,
+     * CombinerAggregator, Fields)}.
+     *
+     * @param windowConfig window configuration like window length and slide length.
+     * @param inputFields input fields
+     * @param aggregator combiner aggregator to run on the window of tuples to compute the result and emit to the stream.
+     * @param functionFields fields of values to emit with aggregation.
+     *
+     * @return the new stream with this operation.
+     */
+    public Stream window(WindowConfig windowConfig, Fields inputFields, CombinerAggregator aggregator, Fields functionFields) {
+        return window(windowConfig, new InMemoryWindowsStoreFactory(), inputFields, aggregator, functionFields);
+    }
+
+    /**
+     * Returns stream of aggregated results based on the given window configuration. The tuples are folded into per pane
+     * partial aggregates as they arrive and only those partial aggregates are kept in the windows store, a trigger merges
+     * the panes of its window. Only count and duration based sliding and tumbling windows are supported.
+     *
+     * @param windowConfig window configuration like window length and slide length.
+     * @param windowStoreFactory intermediary store for the partial aggregates of the panes and the triggers
+     * @param inputFields input fields
+     * @param aggregator combiner aggregator to run on the window of tuples to compute the result and emit to the stream.
+     * @param functionFields fields of values to emit with aggregation.
+     *
+     * @return the new stream with this operation.
+     */
+    public Stream window(WindowConfig windowConfig, WindowsStoreFactory windowStoreFactory, Fields inputFields,
+                         CombinerAggregator aggregator, Fields functionFields) {
+        if (!PaneBasedTridentWindowManager.supports(windowConfig)) {
+            throw new IllegalArgumentException("Windows of type " + windowConfig.getClass().getSimpleName()
+                                               + " can not be aggregated incrementally, use an Aggregator instead");
+        }
+        if (functionFields.size() != 1) {
+            throw new IllegalArgumentException("A combiner aggregator emits a single field, got " + functionFields);
+        }
+        projectionValidation(inputFields);
+        windowConfig.validate();
+        return window(windowStoreFactory, functionFields,
+                      new WindowTridentProcessor(windowConfig, _topology.getUniqueWindowId(), windowStoreFactory, inputFields,
+                                                 aggregator));
+    }
+
     private Stream window(WindowConfig windowConfig, WindowsStoreFactory windowStoreFactory, Fields inputFields, Aggregator aggregator,
                           Fields functionFields, boolean storeTuplesInStore) {
         projectionValidation(inputFields);
         windowConfig.validate();
+        return window(windowStoreFactory, functionFields,
+                      new WindowTridentProcessor(windowConfig, _topology.getUniqueWindowId(), windowStoreFactory, inputFields,
+                                                 aggregator, storeTuplesInStore));
+    }
 
+    private Stream window(WindowsStoreFactory windowStoreFactory, Fields functionFields, WindowTridentProcessor processor) {
         Fields fields = addTriggerField(functionFields);
 
         // when storeTuplesInStore is false then the given windowStoreFactory is only used to store triggers and
@@ -763,8 +837,7 @@ public class Stream implements IAggregatableStream, ResourceDeclarer<Stream> {
                         _name,
                         fields,
                         fields,
-                        new WindowTridentProcessor(windowConfig, _topology.getUniqueWindowId(), windowStoreFactory,
-                                inputFields, aggregator, storeTuplesInStore)));
+                        processor));
 
         Stream effectiveStream = stream.project(functionFields);
 
@@ -28,6 +28,7 @@ import org.apache.storm.topology.BoltDeclarer;
 import org.apache.storm.topology.IRichSpout;
 import org.apache.storm.topology.SpoutDeclarer;
 import org.apache.storm.trident.operation.impl.PreservingFieldsOrderJoinerMultiReducer;
+import org.apache.storm.trident.operation.impl.TableJoinMultiReducer;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.utils.Utils;
 
@@ -73,6 +74,7 @@ import org.apache.storm.trident.spout.PartitionedTridentSpoutExecutor;
 import org.apache.storm.trident.spout.RichSpoutBatchExecutor;
 import org.apache.storm.trident.state.StateFactory;
 import org.apache.storm.trident.state.StateSpec;
+import org.apache.storm.trident.state.map.MapCacheSpec;
 import org.apache.storm.trident.topology.TridentTopologyBuilder;
 import org.apache.storm.trident.util.ErrorEdgeFactory;
 import org.apache.storm.trident.util.IndexedEdge;
@@ -315,6 +317,48 @@ public class TridentTopology {
         }
     }
 
+    public Stream joinTable(Stream stream, Fields joinFields, Stream table, Fields tableKeyFields, Fields outFields,
+                            MapCacheSpec cacheSpec) {
+        return joinTable(stream, joinFields, table, tableKeyFields, outFields, JoinType.INNER, cacheSpec);
+    }
+
+    /**
+     * Joins a stream with a table whose changes arrive as another stream, without re-partitioning the stream.
+     *
+     * <p>The table stream is broadcast to every partition of the join, where the latest non key fields per table
+     * key are kept in a local cache bounded by cacheSpec; a table tuple with only nulls besides the key removes
+     * the key. The stream stays in its partitions (local or shuffle grouping) and each of its tuples is emitted
+     * with the table values for its join fields appended, so outFields are the stream's fields followed by the
+     * table's non key fields. This is meant for joining a large stream against a table that is small enough to
+     * replicate; for a table kept in a {@link org.apache.storm.trident.state.State}, query the state with
+     * {@link Stream#stateQuery} and a {@link org.apache.storm.trident.state.map.CachedMap} instead.
+     *
+     * @param stream the stream to enrich
+     * @param joinFields the fields of the stream to look up in the table
+     * @param table the stream of table changes
+     * @param tableKeyFields the key fields of the table
+     * @param outFields the names of the fields emitted
+     * @param type {@link JoinType#OUTER} to also emit stream tuples that have no table entry, with nulls appended
+     * @param cacheSpec bounds the size of the cached table and how long a value is used after it was written
+     * @return the joined stream
+     */
+    public Stream joinTable(Stream stream, Fields joinFields, Stream table, Fields tableKeyFields, Fields outFields,
+                            JoinType type, MapCacheSpec cacheSpec) {
+        Fields tableValueFields = TridentUtils.fieldsSubtract(table.getOutputFields(), tableKeyFields);
+        int numOutFields = stream.getOutputFields().size() + tableValueFields.size();
+        if (outFields.size() != numOutFields) {
+            throw new IllegalArgumentException("Expected " + numOutFields + " output fields for a table join but got "
+                                               + outFields);
+        }
+        MultiReducer joiner = new TableJoinMultiReducer(joinFields, tableKeyFields.size(), tableValueFields.size(),
+                                                        type, cacheSpec);
+        return multiReduce(Arrays.asList(stream.getOutputFields(),
+                                         TridentUtils.fieldsConcat(tableKeyFields, tableValueFields)),
+                           Arrays.asList(stream.localOrShuffle(), table.broadcast()),
+                           joiner,
+                           outFields);
+    }
+
     public TridentTopology setResourceDefaults(DefaultResourceDeclarer defaults) {
         _resourceDefaults = defaults.getResources();
         return this;
@@ -96,7 +96,10 @@ public class ChainedAggregatorDeclarer implements ChainedFullAggregatorDeclarer,
         Fields outFields = new Fields(allOutFields);
         Aggregator combined = new ChainedAggregatorImpl(aggs, inputFields, new ComboList.Factory(outSizes));
         
-        if(_type!=AggType.FULL) {
+        if (_type == AggType.FULL_COMBINE && _stream instanceof GroupedStream) {
+            // map-side combine before the repartition, the partials are merged again by the global stage below
+            _stream = ((GroupedStream) _stream).partialAggregate(inFields, combined, outFields);
+        } else if(_type!=AggType.FULL) {
             _stream = _stream.partitionAggregate(inFields, combined, outFields);
         }
         if(_type!=AggType.PARTITION) {
@@ -141,13 +141,26 @@ public class GroupedStream implements IAggregatableStream, GlobalAggregationSche
 
     @Override
     public IAggregatableStream partitionAggregate(Fields inputFields, Aggregator agg, Fields functionFields) {
-        Aggregator groupedAgg = new GroupedAggregator(agg, _groupFields, inputFields, functionFields.size());
+        return partitionAggregate(inputFields, agg, functionFields, false);
+    }
+
+    private IAggregatableStream partitionAggregate(Fields inputFields, Aggregator agg, Fields functionFields, boolean partial) {
+        Aggregator groupedAgg = new GroupedAggregator(agg, _groupFields, inputFields, functionFields.size(), partial);
         Fields allInFields = TridentUtils.fieldsUnion(_groupFields, inputFields);
         Fields allOutFields = TridentUtils.fieldsConcat(_groupFields, functionFields);
         Stream s = _stream.partitionAggregate(allInFields, groupedAgg, allOutFields);
         return new GroupedStream(s, _groupFields);
     }
 
+    /**
+     * Map-side stage of a combiner aggregation. Like {@link #partitionAggregate(Fields, Aggregator, Fields)}, but the
+     * results are partials that are merged again after the repartition, so they may be emitted early to bound the
+     * number of groups held per batch.
+     */
+    IAggregatableStream partialAggregate(Fields inputFields, Aggregator agg, Fields functionFields) {
+        return partitionAggregate(inputFields, agg, functionFields, true);
+    }
+
     @Override
     public IAggregatableStream aggPartition(GroupedStream s) {
         return new GroupedStream(s._stream.partitionBy(_groupFields), _groupFields);
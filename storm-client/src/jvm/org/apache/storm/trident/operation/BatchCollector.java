@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.operation;
+
+import java.util.List;
+
+/**
+ * The collector a {@link BatchFunction} emits to. Every output is tied to the row of the input batch it was computed
+ * from, so its values can be appended to that input tuple.
+ */
+public interface BatchCollector {
+    /**
+     * Emits a tuple to a Stream.
+     * @param row the row of the input batch the values belong to
+     * @param values the values the function adds to that row
+     */
+    void emit(int row, List<Object> values);
+
+    /**
+     * Reports an error. The corresponding stack trace will be visible in the Storm UI.
+     * @param t The instance of the error (Throwable) being reported.
+     */
+    void reportError(Throwable t);
+}
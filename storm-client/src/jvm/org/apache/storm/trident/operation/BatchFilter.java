@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.operation;
+
+import java.util.BitSet;
+import org.apache.storm.trident.tuple.ColumnarBatch;
+import org.apache.storm.trident.tuple.TridentTuple;
+
+/**
+ * A {@link Filter} that decides for all of the tuples of a batch in one call. See {@link BatchFunction} for how
+ * batches are put together.
+ */
+public interface BatchFilter extends Filter {
+    /**
+     * Determines which tuples of a batch should be kept.
+     *
+     * @param batch the input fields of the tuples in the batch
+     * @return the rows to keep, all others are dropped
+     */
+    BitSet isKeep(ColumnarBatch batch);
+
+    /**
+     * Runs {@link #isKeep(ColumnarBatch)} on a batch of one.
+     */
+    @Override
+    default boolean isKeep(TridentTuple tuple) {
+        return isKeep(ColumnarBatch.of(tuple)).get(0);
+    }
+}
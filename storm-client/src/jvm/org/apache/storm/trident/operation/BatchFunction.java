@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.operation;
+
+import java.util.List;
+import org.apache.storm.trident.tuple.ColumnarBatch;
+import org.apache.storm.trident.tuple.TridentTuple;
+
+/**
+ * A {@link Function} that processes all of the tuples of a batch in one call.
+ *
+ * <p>When used with {@link org.apache.storm.trident.Stream#each}, the input tuples of a batch are collected as they
+ * arrive and handed to {@link #executeBatch(ColumnarBatch, BatchCollector)} as columns once the whole batch has been
+ * received, so the per tuple overhead is paid once per batch instead. Tuples derived from the output are only
+ * passed on once the batch is complete.
+ */
+public interface BatchFunction extends Function {
+    /**
+     * Performs the function logic on every row of a batch, emitting 0 or more tuples per row.
+     *
+     * @param batch the input fields of the tuples in the batch
+     * @param collector the collector to emit the output for each row to
+     */
+    void executeBatch(ColumnarBatch batch, BatchCollector collector);
+
+    /**
+     * Runs {@link #executeBatch(ColumnarBatch, BatchCollector)} on a batch of one.
+     */
+    @Override
+    default void execute(TridentTuple tuple, TridentCollector collector) {
+        executeBatch(ColumnarBatch.of(tuple), new BatchCollector() {
+            @Override
+            public void emit(int row, List<Object> values) {
+                collector.emit(values);
+            }
+
+            @Override
+            public void reportError(Throwable t) {
+                collector.reportError(t);
+            }
+        });
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.operation.impl;
+
+import java.util.BitSet;
+import java.util.Map;
+import org.apache.storm.trident.operation.BatchCollector;
+import org.apache.storm.trident.operation.BatchFilter;
+import org.apache.storm.trident.operation.BatchFunction;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.operation.TridentOperationContext;
+import org.apache.storm.trident.tuple.ColumnarBatch;
+import org.apache.storm.trident.tuple.TridentTuple;
+
+// the batch counterpart of FilterExecutor, emits null for every row that is kept
+public class BatchFilterExecutor implements BatchFunction {
+    BatchFilter _filter;
+
+    public BatchFilterExecutor(BatchFilter filter) {
+        _filter = filter;
+    }
+
+    @Override
+    public void executeBatch(ColumnarBatch batch, BatchCollector collector) {
+        BitSet keep = _filter.isKeep(batch);
+        for (int row = keep.nextSetBit(0); row >= 0 && row < batch.size(); row = keep.nextSetBit(row + 1)) {
+            collector.emit(row, null);
+        }
+    }
+
+    @Override
+    public void execute(TridentTuple tuple, TridentCollector collector) {
+        if (_filter.isKeep(tuple)) {
+            collector.emit(null);
+        }
+    }
+
+    @Override
+    public void prepare(Map<String, Object> conf, TridentOperationContext context) {
+        _filter.prepare(conf, context);
+    }
+
+    @Override
+    public void cleanup() {
+        _filter.cleanup();
+    }
+}
@@ -17,11 +17,13 @@
  */
 package org.apache.storm.trident.operation.impl;
 
-import org.apache.storm.tuple.Fields;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import org.apache.storm.Config;
 import org.apache.storm.trident.operation.Aggregator;
 import org.apache.storm.trident.operation.TridentCollector;
 import org.apache.storm.trident.operation.TridentOperationContext;
@@ -29,7 +31,19 @@ import org.apache.storm.trident.tuple.ComboList;
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.apache.storm.trident.tuple.TridentTupleView;
 import org.apache.storm.trident.tuple.TridentTupleView.ProjectionFactory;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.utils.ObjectReader;
 
+/**
+ * Runs an aggregator once per group within a batch.
+ *
+ * <p>Groups are keyed by a compact copy of their group values (the bare value when grouping on a single field), so
+ * the parent tuples of a batch are not kept alive just because they were the first of their group. A partial
+ * aggregator, used for the map-side stage of a combiner aggregation, additionally caps the number of groups it holds
+ * at {@link Config#TOPOLOGY_TRIDENT_PARTIAL_AGGREGATION_MAX_GROUPS}: when a new group would go over the cap, every
+ * group held so far is completed and emitted early. That is only correct when a later stage merges the partial
+ * results, which is why it is not the default.
+ */
 public class GroupedAggregator implements Aggregator<Object[]> {
     ProjectionFactory _groupFactory;
     ProjectionFactory _inputFactory;
@@ -37,8 +51,20 @@ public class GroupedAggregator implements Aggregator<Object[]> {
     ComboList.Factory _fact;
     Fields _inFields;
     Fields _groupFields;
+    boolean _partial;
+    int _maxGroups;
     
     public GroupedAggregator(Aggregator agg, Fields group, Fields input, int outSize) {
+        this(agg, group, input, outSize, false);
+    }
+
+    /**
+     * Create a grouped aggregator.
+     * @param partial true if the results are partial aggregates that are merged again downstream, which allows
+     *     emitting them early to bound the number of groups held per batch.
+     */
+    public GroupedAggregator(Aggregator agg, Fields group, Fields input, int outSize, boolean partial) {
+        _partial = partial;
         _groupFields = group;
         _inFields = input;
         _agg = agg;
@@ -52,6 +78,9 @@ public class GroupedAggregator implements Aggregator<Object[]> {
     public void prepare(Map<String, Object> conf, TridentOperationContext context) {
         _inputFactory = context.makeProjectionFactory(_inFields);
         _groupFactory = context.makeProjectionFactory(_groupFields);
+        if (_partial) {
+            _maxGroups = ObjectReader.getInt(conf.get(Config.TOPOLOGY_TRIDENT_PARTIAL_AGGREGATION_MAX_GROUPS), 0);
+        }
         _agg.prepare(conf, new TridentOperationContext(context, _inputFactory));
     }
 
@@ -63,29 +92,47 @@ public class GroupedAggregator implements Aggregator<Object[]> {
     @Override
     public void aggregate(Object[] arr, TridentTuple tuple, TridentCollector collector) {
         GroupCollector groupColl = (GroupCollector) arr[0];
-        Map<List, Object> val = (Map) arr[1];
+        Map<Object, Object> val = (Map) arr[1];
         TridentTuple group = _groupFactory.create((TridentTupleView) tuple);
         TridentTuple input = _inputFactory.create((TridentTupleView) tuple);
-        Object curr;
-        if(!val.containsKey(group)) {
+        Object key = groupKey(group);
+        Object curr = val.get(key);
+        if (curr == null && !val.containsKey(key)) {
+            if (_maxGroups > 0 && val.size() >= _maxGroups) {
+                flush(val, groupColl);
+            }
             curr = _agg.init(arr[2], groupColl);
-            val.put((List) group, curr);
-        } else {
-            curr = val.get(group);
+            val.put(key, curr);
         }
         groupColl.currGroup = group;
         _agg.aggregate(curr, input, groupColl);
-        
     }
 
     @Override
     public void complete(Object[] arr, TridentCollector collector) {
-        Map<List, Object> val = (Map) arr[1];        
-        GroupCollector groupColl = (GroupCollector) arr[0];
-        for(Entry<List, Object> e: val.entrySet()) {
-            groupColl.currGroup = e.getKey();
+        flush((Map) arr[1], (GroupCollector) arr[0]);
+    }
+
+    private void flush(Map<Object, Object> val, GroupCollector groupColl) {
+        for (Entry<Object, Object> e : val.entrySet()) {
+            groupColl.currGroup = groupValues(e.getKey());
             _agg.complete(e.getValue(), groupColl);
         }
+        val.clear();
+    }
+
+    private Object groupKey(TridentTuple group) {
+        if (_groupFields.size() == 1) {
+            return group.get(0);
+        }
+        return new ArrayList<>(group);
+    }
+
+    private List<Object> groupValues(Object key) {
+        if (_groupFields.size() == 1) {
+            return Collections.singletonList(key);
+        }
+        return (List<Object>) key;
     }
 
     @Override
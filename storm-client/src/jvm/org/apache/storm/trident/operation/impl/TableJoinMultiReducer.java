@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.operation.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.trident.JoinType;
+import org.apache.storm.trident.operation.MultiReducer;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.operation.TridentMultiReducerContext;
+import org.apache.storm.trident.state.map.MapCache;
+import org.apache.storm.trident.state.map.MapCacheSpec;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.trident.tuple.TridentTupleView.ProjectionFactory;
+import org.apache.storm.tuple.Fields;
+
+/**
+ * Joins a stream (stream 0) against a table changelog (stream 1) that is broadcast to every partition.
+ *
+ * <p>The table tuples are the key fields followed by the value fields. Each partition keeps the latest values per
+ * key in a {@link MapCache} that lives across batches; a tuple whose values are all null removes the key. The
+ * stream tuples of a batch are held until the batch completes, so they are joined against the table with all the
+ * updates of the same batch applied, and then emitted with the table values appended.
+ */
+public class TableJoinMultiReducer implements MultiReducer<List<TridentTuple>> {
+    private final Fields joinFields;
+    private final int numKeyFields;
+    private final int numValueFields;
+    private final JoinType type;
+    private final MapCacheSpec cacheSpec;
+    private ProjectionFactory joinProjection;
+    private MapCache<List<Object>, List<Object>> table;
+
+    /**
+     * Creates a table join.
+     *
+     * @param joinFields the fields of the stream to look up in the table
+     * @param numKeyFields the number of key fields the table tuples start with
+     * @param numValueFields the number of value fields following the key in the table tuples
+     * @param type {@link JoinType#OUTER} to also emit stream tuples with no table values, padded with nulls
+     * @param cacheSpec bounds the number of keys cached and how long a value is used after it was written
+     */
+    public TableJoinMultiReducer(Fields joinFields, int numKeyFields, int numValueFields, JoinType type,
+                                 MapCacheSpec cacheSpec) {
+        if (joinFields.size() != numKeyFields) {
+            throw new IllegalArgumentException("The join fields " + joinFields + " have to match the "
+                                               + numKeyFields + " key fields of the table");
+        }
+        this.joinFields = joinFields;
+        this.numKeyFields = numKeyFields;
+        this.numValueFields = numValueFields;
+        this.type = type;
+        this.cacheSpec = cacheSpec;
+    }
+
+    @Override
+    public void prepare(Map<String, Object> conf, TridentMultiReducerContext context) {
+        joinProjection = context.makeProjectionFactory(0, joinFields);
+        table = cacheSpec.build();
+    }
+
+    @Override
+    public List<TridentTuple> init(TridentCollector collector) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public void execute(List<TridentTuple> pending, int streamIndex, TridentTuple input, TridentCollector collector) {
+        if (streamIndex == 0) {
+            pending.add(input);
+        } else {
+            List<Object> key = new ArrayList<>(input.subList(0, numKeyFields));
+            List<Object> values = new ArrayList<>(input.subList(numKeyFields, input.size()));
+            boolean delete = true;
+            for (Object value : values) {
+                if (value != null) {
+                    delete = false;
+                    break;
+                }
+            }
+            table.putAll(Collections.singletonList(key), Collections.singletonList(delete ? null : values));
+        }
+    }
+
+    @Override
+    public void complete(List<TridentTuple> pending, TridentCollector collector) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<List<Object>> keys = new ArrayList<>(pending.size());
+        for (TridentTuple tuple : pending) {
+            keys.add(new ArrayList<>(joinProjection.create(tuple)));
+        }
+        Map<List<Object>, List<Object>> cached = table.getAllPresent(keys);
+        List<Object> missing = type == JoinType.OUTER ? Collections.nCopies(numValueFields, null) : null;
+        for (int i = 0; i < pending.size(); i++) {
+            List<Object> values = cached.get(keys.get(i));
+            if (values == null) {
+                values = missing;
+            }
+            if (values != null) {
+                List<Object> out = new ArrayList<>(pending.get(i).size() + numValueFields);
+                out.addAll(pending.get(i));
+                out.addAll(values);
+                collector.emit(out);
+            }
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (table != null) {
+            table.invalidateAll();
+        }
+    }
+}
@@ -17,17 +17,21 @@
  */
 package org.apache.storm.trident.planner.processor;
 
-import org.apache.storm.task.TopologyContext;
-import org.apache.storm.tuple.Fields;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.operation.BatchCollector;
+import org.apache.storm.trident.operation.BatchFunction;
 import org.apache.storm.trident.operation.Function;
 import org.apache.storm.trident.operation.TridentOperationContext;
 import org.apache.storm.trident.planner.ProcessorContext;
 import org.apache.storm.trident.planner.TridentProcessor;
+import org.apache.storm.trident.tuple.ColumnarBatch;
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.apache.storm.trident.tuple.TridentTuple.Factory;
 import org.apache.storm.trident.tuple.TridentTupleView.ProjectionFactory;
+import org.apache.storm.tuple.Fields;
 
 
 public class EachProcessor implements TridentProcessor {
@@ -61,16 +65,42 @@ public class EachProcessor implements TridentProcessor {
 
     @Override
     public void execute(ProcessorContext processorContext, String streamId, TridentTuple tuple) {
+        if(_function instanceof BatchFunction) {
+            // a batch function sees the whole batch at once in finishBatch
+            ((List<TridentTuple>) processorContext.state[_context.getStateIndex()]).add(tuple);
+            return;
+        }
         _collector.setContext(processorContext, tuple);
         _function.execute(_projection.create(tuple), _collector);
     }
 
     @Override
     public void startBatch(ProcessorContext processorContext) {
+        if(_function instanceof BatchFunction) {
+            processorContext.state[_context.getStateIndex()] = new ArrayList<TridentTuple>();
+        }
     }
 
     @Override
     public void finishBatch(ProcessorContext processorContext) {
+        if(_function instanceof BatchFunction) {
+            final List<TridentTuple> parents = (List<TridentTuple>) processorContext.state[_context.getStateIndex()];
+            processorContext.state[_context.getStateIndex()] = null;
+            if(!parents.isEmpty()) {
+                ((BatchFunction) _function).executeBatch(new ColumnarBatch(_projection, parents), new BatchCollector() {
+                    @Override
+                    public void emit(int row, List<Object> values) {
+                        _collector.setContext(processorContext, parents.get(row));
+                        _collector.emit(values);
+                    }
+
+                    @Override
+                    public void reportError(Throwable t) {
+                        _collector.reportError(t);
+                    }
+                });
+            }
+        }
     }
 
     @Override
@@ -105,7 +105,11 @@ public class RichSpoutBatchExecutor implements ITridentSpout<Object> {
                 _spout.open(_conf, _context, new SpoutOutputCollector(_collector));
                 prepared = true;
             }
-            for(int i=0; i<_maxBatchSize; i++) {
+            int batchSize = _maxBatchSize;
+            if (tx.getBatchSizeHint() > 0) {
+                batchSize = Math.min(batchSize, tx.getBatchSizeHint());
+            }
+            for(int i=0; i<batchSize; i++) {
                 _spout.nextTuple();
                 if(_collector.numEmitted < i) {
                     break;
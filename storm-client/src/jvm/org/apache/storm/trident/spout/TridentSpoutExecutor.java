@@ -80,7 +80,13 @@ public class TridentSpoutExecutor implements ITridentBatchBolt {
         } else {            
             _collector.setBatch(info.batchId);
             _emitter.emitBatch(attempt, input.getValue(1), _collector);
-            _activeBatches.put(attempt.getTransactionId(), attempt);
+            if (attempt.isInlineCommit() && _emitter instanceof ICommitterTridentSpout.Emitter) {
+                // there is no commit tuple for an inline batch. Every earlier batch has been committed and a
+                // replay of this txid re-emits from the metadata of the previous one, so it's safe to commit now
+                ((ICommitterTridentSpout.Emitter) _emitter).commit(attempt);
+            } else {
+                _activeBatches.put(attempt.getTransactionId(), attempt);
+            }
         }
     }
 
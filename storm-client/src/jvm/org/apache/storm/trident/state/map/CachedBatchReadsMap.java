@@ -48,15 +48,22 @@ public class CachedBatchReadsMap<T> {
     }
     
     public List<RetVal<T>> multiGet(List<List<Object>> keys) {
-        // TODO: can optimize further by only querying backing map for keys not in the cache
-        List<T> vals = _delegate.multiGet(keys);
-        List<RetVal<T>> ret = new ArrayList(vals.size());
+        // only go to the backing map for the keys that were not written earlier in this batch
+        List<List<Object>> toGet = new ArrayList<>();
+        for(List<Object> key: keys) {
+            if(!_cached.containsKey(key)) {
+                toGet.add(key);
+            }
+        }
+        List<T> vals = toGet.isEmpty() ? new ArrayList<T>() : _delegate.multiGet(toGet);
+        List<RetVal<T>> ret = new ArrayList(keys.size());
+        int fetched = 0;
         for(int i=0; i<keys.size(); i++) {
             List<Object> key = keys.get(i);
             if(_cached.containsKey(key)) {
                 ret.add(new RetVal(_cached.get(key), true));
             } else {
-                ret.add(new RetVal(vals.get(i), false));
+                ret.add(new RetVal(vals.get(fetched++), false));
             }
         }
         return ret;
@@ -21,39 +21,101 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.storm.trident.util.LRUMap;
+import org.apache.storm.Config;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.IMetricsContext;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.utils.ObjectReader;
 
 /**
  * Useful to layer over a map that communicates with a database. you generally layer opaque map over this over your database store
+ *
+ * <p>By default the last cacheSize keys used are cached, a {@link MapCacheSpec} or any other {@link MapCache} can be
+ * passed in instead.
  * @param <T>
  */
 public class CachedMap<T> implements IBackingMap<T> {
-    LRUMap<List<Object>, T> _cache;
+    MapCache<List<Object>, T> _cache;
     IBackingMap<T> _delegate;
+    long _hits = 0;
+    long _misses = 0;
 
     public CachedMap(IBackingMap<T> delegate, int cacheSize) {
-        _cache = new LRUMap<List<Object>, T>(cacheSize);
+        this(delegate, new LRUMapCache<List<Object>, T>(cacheSize));
+    }
+
+    public CachedMap(IBackingMap<T> delegate, MapCacheSpec cacheSpec) {
+        this(delegate, cacheSpec.<List<Object>, T>build());
+    }
+
+    public CachedMap(IBackingMap<T> delegate, MapCache<List<Object>, T> cache) {
+        _cache = cache;
         _delegate = delegate;
     }
 
+    /**
+     * Report the number of cache hits and misses and the hit ratio since the last report as the metric
+     * {@code <name>}, typically called from {@link org.apache.storm.trident.state.StateFactory#makeState}.
+     */
+    public void registerMetrics(IMetricsContext metrics, String name, int timeBucketSizeInSecs) {
+        metrics.registerMetric(name, new IMetric() {
+            @Override
+            public Object getValueAndReset() {
+                Map<String, Object> ret = new HashMap<>();
+                ret.put("hits", _hits);
+                ret.put("misses", _misses);
+                long total = _hits + _misses;
+                ret.put("hit-ratio", total == 0 ? 0.0 : (double) _hits / total);
+                _hits = 0;
+                _misses = 0;
+                return ret;
+            }
+        }, timeBucketSizeInSecs);
+    }
+
+    /**
+     * Report the cache metrics as {@link #registerMetrics(IMetricsContext, String, int)} does, every
+     * {@link Config#TOPOLOGY_BUILTIN_METRICS_BUCKET_SIZE_SECS}, as {@code <name>-<factoryId>-<partitionIndex>}. This is
+     * what the state factories call from {@link org.apache.storm.trident.state.StateFactory#makeState}, with an id of
+     * their own and the partition index they were given, so that the states a Trident bolt holds get distinct names.
+     * If one factory made several states of the same bolt, the later ones are reported as
+     * {@code <name>-<factoryId>-<partitionIndex>-2} and so on. Does nothing if metrics is null.
+     */
+    public void registerMetrics(IMetricsContext metrics, Map<String, Object> conf, String name, String factoryId,
+                                int partitionIndex) {
+        if (metrics == null) {
+            return;
+        }
+        String stateName = name + "-" + factoryId + "-" + partitionIndex;
+        String uniqueName = stateName;
+        if (metrics instanceof TopologyContext) {
+            TopologyContext context = (TopologyContext) metrics;
+            for (int i = 2; context.getRegisteredMetricByName(uniqueName) != null; i++) {
+                uniqueName = stateName + "-" + i;
+            }
+        }
+        int bucketSizeSecs = ObjectReader.getInt(conf.get(Config.TOPOLOGY_BUILTIN_METRICS_BUCKET_SIZE_SECS), 60);
+        registerMetrics(metrics, uniqueName, bucketSizeSecs);
+    }
+
     @Override
     public List<T> multiGet(List<List<Object>> keys) {
-        Map<List<Object>, T> results = new HashMap<List<Object>, T>();
+        Map<List<Object>, T> results = new HashMap<List<Object>, T>(_cache.getAllPresent(keys));
         List<List<Object>> toGet = new ArrayList<List<Object>>();
         for(List<Object> key: keys) {
-            if(_cache.containsKey(key)) {
-                results.put(key, _cache.get(key));
-            } else {
+            if(!results.containsKey(key)) {
                 toGet.add(key);
             }
         }
+        _hits += keys.size() - toGet.size();
+        _misses += toGet.size();
 
-        List<T> fetchedVals = _delegate.multiGet(toGet);
-        for(int i=0; i<toGet.size(); i++) {
-            List<Object> key = toGet.get(i);
-            T val = fetchedVals.get(i);
-            _cache.put(key, val);
-            results.put(key, val);
+        if(!toGet.isEmpty()) {
+            List<T> fetchedVals = _delegate.multiGet(toGet);
+            _cache.putAll(toGet, fetchedVals);
+            for(int i=0; i<toGet.size(); i++) {
+                results.put(toGet.get(i), fetchedVals.get(i));
+            }
         }
 
         List<T> ret = new ArrayList<T>(keys.size());
@@ -65,14 +127,8 @@ public class CachedMap<T> implements IBackingMap<T> {
 
     @Override
     public void multiPut(List<List<Object>> keys, List<T> values) {
-        cache(keys, values);
+        _cache.putAll(keys, values);
         _delegate.multiPut(keys, values);
     }
 
-    private void cache(List<List<Object>> keys, List<T> values) {
-        for(int i=0; i<keys.size(); i++) {
-            _cache.put(keys.get(i), values.get(i));
-        }
-    }
-
 }
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.state.map;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The asynchronous counterpart of {@link IBackingMap}, for stores whose clients can have several requests in flight
+ * at once. Wrap it in a {@link ParallelBackingMap} to use it with {@link OpaqueMap}, {@link TransactionalMap} or
+ * {@link NonTransactionalMap}.
+ */
+public interface IAsyncBackingMap<T> {
+    /**
+     * Start reading the values of some keys.
+     * @return a future of the values, in the same order as the keys, null for keys that do not exist
+     */
+    CompletableFuture<List<T>> multiGetAsync(List<List<Object>> keys);
+
+    /**
+     * Start writing the values of some keys.
+     * @return a future that completes once all of the values are written
+     */
+    CompletableFuture<Void> multiPutAsync(List<List<Object>> keys, List<T> vals);
+}
@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.state.map;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.trident.util.LRUMap;
+
+/**
+ * A {@link MapCache} that holds a fixed number of entries and evicts the least recently used one. This is what
+ * {@link CachedMap} has always used.
+ */
+public class LRUMapCache<K, V> implements MapCache<K, V> {
+    private final LRUMap<K, V> _cache;
+
+    public LRUMapCache(int maxSize) {
+        _cache = new LRUMap<>(maxSize);
+    }
+
+    @Override
+    public synchronized Map<K, V> getAllPresent(List<K> keys) {
+        Map<K, V> ret = new HashMap<>();
+        for (K key : keys) {
+            V val = _cache.get(key);
+            if (val != null || _cache.containsKey(key)) {
+                ret.put(key, val);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public synchronized void putAll(List<K> keys, List<V> values) {
+        for (int i = 0; i < keys.size(); i++) {
+            _cache.put(keys.get(i), values.get(i));
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        _cache.clear();
+    }
+}
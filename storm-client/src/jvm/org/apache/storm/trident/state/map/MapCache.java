@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.state.map;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The local cache that a {@link CachedMap} keeps in front of the map it wraps.
+ *
+ * <p>Implementations have to be able to cache null values, since a key that is missing in the database is as useful
+ * to cache as any other.
+ */
+public interface MapCache<K, V> {
+    /**
+     * Look up the cached values of some keys.
+     * @param keys the keys to look up
+     * @return the keys that are cached, mapped to their (possibly null) value. Keys that are not cached are left out.
+     */
+    Map<K, V> getAllPresent(List<K> keys);
+
+    /**
+     * Cache some values, replacing whatever was cached for the same keys.
+     * @param keys the keys
+     * @param values the values, in the same order as the keys
+     */
+    void putAll(List<K> keys, List<V> values);
+
+    /**
+     * Drop everything from the cache.
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.state.map;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes a bounded {@link MapCache} that can size itself by entry count or by weight and can expire
+ * entries a fixed time after they were written. The spec is serializable so it can be part of the options of a
+ * {@link org.apache.storm.trident.state.StateFactory}; the cache itself is created with {@link #build()} when the
+ * state is made.
+ *
+ * <pre>
+ * new CachedMap(backingMap, MapCacheSpec.maximumWeight(64 * 1024 * 1024, new SizeOfValue())
+ *                                       .expireAfterWrite(10, TimeUnit.MINUTES));
+ * </pre>
+ */
+public class MapCacheSpec implements Serializable {
+    private static final long serialVersionUID = 3286143620713537394L;
+
+    /**
+     * Computes the weight of a cache entry. Null values weigh 1.
+     */
+    public interface EntryWeigher<K, V> extends Serializable {
+        int weigh(K key, V value);
+    }
+
+    private long _maximumSize = -1;
+    private long _maximumWeight = -1;
+    private EntryWeigher<?, ?> _weigher;
+    private long _expireAfterWriteMs = 0;
+    private transient Ticker _ticker;
+
+    private MapCacheSpec() {
+    }
+
+    /**
+     * A cache that holds up to maximumSize entries.
+     */
+    public static MapCacheSpec maximumSize(long maximumSize) {
+        MapCacheSpec ret = new MapCacheSpec();
+        ret._maximumSize = maximumSize;
+        return ret;
+    }
+
+    /**
+     * A cache that holds entries up to a total weight of maximumWeight, as computed by weigher.
+     */
+    public static MapCacheSpec maximumWeight(long maximumWeight, EntryWeigher<?, ?> weigher) {
+        MapCacheSpec ret = new MapCacheSpec();
+        ret._maximumWeight = maximumWeight;
+        ret._weigher = weigher;
+        return ret;
+    }
+
+    /**
+     * Expire entries once this long has passed since they were last written, so values changed in the database by
+     * someone else are eventually picked up.
+     */
+    public MapCacheSpec expireAfterWrite(long duration, TimeUnit unit) {
+        _expireAfterWriteMs = unit.toMillis(duration);
+        return this;
+    }
+
+    MapCacheSpec ticker(Ticker ticker) {
+        _ticker = ticker;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> MapCache<K, V> build() {
+        // a state is only used from its executor's thread, and a single segment keeps the bounds exact
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(1);
+        if (_maximumWeight >= 0) {
+            final EntryWeigher<K, V> weigher = (EntryWeigher<K, V>) _weigher;
+            builder.maximumWeight(_maximumWeight).weigher(new Weigher<K, Optional<V>>() {
+                @Override
+                public int weigh(K key, Optional<V> value) {
+                    return value.isPresent() ? weigher.weigh(key, value.get()) : 1;
+                }
+            });
+        } else {
+            builder.maximumSize(_maximumSize);
+        }
+        if (_expireAfterWriteMs > 0) {
+            builder.expireAfterWrite(_expireAfterWriteMs, TimeUnit.MILLISECONDS);
+        }
+        if (_ticker != null) {
+            builder.ticker(_ticker);
+        }
+        return new BoundedMapCache<>(builder.<K, Optional<V>>build());
+    }
+
+    @Override
+    public String toString() {
+        return "MapCacheSpec{maximumSize=" + _maximumSize + ", maximumWeight=" + _maximumWeight
+               + ", expireAfterWriteMs=" + _expireAfterWriteMs + "}";
+    }
+
+    private static class BoundedMapCache<K, V> implements MapCache<K, V> {
+        // guava does not allow null values
+        private final Cache<K, Optional<V>> _cache;
+
+        BoundedMapCache(Cache<K, Optional<V>> cache) {
+            _cache = cache;
+        }
+
+        @Override
+        public Map<K, V> getAllPresent(List<K> keys) {
+            Map<K, V> ret = new HashMap<>();
+            for (Map.Entry<K, Optional<V>> entry : _cache.getAllPresent(keys).entrySet()) {
+                ret.put(entry.getKey(), entry.getValue().orNull());
+            }
+            return ret;
+        }
+
+        @Override
+        public void putAll(List<K> keys, List<V> values) {
+            for (int i = 0; i < keys.size(); i++) {
+                _cache.put(keys.get(i), Optional.fromNullable(values.get(i)));
+            }
+        }
+
+        @Override
+        public void invalidateAll() {
+            _cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.state.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * An {@link IBackingMap} that splits the keys of each multiGet and multiPut into chunks and works on up to
+ * maxConcurrency chunks at a time. The calls still return only once every chunk is done, so the map states layered
+ * on top see the same semantics as before, just with lower latency for batches that touch many keys.
+ *
+ * <p>The chunks go to an {@link IAsyncBackingMap}, or, for a plain {@link IBackingMap}, to a pool of daemon threads
+ * shared by all the maps of the worker. Trident states are never closed, so the pool does not belong to any one map;
+ * its threads exit after a minute without work. A failure of any chunk is rethrown once all of the chunks have
+ * finished.
+ */
+public class ParallelBackingMap<T> implements IBackingMap<T> {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    // unbounded, the concurrency of each map is bounded by its inFlight semaphore
+    private static final ExecutorService SHARED_POOL = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(), r -> {
+            Thread t = new Thread(r, "parallel-backing-map-" + THREAD_NUMBER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+    private final IAsyncBackingMap<T> delegate;
+    private final int chunkSize;
+    private final Semaphore inFlight;
+
+    /**
+     * Create a map that sends up to maxConcurrency chunks of at most chunkSize keys at a time to an async map.
+     */
+    public ParallelBackingMap(IAsyncBackingMap<T> delegate, int chunkSize, int maxConcurrency) {
+        if (chunkSize <= 0 || maxConcurrency <= 0) {
+            throw new IllegalArgumentException("chunkSize and maxConcurrency must be positive");
+        }
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        inFlight = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Create a map that calls a blocking map for up to maxConcurrency chunks of at most chunkSize keys at a time.
+     */
+    public ParallelBackingMap(IBackingMap<T> delegate, int chunkSize, int maxConcurrency) {
+        this(onPool(delegate), chunkSize, maxConcurrency);
+    }
+
+    private static <T> IAsyncBackingMap<T> onPool(final IBackingMap<T> delegate) {
+        return new IAsyncBackingMap<T>() {
+            @Override
+            public CompletableFuture<List<T>> multiGetAsync(List<List<Object>> keys) {
+                return CompletableFuture.supplyAsync(() -> delegate.multiGet(keys), SHARED_POOL);
+            }
+
+            @Override
+            public CompletableFuture<Void> multiPutAsync(List<List<Object>> keys, List<T> vals) {
+                return CompletableFuture.runAsync(() -> delegate.multiPut(keys, vals), SHARED_POOL);
+            }
+        };
+    }
+
+    @Override
+    public List<T> multiGet(List<List<Object>> keys) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<List<Object>> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+            futures.add(start(() -> delegate.multiGetAsync(chunk)));
+        }
+        List<T> ret = new ArrayList<>(keys.size());
+        for (List<T> vals : awaitAll(futures)) {
+            ret.addAll(vals);
+        }
+        if (ret.size() != keys.size()) {
+            throw new IllegalStateException("Got " + ret.size() + " values for " + keys.size() + " keys");
+        }
+        return ret;
+    }
+
+    @Override
+    public void multiPut(List<List<Object>> keys, List<T> vals) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<List<Object>> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+            List<T> chunkVals = vals.subList(from, from + chunk.size());
+            futures.add(start(() -> delegate.multiPutAsync(chunk, chunkVals)));
+        }
+        awaitAll(futures);
+    }
+
+    // starts a request once fewer than maxConcurrency are in flight
+    private <V> CompletableFuture<V> start(Supplier<CompletableFuture<V>> request) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        CompletableFuture<V> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        future.whenComplete((v, e) -> inFlight.release());
+        return future;
+    }
+
+    private static <V> List<V> awaitAll(List<CompletableFuture<V>> futures) {
+        List<V> ret = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        for (CompletableFuture<V> future : futures) {
+            try {
+                ret.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        return ret;
+    }
+}
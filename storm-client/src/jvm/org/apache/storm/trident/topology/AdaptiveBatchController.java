@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.topology;
+
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * Sizes Trident batches from the latency the batches actually see, used by the {@link MasterBatchCoordinator}
+ * when {@link Config#TOPOLOGY_TRIDENT_BATCH_LATENCY_TARGET_MILLIS} is set.
+ *
+ * <p>Every committed batch reports how long it took from being started to being committed. The controller keeps a
+ * moving average of that latency and scales the batch size hint by how far the average is from the target, at most
+ * halving or doubling it per batch and staying within the configured minimum and maximum. A failed batch halves the
+ * hint. If batches are still too slow at the minimum size the topology cannot keep up even with small batches, so
+ * the interval between batches is doubled (up to the target) to spend less of its time coordinating; once batches
+ * are fast enough again the interval is halved back to {@link Config#TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS}.
+ */
+class AdaptiveBatchController {
+    // weight of the latest latency in the moving average
+    private static final double SMOOTHING = 0.3;
+    // no change while the average latency is within this fraction of the target, so the size does not oscillate
+    private static final double TOLERANCE = 0.1;
+    private static final double MAX_STEP = 2.0;
+
+    private final long targetLatencyMs;
+    private final int minSize;
+    private final int maxSize;
+    private final long minIntervalMs;
+    private double avgLatencyMs = -1;
+    private int batchSizeHint;
+    private long emitIntervalMs;
+
+    AdaptiveBatchController(long targetLatencyMs, int minSize, int maxSize, long minIntervalMs) {
+        if (minSize > maxSize) {
+            throw new IllegalArgumentException("Minimum batch size hint " + minSize + " is larger than the maximum "
+                                               + maxSize);
+        }
+        this.targetLatencyMs = targetLatencyMs;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.minIntervalMs = minIntervalMs;
+        this.batchSizeHint = minSize;
+        this.emitIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * Create the controller configured for a topology.
+     * @return the controller, or null if adaptive batch sizing is disabled.
+     */
+    static AdaptiveBatchController fromConf(Map<String, Object> conf) {
+        long target = ObjectReader.getInt(conf.get(Config.TOPOLOGY_TRIDENT_BATCH_LATENCY_TARGET_MILLIS), 0);
+        if (target <= 0) {
+            return null;
+        }
+        int minSize = ObjectReader.getInt(conf.get(Config.TOPOLOGY_TRIDENT_BATCH_SIZE_HINT_MIN), 100);
+        int maxSize = ObjectReader.getInt(conf.get(Config.TOPOLOGY_TRIDENT_BATCH_SIZE_HINT_MAX), 10000);
+        int interval = ObjectReader.getInt(conf.get(Config.TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS));
+        return new AdaptiveBatchController(target, minSize, maxSize, interval);
+    }
+
+    /**
+     * The number of tuples the next batch should have per emitter and partition.
+     */
+    int getBatchSizeHint() {
+        return batchSizeHint;
+    }
+
+    /**
+     * How long to wait between starting batches.
+     */
+    long getEmitIntervalMs() {
+        return emitIntervalMs;
+    }
+
+    void batchCommitted(long latencyMs) {
+        avgLatencyMs = avgLatencyMs < 0 ? latencyMs : SMOOTHING * latencyMs + (1 - SMOOTHING) * avgLatencyMs;
+        double ratio = targetLatencyMs / Math.max(1.0, avgLatencyMs);
+        if (Math.abs(ratio - 1) <= TOLERANCE) {
+            return;
+        }
+        if (ratio < 1 && batchSizeHint == minSize) {
+            emitIntervalMs = Math.min(Math.max(targetLatencyMs, minIntervalMs), Math.max(1, emitIntervalMs * 2));
+        } else if (ratio > 1) {
+            emitIntervalMs = Math.max(minIntervalMs, emitIntervalMs / 2);
+        }
+        resize(Math.max(1 / MAX_STEP, Math.min(MAX_STEP, ratio)));
+    }
+
+    void batchFailed() {
+        resize(1 / MAX_STEP);
+    }
+
+    private void resize(double factor) {
+        long size = Math.round(batchSizeHint * factor);
+        batchSizeHint = (int) Math.max(minSize, Math.min(maxSize, size));
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveBatchController{targetLatencyMs=" + targetLatencyMs + ", avgLatencyMs=" + avgLatencyMs
+               + ", batchSizeHint=" + batchSizeHint + ", emitIntervalMs=" + emitIntervalMs + "}";
+    }
+}
@@ -22,10 +22,14 @@ import org.apache.storm.spout.SpoutOutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.topology.base.BaseRichSpout;
+import org.apache.storm.trident.spout.ICommitterTridentSpout;
 import org.apache.storm.trident.spout.ITridentSpout;
+import org.apache.storm.trident.spout.OpaquePartitionedTridentSpoutExecutor;
 import org.apache.storm.trident.topology.state.TransactionalState;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.tuple.Values;
+import org.apache.storm.utils.ObjectReader;
+import org.apache.storm.utils.Time;
 import org.apache.storm.utils.WindowedTimeThrottler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,8 +69,10 @@ public class MasterBatchCoordinator extends BaseRichSpout {
     List<String> _managedSpoutIds;
     List<ITridentSpout> _spouts;
     WindowedTimeThrottler _throttler;
+    AdaptiveBatchController _batchController;
     
     boolean _active = true;
+    boolean _inlineCommit;
     
     public MasterBatchCoordinator(List<String> spoutIds, List<ITridentSpout> spouts) {
         if(spoutIds.isEmpty()) {
@@ -107,6 +113,17 @@ public class MasterBatchCoordinator extends BaseRichSpout {
             _maxTransactionActive = active.intValue();
         }
         _attemptIds = getStoredCurrAttempts(_currTransaction, _maxTransactionActive);
+        _inlineCommit = ObjectReader.getBoolean(conf.get(Config.TOPOLOGY_TRIDENT_INLINE_COMMIT), false);
+        _batchController = AdaptiveBatchController.fromConf(conf);
+        for (ITridentSpout spout : _spouts) {
+            // an inline batch is committed by the spout as soon as it is emitted. That is only known to be safe for
+            // the opaque partitioned executor, which re-emits a replayed txid from the metadata of the txid before it
+            if (_inlineCommit && spout instanceof ICommitterTridentSpout
+                    && !(spout instanceof OpaquePartitionedTridentSpoutExecutor)) {
+                LOG.warn("Disabling {} because {} is an ICommitterTridentSpout", Config.TOPOLOGY_TRIDENT_INLINE_COMMIT, spout);
+                _inlineCommit = false;
+            }
+        }
 
         
         for(int i=0; i<_spouts.size(); i++) {
@@ -135,13 +152,19 @@ public class MasterBatchCoordinator extends BaseRichSpout {
         TransactionStatus status = _activeTx.get(tx.getTransactionId());
         LOG.debug("Ack. [tx_attempt = {}], [tx_status = {}], [{}]", tx, status, this);
         if(status!=null && tx.equals(status.attempt)) {
-            if(status.status==AttemptStatus.PROCESSING) {
+            if(status.status == AttemptStatus.PROCESSING && !status.attempt.isInlineCommit()) {
                 status.status = AttemptStatus.PROCESSED;
                 LOG.debug("Changed status. [tx_attempt = {}] [tx_status = {}]", tx, status);
-            } else if(status.status==AttemptStatus.COMMITTING) {
+            } else if (status.status == AttemptStatus.COMMITTING || status.status == AttemptStatus.PROCESSING) {
+                // the committers already committed an inline batch when they finished processing it
                 _activeTx.remove(tx.getTransactionId());
                 _attemptIds.remove(tx.getTransactionId());
                 _collector.emit(SUCCESS_STREAM_ID, new Values(tx));
+                if (_batchController != null) {
+                    _batchController.batchCommitted(Time.currentTimeMillis() - status.startTimeMs);
+                    _throttler.setWindowMillis(_batchController.getEmitIntervalMs());
+                    LOG.debug("Adapted batch size. [{}]", _batchController);
+                }
                 _currTransaction = nextTransactionId(tx.getTransactionId());
                 for(TransactionalState state: _states) {
                     state.setData(CURRENT_TX, _currTransaction);                    
@@ -159,6 +182,9 @@ public class MasterBatchCoordinator extends BaseRichSpout {
         LOG.debug("Fail. [tx_attempt = {}], [tx_status = {}], [{}]", tx, stored, this);
         if(stored!=null && tx.equals(stored.attempt)) {
             _activeTx.tailMap(tx.getTransactionId()).clear();
+            if (_batchController != null) {
+                _batchController.batchFailed();
+            }
             sync();
         }
     }
@@ -186,6 +212,7 @@ public class MasterBatchCoordinator extends BaseRichSpout {
         
         if(_active) {
             if(_activeTx.size() < _maxTransactionActive) {
+                List<TransactionStatus> started = new ArrayList<>();
                 Long curr = _currTransaction;
                 for(int i=0; i<_maxTransactionActive; i++) {
                     if(!_activeTx.containsKey(curr) && isReady(curr)) {
@@ -199,19 +226,31 @@ public class MasterBatchCoordinator extends BaseRichSpout {
                             attemptId++;
                         }
                         _attemptIds.put(curr, attemptId);
-                        for(TransactionalState state: _states) {
-                            state.setData(CURRENT_ATTEMPTS, _attemptIds);
-                        }
                         
-                        TransactionAttempt attempt = new TransactionAttempt(curr, attemptId);
+                        // every batch before the current transaction has been committed, so this one can be
+                        // committed as soon as it is processed
+                        boolean inlineCommit = _inlineCommit && curr.equals(_currTransaction);
+                        int batchSizeHint = _batchController == null ? 0 : _batchController.getBatchSizeHint();
+                        TransactionAttempt attempt = new TransactionAttempt(curr, attemptId, inlineCommit, batchSizeHint);
                         final TransactionStatus newTransactionStatus = new TransactionStatus(attempt);
                         _activeTx.put(curr, newTransactionStatus);
-                        _collector.emit(BATCH_STREAM_ID, new Values(attempt), attempt);
-                        LOG.debug("Emitted on [stream = {}], [tx_attempt = {}], [tx_status = {}], [{}]", BATCH_STREAM_ID, attempt, newTransactionStatus, this);
+                        started.add(newTransactionStatus);
                         _throttler.markEvent();
                     }
                     curr = nextTransactionId(curr);
                 }
+                if (!started.isEmpty()) {
+                    // the attempt ids have to be stored before any of the batches go out, but one write
+                    // covers all of the batches started in this round
+                    for (TransactionalState state : _states) {
+                        state.setData(CURRENT_ATTEMPTS, _attemptIds);
+                    }
+                    for (TransactionStatus newTransactionStatus : started) {
+                        TransactionAttempt attempt = newTransactionStatus.attempt;
+                        _collector.emit(BATCH_STREAM_ID, new Values(attempt), attempt);
+                        LOG.debug("Emitted on [stream = {}], [tx_attempt = {}], [tx_status = {}], [{}]", BATCH_STREAM_ID, attempt, newTransactionStatus, this);
+                    }
+                }
             }
         }
     }
@@ -242,10 +281,12 @@ public class MasterBatchCoordinator extends BaseRichSpout {
     private static class TransactionStatus {
         TransactionAttempt attempt;
         AttemptStatus status;
+        long startTimeMs;
         
         public TransactionStatus(TransactionAttempt attempt) {
             this.attempt = attempt;
             this.status = AttemptStatus.PROCESSING;
+            this.startTimeMs = Time.currentTimeMillis();
         }
 
         @Override
@@ -311,6 +352,8 @@ public class MasterBatchCoordinator extends BaseRichSpout {
                 ", _spouts=" + _spouts +
                 ", _throttler=" + _throttler +
                 ", _active=" + _active +
+                ", _inlineCommit=" + _inlineCommit +
+                ", _batchController=" + _batchController +
                 "}";
     }
 }
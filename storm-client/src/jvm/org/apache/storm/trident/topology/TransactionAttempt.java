@@ -23,6 +23,8 @@ import org.apache.storm.trident.spout.IBatchID;
 public class TransactionAttempt implements IBatchID {
     Long _txid;
     int _attemptId;
+    boolean _inlineCommit;
+    int _batchSizeHint;
     
     
     // for kryo compatibility
@@ -34,6 +36,24 @@ public class TransactionAttempt implements IBatchID {
         _txid = txid;
         _attemptId = attemptId;
     }
+
+    /**
+     * @param inlineCommit true if committers should commit this batch as soon as they finish it instead of
+     *                     waiting for the master coordinator to send it on the commit stream.
+     */
+    public TransactionAttempt(Long txid, int attemptId, boolean inlineCommit) {
+        this(txid, attemptId);
+        _inlineCommit = inlineCommit;
+    }
+
+    /**
+     * @param batchSizeHint how many tuples the spout emitters should emit for this batch, see
+     *                      {@link #getBatchSizeHint()}.
+     */
+    public TransactionAttempt(Long txid, int attemptId, boolean inlineCommit, int batchSizeHint) {
+        this(txid, attemptId, inlineCommit);
+        _batchSizeHint = batchSizeHint;
+    }
     
     public Long getTransactionId() {
         return _txid;
@@ -47,6 +67,25 @@ public class TransactionAttempt implements IBatchID {
         return _attemptId;
     }
 
+    /**
+     * Whether this batch was emitted after every earlier batch had been committed, in which case it is committed
+     * together with processing and no separate commit tuple is sent for it. Not part of the identity of the attempt.
+     */
+    public boolean isInlineCommit() {
+        return _inlineCommit;
+    }
+
+    /**
+     * The number of tuples the master batch coordinator would like each spout emitter to emit for this batch, per
+     * partition for partitioned spouts, or 0 if it has no preference. Emitters are free to emit fewer tuples, for
+     * example when there is not that much input available, and should treat the hint as a maximum where they can.
+     * It is only set when {@link org.apache.storm.Config#TOPOLOGY_TRIDENT_BATCH_LATENCY_TARGET_MILLIS} is, and is
+     * not part of the identity of the attempt.
+     */
+    public int getBatchSizeHint() {
+        return _batchSizeHint;
+    }
+
     @Override
     public int hashCode() {
         return _txid.hashCode();
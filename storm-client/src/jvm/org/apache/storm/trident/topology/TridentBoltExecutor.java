@@ -141,7 +141,12 @@ public class TridentBoltExecutor implements IRichBolt {
             this.info = info;
             this.condition = condition;
             this.attemptId = attemptId;
-            receivedCommit = condition.commitStream == null;
+            // a batch that is committed inline never gets a separate commit tuple, see MasterBatchCoordinator
+            receivedCommit = condition.commitStream == null || isInlineCommit(info.batchId);
+        }
+
+        private static boolean isInlineCommit(IBatchID id) {
+            return id instanceof TransactionAttempt && ((TransactionAttempt) id).isInlineCommit();
         }
 
         @Override
@@ -288,9 +293,12 @@ public class TridentBoltExecutor implements IRichBolt {
             return;
         }
         CoordCondition cond = tracked.condition;
+        // an inline batch is committed by finishBatch without a commit tuple, so hold back the ack of the tuple
+        // that finishes it instead, otherwise a failed commit would still be acked to the master coordinator
         boolean delayed = tracked.delayedAck==null &&
                               (cond.commitStream!=null && type==TupleType.COMMIT
-                               || cond.commitStream==null);
+                               || cond.commitStream==null
+                               || TrackedBatch.isInlineCommit(tracked.info.batchId));
         if(delayed) {
             tracked.delayedAck = tuple;
         }
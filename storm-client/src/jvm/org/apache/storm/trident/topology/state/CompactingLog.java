@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.topology.state;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small key value map that is persisted as an append only log in a single file.
+ *
+ * <p>Every put or delete appends one checksummed record and forces it to disk, so a write costs one append no matter
+ * how large the map is. The whole map is kept in memory and is rebuilt from the log when the log is opened, which only
+ * reads the file. A record that was only partly written, because the writer died or is still writing it, is ignored
+ * and the writer truncates it right before it appends its own first record. Once the log holds more than
+ * {@code compactThreshold} records and twice as many records as there are live keys, it is compacted by writing the
+ * live keys to a new file that atomically replaces the log.
+ *
+ * <p>The log is meant to have a single writer at a time, which may move to another process (for example after a
+ * worker was restarted on another host sharing the same directory). Before every operation the log checks whether
+ * the file was changed behind its back and, if so, reloads it.
+ */
+class CompactingLog implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(CompactingLog.class);
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path file;
+    private final int compactThreshold;
+    private final TreeMap<String, byte[]> values = new TreeMap<>();
+    // opened on the first write, readers never modify the file
+    private FileChannel channel;
+    private long records;
+    // the length of the complete records of the file
+    private long validLength;
+    // what the file looked like after our last read or write, to notice changes made by another writer
+    private Object fileKey;
+    private long fileSize;
+
+    CompactingLog(Path file, int compactThreshold) throws IOException {
+        this.file = file;
+        this.compactThreshold = compactThreshold;
+        load();
+    }
+
+    synchronized byte[] get(String key) throws IOException {
+        reloadIfChanged();
+        return values.get(key);
+    }
+
+    /**
+     * The keys that are equal to or start with a prefix.
+     */
+    synchronized SortedSet<String> keys(String prefix) throws IOException {
+        reloadIfChanged();
+        SortedSet<String> ret = new TreeSet<>();
+        for (String key : values.tailMap(prefix).keySet()) {
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            ret.add(key);
+        }
+        return ret;
+    }
+
+    synchronized void put(String key, byte[] data) throws IOException {
+        reloadIfChanged();
+        append(record(PUT, key, data));
+        values.put(key, data);
+        maybeCompact();
+    }
+
+    synchronized void delete(String key) throws IOException {
+        reloadIfChanged();
+        if (values.containsKey(key)) {
+            append(record(DELETE, key, null));
+            values.remove(key);
+            maybeCompact();
+        }
+    }
+
+    synchronized long getRecords() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void load() throws IOException {
+        close();
+        values.clear();
+        records = 0;
+        validLength = 0;
+        BasicFileAttributes attrs = readAttributes();
+        if (attrs != null) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = in.size();
+                DataInputStream din = new DataInputStream(new BufferedInputStream(Channels.newInputStream(in)));
+                while (true) {
+                    long length = readRecord(din, size - validLength);
+                    if (length < 0) {
+                        break;
+                    }
+                    validLength += length;
+                    records++;
+                }
+            } catch (NoSuchFileException e) {
+                // compacted by another writer in the meantime, the key differs so it is read again on the next call
+            }
+        }
+        // a partly written tail is not remembered as read, so the log is reloaded until its writer completes it
+        fileKey = attrs == null ? null : attrs.fileKey();
+        fileSize = attrs == null ? -1 : validLength;
+        LOG.debug("Loaded {} keys from {} records of {}", values.size(), records, file);
+    }
+
+    /*
+     * reads one record into values, returns its length or -1 at the end of the valid part of the log.
+     */
+    private long readRecord(DataInputStream in, long remaining) throws IOException {
+        byte[] body;
+        int crc;
+        try {
+            int length = in.readInt();
+            // the length of a corrupt or partly written record can be anything
+            if (length <= 0 || length > remaining - 8) {
+                return -1;
+            }
+            body = new byte[length];
+            in.readFully(body);
+            crc = in.readInt();
+        } catch (EOFException e) {
+            return -1;
+        }
+        CRC32 check = new CRC32();
+        check.update(body);
+        if ((int) check.getValue() != crc) {
+            return -1;
+        }
+        DataInputStream bin = new DataInputStream(new ByteArrayInputStream(body));
+        byte op = bin.readByte();
+        String key = bin.readUTF();
+        if (op == PUT) {
+            byte[] data = new byte[bin.readInt()];
+            bin.readFully(data);
+            values.put(key, data);
+        } else {
+            values.remove(key);
+        }
+        return 4 + body.length + 4;
+    }
+
+    private static byte[] record(byte op, String key, byte[] data) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bout = new DataOutputStream(body);
+        bout.writeByte(op);
+        bout.writeUTF(key);
+        if (op == PUT) {
+            bout.writeInt(data.length);
+            bout.write(data);
+        }
+        bout.flush();
+        CRC32 crc = new CRC32();
+        crc.update(body.toByteArray());
+        ByteArrayOutputStream ret = new ByteArrayOutputStream(body.size() + 8);
+        DataOutputStream out = new DataOutputStream(ret);
+        out.writeInt(body.size());
+        body.writeTo(out);
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        return ret.toByteArray();
+    }
+
+    private void append(byte[] record) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.size() > validLength) {
+                LOG.warn("Dropping {} bytes of a partly written record at the end of {}", channel.size() - validLength, file);
+                channel.truncate(validLength);
+            }
+            channel.position(validLength);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(record);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+        records++;
+        validLength += record.length;
+        remember();
+    }
+
+    private void maybeCompact() throws IOException {
+        if (records <= compactThreshold || records <= 2L * values.size()) {
+            return;
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream dout = new DataOutputStream(Channels.newOutputStream(out));
+            for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+                dout.write(record(PUT, entry.getKey(), entry.getValue()));
+            }
+            dout.flush();
+            out.force(false);
+        }
+        close();
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        LOG.debug("Compacted {} records of {} into {}", records, file, values.size());
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        validLength = channel.size();
+        channel.position(validLength);
+        records = values.size();
+        remember();
+    }
+
+    private void remember() throws IOException {
+        fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        fileSize = validLength;
+    }
+
+    private BasicFileAttributes readAttributes() throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void reloadIfChanged() throws IOException {
+        BasicFileAttributes attrs = readAttributes();
+        long size = attrs == null ? -1 : attrs.size();
+        if (size != fileSize || (attrs != null && !Objects.equals(attrs.fileKey(), fileKey))) {
+            LOG.debug("{} was changed by another writer, reloading it", file);
+            load();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactingLog{file=" + file + ", keys=" + values.size() + ", records=" + records + "}";
+    }
+}
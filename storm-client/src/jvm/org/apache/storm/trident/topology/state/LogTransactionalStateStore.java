@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.topology.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.storm.Config;
+import org.apache.storm.utils.ObjectReader;
+
+/**
+ * Keeps transactional state in append only {@link CompactingLog}s in a directory instead of ZooKeeper, so writing
+ * the metadata of a batch is a local append rather than a ZooKeeper round trip.
+ *
+ * <p>Every top level node (for example the {@code meta} directory of a spout coordinator, or a partition of a
+ * partitioned spout) gets a log file of its own under
+ * {@link Config#TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_DIR}{@code /<id>/<subroot>}. Since a top level node is only
+ * written by one task at a time, every log has a single writer and tasks never append to the same file concurrently.
+ *
+ * <p>The tasks of a topology read each other's state and may be moved between hosts, so in a distributed cluster the
+ * directory has to be on storage every supervisor mounts, such as a shared file system. Without a directory configured
+ * the logs go to {@link Config#STORM_LOCAL_DIR}, which is only suitable for local mode and single host clusters.
+ */
+public class LogTransactionalStateStore implements TransactionalStateStore {
+    private static final String LOG_SUFFIX = ".log";
+
+    private final Map<String, CompactingLog> logs = new HashMap<>();
+    private File dir;
+    private int compactThreshold;
+
+    @Override
+    public void prepare(Map<String, Object> conf, String id, String subroot) {
+        String root = (String) conf.get(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_DIR);
+        if (root == null) {
+            root = conf.get(Config.STORM_LOCAL_DIR) + File.separator + "trident-state";
+        }
+        dir = new File(new File(root, encode(id)), subroot);
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new RuntimeException("Could not create transactional state directory " + dir);
+        }
+        compactThreshold = ObjectReader.getInt(conf.get(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_COMPACT_RECORDS),
+                                               1000);
+    }
+
+    @Override
+    public synchronized void put(String path, byte[] data) {
+        try {
+            log(topLevel(path)).put(path, data);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized byte[] get(String path) {
+        try {
+            CompactingLog log = existingLog(topLevel(path));
+            return log == null ? null : log.get(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized List<String> list(String path) {
+        Set<String> children = new LinkedHashSet<>();
+        if (path.isEmpty()) {
+            String[] files = dir.list();
+            if (files != null) {
+                for (String name : files) {
+                    if (name.endsWith(LOG_SUFFIX)) {
+                        children.add(decode(name.substring(0, name.length() - LOG_SUFFIX.length())));
+                    }
+                }
+            }
+        } else {
+            try {
+                CompactingLog log = existingLog(topLevel(path));
+                if (log != null) {
+                    String prefix = path + "/";
+                    for (String key : log.keys(prefix)) {
+                        String rest = key.substring(prefix.length());
+                        int end = rest.indexOf('/');
+                        children.add(end < 0 ? rest : rest.substring(0, end));
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return new ArrayList<>(children);
+    }
+
+    @Override
+    public synchronized void delete(String path) {
+        try {
+            CompactingLog log = existingLog(topLevel(path));
+            if (log != null) {
+                log.delete(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (CompactingLog log : logs.values()) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        logs.clear();
+    }
+
+    private static String topLevel(String path) {
+        int end = path.indexOf('/');
+        return end < 0 ? path : path.substring(0, end);
+    }
+
+    private Path logFile(String topLevel) {
+        return new File(dir, encode(topLevel) + LOG_SUFFIX).toPath();
+    }
+
+    private CompactingLog log(String topLevel) throws IOException {
+        CompactingLog log = logs.get(topLevel);
+        if (log == null) {
+            log = new CompactingLog(logFile(topLevel), compactThreshold);
+            logs.put(topLevel, log);
+        }
+        return log;
+    }
+
+    /*
+     * the log of a top level node, without creating a file for it if it was never written.
+     */
+    private CompactingLog existingLog(String topLevel) throws IOException {
+        if (!logs.containsKey(topLevel) && !logFile(topLevel).toFile().exists()) {
+            return null;
+        }
+        return log(topLevel);
+    }
+
+    private static String encode(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String decode(String name) {
+        try {
+            return URLDecoder.decode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LogTransactionalStateStore{dir=" + dir + "}";
+    }
+}
@@ -22,31 +22,26 @@ import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.PathAndBytesable;
 import org.apache.curator.framework.api.ProtectACLCreateModePathAndBytesable;
 import org.apache.storm.Config;
-import org.apache.storm.utils.Utils;
-import org.apache.storm.utils.CuratorUtils;
-import org.apache.storm.utils.ZookeeperAuthInfo;
+import org.apache.storm.utils.ReflectionUtils;
 import org.apache.zookeeper.CreateMode;
-import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.ACL;
 import org.json.simple.JSONValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Class that contains the logic to extract the transactional state info from zookeeper. All transactional state
- * is kept in zookeeper. This class only contains references to Curator, which is used to get all info from zookeeper.
+ * Class that contains the logic to read and write the transactional state info of Trident coordinators and spouts.
+ * The values are stored as JSON in a {@link TransactionalStateStore}, which is ZooKeeper unless
+ * {@link Config#TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE} names another one.
  */
 public class TransactionalState {
     private static final Logger LOG = LoggerFactory.getLogger(TransactionalState.class);
 
-    CuratorFramework _curator;
-    List<ACL> _zkAcls = null;
+    TransactionalStateStore _store;
     
     public static TransactionalState newUserState(Map<String, Object> conf, String id) {
         return new TransactionalState(conf, id, "user");
@@ -57,29 +52,13 @@ public class TransactionalState {
     }
     
     protected TransactionalState(Map<String, Object> conf, String id, String subroot) {
-        try {
-            conf = new HashMap(conf);
-            String transactionalRoot = (String)conf.get(Config.TRANSACTIONAL_ZOOKEEPER_ROOT);
-            String rootDir = transactionalRoot + "/" + id + "/" + subroot;
-            List<String> servers = (List<String>) getWithBackup(conf, Config.TRANSACTIONAL_ZOOKEEPER_SERVERS, Config.STORM_ZOOKEEPER_SERVERS);
-            Object port = getWithBackup(conf, Config.TRANSACTIONAL_ZOOKEEPER_PORT, Config.STORM_ZOOKEEPER_PORT);
-            ZookeeperAuthInfo auth = new ZookeeperAuthInfo(conf);
-            CuratorFramework initter = CuratorUtils.newCuratorStarted(conf, servers, port, auth);
-            _zkAcls = Utils.getWorkerACL(conf);
-            try {
-                TransactionalState.createNode(initter, transactionalRoot, null, null, null);
-            } catch (KeeperException.NodeExistsException e) {
-            }
-            try {
-                TransactionalState.createNode(initter, rootDir, null, _zkAcls, null);
-            } catch (KeeperException.NodeExistsException e) {
-            }
-            initter.close();
-                                    
-            _curator = CuratorUtils.newCuratorStarted(conf, servers, port, rootDir, auth);
-        } catch (Exception e) {
-           throw new RuntimeException(e);
+        String storeClass = (String) conf.get(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE);
+        if (storeClass == null) {
+            _store = new ZkTransactionalStateStore();
+        } else {
+            _store = ReflectionUtils.newInstance(storeClass);
         }
+        _store.prepare(conf, id, subroot);
     }
 
     protected static String forPath(PathAndBytesable<String> builder, 
@@ -112,53 +91,18 @@ public class TransactionalState {
     }
 
     public void setData(String path, Object obj) {
-        path = "/" + path;
-        byte[] ser;
-        try {
-            ser = JSONValue.toJSONString(obj).getBytes("UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
-        try {
-            if(_curator.checkExists().forPath(path)!=null) {
-                _curator.setData().forPath(path, ser);
-            } else {
-                TransactionalState.createNode(_curator, path, ser, _zkAcls,
-                        CreateMode.PERSISTENT);
-            }
-        } catch (KeeperException.NodeExistsException nne){
-            LOG.warn("Node {} already created.", path);
-        } catch(Exception e) {
-            throw new RuntimeException(e);
-        }
+        _store.put(path, JSONValue.toJSONString(obj).getBytes(StandardCharsets.UTF_8));
     }
     
     public void delete(String path) {
-        path = "/" + path;
-        try {
-            _curator.delete().forPath(path);
-        } catch (KeeperException.NoNodeException nne){
-           LOG.warn("Path {} already deleted.");
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        _store.delete(path);
         LOG.debug("Deleted [path = {}]", path);
     }
     
     public List<String> list(String path) {
-        path = "/" + path;
-        try {
-            List<String> children;
-            if(_curator.checkExists().forPath(path)==null) {
-                children = new ArrayList<>();
-            } else {
-                children = _curator.getChildren().forPath(path);
-            }
-            LOG.debug("List [path = {}], [children = {}]", path, children);
-            return children;
-        } catch(Exception e) {
-            throw new RuntimeException(e);
-        }
+        List<String> children = _store.list(path);
+        LOG.debug("List [path = {}], [children = {}]", path, children);
+        return children;
     }
     
     public void mkdir(String path) {
@@ -166,30 +110,20 @@ public class TransactionalState {
     }
     
     public Object getData(String path) {
-        path = "/" + path;
-        try {
-            Object data;
-            if(_curator.checkExists().forPath(path)!=null) {
-                // intentionally using parse() instead of parseWithException() to handle error cases as null
-                // this have been used from the start of Trident so we could treat it as safer way
-                data = JSONValue.parse(new String(_curator.getData().forPath(path), "UTF-8"));
-            } else {
-                data = null;
-            }
-            LOG.debug("Get. [path = {}] => [data = {}]", path, data);
-            return data;
-        } catch(Exception e) {
-            throw new RuntimeException(e);
-        }
+        byte[] ser = _store.get(path);
+        // intentionally using parse() instead of parseWithException() to handle error cases as null
+        // this have been used from the start of Trident so we could treat it as safer way
+        Object data = ser == null ? null : JSONValue.parse(new String(ser, StandardCharsets.UTF_8));
+        LOG.debug("Get. [path = {}] => [data = {}]", path, data);
+        return data;
     }
     
     public void close() {
-        _curator.close();
+        _store.close();
     }
-    
-    private Object getWithBackup(Map amap, Object primary, Object backup) {
-        Object ret = amap.get(primary);
-        if(ret==null) return amap.get(backup);
-        return ret;
+
+    @Override
+    public String toString() {
+        return "TransactionalState{_store=" + _store + "}";
     }
 }
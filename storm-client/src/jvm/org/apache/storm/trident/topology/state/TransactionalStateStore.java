@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.topology.state;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where a {@link TransactionalState} keeps its data: the coordinator and spout metadata of every Trident batch.
+ * Chosen with {@link org.apache.storm.Config#TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE}, ZooKeeper by default.
+ *
+ * <p>The store is a tree of nodes like ZooKeeper's, addressed by paths such as {@code "meta/12"} that are relative to
+ * the root of the state and have no leading slash. Every node can hold data and have children; writing a node
+ * implicitly makes its parents exist. The tasks of a topology that use the same state id may run in different
+ * workers on different hosts, so an implementation has to make the data of one task visible to the others. At any
+ * time a top level node and everything below it is only written by a single task.
+ */
+public interface TransactionalStateStore {
+    /**
+     * Open the store of a state.
+     * @param conf the topology configuration
+     * @param id the id of the state, unique within the topology
+     * @param subroot separates the states of coordinators and spouts that share the same id
+     */
+    void prepare(Map<String, Object> conf, String id, String subroot);
+
+    /**
+     * Create or overwrite the data of a node.
+     */
+    void put(String path, byte[] data);
+
+    /**
+     * Get the data of a node.
+     * @return the data or null if the node does not exist.
+     */
+    byte[] get(String path);
+
+    /**
+     * List the names of the children of a node, {@code ""} for the root.
+     * @return the names, relative to path, or an empty list if the node does not exist.
+     */
+    List<String> list(String path);
+
+    /**
+     * Delete a node. Deleting a node that does not exist does nothing.
+     */
+    void delete(String path);
+
+    void close();
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.topology.state;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.storm.Config;
+import org.apache.storm.utils.CuratorUtils;
+import org.apache.storm.utils.Utils;
+import org.apache.storm.utils.ZookeeperAuthInfo;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.ACL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps transactional state in ZooKeeper under {@link Config#TRANSACTIONAL_ZOOKEEPER_ROOT}, one znode per path.
+ */
+public class ZkTransactionalStateStore implements TransactionalStateStore {
+    private static final Logger LOG = LoggerFactory.getLogger(ZkTransactionalStateStore.class);
+
+    private CuratorFramework curator;
+    private List<ACL> zkAcls = null;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void prepare(Map<String, Object> conf, String id, String subroot) {
+        try {
+            conf = new HashMap<>(conf);
+            String transactionalRoot = (String) conf.get(Config.TRANSACTIONAL_ZOOKEEPER_ROOT);
+            String rootDir = transactionalRoot + "/" + id + "/" + subroot;
+            List<String> servers = (List<String>) getWithBackup(conf, Config.TRANSACTIONAL_ZOOKEEPER_SERVERS,
+                                                                Config.STORM_ZOOKEEPER_SERVERS);
+            Object port = getWithBackup(conf, Config.TRANSACTIONAL_ZOOKEEPER_PORT, Config.STORM_ZOOKEEPER_PORT);
+            ZookeeperAuthInfo auth = new ZookeeperAuthInfo(conf);
+            CuratorFramework initter = CuratorUtils.newCuratorStarted(conf, servers, port, auth);
+            zkAcls = Utils.getWorkerACL(conf);
+            try {
+                TransactionalState.createNode(initter, transactionalRoot, null, null, null);
+            } catch (KeeperException.NodeExistsException e) {
+                // already created by another task
+            }
+            try {
+                TransactionalState.createNode(initter, rootDir, null, zkAcls, null);
+            } catch (KeeperException.NodeExistsException e) {
+                // already created by another task
+            }
+            initter.close();
+
+            curator = CuratorUtils.newCuratorStarted(conf, servers, port, rootDir, auth);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void put(String path, byte[] data) {
+        path = "/" + path;
+        try {
+            // overwriting is the common case, so try that first and only create the node if it is missing
+            try {
+                curator.setData().forPath(path, data);
+            } catch (KeeperException.NoNodeException e) {
+                TransactionalState.createNode(curator, path, data, zkAcls, CreateMode.PERSISTENT);
+            }
+        } catch (KeeperException.NodeExistsException nne) {
+            LOG.warn("Node {} already created.", path);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public byte[] get(String path) {
+        path = "/" + path;
+        try {
+            return curator.getData().forPath(path);
+        } catch (KeeperException.NoNodeException e) {
+            return null;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<String> list(String path) {
+        path = "/" + path;
+        try {
+            return curator.getChildren().forPath(path);
+        } catch (KeeperException.NoNodeException e) {
+            return new ArrayList<>();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void delete(String path) {
+        path = "/" + path;
+        try {
+            curator.delete().forPath(path);
+        } catch (KeeperException.NoNodeException nne) {
+            LOG.warn("Path {} already deleted.", path);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        curator.close();
+    }
+
+    private static Object getWithBackup(Map<String, Object> conf, String primary, String backup) {
+        Object ret = conf.get(primary);
+        if (ret == null) {
+            return conf.get(backup);
+        }
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        return "ZkTransactionalStateStore{curator=" + curator + "}";
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.tuple;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.storm.trident.tuple.TridentTupleView.ProjectionFactory;
+import org.apache.storm.tuple.Fields;
+
+/**
+ * The tuples of a batch (or part of one) laid out as one column of values per field.
+ *
+ * <p>Columns are filled in on first access, straight from the parent tuples when the batch was built from a projection,
+ * so a vectorized operation never has to resolve a field per value. {@link TridentTuple} views of the rows are only
+ * created for code that asks for them through {@link #getTuple(int)}.
+ */
+public class ColumnarBatch {
+    private final Fields _fields;
+    private final List<TridentTuple> _rows;
+    private final ProjectionFactory _projection;
+    private final Object[][] _columns;
+
+    /**
+     * Creates a batch of the projection of some parent tuples.
+     * @param projection the projection of the parent tuples that makes up the rows of this batch
+     * @param parents the parent tuples, in order
+     */
+    public ColumnarBatch(ProjectionFactory projection, List<TridentTuple> parents) {
+        this(new Fields(projection.getOutputFields()), parents, projection);
+    }
+
+    /**
+     * Creates a batch of some tuples.
+     * @param fields the fields of the tuples
+     * @param tuples the tuples, in order
+     */
+    public ColumnarBatch(Fields fields, List<TridentTuple> tuples) {
+        this(fields, tuples, null);
+    }
+
+    private ColumnarBatch(Fields fields, List<TridentTuple> rows, ProjectionFactory projection) {
+        _fields = fields;
+        _rows = rows;
+        _projection = projection;
+        _columns = new Object[fields.size()][];
+    }
+
+    /**
+     * A batch with a single row.
+     */
+    public static ColumnarBatch of(TridentTuple tuple) {
+        return new ColumnarBatch(tuple.getFields(), Collections.singletonList(tuple));
+    }
+
+    public int size() {
+        return _rows.size();
+    }
+
+    public Fields getFields() {
+        return _fields;
+    }
+
+    /**
+     * The values of a field, indexed by row.
+     */
+    public Object[] getColumn(int field) {
+        Object[] column = _columns[field];
+        if (column == null) {
+            column = new Object[_rows.size()];
+            for (int row = 0; row < column.length; row++) {
+                TridentTuple tuple = _rows.get(row);
+                column[row] = _projection == null ? tuple.getValue(field) : _projection.getValue(tuple, field);
+            }
+            _columns[field] = column;
+        }
+        return column;
+    }
+
+    public Object[] getColumn(String field) {
+        return getColumn(_fields.fieldIndex(field));
+    }
+
+    public Object getValue(int row, int field) {
+        return getColumn(field)[row];
+    }
+
+    /**
+     * A {@link TridentTuple} view of one row, for code that works on single tuples.
+     */
+    public TridentTuple getTuple(int row) {
+        TridentTuple tuple = _rows.get(row);
+        return _projection == null ? tuple : _projection.create(tuple);
+    }
+}
@@ -57,6 +57,13 @@ public class TridentTupleView extends AbstractList<Object> implements TridentTup
             else return new TridentTupleView(((TridentTupleView)parent)._delegates, _index, _fieldIndex);
         }
 
+        /**
+         * The value of the i-th projected field of parent, without creating the projected tuple.
+         */
+        public Object getValue(TridentTuple parent, int i) {
+            return ((TridentTupleView) parent).getValueByPointer(_index[i]);
+        }
+
         @Override
         public Map<String, ValuePointer> getFieldIndex() {
             return _fieldIndex;
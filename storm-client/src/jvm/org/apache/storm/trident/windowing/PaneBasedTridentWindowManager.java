@@ -0,0 +1,316 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.trident.windowing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.storm.topology.FailedException;
+import org.apache.storm.trident.operation.CombinerAggregator;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.trident.windowing.AbstractTridentWindowManager.TriggerResult;
+import org.apache.storm.trident.windowing.config.SlidingCountWindow;
+import org.apache.storm.trident.windowing.config.SlidingDurationWindow;
+import org.apache.storm.trident.windowing.config.TumblingCountWindow;
+import org.apache.storm.trident.windowing.config.TumblingDurationWindow;
+import org.apache.storm.trident.windowing.config.WindowConfig;
+import org.apache.storm.tuple.Values;
+import org.apache.storm.windowing.AggregateWindow;
+import org.apache.storm.windowing.PaneWindowManager;
+import org.apache.storm.windowing.WindowAggregator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This {@code ITridentWindowManager} folds the tuples of each batch into per pane partial aggregates of a
+ * {@link CombinerAggregator} with a {@link PaneWindowManager} and keeps only those aggregates in the
+ * {@code WindowsStore}, instead of every tuple of the window.
+ *
+ * <p>After each batch the panes it changed and the position of the windows are written with a single
+ * {@link WindowsStore#putAll(java.util.Collection)}, and expired panes are removed. A trigger merges the panes of the
+ * window in memory, so store I/O per trigger does not depend on the number of tuples in the window. On restart the
+ * panes and the position are loaded back from the store.
+ *
+ * <p>Only count and duration based sliding and tumbling windows are supported.
+ */
+public class PaneBasedTridentWindowManager implements ITridentWindowManager {
+    private static final Logger LOG = LoggerFactory.getLogger(PaneBasedTridentWindowManager.class);
+
+    private static final String PANE_PREFIX = "pa" + WindowsStore.KEY_SEPARATOR;
+    private static final String POSITION_PREFIX = "po" + WindowsStore.KEY_SEPARATOR;
+
+    private final String windowTaskId;
+    private final WindowsStore windowStore;
+    private final long slidingInterval;
+    private final String windowPaneTaskId;
+    private final String windowPositionId;
+    private final String windowTriggerCountId;
+    private final PaneWindowManager<TridentTuple, Object, Object> paneWindowManager;
+
+    private final Queue<TriggerResult> pendingTriggers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger triggerId = new AtomicInteger();
+    // panes changed or expired since the last batch, guarded by paneWindowManager
+    private final Map<Long, Object> updatedPanes = new LinkedHashMap<>();
+    private final Set<Long> expiredPanes = new HashSet<>();
+
+    private ScheduledExecutorService triggerExecutor;
+    private ScheduledFuture<?> triggerFuture;
+
+    /**
+     * Create a window manager that aggregates the windows of {@code windowConfig} with the given combiner.
+     */
+    public PaneBasedTridentWindowManager(WindowConfig windowConfig, String windowTaskId, WindowsStore windowStore,
+                                         CombinerAggregator aggregator) {
+        this.windowTaskId = windowTaskId;
+        this.windowStore = windowStore;
+        this.slidingInterval = windowConfig.getSlidingLength();
+        windowPaneTaskId = PANE_PREFIX + windowTaskId;
+        windowPositionId = POSITION_PREFIX + windowTaskId;
+        windowTriggerCountId = WindowTridentProcessor.TRIGGER_COUNT_PREFIX + windowTaskId;
+
+        CombinerWindowAggregator windowAggregator = new CombinerWindowAggregator(aggregator);
+        if (isCountWindow(windowConfig)) {
+            paneWindowManager = PaneWindowManager.countWindows(windowAggregator, this::onWindow,
+                                                               windowConfig.getWindowLength(), windowConfig.getSlidingLength());
+        } else if (isDurationWindow(windowConfig)) {
+            paneWindowManager = PaneWindowManager.timeWindows(windowAggregator, this::onWindow,
+                                                              windowConfig.getWindowLength(), windowConfig.getSlidingLength());
+        } else {
+            throw new IllegalArgumentException("Windows of type " + windowConfig.getClass().getSimpleName()
+                                               + " can not be aggregated incrementally");
+        }
+        paneWindowManager.setPaneListener(new PaneWindowManager.PaneListener<Object>() {
+            @Override
+            public void onPaneUpdate(long paneId, Object accumulator) {
+                updatedPanes.put(paneId, accumulator);
+            }
+
+            @Override
+            public void onPaneExpiry(long paneId) {
+                updatedPanes.remove(paneId);
+                expiredPanes.add(paneId);
+            }
+        });
+    }
+
+    /**
+     * Whether windows of the given configuration can be aggregated incrementally by this manager.
+     */
+    public static boolean supports(WindowConfig windowConfig) {
+        return isCountWindow(windowConfig) || isDurationWindow(windowConfig);
+    }
+
+    private static boolean isCountWindow(WindowConfig windowConfig) {
+        return windowConfig instanceof TumblingCountWindow || windowConfig instanceof SlidingCountWindow;
+    }
+
+    private static boolean isDurationWindow(WindowConfig windowConfig) {
+        return windowConfig instanceof TumblingDurationWindow || windowConfig instanceof SlidingDurationWindow;
+    }
+
+    @Override
+    public void prepare() {
+        Object count = windowStore.get(windowTriggerCountId);
+        int currentCount = count == null ? 0 : (Integer) count + 1;
+        windowStore.put(windowTriggerCountId, currentCount);
+        triggerId.set(currentCount);
+
+        restore();
+
+        if (!paneWindowManager.isCountBased()) {
+            triggerExecutor = Executors.newSingleThreadScheduledExecutor();
+            triggerFuture = triggerExecutor.scheduleAtFixedRate(() -> {
+                try {
+                    // do not process current timestamp since tuples might arrive while the trigger is executing
+                    paneWindowManager.advance(System.currentTimeMillis() - 1);
+                } catch (Throwable th) {
+                    LOG.error("Evaluating the window failed ", th);
+                    throw th;
+                }
+            }, slidingInterval - System.currentTimeMillis() % slidingInterval, slidingInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void restore() {
+        String windowTriggerTaskId = WindowTridentProcessor.getWindowTriggerTaskPrefix(windowTaskId);
+        String windowTriggerInprocessId = WindowTridentProcessor.getWindowTriggerInprocessIdPrefix(windowTaskId);
+        List<String> paneKeys = new ArrayList<>();
+        List<String> triggerKeys = new ArrayList<>();
+        List<String> attemptedTriggerKeys = new ArrayList<>();
+        for (String key : windowStore.getAllKeys()) {
+            if (key.startsWith(windowPaneTaskId)) {
+                paneKeys.add(key);
+            } else if (key.startsWith(windowTriggerTaskId)) {
+                triggerKeys.add(key);
+            } else if (key.startsWith(windowTriggerInprocessId)) {
+                attemptedTriggerKeys.add(key);
+            }
+        }
+
+        Object position = windowStore.get(windowPositionId);
+        if (position != null) {
+            SortedMap<Long, Object> panes = new TreeMap<>();
+            int i = 0;
+            for (Object pane : windowStore.get(paneKeys)) {
+                panes.put(Long.parseLong(paneKeys.get(i++).substring(windowPaneTaskId.length())), ((List<?>) pane).get(0));
+            }
+            LOG.info("Restoring {} panes at position {} from windows store", panes.size(), position);
+            paneWindowManager.restore((Long) position, panes);
+        }
+
+        // triggers of batches that were in process are emitted again as part of the batch retries
+        Set<Integer> triggersToBeIgnored = new HashSet<>();
+        for (Object attemptedTrigger : windowStore.get(attemptedTriggerKeys)) {
+            triggersToBeIgnored.addAll((List<Integer>) attemptedTrigger);
+        }
+        List<TriggerResult> triggers = new ArrayList<>();
+        int i = 0;
+        for (Object triggerObject : windowStore.get(triggerKeys)) {
+            String key = triggerKeys.get(i++);
+            int id = Integer.parseInt(key.substring(windowTriggerTaskId.length()));
+            if (!triggersToBeIgnored.contains(id)) {
+                LOG.info("Adding pending trigger value [{}]", triggerObject);
+                triggers.add(new TriggerResult(id, (List<List<Object>>) triggerObject));
+            }
+        }
+        triggers.sort(Comparator.comparingInt(trigger -> trigger.id));
+        pendingTriggers.addAll(triggers);
+    }
+
+    @Override
+    public void addTuplesBatch(Object batchId, List<TridentTuple> tuples) {
+        LOG.debug("Adding tuples to pane window manager for batch: [{}]", batchId);
+        checkTriggerFailures();
+        synchronized (paneWindowManager) {
+            long now = System.currentTimeMillis();
+            for (TridentTuple tuple : tuples) {
+                paneWindowManager.add(tuple, now);
+            }
+            List<WindowsStore.Entry> entries = new ArrayList<>();
+            for (Map.Entry<Long, Object> pane : updatedPanes.entrySet()) {
+                entries.add(new WindowsStore.Entry(paneKey(pane.getKey()), new Values(pane.getValue())));
+            }
+            entries.add(new WindowsStore.Entry(windowPositionId, paneWindowManager.getPosition()));
+            windowStore.putAll(entries);
+            if (!expiredPanes.isEmpty()) {
+                List<String> keys = new ArrayList<>();
+                for (Long paneId : expiredPanes) {
+                    keys.add(paneKey(paneId));
+                }
+                windowStore.removeAll(keys);
+            }
+            updatedPanes.clear();
+            expiredPanes.clear();
+        }
+    }
+
+    private String paneKey(long paneId) {
+        return windowPaneTaskId + paneId;
+    }
+
+    private void checkTriggerFailures() {
+        if (triggerFuture != null && triggerFuture.isDone()) {
+            try {
+                triggerFuture.get();
+            } catch (InterruptedException ex) {
+                throw new FailedException(ex);
+            } catch (ExecutionException ex) {
+                throw new FailedException(ex.getCause());
+            }
+        }
+    }
+
+    private void onWindow(AggregateWindow<Object> window) {
+        int currentTriggerId = triggerId.incrementAndGet();
+        List<List<Object>> result = new ArrayList<>();
+        result.add(new Values(window.get()));
+        List<WindowsStore.Entry> entries = new ArrayList<>();
+        entries.add(new WindowsStore.Entry(windowTriggerCountId, currentTriggerId + 1));
+        entries.add(new WindowsStore.Entry(WindowTridentProcessor.generateWindowTriggerKey(windowTaskId, currentTriggerId), result));
+        windowStore.putAll(entries);
+        pendingTriggers.add(new TriggerResult(currentTriggerId, result));
+    }
+
+    @Override
+    public Queue<TriggerResult> getPendingTriggers() {
+        return pendingTriggers;
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            LOG.info("pane window manager [{}] is being shutdown", paneWindowManager);
+            if (triggerExecutor != null) {
+                triggerExecutor.shutdownNow();
+            }
+        } finally {
+            LOG.info("window store [{}] is being shutdown", windowStore);
+            windowStore.shutdown();
+        }
+    }
+
+    /**
+     * Adapts a {@link CombinerAggregator} to the pane accumulators. Like the combiner stage of a Trident aggregation, a
+     * null accumulator stands for no value yet.
+     */
+    private static class CombinerWindowAggregator implements WindowAggregator<TridentTuple, Object, Object> {
+        private final CombinerAggregator aggregator;
+
+        CombinerWindowAggregator(CombinerAggregator aggregator) {
+            this.aggregator = aggregator;
+        }
+
+        @Override
+        public Object init() {
+            return aggregator.zero();
+        }
+
+        @Override
+        public Object add(Object accumulator, TridentTuple event) {
+            return merge(accumulator, aggregator.init(event));
+        }
+
+        @Override
+        public Object merge(Object accumulator, Object other) {
+            if (accumulator == null) {
+                return other;
+            }
+            return other == null ? accumulator : aggregator.combine(accumulator, other);
+        }
+
+        @Override
+        public Object result(Object accumulator) {
+            return accumulator;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.storm.trident.windowing;
 import org.apache.storm.Config;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.trident.operation.Aggregator;
+import org.apache.storm.trident.operation.CombinerAggregator;
 import org.apache.storm.trident.planner.ProcessorContext;
 import org.apache.storm.trident.planner.TridentProcessor;
 import org.apache.storm.trident.planner.processor.FreshCollector;
@@ -58,6 +59,7 @@ public class WindowTridentProcessor implements TridentProcessor {
     private final String windowId;
     private final Fields inputFields;
     private final Aggregator aggregator;
+    private final CombinerAggregator combinerAggregator;
     private final boolean storeTuplesInStore;
 
     private String windowTriggerInprocessId;
@@ -80,9 +82,25 @@ public class WindowTridentProcessor implements TridentProcessor {
         this.windowStoreFactory = windowStoreFactory;
         this.inputFields = inputFields;
         this.aggregator = aggregator;
+        this.combinerAggregator = null;
         this.storeTuplesInStore = storeTuplesInStore;
     }
 
+    /**
+     * Creates a processor for windows that are aggregated incrementally with the given {@code CombinerAggregator}, only
+     * the per pane partial aggregates are kept in the windows store.
+     */
+    public WindowTridentProcessor(WindowConfig windowConfig, String uniqueWindowId, WindowsStoreFactory windowStoreFactory,
+                                  Fields inputFields, CombinerAggregator combinerAggregator) {
+        this.windowConfig = windowConfig;
+        this.windowId = uniqueWindowId;
+        this.windowStoreFactory = windowStoreFactory;
+        this.inputFields = inputFields;
+        this.aggregator = null;
+        this.combinerAggregator = combinerAggregator;
+        this.storeTuplesInStore = false;
+    }
+
     @Override
     public void prepare(Map<String, Object> topoConf, TopologyContext context, TridentContext tridentContext) {
         this.topologyContext = context;
@@ -101,9 +119,13 @@ public class WindowTridentProcessor implements TridentProcessor {
         windowTaskId = windowId + WindowsStore.KEY_SEPARATOR + topologyContext.getThisTaskId() + WindowsStore.KEY_SEPARATOR;
         windowTriggerInprocessId = getWindowTriggerInprocessIdPrefix(windowTaskId);
 
-        tridentWindowManager = storeTuplesInStore ?
-                new StoreBasedTridentWindowManager(windowConfig, windowTaskId, windowStore, aggregator, tridentContext.getDelegateCollector(), maxTuplesCacheSize, inputFields)
-                : new InMemoryTridentWindowManager(windowConfig, windowTaskId, windowStore, aggregator, tridentContext.getDelegateCollector());
+        if (combinerAggregator != null) {
+            tridentWindowManager = new PaneBasedTridentWindowManager(windowConfig, windowTaskId, windowStore, combinerAggregator);
+        } else {
+            tridentWindowManager = storeTuplesInStore ?
+                    new StoreBasedTridentWindowManager(windowConfig, windowTaskId, windowStore, aggregator, tridentContext.getDelegateCollector(), maxTuplesCacheSize, inputFields)
+                    : new InMemoryTridentWindowManager(windowConfig, windowTaskId, windowStore, aggregator, tridentContext.getDelegateCollector());
+        }
 
         tridentWindowManager.prepare();
     }
@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.storm.trident.windowing.config;
+
+import org.apache.storm.topology.base.BaseWindowedBolt;
+import org.apache.storm.trident.windowing.strategy.SessionWindowStrategy;
+import org.apache.storm.trident.windowing.strategy.WindowStrategy;
+
+/**
+ * Represents session window configuration. A window is emitted once no tuple has arrived for the given {@code gap}
+ * duration. Sessions are tracked in processing time for each partition of the windowed stream.
+ */
+public final class SessionWindow extends BaseWindowConfig {
+
+    private SessionWindow(int gap) {
+        super(gap, gap);
+    }
+
+    @Override
+    public <T> WindowStrategy<T> getWindowStrategy() {
+        return new SessionWindowStrategy<>(this);
+    }
+
+    public static SessionWindow of(BaseWindowedBolt.Duration gap) {
+        return new SessionWindow(gap.value);
+    }
+}
@@ -52,6 +52,7 @@ public interface WindowConfig extends Serializable {
         SLIDING_COUNT,
         TUMBLING_COUNT,
         SLIDING_DURATION,
-        TUMBLING_DURATION
+        TUMBLING_DURATION,
+        SESSION
     }
 }
@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.storm.trident.windowing.strategy;
+
+import org.apache.storm.trident.windowing.config.WindowConfig;
+import org.apache.storm.windowing.EvictionPolicy;
+import org.apache.storm.windowing.SessionEvictionPolicy;
+import org.apache.storm.windowing.SessionTriggerPolicy;
+import org.apache.storm.windowing.TriggerHandler;
+import org.apache.storm.windowing.TriggerPolicy;
+
+/**
+ * This class represents session window strategy based on the gap duration from the given {@code sessionWindow}
+ * configuration. A window is triggered once no tuple has arrived for the gap duration.
+ */
+public final class SessionWindowStrategy<T> extends BaseWindowStrategy<T> {
+
+    public SessionWindowStrategy(WindowConfig sessionWindow) {
+        super(sessionWindow);
+    }
+
+    /**
+     * Returns a {@code TriggerPolicy} which triggers once no tuple has arrived for the gap duration.
+     *
+     * @param triggerHandler
+     * @param evictionPolicy
+     * @return
+     */
+    @Override
+    public TriggerPolicy<T> getTriggerPolicy(TriggerHandler triggerHandler, EvictionPolicy<T> evictionPolicy) {
+        return new SessionTriggerPolicy<>(windowConfig.getWindowLength(), triggerHandler, evictionPolicy);
+    }
+
+    /**
+     * Returns an {@code EvictionPolicy} instance which processes the tuples of the session that just ended and
+     * expires those of the previous one.
+     *
+     * @return
+     */
+    @Override
+    public EvictionPolicy<T> getEvictionPolicy() {
+        return new SessionEvictionPolicy<>();
+    }
+}
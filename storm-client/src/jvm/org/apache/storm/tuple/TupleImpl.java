@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.apache.storm.generated.GlobalStreamId;
 import org.apache.storm.task.GeneralTopologyContext;
+import org.apache.storm.tracing.TraceContext;
 
 public class TupleImpl implements Tuple {
     private final List<Object> values;
@@ -32,6 +33,7 @@ public class TupleImpl implements Tuple {
     private Long _processSampleStartTime;
     private Long _executeSampleStartTime;
     private long _outAckVal = 0;
+    private TraceContext _traceContext;
     
     public TupleImpl(Tuple t) {
         this.values = t.getValues();
@@ -44,6 +46,7 @@ public class TupleImpl implements Tuple {
             this._processSampleStartTime = ti._processSampleStartTime;
             this._executeSampleStartTime = ti._executeSampleStartTime;
             this._outAckVal = ti._outAckVal;
+            this._traceContext = ti._traceContext;
         }
     }
 
@@ -83,6 +86,17 @@ public class TupleImpl implements Tuple {
     public Long getExecuteSampleStartTime() {
         return _executeSampleStartTime;
     }
+
+    public void setTraceContext(TraceContext traceContext) {
+        _traceContext = traceContext;
+    }
+
+    /**
+     * @return the trace this tuple belongs to or null if it is not traced.
+     */
+    public TraceContext getTraceContext() {
+        return _traceContext;
+    }
     
     public void updateAckVal(long val) {
         _outAckVal = _outAckVal ^ val;
@@ -29,6 +29,13 @@ public class WindowedTimeThrottler {
         _windowStartTime = System.currentTimeMillis();
     }
     
+    /**
+     * Change the length of the window, taking effect for the current window.
+     */
+    public void setWindowMillis(Number windowMillis) {
+        _windowMillis = windowMillis.longValue();
+    }
+
     public boolean isThrottled() {
         resetIfNecessary();
         return _windowEvents >= _maxAmt;
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+/**
+ * The result of an incrementally aggregated window.
+ *
+ * @param <R> the type of the result
+ */
+public class AggregateWindow<R> {
+    private final Object key;
+    private final R result;
+    private final Long startTimestamp;
+    private final Long endTimestamp;
+
+    public AggregateWindow(R result, Long startTimestamp, Long endTimestamp) {
+        this(null, result, startTimestamp, endTimestamp);
+    }
+
+    public AggregateWindow(Object key, R result, Long startTimestamp, Long endTimestamp) {
+        this.key = key;
+        this.result = result;
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+    }
+
+    /**
+     * Returns the key of a session window, or null for other windows.
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the aggregated value of the events in the window.
+     */
+    public R get() {
+        return result;
+    }
+
+    /**
+     * Returns the window start timestamp, or null if the window is count based.
+     */
+    public Long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    /**
+     * Returns the window end timestamp, or null if the window is count based.
+     */
+    public Long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregateWindow{"
+            + "key=" + key
+            + ", result=" + result
+            + ", startTimestamp=" + startTimestamp
+            + ", endTimestamp=" + endTimestamp
+            + '}';
+    }
+}
@@ -54,6 +54,20 @@ public class CountEvictionPolicy<T> implements EvictionPolicy<T> {
         return Action.PROCESS;
     }
 
+    @Override
+    public Action evictAll(int count, long minTs, long maxTs) {
+        while (true) {
+            long curVal = currentCount.get();
+            if (curVal - count >= threshold) {
+                if (currentCount.compareAndSet(curVal, curVal - count)) {
+                    return Action.EXPIRE;
+                }
+            } else {
+                return curVal <= threshold ? Action.PROCESS : null;
+            }
+        }
+    }
+
     @Override
     public void track(Event<T> event) {
         if (!event.isWatermark()) {
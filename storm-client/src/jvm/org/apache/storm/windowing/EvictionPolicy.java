@@ -56,6 +56,20 @@ public interface EvictionPolicy<T> {
      */
     Action evict(Event<T> event);
 
+    /**
+     * Decides about a run of consecutive events at once, so that a store can expire or process them without reading
+     * them. This is the same as calling {@link EvictionPolicy#evict(Event)} for each of the events in turn, except
+     * that if the events would not all get the same action null is returned and nothing is changed.
+     *
+     * @param count the number of events
+     * @param minTs the earliest timestamp of the events
+     * @param maxTs the latest timestamp of the events
+     * @return the action to be taken for all of the events, or null if they have to be evicted one by one
+     */
+    default Action evictAll(int count, long minTs, long maxTs) {
+        return null;
+    }
+
     /**
      * Tracks the event to later decide whether
      * {@link EvictionPolicy#evict(Event)} should evict it or not.
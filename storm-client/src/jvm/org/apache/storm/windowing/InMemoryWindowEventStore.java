@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@link WindowEventStore} that keeps all the events on the heap.
+ *
+ * @param <T> the type of event in the window.
+ */
+public class InMemoryWindowEventStore<T> implements WindowEventStore<T> {
+    private final ConcurrentLinkedQueue<Event<T>> queue = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void add(Event<T> event) {
+        queue.add(event);
+    }
+
+    @Override
+    public Iterator<Event<T>> iterator() {
+        return queue.iterator();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,343 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates sliding and tumbling windows incrementally with a {@link WindowAggregator}.
+ *
+ * <p>The stream is cut into panes whose size is the greatest common divisor of the window length and the sliding
+ * interval, so that every window is made up of whole panes. Each event is folded into the accumulator of its pane
+ * right away and then dropped; a window is evaluated by merging the accumulators of its panes (or, if the aggregator
+ * is retractable, by updating a running accumulator with the panes that entered and left the window). Memory and
+ * per trigger work are therefore proportional to the number of panes in a window instead of the number of events.
+ *
+ * <p>Time based windows are aligned to multiples of the sliding interval and are evaluated from {@link #advance(long)},
+ * either with the current time or with a watermark. Count based windows are evaluated every sliding interval events.
+ *
+ * <p>Panes are identified by their start timestamp for time based windows and by their sequence number for count
+ * based windows. A {@link PaneListener} is told about every pane that changes or expires, which together with
+ * {@link #getPosition()} is enough to persist the manager and {@link #restore(long, SortedMap)} it later.
+ *
+ * @param <T> the type of the events
+ * @param <A> the type of the accumulator
+ * @param <R> the type of the result
+ */
+public class PaneWindowManager<T, A, R> {
+    private static final Logger LOG = LoggerFactory.getLogger(PaneWindowManager.class);
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final WindowAggregator<T, A, R> aggregator;
+    private final Consumer<AggregateWindow<R>> listener;
+    private final boolean countBased;
+    private final long windowLength;
+    private final long slidingInterval;
+    private final long paneSize;
+    private final boolean retractable;
+    // time based windows, pane start ts -> accumulator
+    private final TreeMap<Long, A> panes = new TreeMap<>();
+    private long nextWindowEnd = UNSET;
+    // count based windows
+    private final ArrayDeque<A> closedPanes = new ArrayDeque<>();
+    private A openPane;
+    private long openPaneEvents;
+    private long events;
+    private long eventsSinceTrigger;
+    // the accumulator of the next window to be evaluated, only kept for retractable aggregators
+    private A running;
+    private PaneListener<A> paneListener;
+
+    /**
+     * Receives the accumulators of the panes as they change and expire.
+     */
+    public interface PaneListener<A> {
+        /**
+         * Called after an event was folded into a pane.
+         */
+        void onPaneUpdate(long paneId, A accumulator);
+
+        /**
+         * Called once a pane is no longer part of any window that is yet to be evaluated.
+         */
+        void onPaneExpiry(long paneId);
+    }
+
+    private PaneWindowManager(WindowAggregator<T, A, R> aggregator, Consumer<AggregateWindow<R>> listener,
+                              boolean countBased, long windowLength, long slidingInterval) {
+        if (windowLength <= 0 || slidingInterval <= 0) {
+            throw new IllegalArgumentException("Window length " + windowLength + " and sliding interval "
+                                               + slidingInterval + " must be positive");
+        }
+        this.aggregator = aggregator;
+        this.listener = listener;
+        this.countBased = countBased;
+        this.windowLength = windowLength;
+        this.slidingInterval = slidingInterval;
+        this.paneSize = gcd(windowLength, slidingInterval);
+        this.retractable = aggregator.isRetractable();
+        this.running = retractable ? aggregator.init() : null;
+    }
+
+    /**
+     * Creates a manager for windows whose length and sliding interval are event counts.
+     */
+    public static <T, A, R> PaneWindowManager<T, A, R> countWindows(WindowAggregator<T, A, R> aggregator,
+                                                                    Consumer<AggregateWindow<R>> listener,
+                                                                    int windowLength, int slidingInterval) {
+        return new PaneWindowManager<>(aggregator, listener, true, windowLength, slidingInterval);
+    }
+
+    /**
+     * Creates a manager for windows whose length and sliding interval are durations in milliseconds.
+     */
+    public static <T, A, R> PaneWindowManager<T, A, R> timeWindows(WindowAggregator<T, A, R> aggregator,
+                                                                   Consumer<AggregateWindow<R>> listener,
+                                                                   long windowLengthMs, long slidingIntervalMs) {
+        return new PaneWindowManager<>(aggregator, listener, false, windowLengthMs, slidingIntervalMs);
+    }
+
+    static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    public boolean isCountBased() {
+        return countBased;
+    }
+
+    /**
+     * The sliding interval, an event count for count based windows and milliseconds otherwise.
+     */
+    public long getSlidingInterval() {
+        return slidingInterval;
+    }
+
+    public long getPaneSize() {
+        return paneSize;
+    }
+
+    public synchronized void setPaneListener(PaneListener<A> paneListener) {
+        this.paneListener = paneListener;
+    }
+
+    /**
+     * Returns how far the windows have progressed: the number of events added so far for count based windows, the end
+     * of the next window to be evaluated (or {@link Long#MIN_VALUE} if there is none yet) for time based windows.
+     */
+    public synchronized long getPosition() {
+        return countBased ? events : nextWindowEnd;
+    }
+
+    /**
+     * Restores the state of an earlier manager for the same windows. Must be called before any event is added.
+     *
+     * @param position the {@link #getPosition()} of the earlier manager
+     * @param restored the accumulators of the panes that had not expired yet, by pane id
+     */
+    public synchronized void restore(long position, SortedMap<Long, A> restored) {
+        if (countBased) {
+            long openPaneId = position / paneSize;
+            events = position;
+            openPaneEvents = position % paneSize;
+            eventsSinceTrigger = position % slidingInterval;
+            openPane = openPaneEvents == 0 ? null : restored.get(openPaneId);
+            closedPanes.addAll(restored.subMap(openPaneId - windowLength / paneSize, openPaneId).values());
+            if (retractable) {
+                running = mergeAll(closedPanes);
+            }
+        } else {
+            nextWindowEnd = position;
+            panes.putAll(restored);
+            if (retractable && position != UNSET) {
+                running = mergeAll(panes.subMap(position - windowLength, position).values());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pane accumulators currently held.
+     */
+    public synchronized int getPaneCount() {
+        if (countBased) {
+            return closedPanes.size() + (openPane == null ? 0 : 1);
+        }
+        return panes.size();
+    }
+
+    /**
+     * Tracks a window event. A watermark advances the time based windows up to its timestamp.
+     *
+     * @return false if the event is too late to be part of any window that is yet to be evaluated
+     */
+    public boolean add(Event<T> event) {
+        if (event.isWatermark()) {
+            LOG.debug("Got watermark event with ts {}", event.getTimestamp());
+            advance(event.getTimestamp());
+            return true;
+        }
+        return add(event.get(), event.getTimestamp());
+    }
+
+    /**
+     * Folds an event into its pane.
+     *
+     * @param event the event
+     * @param ts the event timestamp, ignored by count based windows
+     * @return false if the event is too late to be part of any window that is yet to be evaluated
+     */
+    public synchronized boolean add(T event, long ts) {
+        if (countBased) {
+            addToCountPane(event);
+            return true;
+        }
+        if (nextWindowEnd == UNSET) {
+            nextWindowEnd = firstWindowEndAfter(ts);
+        }
+        if (ts < nextWindowEnd - windowLength) {
+            // the windows that would have contained it are already evaluated, unless it falls in
+            // the gap between two windows whose length is smaller than their sliding interval
+            return ts >= nextWindowEnd - slidingInterval;
+        }
+        long paneStart = Math.floorDiv(ts, paneSize) * paneSize;
+        A pane = aggregator.add(panes.containsKey(paneStart) ? panes.get(paneStart) : aggregator.init(), event);
+        panes.put(paneStart, pane);
+        if (paneListener != null) {
+            paneListener.onPaneUpdate(paneStart, pane);
+        }
+        if (retractable && paneStart < nextWindowEnd) {
+            running = aggregator.add(running, event);
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates every time based window that ends at or before the given timestamp and drops the panes that
+     * are not part of any later window. This is a no-op for count based windows.
+     *
+     * @param ts the current time or the watermark
+     */
+    public synchronized void advance(long ts) {
+        if (countBased || nextWindowEnd == UNSET) {
+            return;
+        }
+        while (nextWindowEnd <= ts) {
+            long start = nextWindowEnd - windowLength;
+            NavigableMap<Long, A> window = panes.subMap(start, true, nextWindowEnd, false);
+            if (!window.isEmpty()) {
+                A acc = retractable ? running : mergeAll(window.values());
+                listener.accept(new AggregateWindow<>(aggregator.result(acc), start, nextWindowEnd));
+            }
+            slide(ts);
+        }
+    }
+
+    private void slide(long ts) {
+        long oldStart = nextWindowEnd - windowLength;
+        long oldEnd = nextWindowEnd;
+        long newEnd = oldEnd + slidingInterval;
+        long newStart = newEnd - windowLength;
+        if (retractable) {
+            for (A pane : panes.subMap(oldStart, true, Math.min(newStart, oldEnd), false).values()) {
+                running = aggregator.retract(running, pane);
+            }
+        }
+        NavigableMap<Long, A> expired = panes.headMap(newStart, false);
+        if (paneListener != null) {
+            for (Long paneId : expired.keySet()) {
+                paneListener.onPaneExpiry(paneId);
+            }
+        }
+        expired.clear();
+        if (panes.isEmpty()) {
+            // nothing to evaluate until new events arrive, skip the empty windows
+            nextWindowEnd = Math.max(newEnd, firstWindowEndAfter(ts));
+            running = retractable ? aggregator.init() : null;
+        } else if (panes.firstKey() >= newEnd) {
+            nextWindowEnd = firstWindowEndAfter(panes.firstKey());
+            running = retractable ? mergeAll(panes.subMap(nextWindowEnd - windowLength, nextWindowEnd).values()) : null;
+        } else {
+            nextWindowEnd = newEnd;
+            if (retractable) {
+                for (A pane : panes.subMap(Math.max(oldEnd, newStart), newEnd).values()) {
+                    running = aggregator.merge(running, pane);
+                }
+            }
+        }
+    }
+
+    private long firstWindowEndAfter(long ts) {
+        return (Math.floorDiv(ts, slidingInterval) + 1) * slidingInterval;
+    }
+
+    private void addToCountPane(T event) {
+        long paneId = events++ / paneSize;
+        openPane = aggregator.add(openPaneEvents == 0 ? aggregator.init() : openPane, event);
+        if (paneListener != null) {
+            paneListener.onPaneUpdate(paneId, openPane);
+        }
+        if (++openPaneEvents == paneSize) {
+            closedPanes.addLast(openPane);
+            if (retractable) {
+                running = aggregator.merge(running, openPane);
+            }
+            openPane = null;
+            openPaneEvents = 0;
+            if (closedPanes.size() > windowLength / paneSize) {
+                A expired = closedPanes.removeFirst();
+                if (paneListener != null) {
+                    paneListener.onPaneExpiry(paneId - closedPanes.size());
+                }
+                if (retractable) {
+                    running = aggregator.retract(running, expired);
+                }
+            }
+        }
+        if (++eventsSinceTrigger == slidingInterval) {
+            eventsSinceTrigger = 0;
+            A acc = retractable ? running : mergeAll(closedPanes);
+            listener.accept(new AggregateWindow<>(aggregator.result(acc), null, null));
+        }
+    }
+
+    private A mergeAll(Collection<A> accumulators) {
+        A acc = aggregator.init();
+        for (A pane : accumulators) {
+            acc = aggregator.merge(acc, pane);
+        }
+        return acc;
+    }
+
+    @Override
+    public String toString() {
+        return "PaneWindowManager{"
+            + "countBased=" + countBased
+            + ", windowLength=" + windowLength
+            + ", slidingInterval=" + slidingInterval
+            + ", paneSize=" + paneSize
+            + ", retractable=" + retractable
+            + '}';
+    }
+}
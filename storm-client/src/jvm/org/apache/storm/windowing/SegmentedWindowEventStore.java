@@ -0,0 +1,472 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link WindowEventStore} that keeps the most recent events on the heap and pages older ones out to local disk.
+ *
+ * <p>Events are appended to fixed size segments. Once more than {@code maxMemorySegments} segments are held in memory
+ * the oldest full segment is serialized to its own file and dropped from the heap. Iteration walks the segments in
+ * order and reads a spilled segment back only when it is reached, keeping at most one of them in memory. Expired
+ * events are only marked as removed; a segment is deleted as a whole once all of its events have expired.
+ *
+ * <p>Every event is given a sequence number in arrival order, which {@link WindowManager} uses to describe a window as
+ * ranges of the store instead of a list of events, see {@link #iterator(List)}. Each segment also keeps the range of
+ * its timestamps, so that the window manager can expire or process a whole segment without reading it back, see
+ * {@link #segments()}.
+ *
+ * @param <T> the type of event in the window.
+ */
+public class SegmentedWindowEventStore<T> implements WindowEventStore<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedWindowEventStore.class);
+    private static final int REMOVED = -1;
+
+    private final File dir;
+    private final int segmentSize;
+    private final int maxMemorySegments;
+    private final Function<T, byte[]> serializer;
+    private final Function<byte[], T> deserializer;
+    private final List<Segment> segments = new ArrayList<>();
+    private long nextSequence;
+    private long nextSegmentId;
+    private int size;
+    private int memorySegments;
+    // the last spilled segment that was read back, the oldest segment is read over and over while expiring events
+    private Segment cachedSegment;
+    private List<SequencedEvent<T>> cachedEvents;
+
+    /**
+     * Creates a new store. Any files left in {@code dir} by an earlier instance are removed.
+     *
+     * @param dir the directory spilled segments are written to
+     * @param segmentSize the number of events per segment
+     * @param maxMemorySegments the number of segments, including the one being filled, to keep on the heap
+     * @param serializer serializes an event when its segment is spilled
+     * @param deserializer deserializes an event when its segment is read back
+     */
+    public SegmentedWindowEventStore(File dir, int segmentSize, int maxMemorySegments,
+                                     Function<T, byte[]> serializer, Function<byte[], T> deserializer) {
+        if (segmentSize <= 0 || maxMemorySegments <= 0) {
+            throw new IllegalArgumentException("Segment size " + segmentSize + " and number of in memory segments "
+                                               + maxMemorySegments + " must be positive");
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxMemorySegments = maxMemorySegments;
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        try {
+            FileUtils.deleteDirectory(dir);
+            FileUtils.forceMkdir(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create window spill directory " + dir, e);
+        }
+    }
+
+    @Override
+    public synchronized void add(Event<T> event) {
+        Segment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (tail == null || tail.sealed) {
+            tail = new Segment(nextSegmentId++, nextSequence);
+            segments.add(tail);
+            memorySegments++;
+            spillIfNeeded();
+        }
+        tail.events.add(new SequencedEvent<>(event.get(), event.getTimestamp(), nextSequence++));
+        tail.minTs = Math.min(tail.minTs, event.getTimestamp());
+        tail.maxTs = Math.max(tail.maxTs, event.getTimestamp());
+        tail.count++;
+        size++;
+        if (tail.count == segmentSize) {
+            tail.sealed = true;
+        }
+    }
+
+    @Override
+    public Iterator<Event<T>> iterator() {
+        return new SegmentIterator(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Iterates over the values of the events whose sequence number falls into one of the given ranges. Segments
+     * outside of the ranges are not read.
+     *
+     * @param ranges sorted, non overlapping {@code [first, last]} sequence number ranges
+     */
+    public Iterator<T> iterator(List<long[]> ranges) {
+        if (ranges.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        SegmentIterator it = new SegmentIterator(ranges.get(0)[0], ranges.get(ranges.size() - 1)[1]);
+        return new Iterator<T>() {
+            private int range;
+            private SequencedEvent<T> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && it.hasNext()) {
+                    SequencedEvent<T> event = (SequencedEvent<T>) it.next();
+                    while (range < ranges.size() && event.getSequence() > ranges.get(range)[1]) {
+                        range++;
+                    }
+                    if (range < ranges.size() && event.getSequence() >= ranges.get(range)[0]) {
+                        next = event;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T value = next.get();
+                next = null;
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Returns the segments in order as they are now, events added later are not part of them.
+     */
+    public synchronized List<SegmentView> segments() {
+        List<SegmentView> ret = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            ret.add(new SegmentView(segment));
+        }
+        return ret;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of segments currently written to disk.
+     */
+    public synchronized int getSpilledSegmentCount() {
+        return segments.size() - memorySegments;
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.clear();
+        cachedSegment = null;
+        cachedEvents = null;
+        size = 0;
+        memorySegments = 0;
+        FileUtils.deleteQuietly(dir);
+    }
+
+    private void spillIfNeeded() {
+        for (Segment segment : segments) {
+            if (memorySegments <= maxMemorySegments) {
+                break;
+            }
+            if (segment.sealed && segment.events != null) {
+                spill(segment);
+            }
+        }
+    }
+
+    private void spill(Segment segment) {
+        File file = new File(dir, "segment-" + segment.id);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (SequencedEvent<T> event : segment.events) {
+                if (event == null) {
+                    out.writeInt(REMOVED);
+                } else {
+                    byte[] bytes = serializer.apply(event.get());
+                    out.writeInt(bytes.length);
+                    out.writeLong(event.getTimestamp());
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not spill window segment to " + file, e);
+        }
+        LOG.debug("Spilled window segment {} with {} events to {}", segment.id, segment.count, file);
+        segment.file = file;
+        segment.events = null;
+        memorySegments--;
+    }
+
+    private List<SequencedEvent<T>> eventsOf(Segment segment) {
+        if (segment.events != null) {
+            return segment.events;
+        }
+        if (segment != cachedSegment) {
+            List<SequencedEvent<T>> events = new ArrayList<>(segment.count);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)))) {
+                for (int i = 0; i < segment.count; i++) {
+                    int length = in.readInt();
+                    if (length == REMOVED) {
+                        events.add(null);
+                        continue;
+                    }
+                    long ts = in.readLong();
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    events.add(segment.removed.get(i) ? null
+                        : new SequencedEvent<>(deserializer.apply(bytes), ts, segment.firstSequence + i));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read window segment " + segment.file, e);
+            }
+            cachedSegment = segment;
+            cachedEvents = events;
+        }
+        return cachedEvents;
+    }
+
+    private synchronized void remove(Segment segment, int index) {
+        if (segment.dropped || segment.removed.get(index)) {
+            return;
+        }
+        segment.removed.set(index);
+        segment.removedCount++;
+        size--;
+        if (segment.events != null) {
+            segment.events.set(index, null);
+        } else if (segment == cachedSegment) {
+            cachedEvents.set(index, null);
+        }
+        if (segment.sealed && segment.removedCount == segment.count) {
+            drop(segment);
+        }
+    }
+
+    private void drop(Segment segment) {
+        segments.remove(segment);
+        segment.dropped = true;
+        if (segment.events != null) {
+            memorySegments--;
+            segment.events = null;
+        }
+        if (segment.file != null) {
+            FileUtils.deleteQuietly(segment.file);
+        }
+        if (segment == cachedSegment) {
+            cachedSegment = null;
+            cachedEvents = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentedWindowEventStore{"
+            + "dir=" + dir
+            + ", segmentSize=" + segmentSize
+            + ", maxMemorySegments=" + maxMemorySegments
+            + '}';
+    }
+
+    private final class Segment {
+        private final long id;
+        private final long firstSequence;
+        private final BitSet removed = new BitSet();
+        private List<SequencedEvent<T>> events = new ArrayList<>();
+        private File file;
+        private int count;
+        // of all the events added, including the removed ones
+        private long minTs = Long.MAX_VALUE;
+        private long maxTs = Long.MIN_VALUE;
+        private int removedCount;
+        private boolean sealed;
+        private boolean dropped;
+
+        private Segment(long id, long firstSequence) {
+            this.id = id;
+            this.firstSequence = firstSequence;
+        }
+    }
+
+    /**
+     * The events a segment held when the view was taken.
+     */
+    public final class SegmentView {
+        private final Segment segment;
+        private final int count;
+        private final int liveCount;
+        private final long minTs;
+        private final long maxTs;
+
+        private SegmentView(Segment segment) {
+            this.segment = segment;
+            this.count = segment.count;
+            this.liveCount = segment.count - segment.removedCount;
+            this.minTs = segment.minTs;
+            this.maxTs = segment.maxTs;
+        }
+
+        public long getFirstSequence() {
+            return segment.firstSequence;
+        }
+
+        public long getLastSequence() {
+            return segment.firstSequence + count - 1;
+        }
+
+        /**
+         * Returns the number of events of the segment that were not removed when the view was taken.
+         */
+        public int getLiveCount() {
+            return liveCount;
+        }
+
+        /**
+         * Returns the earliest timestamp of the segment, removed events included.
+         */
+        public long getMinTimestamp() {
+            return minTs;
+        }
+
+        /**
+         * Returns the latest timestamp of the segment, removed events included.
+         */
+        public long getMaxTimestamp() {
+            return maxTs;
+        }
+
+        /**
+         * Iterates over the events of the segment, reading it back if it was spilled.
+         */
+        public Iterator<Event<T>> iterator() {
+            return new SegmentIterator(getFirstSequence(), getLastSequence());
+        }
+
+        /**
+         * Removes all the events of the segment without reading it back and returns how many there were.
+         */
+        public int removeAll() {
+            synchronized (SegmentedWindowEventStore.this) {
+                int removed = 0;
+                for (int i = 0; i < count && !segment.dropped; i++) {
+                    if (!segment.removed.get(i)) {
+                        remove(segment, i);
+                        removed++;
+                    }
+                }
+                return removed;
+            }
+        }
+    }
+
+    /**
+     * Walks the segments that existed when it was created, events added later are not returned.
+     */
+    private final class SegmentIterator implements Iterator<Event<T>> {
+        private final List<Segment> snapshot;
+        private final long lastSequence;
+        private long cursor;
+        private int segmentIndex;
+        private SequencedEvent<T> next;
+        private Segment nextSegment;
+        private Segment lastSegment;
+        private int lastIndex;
+
+        private SegmentIterator(long firstSequence, long lastSequence) {
+            synchronized (SegmentedWindowEventStore.this) {
+                this.snapshot = new ArrayList<>(segments);
+                this.lastSequence = Math.min(lastSequence, nextSequence - 1);
+            }
+            this.cursor = firstSequence;
+        }
+
+        @Override
+        public boolean hasNext() {
+            synchronized (SegmentedWindowEventStore.this) {
+                while (next == null && segmentIndex < snapshot.size() && cursor <= lastSequence) {
+                    Segment segment = snapshot.get(segmentIndex);
+                    if (segment.dropped || cursor >= segment.firstSequence + segment.count) {
+                        segmentIndex++;
+                        continue;
+                    }
+                    cursor = Math.max(cursor, segment.firstSequence);
+                    int index = (int) (cursor - segment.firstSequence);
+                    if (!segment.removed.get(index)) {
+                        next = eventsOf(segment).get(index);
+                        nextSegment = segment;
+                    }
+                    cursor++;
+                }
+                return next != null;
+            }
+        }
+
+        @Override
+        public Event<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Event<T> event = next;
+            lastSegment = nextSegment;
+            lastIndex = (int) (next.getSequence() - nextSegment.firstSequence);
+            next = null;
+            return event;
+        }
+
+        @Override
+        public void remove() {
+            if (lastSegment == null) {
+                throw new IllegalStateException();
+            }
+            SegmentedWindowEventStore.this.remove(lastSegment, lastIndex);
+            lastSegment = null;
+        }
+    }
+
+    /**
+     * An event tagged with its position in the store.
+     */
+    static final class SequencedEvent<T> extends EventImpl<T> {
+        private final long sequence;
+
+        SequencedEvent(T event, long ts, long sequence) {
+            super(event, ts);
+            this.sequence = sequence;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+    }
+}
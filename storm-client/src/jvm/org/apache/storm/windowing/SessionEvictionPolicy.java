@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+/**
+ * Eviction policy for sessions triggered by a {@link SessionTriggerPolicy}. The reference time of the context is the
+ * timestamp of the last event of the session being evaluated; the events up to it are processed and the events of
+ * the previous session are expired.
+ */
+public class SessionEvictionPolicy<T> implements EvictionPolicy<T> {
+    private EvictionContext evictionContext;
+    private long sessionEnd = Long.MIN_VALUE;
+    private long previousSessionEnd = Long.MIN_VALUE;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Action evict(Event<T> event) {
+        long ts = event.getTimestamp();
+        if (ts <= previousSessionEnd) {
+            return Action.EXPIRE;
+        } else if (ts <= sessionEnd) {
+            return Action.PROCESS;
+        }
+        return Action.KEEP;
+    }
+
+    @Override
+    public void track(Event<T> event) {
+        // NOOP
+    }
+
+    @Override
+    public void setContext(EvictionContext context) {
+        evictionContext = context;
+        previousSessionEnd = sessionEnd;
+        sessionEnd = context.getReferenceTime();
+    }
+
+    @Override
+    public EvictionContext getContext() {
+        return evictionContext;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionEvictionPolicy{"
+            + "sessionEnd=" + sessionEnd
+            + ", previousSessionEnd=" + previousSessionEnd
+            + '}';
+    }
+}
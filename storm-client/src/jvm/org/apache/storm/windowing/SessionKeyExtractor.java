@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.io.Serializable;
+import org.apache.storm.tuple.Tuple;
+
+/**
+ * Interface to be implemented for extracting the key of the session a tuple belongs to. Each key has its own
+ * session windows.
+ */
+public interface SessionKeyExtractor extends Serializable {
+    /**
+     * Return the session key of the tuple. The key must implement equals and hashCode.
+     *
+     * @param tuple the tuple
+     * @return the key, null puts the tuple in the session shared by all null keys
+     */
+    Object extractKey(Tuple tuple);
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.topology.FailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invokes {@link TriggerHandler#onTrigger()} once no event has been tracked for the session gap. The time of the last
+ * event is set as the reference time of the eviction policy, see {@link SessionEvictionPolicy}.
+ */
+public class SessionTriggerPolicy<T> implements TriggerPolicy<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionTriggerPolicy.class);
+    private static final long MAX_CHECK_INTERVAL_MS = 1000;
+
+    private final long gap;
+    private final TriggerHandler handler;
+    private final ScheduledExecutorService executor;
+    private final EvictionPolicy<T> evictionPolicy;
+    private ScheduledFuture<?> executorFuture;
+    private volatile long lastEventTs = Long.MIN_VALUE;
+    private long lastTriggerTs = Long.MIN_VALUE;
+
+    public SessionTriggerPolicy(long gapMs, TriggerHandler handler, EvictionPolicy<T> evictionPolicy) {
+        this.gap = gapMs;
+        this.handler = handler;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    @Override
+    public void track(Event<T> event) {
+        checkFailures();
+        if (!event.isWatermark() && event.getTimestamp() > lastEventTs) {
+            lastEventTs = event.getTimestamp();
+        }
+    }
+
+    @Override
+    public void reset() {
+        checkFailures();
+    }
+
+    @Override
+    public void start() {
+        long interval = Math.max(1, Math.min(gap / 2, MAX_CHECK_INTERVAL_MS));
+        executorFuture = executor.scheduleAtFixedRate(this::checkSession, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ie) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // package level for unit tests
+    void checkSession() {
+        long last = lastEventTs;
+        try {
+            if (last > lastTriggerTs && System.currentTimeMillis() - last >= gap) {
+                // the events up to the last one seen make up the session, later ones belong to the next
+                evictionPolicy.setContext(new DefaultEvictionContext(last));
+                handler.onTrigger();
+                lastTriggerTs = last;
+            }
+        } catch (Throwable th) {
+            LOG.error("handler.onTrigger failed ", th);
+            throw th;
+        }
+    }
+
+    private void checkFailures() {
+        if (executorFuture != null && executorFuture.isDone()) {
+            try {
+                executorFuture.get();
+            } catch (InterruptedException ex) {
+                LOG.error("Got exception ", ex);
+                throw new FailedException(ex);
+            } catch (ExecutionException ex) {
+                LOG.error("Got exception ", ex);
+                throw new FailedException(ex.getCause());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SessionTriggerPolicy{"
+            + "gap=" + gap
+            + '}';
+    }
+}
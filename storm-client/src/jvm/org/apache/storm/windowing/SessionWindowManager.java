@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates per key session windows incrementally with a {@link WindowAggregator}.
+ *
+ * <p>A session is a run of events of the same key where no two consecutive events are more than the gap apart. Each
+ * event starts a session of its own that is merged with every session of the key it is less than a gap away from,
+ * so events arriving out of order can bridge two sessions. The accumulators of merged sessions are combined with
+ * {@link WindowAggregator#merge(Object, Object)}, no event is kept.
+ *
+ * <p>A session ends a gap after its last event. It is evaluated and dropped once {@link #advance(long)} is called,
+ * with the current time or a watermark, at or past its end.
+ *
+ * @param <K> the type of the session key
+ * @param <T> the type of the events
+ * @param <A> the type of the accumulator
+ * @param <R> the type of the result
+ */
+public class SessionWindowManager<K, T, A, R> {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionWindowManager.class);
+
+    private final WindowAggregator<T, A, R> aggregator;
+    private final Consumer<AggregateWindow<R>> listener;
+    private final long gap;
+    // the open sessions of each key by their first event ts
+    private final Map<K, TreeMap<Long, Session<K, A>>> sessions = new HashMap<>();
+    // all open sessions in the order they end
+    private final TreeSet<Session<K, A>> byEnd = new TreeSet<>(
+        Comparator.<Session<K, A>>comparingLong(s -> s.last).thenComparingLong(s -> s.id));
+    private long watermark = Long.MIN_VALUE;
+    private long nextId;
+
+    /**
+     * Creates a session window manager.
+     *
+     * @param aggregator the aggregator of the events of a session
+     * @param listener receives the result of each session once it ends, with the session key
+     * @param gapMs the gap in milliseconds after which a session ends
+     */
+    public SessionWindowManager(WindowAggregator<T, A, R> aggregator, Consumer<AggregateWindow<R>> listener, long gapMs) {
+        if (gapMs <= 0) {
+            throw new IllegalArgumentException("Session gap " + gapMs + " must be positive");
+        }
+        this.aggregator = aggregator;
+        this.listener = listener;
+        this.gap = gapMs;
+    }
+
+    public long getGap() {
+        return gap;
+    }
+
+    /**
+     * Returns the number of open sessions across all keys.
+     */
+    public synchronized int getSessionCount() {
+        return byEnd.size();
+    }
+
+    /**
+     * Adds an event to the session of its key, merging the sessions it bridges.
+     *
+     * @param key the session key
+     * @param event the event
+     * @param ts the event timestamp
+     * @return false if the event is too late, i.e. its session would have ended already
+     */
+    public synchronized boolean add(K key, T event, long ts) {
+        TreeMap<Long, Session<K, A>> keySessions = sessions.get(key);
+        long first = ts;
+        long last = ts;
+        A acc = aggregator.add(aggregator.init(), event);
+        boolean merged = false;
+        if (keySessions != null) {
+            // the sessions of a key do not overlap, so the ones within a gap are adjacent in start order
+            Iterator<Session<K, A>> it = keySessions.headMap(ts + gap, false).descendingMap().values().iterator();
+            while (it.hasNext()) {
+                Session<K, A> session = it.next();
+                if (session.last + gap <= ts) {
+                    break;
+                }
+                first = Math.min(first, session.first);
+                last = Math.max(last, session.last);
+                acc = aggregator.merge(session.acc, acc);
+                byEnd.remove(session);
+                it.remove();
+                merged = true;
+            }
+        }
+        if (!merged && ts + gap <= watermark) {
+            return false;
+        }
+        if (keySessions == null) {
+            keySessions = new TreeMap<>();
+            sessions.put(key, keySessions);
+        }
+        Session<K, A> session = new Session<>(nextId++, key, first, last, acc);
+        keySessions.put(first, session);
+        byEnd.add(session);
+        return true;
+    }
+
+    /**
+     * Tracks a window event. A watermark evaluates the sessions that ended by its timestamp.
+     *
+     * @return false if the event is too late
+     */
+    public boolean add(K key, Event<T> event) {
+        if (event.isWatermark()) {
+            advance(event.getTimestamp());
+            return true;
+        }
+        return add(key, event.get(), event.getTimestamp());
+    }
+
+    /**
+     * Evaluates and drops every session that ends at or before the given timestamp.
+     *
+     * @param ts the current time or the watermark
+     */
+    public synchronized void advance(long ts) {
+        watermark = Math.max(watermark, ts);
+        while (!byEnd.isEmpty() && byEnd.first().last + gap <= ts) {
+            Session<K, A> session = byEnd.pollFirst();
+            NavigableMap<Long, Session<K, A>> keySessions = sessions.get(session.key);
+            keySessions.remove(session.first);
+            if (keySessions.isEmpty()) {
+                sessions.remove(session.key);
+            }
+            LOG.trace("Session of key {} from {} to {} ended", session.key, session.first, session.last + gap);
+            listener.accept(new AggregateWindow<>(session.key, aggregator.result(session.acc), session.first,
+                                                  session.last + gap));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SessionWindowManager{"
+            + "gap=" + gap
+            + ", watermark=" + watermark
+            + '}';
+    }
+
+    private static final class Session<K, A> {
+        private final long id;
+        private final K key;
+        private final long first;
+        private final long last;
+        private final A acc;
+
+        Session(long id, K key, long first, long last, A acc) {
+            this.id = id;
+            this.key = key;
+            this.first = first;
+            this.last = last;
+            this.acc = acc;
+        }
+    }
+}
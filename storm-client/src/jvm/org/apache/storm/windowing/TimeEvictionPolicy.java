@@ -55,6 +55,14 @@ public class TimeEvictionPolicy<T> implements EvictionPolicy<T> {
         return Action.PROCESS;
     }
 
+    @Override
+    public Action evictAll(int count, long minTs, long maxTs) {
+        // the action only depends on the timestamp, and the later the timestamp the later the action in
+        // EXPIRE, PROCESS, KEEP, STOP order
+        Action first = evict(new EventImpl<T>(null, minTs));
+        return first == evict(new EventImpl<T>(null, maxTs)) ? first : null;
+    }
+
     @Override
     public void track(Event<T> event) {
         // NOOP
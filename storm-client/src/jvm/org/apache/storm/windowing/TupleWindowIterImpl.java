@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import org.apache.storm.tuple.Tuple;
+
+/**
+ * A {@link TupleWindow} whose tuples can only be iterated over, see {@link SegmentedWindowEventStore}.
+ * The new and expired tuples are not tracked for such windows.
+ */
+public class TupleWindowIterImpl implements TupleWindow {
+    private final Supplier<Iterator<Tuple>> tuplesIt;
+    private final Long startTimestamp;
+    private final Long endTimestamp;
+
+    public TupleWindowIterImpl(Supplier<Iterator<Tuple>> tuplesIt, Long startTimestamp, Long endTimestamp) {
+        this.tuplesIt = tuplesIt;
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+    }
+
+    @Override
+    public List<Tuple> get() {
+        throw new UnsupportedOperationException("The tuples of a spilled window can only be accessed through getIter()");
+    }
+
+    @Override
+    public Iterator<Tuple> getIter() {
+        return tuplesIt.get();
+    }
+
+    @Override
+    public List<Tuple> getNew() {
+        throw new UnsupportedOperationException("New tuples are not tracked for spilled windows");
+    }
+
+    @Override
+    public List<Tuple> getExpired() {
+        throw new UnsupportedOperationException("Expired tuples are not tracked for spilled windows");
+    }
+
+    @Override
+    public Long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    @Override
+    public Long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "TupleWindowIterImpl{"
+            + "startTimestamp=" + startTimestamp
+            + ", endTimestamp=" + endTimestamp
+            + '}';
+    }
+}
@@ -18,7 +18,9 @@
 
 package org.apache.storm.windowing;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -27,8 +29,10 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import org.apache.storm.generated.GlobalStreamId;
 import org.apache.storm.topology.FailedException;
+import org.apache.storm.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,17 +41,26 @@ import org.slf4j.LoggerFactory;
  * Watermark event timestamp is the minimum of the latest tuple timestamps
  * across all the input streams (minus the lag). Once a watermark event is emitted
  * any tuple coming with an earlier timestamp can be considered as late events.
+ *
+ * <p>The timestamps can also be tracked per input partition, i.e. per source task of each input stream, so that
+ * a fast task cannot make the tuples of a slower one late. A partition that has not received any tuple within the
+ * idle timeout is left out of the watermark until it receives a tuple again, so that a quiet partition does not
+ * hold back the windows.
  */
 public class WaterMarkEventGenerator<T> implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(WaterMarkEventGenerator.class);
-    private final WindowManager<T> windowManager;
+    private static final int NO_TASK = -1;
+    private final Consumer<Event<T>> eventSink;
     private final int eventTsLag;
-    private final Set<GlobalStreamId> inputStreams;
-    private final Map<GlobalStreamId, Long> streamToTs;
+    private final boolean perPartition;
+    private final Map<InputPartition, PartitionState> partitions;
     private final ScheduledExecutorService executorService;
     private final int interval;
     private ScheduledFuture<?> executorFuture;
     private volatile long lastWaterMarkTs;
+    private volatile long idleTimeoutMs;
+    private volatile boolean started;
+    private volatile boolean mayAdvance;
 
     /**
      * Creates a new WatermarkEventGenerator.
@@ -58,12 +71,56 @@ public class WaterMarkEventGenerator<T> implements Runnable {
      */
     public WaterMarkEventGenerator(WindowManager<T> windowManager, int intervalMs,
                                    int eventTsLagMs, Set<GlobalStreamId> inputStreams) {
-        this.windowManager = windowManager;
-        streamToTs = new ConcurrentHashMap<>();
+        this(event -> windowManager.add(event), intervalMs, eventTsLagMs, inputStreams);
+    }
+
+    /**
+     * Creates a new WatermarkEventGenerator that hands the watermark events to the given sink.
+     * @param eventSink Receives the watermark events, e.g. {@link PaneWindowManager#add(Event)}
+     * @param intervalMs The generator will check if it should generate a watermark event with this interval
+     * @param eventTsLagMs The max allowed lag behind the last watermark event before an event is considered late
+     * @param inputStreams The input streams this generator is expected to handle
+     */
+    public WaterMarkEventGenerator(Consumer<Event<T>> eventSink, int intervalMs,
+                                   int eventTsLagMs, Set<GlobalStreamId> inputStreams) {
+        this(eventSink, intervalMs, eventTsLagMs, false);
+        for (GlobalStreamId stream : inputStreams) {
+            partitions.put(new InputPartition(stream, NO_TASK), new PartitionState());
+        }
+    }
+
+    /**
+     * Creates a new WatermarkEventGenerator that tracks the timestamps per input partition.
+     * @param eventSink Receives the watermark events
+     * @param intervalMs The generator will check if it should generate a watermark event with this interval
+     * @param eventTsLagMs The max allowed lag behind the last watermark event before an event is considered late
+     * @param inputTasks The source tasks of each input stream this generator is expected to handle
+     */
+    public WaterMarkEventGenerator(Consumer<Event<T>> eventSink, int intervalMs, int eventTsLagMs,
+                                   Map<GlobalStreamId, ? extends Collection<Integer>> inputTasks) {
+        this(eventSink, intervalMs, eventTsLagMs, true);
+        for (Map.Entry<GlobalStreamId, ? extends Collection<Integer>> entry : inputTasks.entrySet()) {
+            for (Integer task : entry.getValue()) {
+                partitions.put(new InputPartition(entry.getKey(), task), new PartitionState());
+            }
+        }
+    }
+
+    private WaterMarkEventGenerator(Consumer<Event<T>> eventSink, int intervalMs, int eventTsLagMs, boolean perPartition) {
+        this.eventSink = eventSink;
+        this.partitions = new ConcurrentHashMap<>();
         executorService = Executors.newSingleThreadScheduledExecutor();
         this.interval = intervalMs;
         this.eventTsLag = eventTsLagMs;
-        this.inputStreams = inputStreams;
+        this.perPartition = perPartition;
+    }
+
+    /**
+     * Leave the partitions that have not received a tuple for the given time out of the watermark.
+     * @param idleTimeoutMs the idle timeout, 0 to never consider a partition idle
+     */
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
     }
 
     /**
@@ -72,41 +129,102 @@ public class WaterMarkEventGenerator<T> implements Runnable {
      * false if its a late event.
      */
     public boolean track(GlobalStreamId stream, long ts) {
-        Long currentVal = streamToTs.get(stream);
-        if (currentVal == null || ts > currentVal) {
-            streamToTs.put(stream, ts);
-        }
+        return track(stream, NO_TASK, ts);
+    }
+
+    /**
+     * Tracks the timestamp of the event from the given source task of the stream, returns true if the event can be
+     * considered for processing or false if its a late event. The source task is ignored unless the timestamps are
+     * tracked per partition.
+     */
+    public boolean track(GlobalStreamId stream, int sourceTask, long ts) {
+        advancePartition(getPartition(stream, sourceTask), ts);
         checkFailures();
         return ts >= lastWaterMarkTs;
     }
 
+    /**
+     * Tracks a watermark forwarded by an upstream component, i.e. a promise that the source task will not send
+     * tuples with an earlier timestamp on any of its streams. Unless the timestamps are tracked per partition, every
+     * stream of the source component is advanced, just like a tuple of any source task advances its stream.
+     */
+    public void trackWaterMark(GlobalStreamId stream, int sourceTask, long waterMarkTs) {
+        advancePartition(getPartition(stream, sourceTask), waterMarkTs);
+        for (Map.Entry<InputPartition, PartitionState> entry : partitions.entrySet()) {
+            InputPartition partition = entry.getKey();
+            if (partition.stream.get_componentId().equals(stream.get_componentId())
+                && (!perPartition || partition.task == sourceTask)) {
+                advancePartition(entry.getValue(), waterMarkTs);
+            }
+        }
+        checkFailures();
+    }
+
+    private PartitionState getPartition(GlobalStreamId stream, int sourceTask) {
+        InputPartition partition = new InputPartition(stream, perPartition ? sourceTask : NO_TASK);
+        return partitions.computeIfAbsent(partition, p -> new PartitionState());
+    }
+
+    private void advancePartition(PartitionState state, long ts) {
+        long previous = state.ts;
+        if (ts > previous) {
+            state.ts = ts;
+        }
+        state.lastUpdateMs = Time.currentTimeMillis();
+        // the watermark can only move if this partition was holding it back, idle partitions are picked up by run()
+        if (previous <= lastWaterMarkTs + eventTsLag) {
+            mayAdvance = true;
+        }
+    }
+
+    /**
+     * Emits a watermark event right away if the tracked timestamps allow it, instead of waiting for the next
+     * interval. Does nothing before the generator is started.
+     */
+    public void punctuate() {
+        if (started && mayAdvance) {
+            mayAdvance = false;
+            emitWaterMark();
+        }
+    }
+
     @Override
     public void run() {
         try {
-            long waterMarkTs = computeWaterMarkTs();
-            if (waterMarkTs > lastWaterMarkTs) {
-                this.windowManager.add(new WaterMarkEvent<>(waterMarkTs));
-                lastWaterMarkTs = waterMarkTs;
-            }
+            emitWaterMark();
         } catch (Throwable th) {
             LOG.error("Failed while processing watermark event ", th);
             throw th;
         }
     }
 
+    private synchronized void emitWaterMark() {
+        long waterMarkTs = computeWaterMarkTs();
+        if (waterMarkTs > lastWaterMarkTs) {
+            eventSink.accept(new WaterMarkEvent<>(waterMarkTs));
+            lastWaterMarkTs = waterMarkTs;
+        }
+    }
+
     /**
-     * Computes the min ts across all streams.
+     * Computes the min ts across all the partitions that are not idle.
      */
     private long computeWaterMarkTs() {
-        long ts = 0;
-        // only if some data has arrived on each input stream
-        if (streamToTs.size() >= inputStreams.size()) {
-            ts = Long.MAX_VALUE;
-            for (Map.Entry<GlobalStreamId, Long> entry : streamToTs.entrySet()) {
-                ts = Math.min(ts, entry.getValue());
+        long now = Time.currentTimeMillis();
+        long ts = Long.MAX_VALUE;
+        boolean active = false;
+        for (PartitionState state : partitions.values()) {
+            if (idleTimeoutMs > 0 && now - state.lastUpdateMs >= idleTimeoutMs) {
+                continue;
+            }
+            // only if some data has arrived on each input partition
+            if (state.ts == Long.MIN_VALUE) {
+                return Long.MIN_VALUE;
             }
+            ts = Math.min(ts, state.ts);
+            active = true;
         }
-        return ts - eventTsLag;
+        return active ? ts - eventTsLag : Long.MIN_VALUE;
     }
 
     private void checkFailures() {
@@ -125,5 +243,38 @@ public class WaterMarkEventGenerator<T> implements Runnable {
 
     public void start() {
         this.executorFuture = executorService.scheduleAtFixedRate(this, interval, interval, TimeUnit.MILLISECONDS);
+        started = true;
+    }
+
+    private static final class InputPartition {
+        private final GlobalStreamId stream;
+        private final int task;
+
+        InputPartition(GlobalStreamId stream, int task) {
+            this.stream = stream;
+            this.task = task;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof InputPartition)) {
+                return false;
+            }
+            InputPartition other = (InputPartition) o;
+            return task == other.task && Objects.equals(stream, other.stream);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stream, task);
+        }
+    }
+
+    private static final class PartitionState {
+        private volatile long ts = Long.MIN_VALUE;
+        private volatile long lastUpdateMs = Time.currentTimeMillis();
     }
 }
@@ -51,6 +51,15 @@ public class WatermarkCountEvictionPolicy<T> extends CountEvictionPolicy<T> {
         return action;
     }
 
+    @Override
+    public Action evictAll(int count, long minTs, long maxTs) {
+        if (getContext() == null) {
+            return Action.STOP;
+        }
+        // events after the watermark are kept, the others depend on how many were processed before them
+        return minTs > getContext().getReferenceTime() ? Action.KEEP : null;
+    }
+
     @Override
     public void track(Event<T> event) {
         // NOOP
@@ -17,6 +17,7 @@
  */
 package org.apache.storm.windowing;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -32,6 +33,16 @@ public interface Window<T> {
      */
     List<T> get();
 
+    /**
+     * Returns an iterator over the events in the window. Unlike {@link #get()} this does not require all
+     * the events of the window to be on the heap at once.
+     *
+     * @return an iterator over the events in the window.
+     */
+    default Iterator<T> getIter() {
+        return get().iterator();
+    }
+
     /**
      * Get the list of newly added events in the window since the last time the window was generated.
      *
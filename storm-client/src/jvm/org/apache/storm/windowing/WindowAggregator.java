@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+import java.io.Serializable;
+
+/**
+ * An incremental aggregation over the events of a window.
+ *
+ * <p>Events are folded into per pane accumulators with {@link #add(Object, Object)} and the accumulators of the panes
+ * that make up a window are combined with {@link #merge(Object, Object)} each time the window is evaluated. Aggregations
+ * that can undo a merge (sum, count etc.) can override {@link #isRetractable()} and {@link #retract(Object, Object)},
+ * in which case a running accumulator is kept and only the panes that enter and leave the window are touched.
+ *
+ * @param <T> the type of the events
+ * @param <A> the type of the accumulator
+ * @param <R> the type of the result
+ */
+public interface WindowAggregator<T, A, R> extends Serializable {
+    /**
+     * Returns a new, empty accumulator.
+     */
+    A init();
+
+    /**
+     * Folds an event into the accumulator and returns the updated accumulator.
+     */
+    A add(A accumulator, T event);
+
+    /**
+     * Combines two accumulators and returns the result. Implementations may update and return the first argument,
+     * the second one must not be changed.
+     */
+    A merge(A accumulator, A other);
+
+    /**
+     * Computes the result of the window from its accumulator.
+     */
+    R result(A accumulator);
+
+    /**
+     * Whether {@link #retract(Object, Object)} is supported.
+     */
+    default boolean isRetractable() {
+        return false;
+    }
+
+    /**
+     * Removes a previously merged accumulator and returns the updated accumulator.
+     *
+     * @param accumulator the accumulator to update
+     * @param other an accumulator that was earlier merged into {@code accumulator}
+     */
+    default A retract(A accumulator, A other) {
+        throw new UnsupportedOperationException("retract is not supported by " + getClass().getName());
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.storm.windowing;
+
+/**
+ * Holds the events tracked by a {@link WindowManager} in arrival order.
+ *
+ * <p>The iterator must support {@link java.util.Iterator#remove()}, which the {@link WindowManager} uses to expire
+ * events, and must tolerate events being added while it is in use.
+ *
+ * @param <T> the type of event in the window.
+ */
+public interface WindowEventStore<T> extends Iterable<Event<T>> {
+    /**
+     * Appends an event to the store.
+     */
+    void add(Event<T> event);
+
+    /**
+     * Returns the number of events in the store.
+     */
+    int size();
+
+    /**
+     * Releases the resources held by the store.
+     */
+    void close();
+}
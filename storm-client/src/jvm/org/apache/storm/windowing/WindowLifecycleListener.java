@@ -17,7 +17,9 @@
  */
 package org.apache.storm.windowing;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * A callback for expiry, activation of events tracked by the {@link WindowManager}
@@ -40,4 +42,15 @@ public interface WindowLifecycleListener<T> {
      * @param referenceTime the reference (event or processing) time that resulted in activation
      */
     void onActivation(List<T> events, List<T> newEvents, List<T> expired, Long referenceTime);
+
+    /**
+     * Called on activation of the window if the events are kept in a {@link SegmentedWindowEventStore}. The
+     * events are not materialized, each call to the supplier returns a new iterator over the current events.
+     *
+     * @param eventsIt supplies iterators over the current events in the window.
+     * @param referenceTime the reference (event or processing) time that resulted in activation
+     */
+    default void onActivation(Supplier<Iterator<T>> eventsIt, Long referenceTime) {
+        throw new UnsupportedOperationException("Iterator based activation is not supported by " + getClass().getName());
+    }
 }
@@ -26,7 +26,6 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -53,7 +52,9 @@ public class WindowManager<T> implements TriggerHandler {
     public static final int EXPIRE_EVENTS_THRESHOLD = 100;
 
     private final WindowLifecycleListener<T> windowLifecycleListener;
-    private final ConcurrentLinkedQueue<Event<T>> queue;
+    private final WindowEventStore<T> queue;
+    // set if the events are kept in a segmented store, windows are then handed out as iterators
+    private final SegmentedWindowEventStore<T> segmentedStore;
     private final List<T> expiredEvents;
     private final Set<Event<T>> prevWindowEvents;
     private final AtomicInteger eventsSinceLastExpiry;
@@ -62,8 +63,22 @@ public class WindowManager<T> implements TriggerHandler {
     private TriggerPolicy<T> triggerPolicy;
 
     public WindowManager(WindowLifecycleListener<T> lifecycleListener) {
+        this(lifecycleListener, new InMemoryWindowEventStore<>());
+    }
+
+    /**
+     * Creates a window manager that keeps its events in the given store. If the store is a
+     * {@link SegmentedWindowEventStore} the window is activated through
+     * {@link WindowLifecycleListener#onActivation(java.util.function.Supplier, Long)} and the expired
+     * events are not reported to {@link WindowLifecycleListener#onExpiry(List)}.
+     *
+     * @param lifecycleListener the window lifecycle listener
+     * @param store the store for the events in the window
+     */
+    public WindowManager(WindowLifecycleListener<T> lifecycleListener, WindowEventStore<T> store) {
         windowLifecycleListener = lifecycleListener;
-        queue = new ConcurrentLinkedQueue<>();
+        queue = store;
+        segmentedStore = store instanceof SegmentedWindowEventStore ? (SegmentedWindowEventStore<T>) store : null;
         expiredEvents = new ArrayList<>();
         prevWindowEvents = new HashSet<>();
         eventsSinceLastExpiry = new AtomicInteger();
@@ -119,6 +134,9 @@ public class WindowManager<T> implements TriggerHandler {
      */
     @Override
     public boolean onTrigger() {
+        if (segmentedStore != null) {
+            return onTriggerSegmented();
+        }
         List<Event<T>> windowEvents = null;
         List<T> expired = null;
         try {
@@ -153,11 +171,93 @@ public class WindowManager<T> implements TriggerHandler {
         return !events.isEmpty();
     }
 
+    /**
+     * Activates the window without materializing its events. The window is described by the ranges of the store
+     * the eviction policy decided to process, which stays valid while new events are added. A segment whose events
+     * the eviction policy can decide about all at once, from its timestamp range or its size, is not read.
+     */
+    private boolean onTriggerSegmented() {
+        List<long[]> ranges = new ArrayList<>();
+        int expired = 0;
+        int segmentsRead = 0;
+        try {
+            lock.lock();
+            long[] range = null;
+            scan:
+            for (SegmentedWindowEventStore<T>.SegmentView segment : segmentedStore.segments()) {
+                if (segment.getLiveCount() == 0) {
+                    continue;
+                }
+                Action segmentAction = evictionPolicy.evictAll(segment.getLiveCount(), segment.getMinTimestamp(),
+                                                               segment.getMaxTimestamp());
+                if (segmentAction == EXPIRE) {
+                    expired += segment.removeAll();
+                    continue;
+                } else if (segmentAction == PROCESS) {
+                    range = extend(ranges, range, segment.getFirstSequence(), segment.getLastSequence());
+                    continue;
+                } else if (segmentAction == STOP) {
+                    break;
+                } else if (segmentAction != null) {
+                    // kept for a later window
+                    range = null;
+                    continue;
+                }
+                ++segmentsRead;
+                Iterator<Event<T>> it = segment.iterator();
+                while (it.hasNext()) {
+                    Event<T> windowEvent = it.next();
+                    Action action = evictionPolicy.evict(windowEvent);
+                    if (action == EXPIRE) {
+                        it.remove();
+                        ++expired;
+                    } else if (action == PROCESS) {
+                        long sequence = ((SegmentedWindowEventStore.SequencedEvent<T>) windowEvent).getSequence();
+                        range = extend(ranges, range, sequence, sequence);
+                    } else if (action == STOP) {
+                        break scan;
+                    } else {
+                        // an event kept for a later window splits the range
+                        range = null;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        eventsSinceLastExpiry.set(0);
+        LOG.debug("[{}] events expired from window, [{}] segments read.", expired, segmentsRead);
+        boolean hasEvents = !ranges.isEmpty();
+        if (hasEvents) {
+            LOG.debug("invoking windowLifecycleListener onActivation with {} ranges of the event store", ranges.size());
+            windowLifecycleListener.onActivation(() -> segmentedStore.iterator(ranges),
+                                                 evictionPolicy.getContext().getReferenceTime());
+        } else {
+            LOG.debug("No events in the window, skipping onActivation");
+        }
+        triggerPolicy.reset();
+        return hasEvents;
+    }
+
+    /*
+     * adds [first, last] to the current range of the window, or starts a new range if there is none.
+     */
+    private static long[] extend(List<long[]> ranges, long[] range, long first, long last) {
+        if (range == null) {
+            range = new long[] {first, last};
+            ranges.add(range);
+        } else {
+            range[1] = last;
+        }
+        return range;
+    }
+
     public void shutdown() {
         LOG.debug("Shutting down WindowManager");
         if (triggerPolicy != null) {
             triggerPolicy.shutdown();
         }
+        queue.close();
     }
 
     /**
@@ -199,7 +299,9 @@ public class WindowManager<T> implements TriggerHandler {
                 Event<T> windowEvent = it.next();
                 Action action = evictionPolicy.evict(windowEvent);
                 if (action == EXPIRE) {
-                    eventsToExpire.add(windowEvent.get());
+                    if (segmentedStore == null) {
+                        eventsToExpire.add(windowEvent.get());
+                    }
                     it.remove();
                 } else if (!fullScan || action == STOP) {
                     break;
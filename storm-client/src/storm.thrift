@@ -745,6 +745,8 @@ service DistributedRPCInvocations {
   DRPCRequest fetchRequest(1: string functionName) throws (1: AuthorizationException aze);
   void failRequest(1: string id) throws (1: AuthorizationException aze);  
   void failRequestV2(1: string id, 2: DRPCExecutionException e) throws (1: AuthorizationException aze);  
+  list<DRPCRequest> fetchRequests(1: string functionName) throws (1: AuthorizationException aze);
+  void results(1: map<string, string> results) throws (1: AuthorizationException aze);
 }
 
 enum HBServerMessageType {
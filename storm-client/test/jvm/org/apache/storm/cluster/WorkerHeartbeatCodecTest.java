@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.storm.generated.BoltStats;
+import org.apache.storm.generated.ClusterWorkerHeartbeat;
+import org.apache.storm.generated.ExecutorInfo;
+import org.apache.storm.generated.ExecutorSpecificStats;
+import org.apache.storm.generated.ExecutorStats;
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.generated.SpoutStats;
+import org.apache.storm.utils.Utils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkerHeartbeatCodecTest {
+    private static final String[] WINDOWS = {":all-time", "600", "10800", "86400"};
+
+    private static <K, V> Map<String, Map<K, V>> perWindow(K key, V value) {
+        Map<String, Map<K, V>> ret = new HashMap<>();
+        for (String window : WINDOWS) {
+            Map<K, V> m = new HashMap<>();
+            m.put(key, value);
+            ret.put(window, m);
+        }
+        return ret;
+    }
+
+    private static Map<String, Map<String, Long>> growingCounts(String stream, long base) {
+        Map<String, Map<String, Long>> ret = new HashMap<>();
+        long value = base;
+        for (String window : new String[]{"600", "10800", "86400", ":all-time"}) {
+            Map<String, Long> m = new HashMap<>();
+            m.put(stream, value);
+            m.put("__ack_init", value / 2);
+            ret.put(window, m);
+            value *= 10;
+        }
+        return ret;
+    }
+
+    private static ClusterWorkerHeartbeat makeHeartbeat(int numExecutors) {
+        Map<ExecutorInfo, ExecutorStats> executorStats = new HashMap<>();
+        for (int i = 0; i < numExecutors; i++) {
+            ExecutorStats stats = new ExecutorStats();
+            stats.set_rate(20.0);
+            stats.set_emitted(growingCounts("default", 1000 + i));
+            stats.set_transferred(growingCounts("default", 1000 + i));
+            if (i % 2 == 0) {
+                SpoutStats spout = new SpoutStats();
+                spout.set_acked(growingCounts("default", 500 + i));
+                spout.set_failed(perWindow("default", 0L));
+                spout.set_complete_ms_avg(perWindow("default", 12.5));
+                stats.set_specific(ExecutorSpecificStats.spout(spout));
+            } else {
+                GlobalStreamId sid = new GlobalStreamId("spout", "default");
+                BoltStats bolt = new BoltStats();
+                bolt.set_acked(perWindow(sid, 300L + i));
+                bolt.set_failed(perWindow(sid, 1L));
+                bolt.set_process_ms_avg(perWindow(sid, 0.25));
+                bolt.set_executed(perWindow(sid, 300L + i));
+                bolt.set_execute_ms_avg(perWindow(sid, 0.125));
+                stats.set_specific(ExecutorSpecificStats.bolt(bolt));
+            }
+            executorStats.put(new ExecutorInfo(i * 2 + 1, i * 2 + 2), stats);
+        }
+        ClusterWorkerHeartbeat hb = new ClusterWorkerHeartbeat();
+        hb.set_storm_id("topo-1-1500000000");
+        hb.set_executor_stats(executorStats);
+        hb.set_time_secs(1500000123);
+        hb.set_uptime_secs(3600);
+        return hb;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        ClusterWorkerHeartbeat hb = makeHeartbeat(10);
+        byte[] serialized = WorkerHeartbeatCodec.serialize(hb);
+        Assert.assertTrue(WorkerHeartbeatCodec.isCompact(serialized));
+        Assert.assertEquals(hb, WorkerHeartbeatCodec.deserialize(serialized));
+        Assert.assertEquals(hb.get_time_secs(), WorkerHeartbeatCodec.timeSecs(serialized));
+    }
+
+    @Test
+    public void testReadsMetaSerializedHeartbeats() {
+        ClusterWorkerHeartbeat hb = makeHeartbeat(3);
+        byte[] serialized = Utils.serialize(hb);
+        Assert.assertFalse(WorkerHeartbeatCodec.isCompact(serialized));
+        Assert.assertEquals(hb, WorkerHeartbeatCodec.deserialize(serialized));
+        Assert.assertEquals(hb.get_time_secs(), WorkerHeartbeatCodec.timeSecs(serialized));
+        Assert.assertNull(WorkerHeartbeatCodec.deserialize(null));
+    }
+
+    @Test
+    public void testSmallerThanMetaSerialization() {
+        ClusterWorkerHeartbeat hb = makeHeartbeat(50);
+        int compact = WorkerHeartbeatCodec.serialize(hb).length;
+        int meta = Utils.serialize(hb).length;
+        Assert.assertTrue("compact " + compact + " vs meta " + meta, compact < meta);
+    }
+}
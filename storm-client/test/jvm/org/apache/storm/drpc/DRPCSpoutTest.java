@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.drpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.storm.Config;
+import org.apache.storm.ILocalDRPC;
+import org.apache.storm.generated.DRPCRequest;
+import org.apache.storm.generated.DistributedRPCInvocations;
+import org.apache.storm.spout.SpoutOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.utils.ServiceRegistry;
+import org.apache.thrift.TApplicationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DRPCSpout}.
+ */
+public class DRPCSpoutTest {
+    private DistributedRPCInvocations.Iface drpc;
+    private String serviceId;
+    private SpoutOutputCollector collector;
+    private DRPCSpout spout;
+    private List<Object> args;
+    private List<Object> msgIds;
+
+    @Before
+    public void setUp() {
+        drpc = mock(DistributedRPCInvocations.Iface.class);
+        serviceId = ServiceRegistry.registerService(drpc);
+        args = new ArrayList<>();
+        msgIds = new ArrayList<>();
+        collector = mock(SpoutOutputCollector.class);
+        when(collector.emit(anyListOf(Object.class), any())).thenAnswer(invocation -> {
+            args.add(((List<Object>) invocation.getArguments()[0]).get(0));
+            msgIds.add(invocation.getArguments()[1]);
+            return null;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (spout != null) {
+            spout.close();
+        }
+        ServiceRegistry.unregisterService(serviceId);
+    }
+
+    private void open(Integer maxSpoutPending) {
+        ILocalDRPC local = mock(ILocalDRPC.class);
+        when(local.getServiceId()).thenReturn(serviceId);
+        spout = new DRPCSpout("f", local);
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_MAX_SPOUT_PENDING, maxSpoutPending);
+        spout.open(conf, mock(TopologyContext.class), collector);
+    }
+
+    private static List<DRPCRequest> requests(int first, int count) {
+        List<DRPCRequest> reqs = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            reqs.add(new DRPCRequest("args" + i, "id" + i));
+        }
+        return reqs;
+    }
+
+    /**
+     * Call nextTuple until the spout emitted the given number of tuples and return their arguments.
+     */
+    private List<Object> emitted(int count) {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (args.size() < count && System.currentTimeMillis() < deadline) {
+            spout.nextTuple();
+        }
+        return args;
+    }
+
+    @Test
+    public void testEmitsFetchedBatches() throws Exception {
+        when(drpc.fetchRequests("f")).thenReturn(requests(0, 3), Collections.<DRPCRequest>emptyList());
+        open(null);
+        assertEquals(Arrays.asList("args0", "args1", "args2"), emitted(3));
+    }
+
+    @Test
+    public void testFallsBackToSingleFetchesOnUnknownMethod() throws Exception {
+        when(drpc.fetchRequests("f")).thenThrow(new TApplicationException(TApplicationException.UNKNOWN_METHOD));
+        when(drpc.fetchRequest("f")).thenReturn(new DRPCRequest("a", "1"), new DRPCRequest("b", "2"),
+                                                new DRPCRequest("", ""));
+        open(null);
+        assertEquals(Arrays.asList("a", "b"), emitted(2));
+        // the server is only asked once whether it can fetch batches
+        verify(drpc, times(1)).fetchRequests("f");
+    }
+
+    @Test
+    public void testPrefetchIsBoundedByMaxSpoutPending() throws Exception {
+        when(drpc.fetchRequests("f")).thenReturn(requests(0, 5), requests(5, 5));
+        open(2);
+        verify(drpc, timeout(1000)).fetchRequests("f");
+        // the fetcher is stuck with the rest of its first batch while nothing is emitted
+        Thread.sleep(200);
+        verify(drpc, times(1)).fetchRequests("f");
+        assertEquals(Collections.emptyList(), args);
+    }
+
+    @Test
+    public void testBacksOffOnEmptyFetches() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        when(drpc.fetchRequests("f")).thenAnswer(invocation -> {
+            fetches.incrementAndGet();
+            return Collections.emptyList();
+        });
+        open(null);
+        Thread.sleep(500);
+        // polling every millisecond would have fetched hundreds of times
+        assertTrue("fetched " + fetches.get() + " times", fetches.get() <= 20);
+    }
+
+    @Test
+    public void testFailsWhileAFetchIsBlocked() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger fetches = new AtomicInteger();
+        DRPCInvocationsClient fetchClient = mock(DRPCInvocationsClient.class);
+        when(fetchClient.isConnected()).thenReturn(true);
+        when(fetchClient.getHost()).thenReturn("drpc1");
+        when(fetchClient.getPort()).thenReturn(3773);
+        when(fetchClient.fetchRequests("f")).thenAnswer(invocation -> {
+            if (fetches.incrementAndGet() == 1) {
+                return requests(0, 1);
+            }
+            // a long poll that is still held by the server
+            fetching.countDown();
+            release.await();
+            return Collections.emptyList();
+        });
+        DRPCInvocationsClient failClient = mock(DRPCInvocationsClient.class);
+        Iterator<DRPCInvocationsClient> clients = Arrays.asList(fetchClient, failClient).iterator();
+        spout = new DRPCSpout("f") {
+            @Override
+            DRPCInvocationsClient newClient(Map<String, Object> conf, String host, int port) {
+                return clients.next();
+            }
+        };
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.DRPC_SERVERS, Collections.singletonList("drpc1"));
+        conf.put(Config.DRPC_INVOCATIONS_PORT, 3773);
+        TopologyContext context = mock(TopologyContext.class);
+        when(context.getThisComponentId()).thenReturn("drpc");
+        when(context.getComponentTasks("drpc")).thenReturn(Collections.singletonList(1));
+        when(context.getThisTaskIndex()).thenReturn(0);
+        try {
+            spout.open(conf, context, collector);
+            assertEquals(Collections.singletonList("args0"), emitted(1));
+            assertTrue(fetching.await(10, TimeUnit.SECONDS));
+
+            spout.fail(msgIds.get(0));
+            verify(failClient).failRequest("id0");
+            verify(fetchClient, never()).failRequest(anyString());
+        } finally {
+            release.countDown();
+        }
+    }
+}
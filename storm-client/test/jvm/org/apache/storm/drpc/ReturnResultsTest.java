@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.drpc;
+
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.generated.DistributedRPCInvocations;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.utils.ServiceRegistry;
+import org.apache.thrift.TApplicationException;
+import org.apache.thrift.TException;
+import org.json.simple.JSONValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ReturnResults}.
+ */
+public class ReturnResultsTest {
+    private DRPCInvocationsClient client;
+    private OutputCollector collector;
+    private ReturnResults bolt;
+
+    @Before
+    public void setUp() {
+        client = mock(DRPCInvocationsClient.class);
+        collector = mock(OutputCollector.class);
+    }
+
+    @After
+    public void tearDown() {
+        bolt.cleanup();
+    }
+
+    private void prepare(String mode) {
+        bolt = new ReturnResults() {
+            @Override
+            DRPCInvocationsClient newClient(String host, int port) {
+                return client;
+            }
+        };
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.STORM_CLUSTER_MODE, mode);
+        bolt.prepare(conf, mock(TopologyContext.class), collector);
+    }
+
+    private static Tuple tuple(String host, String id, String result) {
+        Map<String, Object> returnInfo = new HashMap<>();
+        returnInfo.put("id", id);
+        returnInfo.put("host", host);
+        returnInfo.put("port", 3773);
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.getValue(0)).thenReturn(result);
+        when(tuple.getValue(1)).thenReturn(JSONValue.toJSONString(returnInfo));
+        return tuple;
+    }
+
+    @Test
+    public void testReturnsResultsAndAcksOnceTheyAreDelivered() throws Exception {
+        prepare("distributed");
+        Tuple input = tuple("drpc1", "1", "r1");
+        bolt.execute(input);
+        verify(collector, timeout(1000)).ack(input);
+        verify(client).results(Collections.singletonMap("1", "r1"));
+        verify(client, never()).result("1", "r1");
+    }
+
+    @Test
+    public void testFallsBackToSingleResultsOnUnknownMethod() throws Exception {
+        doThrow(new TApplicationException(TApplicationException.UNKNOWN_METHOD))
+            .when(client).results(anyMapOf(String.class, String.class));
+        prepare("distributed");
+        Tuple first = tuple("drpc1", "1", "r1");
+        bolt.execute(first);
+        verify(collector, timeout(1000)).ack(first);
+        verify(client).result("1", "r1");
+
+        Tuple second = tuple("drpc1", "2", "r2");
+        bolt.execute(second);
+        verify(collector, timeout(1000)).ack(second);
+        verify(client).result("2", "r2");
+        // the server is only asked once whether it can take batches
+        verify(client, times(1)).results(anyMapOf(String.class, String.class));
+    }
+
+    @Test
+    public void testFailsTheTuplesWhenResultsCannotBeDelivered() throws Exception {
+        doThrow(new TException("connection lost")).when(client).results(anyMapOf(String.class, String.class));
+        prepare("distributed");
+        Tuple input = tuple("drpc1", "1", "r1");
+        bolt.execute(input);
+        verify(collector, timeout(1000)).fail(input);
+        verify(client, times(3)).results(anyMapOf(String.class, String.class));
+        verify(collector, never()).ack(input);
+    }
+
+    @Test
+    public void testReturnsResultsInLineInLocalMode() throws Exception {
+        DistributedRPCInvocations.Iface drpc = mock(DistributedRPCInvocations.Iface.class);
+        String serviceId = ServiceRegistry.registerService(drpc);
+        try {
+            prepare("local");
+            Tuple input = tuple(serviceId, "1", "r1");
+            bolt.execute(input);
+            verify(drpc).result("1", "r1");
+            verify(collector).ack(input);
+        } finally {
+            ServiceRegistry.unregisterService(serviceId);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.metrics2;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import org.apache.storm.Config;
+import org.apache.storm.metrics2.reporters.StormReporter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StormMetricRegistryTest {
+
+    public static class RecordingReporter implements StormReporter {
+        static volatile Map<String, Object> preparedWith;
+        static volatile boolean started;
+
+        @Override
+        public void prepare(StormMetricRegistry metricsRegistry, Map<String, Object> topoConf, Map<String, Object> reporterConf) {
+            preparedWith = reporterConf;
+        }
+
+        @Override
+        public void start() {
+            started = true;
+        }
+
+        @Override
+        public void stop() {
+            started = false;
+        }
+    }
+
+    @Test
+    public void testDimensionsAreFlattenedAndKept() {
+        StormMetricRegistry registry = new StormMetricRegistry("topo-1", "host.example.com", 6700);
+        MetricDimensions dims = registry.taskDimensions("acked", "split", 7).withStream("spout:default");
+        Counter counter = registry.counter(dims);
+        counter.inc(3);
+
+        String name = "storm.worker.topo-1.host_example_com.6700.split.7.spout-default.acked";
+        Assert.assertEquals(name, dims.toMetricName());
+        Assert.assertSame(counter, registry.getRegistry().getCounters().get(name));
+        Assert.assertSame(counter, registry.counter(registry.taskDimensions("acked", "split", 7).withStream("spout:default")));
+        Assert.assertEquals("split", registry.getDimensions(name).getTags().get(MetricDimensions.COMPONENT));
+
+        Gauge<Integer> gauge = () -> 1;
+        Assert.assertSame(gauge, registry.gauge(registry.workerDimensions("queue"), gauge));
+        Assert.assertSame(gauge, registry.gauge(registry.workerDimensions("queue"), () -> 2));
+    }
+
+    @Test
+    public void testTaskMetricsUseSamplingRate() {
+        StormMetricRegistry registry = new StormMetricRegistry("topo-1", "host", 6700);
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_STATS_SAMPLE_RATE, 0.05);
+        conf.put(Config.TOPOLOGY_METRICS_TASK_STATS_ENABLE, true);
+        TaskMetrics metrics = new TaskMetrics(registry, "split", 7, conf);
+        metrics.emitted("default");
+        metrics.emitted("default");
+        metrics.transferred("default", 3);
+        metrics.boltAcked("spout", "default", 5);
+        metrics.boltAcked("spout", "default", 5);
+
+        Map<String, Counter> counters = registry.getRegistry().getCounters();
+        Assert.assertEquals(40, counters.get(registry.taskDimensions(TaskMetrics.EMITTED, "split", 7)
+            .withStream("default").toMetricName()).getCount());
+        Assert.assertEquals(60, counters.get(registry.taskDimensions(TaskMetrics.TRANSFERRED, "split", 7)
+            .withStream("default").toMetricName()).getCount());
+        Assert.assertEquals(40, counters.get(registry.taskDimensions(TaskMetrics.ACKED, "split", 7)
+            .withStream("spout:default").toMetricName()).getCount());
+        Assert.assertEquals(2, registry.getRegistry().getHistograms().get(registry.taskDimensions(TaskMetrics.PROCESS_LATENCY, "split", 7)
+            .withStream("spout:default").toMetricName()).getCount());
+        // only the metrics that were updated are registered
+        Assert.assertEquals(3, counters.size());
+    }
+
+    @Test
+    public void testTaskMetricsAreOffByDefault() {
+        StormMetricRegistry registry = new StormMetricRegistry("topo-1", "host", 6700);
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_STATS_SAMPLE_RATE, 0.05);
+        TaskMetrics metrics = new TaskMetrics(registry, "split", 7, conf);
+        metrics.emitted("default");
+        metrics.spoutAcked("default", 5);
+        metrics.boltExecuted("spout", "default", 5);
+
+        Assert.assertTrue(registry.getRegistry().getMetrics().isEmpty());
+    }
+
+    @Test
+    public void testReportersFromConfig() {
+        StormMetricRegistry registry = new StormMetricRegistry("topo-1", "host", 6700);
+        Map<String, Object> reporterConf = new HashMap<>();
+        reporterConf.put(StormReporter.REPORTER_CLASS, RecordingReporter.class.getName());
+        reporterConf.put(StormReporter.REPORT_PERIOD, 5);
+        Map<String, Object> topoConf = new HashMap<>();
+        topoConf.put(Config.TOPOLOGY_METRICS_REPORTERS, Collections.singletonList(reporterConf));
+
+        registry.startReporters(topoConf);
+        Assert.assertTrue(RecordingReporter.started);
+        Assert.assertEquals(reporterConf, RecordingReporter.preparedWith);
+        Assert.assertEquals(1, registry.getReporters().size());
+
+        registry.stopReporters();
+        Assert.assertFalse(RecordingReporter.started);
+        Assert.assertTrue(registry.getReporters().isEmpty());
+    }
+}
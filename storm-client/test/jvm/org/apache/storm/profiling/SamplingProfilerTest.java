@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.profiling;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.storm.Config;
+import org.apache.storm.testing.TmpPath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SamplingProfilerTest {
+
+    @Test
+    public void testFolding() {
+        FoldedStacks stacks = new FoldedStacks();
+        StackTraceElement[] stack = {
+            new StackTraceElement("a.Inner", "run", null, 1),
+            new StackTraceElement("a.Outer", "main", null, 1)
+        };
+        stacks.add("split-executor[3 3]", stack, 1);
+        stacks.add("split-executor[3 3]", stack, 2);
+        FoldedStacks other = new FoldedStacks();
+        other.add("count-executor[4 4]", stack, 5);
+        stacks.addAll(other);
+
+        Assert.assertEquals(3L, (long) stacks.getWeights().get("split-executor[3 3];a.Outer.main;a.Inner.run"));
+        Assert.assertEquals(5L, (long) stacks.getWeights().get("count-executor[4 4];a.Outer.main;a.Inner.run"));
+        Assert.assertEquals("split-executor[3 3]", SamplingProfiler.rootFrame("Thread-17-split-executor[3 3]"));
+    }
+
+    @Test
+    public void testSamplesBusyThreadIntoWindow() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread busy = new Thread(() -> {
+            started.countDown();
+            long x = 0;
+            while (running.get()) {
+                x += new byte[64].length;
+            }
+        }, "Thread-99-busy-executor[1 1]");
+        busy.start();
+        started.await();
+
+        try (TmpPath dir = new TmpPath()) {
+            new File(dir.getPath()).mkdirs();
+            Map<String, Object> conf = new HashMap<>();
+            conf.put(Config.TOPOLOGY_WORKER_PROFILER_SAMPLE_INTERVAL_MS, 10);
+            // one sample per bucket
+            conf.put(Config.TOPOLOGY_WORKER_PROFILER_WINDOW_SECS, 0);
+            SamplingProfiler profiler = new SamplingProfiler(conf, new File(dir.getPath()));
+            for (int i = 0; i < SamplingProfiler.NUM_BUCKETS + 2; i++) {
+                profiler.sample();
+            }
+            running.set(false);
+            busy.join();
+
+            boolean found = profiler.window()[0].getWeights().keySet().stream()
+                .anyMatch(stack -> stack.startsWith("busy-executor[1 1];"));
+            Assert.assertTrue(found);
+            String written = new String(Files.readAllBytes(new File(dir.getPath(), SamplingProfiler.CPU_FILE).toPath()),
+                StandardCharsets.UTF_8);
+            Assert.assertTrue(written.contains("busy-executor[1 1];"));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Test
+    public void testStopDoesNotWaitForBlockedSample() throws Exception {
+        try (TmpPath dir = new TmpPath()) {
+            new File(dir.getPath()).mkdirs();
+            Map<String, Object> conf = new HashMap<>();
+            conf.put(Config.TOPOLOGY_WORKER_PROFILER_SAMPLE_INTERVAL_MS, 1);
+            SamplingProfiler profiler = new SamplingProfiler(conf, new File(dir.getPath()));
+            profiler.start();
+            long start = System.currentTimeMillis();
+            // keep the next sample waiting for the profiler's lock while stop is called
+            Thread holder = new Thread(() -> {
+                synchronized (profiler) {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            holder.start();
+            Thread.sleep(20);
+            profiler.stop();
+            holder.join();
+            Assert.assertTrue("stop took too long", System.currentTimeMillis() - start < 5_000);
+            Assert.assertTrue(new File(dir.getPath(), SamplingProfiler.CPU_FILE).exists());
+        }
+    }
+}
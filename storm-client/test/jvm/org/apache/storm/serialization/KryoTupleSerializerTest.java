@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.generated.StormTopology;
+import org.apache.storm.task.GeneralTopologyContext;
+import org.apache.storm.testing.TestWordSpout;
+import org.apache.storm.topology.TopologyBuilder;
+import org.apache.storm.tracing.TraceContext;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.TupleImpl;
+import org.apache.storm.utils.Utils;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link KryoTupleSerializer} and {@link KryoTupleDeserializer}.
+ */
+public class KryoTupleSerializerTest {
+    private GeneralTopologyContext context;
+
+    @Before
+    public void setUp() {
+        TopologyBuilder builder = new TopologyBuilder();
+        builder.setSpout("spout", new TestWordSpout());
+        StormTopology topology = builder.createTopology();
+        context = mock(GeneralTopologyContext.class);
+        when(context.getRawTopology()).thenReturn(topology);
+        when(context.getComponentId(1)).thenReturn("spout");
+        when(context.getComponentOutputFields("spout", Utils.DEFAULT_STREAM_ID)).thenReturn(new Fields("word"));
+    }
+
+    private static Map<String, Object> conf(boolean tracing) {
+        Map<String, Object> conf = Utils.readDefaultConfig();
+        conf.put(Config.TOPOLOGY_TRACING_ENABLE, tracing);
+        return conf;
+    }
+
+    private Tuple roundTrip(boolean writeTracing, boolean readTracing) {
+        TupleImpl tuple = new TupleImpl(context, Collections.singletonList("nathan"), 1, Utils.DEFAULT_STREAM_ID);
+        tuple.setTraceContext(new TraceContext(42L, 1000L));
+        byte[] ser = new KryoTupleSerializer(conf(writeTracing), context).serialize(tuple);
+        Tuple ret = new KryoTupleDeserializer(conf(readTracing), context).deserialize(ser);
+        assertEquals(Collections.singletonList("nathan"), ret.getValues());
+        assertEquals(Utils.DEFAULT_STREAM_ID, ret.getSourceStreamId());
+        return ret;
+    }
+
+    @Test
+    public void testTraceIsCarriedWhenTracing() {
+        assertEquals(42L, ((TupleImpl) roundTrip(true, true)).getTraceContext().getTraceId());
+    }
+
+    @Test
+    public void testNotTracing() {
+        assertNull(((TupleImpl) roundTrip(false, false)).getTraceContext());
+    }
+
+    @Test
+    public void testTuplesWrittenWithTracingAreReadWithoutIt() {
+        // e.g. a spilled window read back after a redeploy with tracing switched off
+        assertNull(((TupleImpl) roundTrip(true, false)).getTraceContext());
+    }
+
+    @Test
+    public void testTuplesWrittenWithoutTracingAreReadWithIt() {
+        assertNull(((TupleImpl) roundTrip(false, true)).getTraceContext());
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.state;
+
+import com.codahale.metrics.Counter;
+import org.apache.storm.Config;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CachingKeyValueState}
+ */
+public class CachingKeyValueStateTest {
+    KeyValueState<String, String> delegate;
+    Counter hits;
+    Counter misses;
+    CachingKeyValueState<String, String> keyValueState;
+
+    @Before
+    public void setUp() {
+        delegate = Mockito.spy(new InMemoryKeyValueState<String, String>());
+        hits = new Counter();
+        misses = new Counter();
+        keyValueState = new CachingKeyValueState<>(delegate, 2, hits, misses);
+    }
+
+    @Test
+    public void testWritesAreBufferedUntilPrepare() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("a", "2");
+        keyValueState.put("b", "3");
+        assertEquals("3", keyValueState.delete("b"));
+        assertEquals("2", keyValueState.get("a"));
+        assertNull(keyValueState.get("b"));
+        Mockito.verify(delegate, Mockito.never()).put(Mockito.anyString(), Mockito.anyString());
+
+        keyValueState.prepareCommit(1);
+        Mockito.verify(delegate, Mockito.times(1)).put("a", "2");
+        Mockito.verify(delegate, Mockito.times(1)).delete("b");
+        keyValueState.commit(1);
+        assertEquals("2", delegate.get("a"));
+        assertNull(delegate.get("b"));
+    }
+
+    @Test
+    public void testReadsAreCached() throws Exception {
+        delegate.put("a", "1");
+        delegate.prepareCommit(1);
+        delegate.commit(1);
+
+        assertEquals("1", keyValueState.get("a"));
+        assertEquals("1", keyValueState.get("a"));
+        assertNull(keyValueState.get("x"));
+        assertNull(keyValueState.get("x"));
+        Mockito.verify(delegate, Mockito.times(1)).get("a");
+        Mockito.verify(delegate, Mockito.times(1)).get("x");
+        assertEquals(2, hits.getCount());
+        assertEquals(2, misses.getCount());
+        assertEquals(0.5, keyValueState.getHitRatio(), 0.0);
+
+        // the cache holds two entries, reading c evicts the least recently used a
+        assertNull(keyValueState.get("c"));
+        assertEquals("1", keyValueState.get("a"));
+        Mockito.verify(delegate, Mockito.times(2)).get("a");
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("a", "2");
+        keyValueState.put("b", "3");
+        keyValueState.prepareCommit(2);
+        assertEquals("2", keyValueState.get("a"));
+        keyValueState.put("c", "4");
+        keyValueState.rollback();
+        assertEquals("1", keyValueState.get("a"));
+        assertNull(keyValueState.get("b"));
+        assertNull(keyValueState.get("c"));
+    }
+
+    @Test
+    public void testIteratorSeesBufferedWrites() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("b", "2");
+        keyValueState.delete("a");
+        Map<String, String> entries = new HashMap<>();
+        Iterator<Map.Entry<String, String>> it = keyValueState.iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> e = it.next();
+            entries.put(e.getKey(), e.getValue());
+        }
+        Map<String, String> expected = new HashMap<>();
+        expected.put("b", "2");
+        assertEquals(expected, entries);
+    }
+
+    @Test
+    public void testProvider() throws Exception {
+        Map<String, Object> topoConf = new HashMap<>();
+        topoConf.put(Config.TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER, InMemoryKeyValueStateProvider.class.getName());
+        topoConf.put(Config.TOPOLOGY_STATE_CACHE_SIZE, 10);
+        State state = new CachingKeyValueStateProvider().newState("test", topoConf, null);
+        assertTrue(state instanceof CachingKeyValueState);
+        // the in memory state checkpoints asynchronously, the cache on top of it has to as well
+        assertTrue(state instanceof AsyncCheckpointState);
+    }
+
+    @Test
+    public void testAsyncCheckpoint() throws Exception {
+        InMemoryKeyValueState<String, String> asyncDelegate = Mockito.spy(new InMemoryKeyValueState<String, String>());
+        CachingKeyValueState<String, String> state = CachingKeyValueState.wrap(asyncDelegate, 2, hits, misses);
+        AsyncCheckpointState async = (AsyncCheckpointState) state;
+        state.put("a", "1");
+        async.snapshot(1);
+        Mockito.verify(asyncDelegate).put("a", "1");
+        Mockito.verify(asyncDelegate).snapshot(1);
+        // written after the snapshot, belongs to the next transaction
+        state.put("a", "2");
+        async.flushPrepared(1);
+        Mockito.verify(asyncDelegate).flushPrepared(1);
+        state.commit(1);
+        assertEquals("1", asyncDelegate.get("a"));
+        assertEquals("2", state.get("a"));
+    }
+
+    @Test
+    public void testWrapSyncState() throws Exception {
+        assertFalse(CachingKeyValueState.wrap(Mockito.mock(KeyValueState.class), 2, hits, misses)
+                    instanceof AsyncCheckpointState);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProviderDelegatingToItself() throws Exception {
+        Map<String, Object> topoConf = new HashMap<>();
+        topoConf.put(Config.TOPOLOGY_STATE_CACHE_DELEGATE_PROVIDER, CachingKeyValueStateProvider.class.getName());
+        new CachingKeyValueStateProvider().newState("test", topoConf, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProviderWithoutDelegate() throws Exception {
+        new CachingKeyValueStateProvider().newState("test", new HashMap<String, Object>(), null);
+    }
+}
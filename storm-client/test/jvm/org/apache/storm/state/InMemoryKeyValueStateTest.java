@@ -22,6 +22,9 @@ import org.apache.storm.state.KeyValueState;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 /**
@@ -89,6 +92,53 @@ public class InMemoryKeyValueStateTest {
         assertArrayEquals(new String[]{"1", null, null}, getValues());
     }
 
+    @Test
+    public void testPrepareAgainIncludesLaterChanges() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.put("b", "2");
+        keyValueState.delete("a");
+        keyValueState.prepareCommit(1);
+        keyValueState.put("c", "3");
+        keyValueState.commit(1);
+        keyValueState.rollback();
+        assertArrayEquals(new String[]{null, "2", null}, getValues());
+    }
+
+    @Test
+    public void testChangesAfterRollbackDoNotAffectCommittedState() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.rollback();
+        keyValueState.put("a", "10");
+        keyValueState.put("b", "2");
+        keyValueState.rollback();
+        assertArrayEquals(new String[]{"1", null, null}, getValues());
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        keyValueState.put("a", "1");
+        keyValueState.put("b", "2");
+        keyValueState.put("c", "3");
+        keyValueState.prepareCommit(1);
+        keyValueState.commit(1);
+        keyValueState.put("d", "4");
+        keyValueState.delete("a");
+        keyValueState.prepareCommit(2);
+        keyValueState.put("b", "20");
+        keyValueState.delete("d");
+        Map<String, String> entries = new HashMap<>();
+        for (Map.Entry<String, String> entry : keyValueState) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        Map<String, String> expected = new HashMap<>();
+        expected.put("b", "20");
+        expected.put("c", "3");
+        assertEquals(expected, entries);
+    }
+
     private String[] getValues() {
         return new String[]{
                 keyValueState.get("a"),
@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.stats;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.storm.cluster.IStormClusterState;
+import org.apache.storm.generated.Bolt;
+import org.apache.storm.generated.ComponentAggregateStats;
+import org.apache.storm.generated.ComponentPageInfo;
+import org.apache.storm.generated.SpoutSpec;
+import org.apache.storm.generated.StateSpoutSpec;
+import org.apache.storm.generated.StormTopology;
+import org.apache.storm.generated.TopologyPageInfo;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TopologyPageAggregatorTest {
+    private static final String WIN = "600";
+
+    private final Map<List<Long>, List<Object>> exec2NodePort = new HashMap<>();
+    private final Map<Integer, String> task2Component = new HashMap<>();
+    private final Map<List<Integer>, Map<String, Object>> beats = new HashMap<>();
+    private final Map<String, String> nodeToHost = new HashMap<>();
+    private IStormClusterState clusterState;
+
+    @Before
+    public void setUp() {
+        clusterState = Mockito.mock(IStormClusterState.class);
+        task2Component.put(1, "spout");
+        task2Component.put(2, "bolt");
+        task2Component.put(3, "bolt");
+        task2Component.put(4, "__acker");
+        exec2NodePort.put(Arrays.asList(1L, 1L), Arrays.asList("node1", 6700L));
+        exec2NodePort.put(Arrays.asList(2L, 2L), Arrays.asList("node1", 6700L));
+        exec2NodePort.put(Arrays.asList(3L, 3L), Arrays.asList("node2", 6700L));
+        exec2NodePort.put(Arrays.asList(4L, 4L), Arrays.asList("node2", 6700L));
+        nodeToHost.put("node1", "host1");
+        nodeToHost.put("node2", "host2");
+        beats.putAll(newBeats());
+    }
+
+    private static Map<List<Integer>, Map<String, Object>> newBeats() {
+        Map<List<Integer>, Map<String, Object>> ret = new HashMap<>();
+        ret.put(Arrays.asList(1, 1), beat(10, spoutStats(100, 50, 2.0)));
+        ret.put(Arrays.asList(2, 2), beat(10, boltStats(20, 10, 1.0)));
+        ret.put(Arrays.asList(3, 3), beat(10, boltStats(30, 20, 4.0)));
+        ret.put(Arrays.asList(4, 4), beat(10, boltStats(5, 5, 1.0)));
+        return ret;
+    }
+
+    private static StormTopology topology() {
+        return new StormTopology(Collections.<String, SpoutSpec>emptyMap(), Collections.singletonMap("bolt", new Bolt()),
+                                 Collections.<String, StateSpoutSpec>emptyMap());
+    }
+
+    private static Map<String, Object> beat(int timeSecs, Map<String, Object> stats) {
+        Map<String, Object> hb = new HashMap<>();
+        hb.put("time-secs", timeSecs);
+        hb.put("uptime", 100);
+        hb.put("stats", stats);
+        Map<String, Object> ret = new HashMap<>();
+        ret.put("heartbeat", hb);
+        return ret;
+    }
+
+    private static Map<String, Map<Object, Object>> perWindow(Object stream, Object value) {
+        Map<Object, Object> byStream = new HashMap<>();
+        byStream.put(stream, value);
+        Map<String, Map<Object, Object>> ret = new HashMap<>();
+        ret.put(WIN, byStream);
+        return ret;
+    }
+
+    private static Map<String, Object> emittedStats(String type, long emitted) {
+        Map<String, Map<Object, Object>> win2emitted = perWindow("default", emitted);
+        win2emitted.get(WIN).put("__ack_init", 7L);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("type", type);
+        stats.put("emitted", win2emitted);
+        stats.put("transferred", perWindow("default", emitted));
+        return stats;
+    }
+
+    private static Map<String, Object> spoutStats(long emitted, long acked, double completeLatency) {
+        Map<String, Object> stats = emittedStats(StatsUtil.SPOUT, emitted);
+        stats.put("acked", perWindow("default", acked));
+        stats.put("failed", perWindow("default", 1L));
+        stats.put("complete-latencies", perWindow("default", completeLatency));
+        return stats;
+    }
+
+    private static Map<String, Object> boltStats(long emitted, long executed, double executeLatency) {
+        List<String> sid = Arrays.asList("spout", "default");
+        Map<String, Object> stats = emittedStats(StatsUtil.BOLT, emitted);
+        stats.put("acked", perWindow(sid, executed));
+        stats.put("failed", perWindow(sid, 0L));
+        stats.put("executed", perWindow(sid, executed));
+        stats.put("execute-latencies", perWindow(sid, executeLatency));
+        stats.put("process-latencies", perWindow(sid, executeLatency * 2));
+        return stats;
+    }
+
+    @Test
+    public void testAggregatesComponentsAndTopology() {
+        TopologyPageAggregator aggregator = new TopologyPageAggregator("topo-1");
+        TopologyPageInfo info = aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, false, clusterState);
+
+        assertEquals(4, info.get_num_tasks());
+        assertEquals(4, info.get_num_executors());
+        assertEquals(2, info.get_num_workers());
+        assertFalse(info.get_id_to_bolt_agg_stats().containsKey("__acker"));
+
+        ComponentAggregateStats spout = info.get_id_to_spout_agg_stats().get("spout");
+        assertEquals(100L, spout.get_common_stats().get_emitted());
+        assertEquals(50L, spout.get_common_stats().get_acked());
+        assertEquals(1L, spout.get_common_stats().get_failed());
+        assertEquals(2.0, spout.get_specific_stats().get_spout().get_complete_latency_ms(), 0.001);
+
+        ComponentAggregateStats bolt = info.get_id_to_bolt_agg_stats().get("bolt");
+        assertEquals(2, bolt.get_common_stats().get_num_executors());
+        assertEquals(50L, bolt.get_common_stats().get_emitted());
+        assertEquals(30L, bolt.get_specific_stats().get_bolt().get_executed());
+        // (10 * 1.0 + 20 * 4.0) / 30
+        assertEquals(3.0, bolt.get_specific_stats().get_bolt().get_execute_latency_ms(), 0.001);
+        assertEquals(6.0, bolt.get_specific_stats().get_bolt().get_process_latency_ms(), 0.001);
+
+        assertEquals(150L, info.get_topology_stats().get_window_to_emitted().get(WIN).longValue());
+        assertEquals(50L, info.get_topology_stats().get_window_to_acked().get(WIN).longValue());
+        assertEquals(2.0, info.get_topology_stats().get_window_to_complete_latencies_ms().get(WIN), 0.001);
+    }
+
+    @Test
+    public void testIncludeSys() {
+        TopologyPageAggregator aggregator = new TopologyPageAggregator("topo-1");
+        TopologyPageInfo info = aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, true, clusterState);
+
+        assertTrue(info.get_id_to_bolt_agg_stats().containsKey("__acker"));
+        assertEquals(107L, info.get_id_to_spout_agg_stats().get("spout").get_common_stats().get_emitted());
+        // 100 + 20 + 30 + 5 plus 4 * 7 on the system stream
+        assertEquals(183L, info.get_topology_stats().get_window_to_emitted().get(WIN).longValue());
+    }
+
+    @Test
+    public void testPicksUpNewHeartbeatsOnly() {
+        TopologyPageAggregator aggregator = new TopologyPageAggregator("topo-1");
+        aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, false, clusterState);
+
+        // same reported time: the executor is considered unchanged
+        beats.put(Arrays.asList(1, 1), beat(10, spoutStats(1000, 50, 2.0)));
+        TopologyPageInfo info = aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, false, clusterState);
+        assertEquals(100L, info.get_id_to_spout_agg_stats().get("spout").get_common_stats().get_emitted());
+
+        beats.put(Arrays.asList(1, 1), beat(20, spoutStats(1000, 50, 2.0)));
+        info = aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, false, clusterState);
+        assertEquals(1000L, info.get_id_to_spout_agg_stats().get("spout").get_common_stats().get_emitted());
+
+        exec2NodePort.remove(Arrays.asList(3L, 3L));
+        info = aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, false, clusterState);
+        assertEquals(1, info.get_id_to_bolt_agg_stats().get("bolt").get_common_stats().get_num_executors());
+        assertEquals(1, info.get_num_workers());
+    }
+
+    @Test
+    public void testComponentPageMatchesStatsUtil() {
+        TopologyPageAggregator aggregator = new TopologyPageAggregator("topo-1");
+        aggregator.update(exec2NodePort, nodeToHost, task2Component, beats);
+        ComponentPageInfo info = aggregator.getComponentPageInfo("bolt", WIN, false, topology());
+        // the heartbeats kept by nimbus are left alone
+        Map<String, Object> stats = (Map) ((Map) beats.get(Arrays.asList(2, 2)).get("heartbeat")).get("stats");
+        assertTrue(((Map) ((Map) stats.get("emitted")).get(WIN)).containsKey("__ack_init"));
+
+        Map<List<Long>, List<Object>> exec2HostPort = new HashMap<>();
+        for (Map.Entry<List<Long>, List<Object>> entry : exec2NodePort.entrySet()) {
+            exec2HostPort.put(entry.getKey(), Arrays.asList(nodeToHost.get(entry.getValue().get(0)), entry.getValue().get(1)));
+        }
+        ComponentPageInfo expected = StatsUtil.aggCompExecsStats(exec2HostPort, task2Component, newBeats(), WIN, false,
+                                                                 "topo-1", topology(), "bolt");
+        assertEquals(2, info.get_exec_stats_size());
+        assertEquals(new HashSet<>(expected.get_exec_stats()), new HashSet<>(info.get_exec_stats()));
+        expected.unset_exec_stats();
+        info.unset_exec_stats();
+        assertEquals(expected, info);
+    }
+
+    @Test
+    public void testDeprecatedStatsUtilHelpersMatchAggregator() {
+        TopologyPageAggregator aggregator = new TopologyPageAggregator("topo-1");
+        TopologyPageInfo expected = aggregator.aggTopoExecsStats(exec2NodePort, task2Component, beats, WIN, false,
+                                                                 clusterState);
+        assertEquals(expected, StatsUtil.aggTopoExecsStats("topo-1", exec2NodePort, task2Component, beats, topology(),
+                                                           WIN, false, clusterState));
+
+        List<Map<String, Object>> beatList = StatsUtil.extractDataFromHb(exec2NodePort, task2Component, beats, false,
+                                                                         topology());
+        Map<String, Object> accStats = StatsUtil.aggregateTopoStats(WIN, false, beatList);
+        assertEquals(expected, StatsUtil.postAggregateTopoStats(task2Component, exec2NodePort, accStats, "topo-1",
+                                                                clusterState));
+
+        Map<String, Object> folded = StatsUtil.aggregateTopoStats(WIN, false, Collections.<Map<String, Object>>emptyList());
+        for (Map<String, Object> beat : beatList) {
+            folded = StatsUtil.aggTopoExecStats(WIN, false, folded, beat, (String) beat.get("type"));
+        }
+        assertEquals(accStats, folded);
+    }
+
+    @Test
+    public void testRefreshesFromHeartbeats() {
+        TopologyPageAggregator aggregator = new TopologyPageAggregator("topo-1");
+        // nothing to attribute the heartbeats to before the first full update
+        aggregator.update(exec2NodePort, nodeToHost, beats);
+        assertTrue(aggregator.getTopologyPageInfo(WIN, false, clusterState).get_id_to_spout_agg_stats().isEmpty());
+
+        aggregator.update(exec2NodePort, nodeToHost, task2Component, beats);
+        assertEquals(100L, aggregator.getComponentPageInfo("spout", WIN, false, topology())
+            .get_window_to_stats().get(WIN).get_common_stats().get_emitted());
+
+        beats.put(Arrays.asList(1, 1), beat(20, spoutStats(1000, 50, 2.0)));
+        aggregator.update(exec2NodePort, nodeToHost, beats);
+        TopologyPageInfo info = aggregator.getTopologyPageInfo(WIN, false, clusterState);
+        assertEquals(4, info.get_num_tasks());
+        assertEquals(1000L, info.get_id_to_spout_agg_stats().get("spout").get_common_stats().get_emitted());
+        assertEquals(1000L, aggregator.getComponentPageInfo("spout", WIN, false, topology())
+            .get_window_to_stats().get(WIN).get_common_stats().get_emitted());
+    }
+}
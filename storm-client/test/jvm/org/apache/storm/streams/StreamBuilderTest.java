@@ -46,7 +46,9 @@ import org.mockito.Mockito;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -115,6 +117,22 @@ public class StreamBuilderTest {
         assertEquals(Collections.singleton(s2.node), sj.node.getParents(s2.stream));
     }
 
+    @Test
+    public void testJoinTable() throws Exception {
+        Stream<Integer> s1 = streamBuilder.newStream(newSpout(Utils.DEFAULT_STREAM_ID), new ValueMapper<>(0), 2);
+        Stream<Integer> s2 = streamBuilder.newStream(newSpout(Utils.DEFAULT_STREAM_ID), new ValueMapper<>(0));
+        PairStream<Integer, Integer> stream = s1.mapToPair(x -> Pair.of(x, 1));
+        PairStream<Integer, String> table = s2.mapToPair(x -> Pair.of(x, "v"));
+        stream.joinTable(table).print();
+        StormTopology topology = streamBuilder.build();
+        Set<Grouping> groupings = new HashSet<>();
+        for (Bolt bolt : topology.get_bolts().values()) {
+            groupings.addAll(bolt.get_common().get_inputs().values());
+        }
+        assertTrue(groupings.contains(Grouping.all(new NullStruct())));
+        assertTrue(groupings.contains(Grouping.local_or_shuffle(new NullStruct())));
+    }
+
     @Test
     public void testGroupBy() throws Exception {
         PairStream<String, String> stream = streamBuilder.newStream(newSpout(Utils.DEFAULT_STREAM_ID), new PairValueMapper<>(0, 1), 2);
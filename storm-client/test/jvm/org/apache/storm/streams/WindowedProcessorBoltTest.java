@@ -21,6 +21,7 @@ import com.google.common.collect.Multimap;
 import org.apache.storm.streams.operations.aggregators.Count;
 import org.apache.storm.streams.processors.AggregateProcessor;
 import org.apache.storm.streams.processors.Processor;
+import org.apache.storm.streams.windowing.SessionWindows;
 import org.apache.storm.streams.windowing.TumblingWindows;
 import org.apache.storm.streams.windowing.Window;
 import org.apache.storm.task.OutputCollector;
@@ -29,6 +30,7 @@ import org.apache.storm.topology.base.BaseWindowedBolt;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
+import org.apache.storm.windowing.SessionKeyExtractor;
 import org.apache.storm.windowing.TupleWindow;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.graph.DefaultDirectedGraph;
@@ -42,6 +44,7 @@ import java.util.Collections;
 import java.util.HashMap;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Unit test for {@link WindowedProcessorBolt}
@@ -81,6 +84,24 @@ public class WindowedProcessorBoltTest {
         assertEquals(new Values(WindowNode.PUNCTUATION), values.getAllValues().get(1));
     }
 
+    @Test
+    public void testSessionsAreKeyedOnPairStreamsOnly() throws Exception {
+        bolt = new WindowedProcessorBolt("bolt1", graph, Collections.emptyList(),
+                                         SessionWindows.of(BaseWindowedBolt.Duration.seconds(10)),
+                                         Collections.singleton("pairs"));
+        SessionKeyExtractor keyExtractor = bolt.getSessionKeyExtractor();
+        Tuple pair = Mockito.mock(Tuple.class);
+        Mockito.when(pair.getSourceStreamId()).thenReturn("pairs");
+        Mockito.when(pair.getValue(0)).thenReturn("key");
+        assertEquals("key", keyExtractor.extractKey(pair));
+        // a two field tuple of another stream is not a pair
+        Tuple other = Mockito.mock(Tuple.class);
+        Mockito.when(other.size()).thenReturn(2);
+        Mockito.when(other.getSourceStreamId()).thenReturn("values");
+        Mockito.when(other.getValue(0)).thenReturn("value");
+        assertNull(keyExtractor.extractKey(other));
+    }
+
     private void setUpWindowedProcessorBolt(Processor<?> processor, Window<?, ?> window) {
         ProcessorNode node = new ProcessorNode(processor, "outputstream", new Fields("value"));
         node.setWindowed(true);
@@ -88,7 +109,8 @@ public class WindowedProcessorBoltTest {
         Mockito.when(mockStreamToProcessors.keySet()).thenReturn(Collections.singleton("inputstream"));
         graph = new DefaultDirectedGraph<>(new StreamsEdgeFactory());
         graph.addVertex(node);
-        bolt = new WindowedProcessorBolt("bolt1", graph, Collections.singletonList(node), window);
+        bolt = new WindowedProcessorBolt("bolt1", graph, Collections.singletonList(node), window,
+                                         Collections.emptySet());
         bolt.setStreamToInitialProcessors(mockStreamToProcessors);
         bolt.prepare(new HashMap<>(), mockTopologyContext, mockOutputCollector);
     }
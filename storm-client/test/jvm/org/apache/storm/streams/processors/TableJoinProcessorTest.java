@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.streams.processors;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.apache.storm.streams.Pair;
+import org.apache.storm.streams.operations.PairValueJoiner;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TableJoinProcessor}.
+ */
+public class TableJoinProcessorTest {
+    private static final String STREAM = "stream";
+    private static final String TABLE = "table";
+
+    private final List<Object> res = new ArrayList<>();
+    private final ProcessorContext context = new ProcessorContext() {
+        @Override
+        public <T> void forward(T input) {
+            res.add(input);
+        }
+
+        @Override
+        public <T> void forward(T input, String stream) {
+        }
+
+        @Override
+        public boolean isWindowed() {
+            return false;
+        }
+
+        @Override
+        public Set<String> getWindowedParentStreams() {
+            return null;
+        }
+    };
+
+    private TableJoinProcessor<Integer, Pair<String, String>, String, String> processor(JoinProcessor.JoinType type,
+                                                                                        long maxEntries) {
+        TableJoinProcessor<Integer, Pair<String, String>, String, String> processor =
+            new TableJoinProcessor<>(TABLE, new PairValueJoiner<>(), type, maxEntries, 0);
+        processor.init(context);
+        return processor;
+    }
+
+    @Test
+    public void testInnerJoin() {
+        TableJoinProcessor<Integer, ?, ?, ?> processor = processor(JoinProcessor.JoinType.INNER, 0);
+        processor.execute(Pair.of(1, "x"), STREAM);
+        processor.execute(Pair.of(1, "one"), TABLE);
+        processor.execute(Pair.of(2, "two"), TABLE);
+        processor.execute(Pair.of(1, "y"), STREAM);
+        processor.execute(Pair.of(2, "z"), STREAM);
+        processor.execute(Pair.of(2, "uno"), TABLE);
+        processor.execute(Pair.of(2, "w"), STREAM);
+        assertEquals(Arrays.asList(Pair.of(1, Pair.of("y", "one")), Pair.of(2, Pair.of("z", "two")),
+                                   Pair.of(2, Pair.of("w", "uno"))), res);
+    }
+
+    @Test
+    public void testLeftOuterJoinAndRemoval() {
+        TableJoinProcessor<Integer, ?, ?, ?> processor = processor(JoinProcessor.JoinType.OUTER, 0);
+        processor.execute(Pair.of(1, "one"), TABLE);
+        processor.execute(Pair.of(1, "x"), STREAM);
+        processor.execute(Pair.of(1, null), TABLE);
+        processor.execute(Pair.of(1, "y"), STREAM);
+        assertEquals(Arrays.asList(Pair.of(1, Pair.of("x", "one")), Pair.of(1, Pair.of("y", null))), res);
+    }
+
+    @Test
+    public void testMaxEntries() {
+        TableJoinProcessor<Integer, ?, ?, ?> processor = processor(JoinProcessor.JoinType.INNER, 1);
+        processor.execute(Pair.of(1, "one"), TABLE);
+        processor.execute(Pair.of(2, "two"), TABLE);
+        processor.execute(Pair.of(1, "x"), STREAM);
+        processor.execute(Pair.of(2, "y"), STREAM);
+        assertEquals(Arrays.asList(Pair.of(2, Pair.of("y", "two"))), res);
+    }
+}
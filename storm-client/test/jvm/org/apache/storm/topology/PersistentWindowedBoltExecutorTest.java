@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.topology;
+
+import org.apache.storm.Config;
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.serialization.ITupleDeserializer;
+import org.apache.storm.serialization.ITupleSerializer;
+import org.apache.storm.state.InMemoryKeyValueState;
+import org.apache.storm.state.KeyValueState;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.windowing.TupleWindow;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.storm.topology.PersistentWindowedBoltExecutor.LOG_KEY;
+import static org.apache.storm.topology.PersistentWindowedBoltExecutor.SEGMENT_KEY_PREFIX;
+import static org.apache.storm.topology.PersistentWindowedBoltExecutor.WindowLog;
+import static org.apache.storm.topology.PersistentWindowedBoltExecutor.WindowSegment;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link PersistentWindowedBoltExecutor}
+ */
+public class PersistentWindowedBoltExecutorTest {
+    IStatefulWindowedBolt<KeyValueState<String, String>> mockBolt;
+    OutputCollector mockOutputCollector;
+    TopologyContext mockTopologyContext;
+    Map<String, Object> mockStormConf = new HashMap<>();
+    KeyValueState<String, Object> windowState;
+    List<Tuple> tuples = new ArrayList<>();
+    ITupleSerializer serializer = tuple -> new byte[] {(byte) tuples.indexOf(tuple)};
+    ITupleDeserializer deserializer = bytes -> tuples.get(bytes[0]);
+
+    @Before
+    public void setUp() throws Exception {
+        mockBolt = Mockito.mock(IStatefulWindowedBolt.class);
+        mockTopologyContext = Mockito.mock(TopologyContext.class);
+        mockOutputCollector = Mockito.mock(OutputCollector.class);
+        mockStormConf.put(Config.TOPOLOGY_BOLTS_WINDOW_LENGTH_COUNT, 4);
+        mockStormConf.put(Config.TOPOLOGY_BOLTS_SLIDING_INTERVAL_COUNT, 2);
+        windowState = new InMemoryKeyValueState<>();
+    }
+
+    @Test
+    public void testCheckpointSavesOnlyNewAndExpiredEvents() throws Exception {
+        PersistentWindowedBoltExecutor<KeyValueState<String, String>> executor = newExecutor();
+        executeAndCheckpoint(executor, 0, 4, 1);
+        WindowSegment first = (WindowSegment) windowState.get(SEGMENT_KEY_PREFIX + 0);
+        assertArrayEquals(new long[] {0, 1, 2, 3}, first.getEventIds());
+        assertArrayEquals(new long[0], first.getExpiredIds());
+
+        executeAndCheckpoint(executor, 4, 6, 2);
+        WindowSegment second = (WindowSegment) windowState.get(SEGMENT_KEY_PREFIX + 1);
+        assertArrayEquals(new long[] {4, 5}, second.getEventIds());
+        assertArrayEquals(new long[] {0, 1}, second.getExpiredIds());
+        assertEquals(Arrays.asList(0L, 1L), ((WindowLog) windowState.get(LOG_KEY)).getSegmentIds());
+
+        // all of the first segment has expired now and it is at the head of the log
+        executeAndCheckpoint(executor, 6, 8, 3);
+        assertNull(windowState.get(SEGMENT_KEY_PREFIX + 0));
+        assertEquals(Arrays.asList(1L, 2L), ((WindowLog) windowState.get(LOG_KEY)).getSegmentIds());
+        for (Tuple tuple : tuples) {
+            Mockito.verify(mockOutputCollector).ack(tuple);
+        }
+    }
+
+    @Test
+    public void testEventsExpiredBeforeCheckpointAreNotSaved() throws Exception {
+        PersistentWindowedBoltExecutor<KeyValueState<String, String>> executor = newExecutor();
+        executeAndCheckpoint(executor, 0, 6, 1);
+        WindowSegment segment = (WindowSegment) windowState.get(SEGMENT_KEY_PREFIX + 0);
+        assertArrayEquals(new long[] {2, 3, 4, 5}, segment.getEventIds());
+        assertArrayEquals(new long[0], segment.getExpiredIds());
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        PersistentWindowedBoltExecutor<KeyValueState<String, String>> executor = newExecutor();
+        executeAndCheckpoint(executor, 0, 4, 1);
+        executeAndCheckpoint(executor, 4, 6, 2);
+        // not checkpointed, lost on failure
+        executor.execute(newTuple());
+
+        windowState.rollback();
+        Mockito.reset(mockBolt);
+        PersistentWindowedBoltExecutor<KeyValueState<String, String>> restored = newExecutor();
+        restored.execute(newTuple());
+        restored.execute(newTuple());
+        ArgumentCaptor<TupleWindow> captor = ArgumentCaptor.forClass(TupleWindow.class);
+        Mockito.verify(mockBolt).execute(captor.capture());
+        assertEquals(Arrays.asList(tuples.get(4), tuples.get(5), tuples.get(7), tuples.get(8)), captor.getValue().get());
+
+        restored.prePrepare(3);
+        restored.preCommit(3);
+        // the ids carry on from the saved log
+        WindowSegment segment = (WindowSegment) windowState.get(SEGMENT_KEY_PREFIX + 2);
+        assertArrayEquals(new long[] {6, 7}, segment.getEventIds());
+        assertArrayEquals(new long[] {2, 3}, segment.getExpiredIds());
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+        PersistentWindowedBoltExecutor<KeyValueState<String, String>> executor = newExecutor();
+        executeAndCheckpoint(executor, 0, 4, 1);
+        executor.execute(newTuple());
+        executor.execute(newTuple());
+        executor.prePrepare(2);
+        executor.preRollback();
+        assertNull(windowState.get(SEGMENT_KEY_PREFIX + 1));
+
+        // the tuples since the last commit are failed and replayed, each must be in the window once
+        Mockito.reset(mockBolt);
+        executor.execute(tuples.get(4));
+        executor.execute(tuples.get(5));
+        ArgumentCaptor<TupleWindow> captor = ArgumentCaptor.forClass(TupleWindow.class);
+        Mockito.verify(mockBolt).execute(captor.capture());
+        assertEquals(tuples.subList(2, 6), captor.getValue().get());
+
+        executor.prePrepare(2);
+        executor.preCommit(2);
+        WindowSegment segment = (WindowSegment) windowState.get(SEGMENT_KEY_PREFIX + 1);
+        assertArrayEquals(new long[] {4, 5}, segment.getEventIds());
+        assertArrayEquals(new long[] {0, 1}, segment.getExpiredIds());
+    }
+
+    private PersistentWindowedBoltExecutor<KeyValueState<String, String>> newExecutor() {
+        PersistentWindowedBoltExecutor<KeyValueState<String, String>> executor = new PersistentWindowedBoltExecutor<>(mockBolt);
+        executor.prepare(mockStormConf, mockTopologyContext, mockOutputCollector, windowState, serializer, deserializer);
+        executor.initState(null);
+        return executor;
+    }
+
+    private void executeAndCheckpoint(PersistentWindowedBoltExecutor<?> executor, int from, int to, long txid) {
+        for (int i = from; i < to; i++) {
+            executor.execute(newTuple());
+        }
+        executor.prePrepare(txid);
+        executor.preCommit(txid);
+    }
+
+    private Tuple newTuple() {
+        Tuple mockTuple = Mockito.mock(Tuple.class);
+        Mockito.when(mockTuple.getSourceTask()).thenReturn(1);
+        Mockito.when(mockTuple.getSourceGlobalStreamId()).thenReturn(new GlobalStreamId("a", "s"));
+        tuples.add(mockTuple);
+        return mockTuple;
+    }
+}
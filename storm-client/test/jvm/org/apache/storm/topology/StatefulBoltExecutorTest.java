@@ -17,9 +17,11 @@
  */
 package org.apache.storm.topology;
 
+import org.apache.storm.Config;
 import org.apache.storm.generated.GlobalStreamId;
 import org.apache.storm.generated.Grouping;
 import org.apache.storm.spout.CheckpointSpout;
+import org.apache.storm.state.AsyncCheckpointState;
 import org.apache.storm.state.KeyValueState;
 import org.apache.storm.state.State;
 import org.apache.storm.task.OutputCollector;
@@ -36,6 +38,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.apache.storm.spout.CheckPointState.Action.*;
 import static org.apache.storm.spout.CheckpointSpout.*;
@@ -175,4 +178,82 @@ public class StatefulBoltExecutorTest {
         Mockito.verify(mockBolt, Mockito.times(2)).execute(mockTuple);
         Mockito.verify(mockOutputCollector, Mockito.times(1)).ack(mockTuple);
     }
+
+    @Test
+    public void testAsyncPrepareAndCommit() throws Exception {
+        AsyncCheckpointState mockAsyncState = Mockito.mock(AsyncCheckpointState.class);
+        mockStormConf.put(Config.TOPOLOGY_STATE_CHECKPOINT_ASYNC, true);
+        executor.prepare(mockStormConf, mockTopologyContext, mockOutputCollector, mockAsyncState);
+        CountDownLatch flushLatch = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            flushLatch.await();
+            return null;
+        }).when(mockAsyncState).flushPrepared(100);
+
+        Mockito.when(mockTuple.getSourceStreamId()).thenReturn("default");
+        Mockito.when(mockCheckpointTuple.getSourceStreamId()).thenReturn(CheckpointSpout.CHECKPOINT_STREAM_ID);
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(INITSTATE);
+        Mockito.when(mockCheckpointTuple.getLongByField(CHECKPOINT_FIELD_TXID)).thenReturn(new Long(0));
+        executor.execute(mockCheckpointTuple);
+        Mockito.verify(mockOutputCollector, Mockito.times(1)).ack(mockCheckpointTuple);
+
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(PREPARE);
+        Mockito.when(mockCheckpointTuple.getLongByField(CHECKPOINT_FIELD_TXID)).thenReturn(new Long(100));
+        executor.execute(mockCheckpointTuple);
+        Mockito.verify(mockAsyncState, Mockito.times(1)).snapshot(100);
+        Mockito.verify(mockAsyncState, Mockito.never()).prepareCommit(Mockito.anyLong());
+        // the bolt keeps processing while the prepared state is written
+        executor.execute(mockTuple);
+        Mockito.verify(mockBolt, Mockito.times(1)).execute(mockTuple);
+        Mockito.verify(mockOutputCollector, Mockito.times(1)).ack(mockCheckpointTuple);
+
+        flushLatch.countDown();
+        executor.awaitPendingCheckpoint();
+        Mockito.verify(mockAsyncState, Mockito.times(1)).flushPrepared(100);
+        Mockito.verify(mockOutputCollector, Mockito.times(2)).ack(mockCheckpointTuple);
+
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(COMMIT);
+        executor.execute(mockCheckpointTuple);
+        executor.awaitPendingCheckpoint();
+        Mockito.verify(mockAsyncState, Mockito.times(1)).commit(100);
+        Mockito.verify(mockOutputCollector, Mockito.times(3)).ack(mockCheckpointTuple);
+        executor.cleanup();
+    }
+
+    @Test
+    public void testAsyncCommitFailure() throws Exception {
+        AsyncCheckpointState mockAsyncState = Mockito.mock(AsyncCheckpointState.class);
+        mockStormConf.put(Config.TOPOLOGY_STATE_CHECKPOINT_ASYNC, true);
+        executor.prepare(mockStormConf, mockTopologyContext, mockOutputCollector, mockAsyncState);
+        Mockito.doThrow(new RuntimeException("store unavailable")).when(mockAsyncState).commit(100);
+
+        Mockito.when(mockCheckpointTuple.getSourceStreamId()).thenReturn(CheckpointSpout.CHECKPOINT_STREAM_ID);
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(INITSTATE);
+        Mockito.when(mockCheckpointTuple.getLongByField(CHECKPOINT_FIELD_TXID)).thenReturn(new Long(0));
+        executor.execute(mockCheckpointTuple);
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(PREPARE);
+        Mockito.when(mockCheckpointTuple.getLongByField(CHECKPOINT_FIELD_TXID)).thenReturn(new Long(100));
+        executor.execute(mockCheckpointTuple);
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(COMMIT);
+        executor.execute(mockCheckpointTuple);
+        executor.awaitPendingCheckpoint();
+        Mockito.verify(mockOutputCollector, Mockito.times(1)).fail(mockCheckpointTuple);
+        Mockito.verify(mockOutputCollector, Mockito.times(1)).reportError(Mockito.any(RuntimeException.class));
+        executor.cleanup();
+    }
+
+    @Test
+    public void testAsyncFallsBackToSyncState() throws Exception {
+        mockStormConf.put(Config.TOPOLOGY_STATE_CHECKPOINT_ASYNC, true);
+        executor.prepare(mockStormConf, mockTopologyContext, mockOutputCollector, mockState);
+        Mockito.when(mockCheckpointTuple.getSourceStreamId()).thenReturn(CheckpointSpout.CHECKPOINT_STREAM_ID);
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(INITSTATE);
+        Mockito.when(mockCheckpointTuple.getLongByField(CHECKPOINT_FIELD_TXID)).thenReturn(new Long(0));
+        executor.execute(mockCheckpointTuple);
+        Mockito.when(mockCheckpointTuple.getValueByField(CHECKPOINT_FIELD_ACTION)).thenReturn(PREPARE);
+        Mockito.when(mockCheckpointTuple.getLongByField(CHECKPOINT_FIELD_TXID)).thenReturn(new Long(100));
+        executor.execute(mockCheckpointTuple);
+        Mockito.verify(mockState, Mockito.times(1)).prepareCommit(100);
+        Mockito.verify(mockOutputCollector, Mockito.times(2)).ack(mockCheckpointTuple);
+    }
 }
@@ -23,12 +23,15 @@ import org.apache.storm.generated.Grouping;
 import org.apache.storm.task.GeneralTopologyContext;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.base.BaseIncrementalWindowedBolt;
 import org.apache.storm.topology.base.BaseWindowedBolt;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.TupleImpl;
 import org.apache.storm.tuple.Values;
+import org.apache.storm.windowing.AggregateWindow;
 import org.apache.storm.windowing.TupleWindow;
+import org.apache.storm.windowing.WindowAggregator;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -40,11 +43,14 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -146,6 +152,68 @@ public class WindowedBoltExecutorTest {
                           new long[]{(long) third.get().get(0).getValue(0), (long)third.get().get(1).getValue(0)});
     }
 
+    @Test
+    public void testNonForwardingBoltTracksUpstreamWatermarks() throws Exception {
+        testWindowedBolt = new TestWindowedBolt();
+        testWindowedBolt.withTimestampField("ts");
+        executor = new WindowedBoltExecutor(testWindowedBolt);
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 100000);
+        conf.put(Config.TOPOLOGY_BOLTS_WINDOW_LENGTH_DURATION_MS, 20);
+        conf.put(Config.TOPOLOGY_BOLTS_SLIDING_INTERVAL_DURATION_MS, 10);
+        conf.put(Config.TOPOLOGY_BOLTS_WATERMARK_EVENT_INTERVAL_MS, 100000);
+        OutputCollector outputCollector = getOutputCollector();
+        executor.prepare(conf, getTopologyContext(), outputCollector);
+
+        executor.execute(getTuple("s1", new Fields("ts"), new Values(603L)));
+        // the upstream bolt forwards its watermarks, this one does not declare a watermark stream of its own
+        Fields waterMarkFields = new Fields(WindowedBoltExecutor.WATERMARK_FIELD);
+        Tuple waterMark = new TupleImpl(getContext(waterMarkFields), new Values(650L), 1,
+                                        WindowedBoltExecutor.WATERMARK_STREAM_ID) {
+            @Override
+            public GlobalStreamId getSourceGlobalStreamId() {
+                return new GlobalStreamId("s1", WindowedBoltExecutor.WATERMARK_STREAM_ID);
+            }
+        };
+        executor.execute(waterMark);
+        Mockito.verify(outputCollector).ack(waterMark);
+        executor.waterMarkEventGenerator.run();
+        // the data alone would not have moved the watermark past the first window
+        assertEquals(2, testWindowedBolt.tupleWindows.size());
+        assertEquals(603L, testWindowedBolt.tupleWindows.get(0).get().get(0).getValue(0));
+    }
+
+    @Test
+    public void testExecuteSessionWindowWithTs() throws Exception {
+        testWindowedBolt = new TestWindowedBolt();
+        testWindowedBolt.withTimestampField("ts");
+        testWindowedBolt.withSessionWindow(new BaseWindowedBolt.Duration(10, TimeUnit.MILLISECONDS),
+                                           new Fields("k"));
+        executor = new WindowedBoltExecutor(testWindowedBolt);
+        Map<String, Object> conf = new HashMap<>(testWindowedBolt.getComponentConfiguration());
+        conf.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 100000);
+        conf.put(Config.TOPOLOGY_BOLTS_TUPLE_TIMESTAMP_MAX_LAG_MS, 0);
+        conf.put(Config.TOPOLOGY_BOLTS_WATERMARK_EVENT_INTERVAL_MS, 100000);
+        OutputCollector outputCollector = getOutputCollector();
+        executor.prepare(conf, getTopologyContext(), outputCollector);
+        Fields fields = new Fields("k", "ts");
+        executor.execute(getTuple("s1", fields, new Values("a", 600L)));
+        executor.execute(getTuple("s1", fields, new Values("b", 602L)));
+        executor.execute(getTuple("s1", fields, new Values("a", 608L)));
+        executor.execute(getTuple("s1", fields, new Values("a", 625L)));
+        executor.waterMarkEventGenerator.run();
+        // the sessions of "a" starting at 600 and "b" ended before the watermark at 625
+        assertEquals(2, testWindowedBolt.tupleWindows.size());
+        TupleWindow first = testWindowedBolt.tupleWindows.get(0);
+        assertEquals("b", first.get().get(0).getValue(0));
+        assertEquals(612L, (long) first.getEndTimestamp());
+        TupleWindow second = testWindowedBolt.tupleWindows.get(1);
+        assertEquals(2, second.get().size());
+        assertEquals(600L, (long) second.getStartTimestamp());
+        assertEquals(618L, (long) second.getEndTimestamp());
+        Mockito.verify(outputCollector, Mockito.times(3)).ack(Mockito.any(Tuple.class));
+    }
+
     @Test
     public void testPrepareLateTupleStreamWithoutTs() throws Exception {
         Map<String, Object> conf = new HashMap<>();
@@ -227,4 +295,53 @@ public class WindowedBoltExecutorTest {
         Tuple tuple = tuples.get(tuples.size() - 1);
         Mockito.verify(outputCollector).emit("$late", Arrays.asList(tuple), new Values(tuple));
     }
+
+    @Test
+    public void testIncrementalWindowWithTopologyLevelInterval() throws Exception {
+        CountDownLatch triggered = new CountDownLatch(1);
+        BaseIncrementalWindowedBolt<Long, Long> incrementalBolt = new BaseIncrementalWindowedBolt<Long, Long>() {
+            @Override
+            public WindowAggregator<Tuple, Long, Long> getAggregator() {
+                return new WindowAggregator<Tuple, Long, Long>() {
+                    @Override
+                    public Long init() {
+                        return 0L;
+                    }
+
+                    @Override
+                    public Long add(Long accumulator, Tuple event) {
+                        return accumulator + 1;
+                    }
+
+                    @Override
+                    public Long merge(Long accumulator, Long other) {
+                        return accumulator + other;
+                    }
+
+                    @Override
+                    public Long result(Long accumulator) {
+                        return accumulator;
+                    }
+                };
+            }
+
+            @Override
+            public void execute(AggregateWindow<Long> window) {
+                triggered.countDown();
+            }
+        };
+        executor = new WindowedBoltExecutor(incrementalBolt);
+        // the sliding interval is only set at the topology level, not in the component configuration
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_MESSAGE_TIMEOUT_SECS, 100000);
+        conf.put(Config.TOPOLOGY_BOLTS_WINDOW_LENGTH_DURATION_MS, 20);
+        conf.put(Config.TOPOLOGY_BOLTS_SLIDING_INTERVAL_DURATION_MS, 10);
+        executor.prepare(conf, getTopologyContext(), getOutputCollector());
+        try {
+            executor.execute(getTuple("s1", new Fields("a"), new Values(1)));
+            assertTrue("the window was never triggered", triggered.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.cleanup();
+        }
+    }
 }
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.tracing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.storm.tuple.TupleImpl;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TracerTest {
+
+    public static class CollectingSink implements ITraceSink {
+        final List<Span> spans = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void prepare(Map<String, Object> topoConf, String topologyId, int port) {
+        }
+
+        @Override
+        public synchronized void export(List<Span> batch) {
+            spans.addAll(batch);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static TupleImpl mockTuple(TraceContext context) {
+        TupleImpl tuple = Mockito.mock(TupleImpl.class);
+        Mockito.when(tuple.getTraceContext()).thenReturn(context);
+        Mockito.when(tuple.getSourceComponent()).thenReturn("spout");
+        Mockito.when(tuple.getSourceStreamId()).thenReturn("default");
+        return tuple;
+    }
+
+    @Test
+    public void testWireFormat() {
+        Output out = new Output(64);
+        TraceContext.write(null, out, 5);
+        Assert.assertEquals("an untraced tuple costs one byte", 1, out.position());
+        TraceContext.write(new TraceContext(-42L, 1000L), out, 1010L);
+
+        Input in = new Input(out.toBytes());
+        Assert.assertNull(TraceContext.read(in, 2000L));
+        TraceContext read = TraceContext.read(in, 1025L);
+        Assert.assertEquals(-42L, read.getTraceId());
+        Assert.assertEquals(1000L, read.getEmitTimeMs());
+        Assert.assertEquals(1010L, read.getSerializeTimeMs());
+        Assert.assertEquals(1025L, read.getReceiveTimeMs());
+        Assert.assertTrue(read.isRemote());
+    }
+
+    @Test
+    public void testRecordsStagesOfRemoteTuple() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        Tracer tracer = new Tracer(1.0, 100, sink);
+        Input in = new Input(serialize(new TraceContext(7L, 1000L), 1010L));
+        TraceContext context = TraceContext.read(in, 1025L);
+        context.setExecuteStartMs(1040L);
+        TupleImpl tuple = mockTuple(context);
+
+        tracer.start();
+        tracer.recordExecute(tuple, "bolt", 3, 1040L, 1045L);
+        tracer.stop();
+
+        Assert.assertTrue(sink.closed);
+        Assert.assertEquals(4, sink.spans.size());
+        long[] expected = {10, 15, 15, 5};
+        for (int i = 0; i < expected.length; i++) {
+            Span span = sink.spans.get(i);
+            Assert.assertEquals(Span.Stage.values()[i], span.getStage());
+            Assert.assertEquals(expected[i], span.getDurationMs());
+            Assert.assertEquals(7L, span.getTraceId());
+            Assert.assertEquals("bolt", span.getComponentId());
+        }
+    }
+
+    private static byte[] serialize(TraceContext context, long nowMs) {
+        Output out = new Output(64);
+        TraceContext.write(context, out, nowMs);
+        return out.toBytes();
+    }
+
+    @Test
+    public void testSamplingAndPropagation() {
+        Tracer always = new Tracer(1.0, 1, new CollectingSink());
+        long traceId = always.sampleTraceId();
+        Assert.assertNotEquals(0L, traceId);
+        Assert.assertEquals(0L, new Tracer(0.0, 1, new CollectingSink()).sampleTraceId());
+
+        TupleImpl traced = mockTuple(new TraceContext(traceId, 1L));
+        TupleImpl untraced = mockTuple(null);
+        Assert.assertEquals(traceId, always.traceIdOf(Arrays.asList(untraced, traced)));
+        Assert.assertEquals(0L, always.traceIdOf(Collections.singletonList(untraced)));
+        Assert.assertEquals(0L, always.traceIdOf(null));
+    }
+
+    @Test
+    public void testDropsWhenBufferIsFull() {
+        Tracer tracer = new Tracer(1.0, 1, new CollectingSink());
+        TupleImpl tuple = mockTuple(new TraceContext(1L, 1L));
+        tracer.recordExecute(tuple, "bolt", 1, 2L, 3L);
+        Assert.assertEquals(1, tracer.getDroppedSpans());
+    }
+}
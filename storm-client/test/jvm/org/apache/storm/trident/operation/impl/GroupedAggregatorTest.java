@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.operation.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.operation.TridentOperationContext;
+import org.apache.storm.trident.operation.builtin.Sum;
+import org.apache.storm.trident.tuple.TridentTupleView.FreshOutputFactory;
+import org.apache.storm.tuple.Fields;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link GroupedAggregator}.
+ */
+public class GroupedAggregatorTest {
+    private static final Fields INPUT = new Fields("word", "tag", "count");
+
+    private final List<List<Object>> emitted = new ArrayList<>();
+    private final TridentCollector collector = new TridentCollector() {
+        @Override
+        public void emit(List<Object> values) {
+            emitted.add(new ArrayList<>(values));
+        }
+
+        @Override
+        public void reportError(Throwable t) {
+        }
+    };
+
+    private void run(GroupedAggregator agg, int maxGroups, Object[]... rows) {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_TRIDENT_PARTIAL_AGGREGATION_MAX_GROUPS, maxGroups);
+        FreshOutputFactory factory = new FreshOutputFactory(INPUT);
+        agg.prepare(conf, new TridentOperationContext(mock(TopologyContext.class), factory));
+        Object[] state = agg.init(1L, collector);
+        for (Object[] row : rows) {
+            agg.aggregate(state, factory.create(Arrays.asList(row)), collector);
+        }
+        agg.complete(state, collector);
+    }
+
+    private static GroupedAggregator sum(Fields group, boolean partial) {
+        return new GroupedAggregator(new CombinerAggregatorCombineImpl(new Sum()), group, new Fields("count"), 1, partial);
+    }
+
+    @Test
+    public void testGroupsAreNotFlushedEarlyByDefault() {
+        run(sum(new Fields("word"), false), 1,
+            new Object[]{"a", "x", 1}, new Object[]{"b", "x", 2}, new Object[]{"a", "y", 3});
+        assertEquals(2, emitted.size());
+        assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("a", 4L), Arrays.asList("b", 2L))), new HashSet<>(emitted));
+    }
+
+    @Test
+    public void testPartialFlushesWhenGroupLimitIsReached() {
+        run(sum(new Fields("word"), true), 2,
+            new Object[]{"a", "x", 1}, new Object[]{"b", "x", 2}, new Object[]{"a", "x", 3},
+            new Object[]{"c", "x", 4}, new Object[]{"a", "x", 5});
+        assertEquals(4, emitted.size());
+        // a and b are emitted when c arrives, the partials for a are merged again downstream
+        assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("a", 4L), Arrays.asList("b", 2L))),
+                     new HashSet<>(emitted.subList(0, 2)));
+        assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("c", 4L), Arrays.asList("a", 5L))),
+                     new HashSet<>(emitted.subList(2, 4)));
+    }
+
+    @Test
+    public void testMultiFieldGroups() {
+        run(sum(new Fields("word", "tag"), true), 0,
+            new Object[]{"a", "x", 1}, new Object[]{"a", "y", 2}, new Object[]{"a", "x", 3});
+        assertEquals(2, emitted.size());
+        assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("a", "x", 4L), Arrays.asList("a", "y", 2L))),
+                     new HashSet<>(emitted));
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.operation.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.storm.trident.JoinType;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.operation.TridentMultiReducerContext;
+import org.apache.storm.trident.state.map.MapCacheSpec;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.trident.tuple.TridentTupleView.FreshOutputFactory;
+import org.apache.storm.tuple.Fields;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TableJoinMultiReducer}.
+ */
+public class TableJoinMultiReducerTest {
+    private static final int STREAM = 0;
+    private static final int TABLE = 1;
+
+    private final FreshOutputFactory streamFactory = new FreshOutputFactory(new Fields("user", "amount"));
+    private final FreshOutputFactory tableFactory = new FreshOutputFactory(new Fields("id", "name"));
+    private final List<List<Object>> emitted = new ArrayList<>();
+    private final TridentCollector collector = new TridentCollector() {
+        @Override
+        public void emit(List<Object> values) {
+            emitted.add(new ArrayList<>(values));
+        }
+
+        @Override
+        public void reportError(Throwable t) {
+        }
+    };
+
+    private TableJoinMultiReducer prepare(JoinType type, MapCacheSpec spec) {
+        TableJoinMultiReducer reducer = new TableJoinMultiReducer(new Fields("user"), 1, 1, type, spec);
+        reducer.prepare(Collections.emptyMap(),
+                        new TridentMultiReducerContext(Arrays.asList(streamFactory, tableFactory)));
+        return reducer;
+    }
+
+    private void batch(TableJoinMultiReducer reducer, Object[]... rows) {
+        emitted.clear();
+        List<TridentTuple> state = reducer.init(collector);
+        for (Object[] row : rows) {
+            int streamIndex = (Integer) row[0];
+            List<Object> values = Arrays.asList(row).subList(1, row.length);
+            FreshOutputFactory factory = streamIndex == STREAM ? streamFactory : tableFactory;
+            reducer.execute(state, streamIndex, factory.create(values), collector);
+        }
+        reducer.complete(state, collector);
+    }
+
+    @Test
+    public void testStreamIsJoinedWithTableUpdatesOfSameBatch() {
+        TableJoinMultiReducer reducer = prepare(JoinType.INNER, MapCacheSpec.maximumSize(10));
+        batch(reducer, new Object[]{STREAM, "a", 1}, new Object[]{TABLE, "a", "Alice"},
+              new Object[]{STREAM, "b", 2});
+        assertEquals(Collections.singletonList(Arrays.asList("a", 1, "Alice")), emitted);
+    }
+
+    @Test
+    public void testTableIsKeptAcrossBatches() {
+        TableJoinMultiReducer reducer = prepare(JoinType.INNER, MapCacheSpec.maximumSize(10));
+        batch(reducer, new Object[]{TABLE, "a", "Alice"}, new Object[]{TABLE, "b", "Bob"});
+        assertEquals(0, emitted.size());
+        batch(reducer, new Object[]{STREAM, "b", 2}, new Object[]{STREAM, "a", 3});
+        assertEquals(Arrays.asList(Arrays.asList("b", 2, "Bob"), Arrays.asList("a", 3, "Alice")), emitted);
+        batch(reducer, new Object[]{TABLE, "a", "Ann"}, new Object[]{STREAM, "a", 4});
+        assertEquals(Collections.singletonList(Arrays.asList("a", 4, "Ann")), emitted);
+    }
+
+    @Test
+    public void testNullValuesRemoveKey() {
+        TableJoinMultiReducer reducer = prepare(JoinType.OUTER, MapCacheSpec.maximumSize(10));
+        batch(reducer, new Object[]{TABLE, "a", "Alice"});
+        batch(reducer, new Object[]{TABLE, "a", null}, new Object[]{STREAM, "a", 1}, new Object[]{STREAM, "c", 2});
+        assertEquals(Arrays.asList(Arrays.asList("a", 1, null), Arrays.asList("c", 2, null)), emitted);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        TableJoinMultiReducer reducer = prepare(JoinType.INNER, MapCacheSpec.maximumSize(1));
+        batch(reducer, new Object[]{TABLE, "a", "Alice"}, new Object[]{TABLE, "b", "Bob"});
+        batch(reducer, new Object[]{STREAM, "a", 1}, new Object[]{STREAM, "b", 2});
+        assertEquals(Collections.singletonList(Arrays.asList("b", 2, "Bob")), emitted);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJoinFieldsMustMatchTableKey() {
+        new TableJoinMultiReducer(new Fields("user", "amount"), 1, 1, JoinType.INNER, MapCacheSpec.maximumSize(1));
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.planner.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.storm.coordination.BatchOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.operation.BaseFunction;
+import org.apache.storm.trident.operation.BaseFilter;
+import org.apache.storm.trident.operation.BatchCollector;
+import org.apache.storm.trident.operation.BatchFilter;
+import org.apache.storm.trident.operation.BatchFunction;
+import org.apache.storm.trident.operation.Function;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.operation.impl.BatchFilterExecutor;
+import org.apache.storm.trident.planner.ProcessorContext;
+import org.apache.storm.trident.planner.TupleReceiver;
+import org.apache.storm.trident.tuple.ColumnarBatch;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.trident.tuple.TridentTupleView.FreshOutputFactory;
+import org.apache.storm.tuple.Fields;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link EachProcessor}.
+ */
+public class EachProcessorTest {
+    private static final Fields INPUT = new Fields("word", "count");
+
+    private final List<List<Object>> received = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private class Doubler extends BaseFunction implements BatchFunction {
+        @Override
+        public void executeBatch(ColumnarBatch batch, BatchCollector collector) {
+            batchSizes.add(batch.size());
+            Object[] counts = batch.getColumn("count");
+            for (int row = 0; row < batch.size(); row++) {
+                collector.emit(row, Collections.singletonList((Object) ((Integer) counts[row] * 2)));
+            }
+        }
+    }
+
+    private static class EvenCounts extends BaseFilter implements BatchFilter {
+        @Override
+        public BitSet isKeep(ColumnarBatch batch) {
+            BitSet keep = new BitSet();
+            Object[] counts = batch.getColumn(0);
+            for (int row = 0; row < batch.size(); row++) {
+                keep.set(row, (Integer) counts[row] % 2 == 0);
+            }
+            return keep;
+        }
+    }
+
+    private EachProcessor prepare(Fields inputFields, Function function, Fields outputFields) {
+        FreshOutputFactory parent = new FreshOutputFactory(INPUT);
+        TupleReceiver receiver = new TupleReceiver() {
+            @Override
+            public void execute(ProcessorContext processorContext, String streamId, TridentTuple tuple) {
+                received.add(new ArrayList<>(tuple));
+            }
+        };
+        TridentContext tridentContext = new TridentContext(outputFields, Arrays.asList(parent), Arrays.asList("s"),
+                                                           Arrays.asList(receiver), "out", 0,
+                                                           mock(BatchOutputCollector.class));
+        EachProcessor processor = new EachProcessor(inputFields, function);
+        processor.prepare(new HashMap<>(), mock(TopologyContext.class), tridentContext);
+        return processor;
+    }
+
+    private void runBatch(EachProcessor processor, Object[]... rows) {
+        ProcessorContext pc = new ProcessorContext(1L, new Object[1]);
+        FreshOutputFactory parent = new FreshOutputFactory(INPUT);
+        processor.startBatch(pc);
+        for (Object[] row : rows) {
+            processor.execute(pc, "s", parent.create(Arrays.asList(row)));
+        }
+        processor.finishBatch(pc);
+    }
+
+    @Test
+    public void testBatchFunctionRunsOncePerBatch() {
+        EachProcessor processor = prepare(new Fields("count"), new Doubler(), new Fields("doubled"));
+        runBatch(processor, new Object[]{"a", 1}, new Object[]{"b", 2}, new Object[]{"c", 3});
+        assertEquals(Arrays.asList(3), batchSizes);
+        assertEquals(Arrays.asList(Arrays.asList("a", 1, 2), Arrays.asList("b", 2, 4), Arrays.asList("c", 3, 6)),
+                     received);
+    }
+
+    @Test
+    public void testBatchFunctionFallsBackToSingleTuples() {
+        final List<Object> emitted = new ArrayList<>();
+        new Doubler().execute(new FreshOutputFactory(INPUT).create(Arrays.asList("a", 5)), new TridentCollector() {
+            @Override
+            public void emit(List<Object> values) {
+                emitted.addAll(values);
+            }
+
+            @Override
+            public void reportError(Throwable t) {
+            }
+        });
+        assertEquals(Arrays.asList(10), emitted);
+    }
+
+    @Test
+    public void testBatchFilter() {
+        EachProcessor processor = prepare(new Fields("count"), new BatchFilterExecutor(new EvenCounts()), new Fields());
+        runBatch(processor, new Object[]{"a", 1}, new Object[]{"b", 2}, new Object[]{"c", 4});
+        assertEquals(Arrays.asList(Arrays.asList("b", 2), Arrays.asList("c", 4)), received);
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        EachProcessor processor = prepare(new Fields("count"), new Doubler(), new Fields("doubled"));
+        runBatch(processor);
+        assertEquals(Collections.emptyList(), batchSizes);
+        assertEquals(Collections.emptyList(), received);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.spout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.coordination.BatchOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.topology.BatchInfo;
+import org.apache.storm.trident.topology.MasterBatchCoordinator;
+import org.apache.storm.trident.topology.TransactionAttempt;
+import org.apache.storm.trident.topology.state.LogTransactionalStateStore;
+import org.apache.storm.trident.topology.state.TransactionalState;
+import org.apache.storm.tuple.Tuple;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link TridentSpoutExecutor}.
+ */
+public class TridentSpoutExecutorTest {
+    private static final String TX_STATE_ID = "txState";
+    private static final String PARTITIONS = "partitions";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Map<String, Object> conf;
+    private List<Object> lastMetas;
+    private TridentSpoutExecutor executor;
+
+    @Before
+    public void setUp() {
+        conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE, LogTransactionalStateStore.class.getName());
+        conf.put(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_DIR, tmp.getRoot().getAbsolutePath());
+        lastMetas = new ArrayList<>();
+
+        ISpoutPartition partition = mock(ISpoutPartition.class);
+        when(partition.getId()).thenReturn("p0");
+        List<ISpoutPartition> partitions = Collections.singletonList(partition);
+        IOpaquePartitionedTridentSpout.Emitter<Object, ISpoutPartition, Object> emitter =
+            mock(IOpaquePartitionedTridentSpout.Emitter.class);
+        when(emitter.getOrderedPartitions(PARTITIONS)).thenReturn(partitions);
+        when(emitter.getPartitionsForTask(anyInt(), anyInt(), any())).thenReturn(partitions);
+        // every batch reads from where the metadata it is given left off
+        when(emitter.emitPartitionBatch(any(TransactionAttempt.class), any(TridentCollector.class),
+                                        any(ISpoutPartition.class), any())).thenAnswer(invocation -> {
+                                            TransactionAttempt tx = (TransactionAttempt) invocation.getArguments()[0];
+                                            lastMetas.add(invocation.getArguments()[3]);
+                                            return "m" + tx;
+                                        });
+        IOpaquePartitionedTridentSpout<Object, ISpoutPartition, Object> spout = mock(IOpaquePartitionedTridentSpout.class);
+        when(spout.getEmitter(anyMapOf(String.class, Object.class), any(TopologyContext.class))).thenReturn(emitter);
+
+        TopologyContext context = mock(TopologyContext.class);
+        when(context.getThisTaskIndex()).thenReturn(0);
+        when(context.getThisComponentId()).thenReturn("spout");
+        when(context.getComponentTasks("spout")).thenReturn(Collections.singletonList(1));
+        executor = new TridentSpoutExecutor(TX_STATE_ID, "stream", new OpaquePartitionedTridentSpoutExecutor(spout));
+        executor.prepare(conf, context, mock(BatchOutputCollector.class));
+    }
+
+    private void execute(String stream, TransactionAttempt attempt) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.getSourceStreamId()).thenReturn(stream);
+        when(tuple.getValue(0)).thenReturn(attempt);
+        when(tuple.getValue(1)).thenReturn(PARTITIONS);
+        executor.execute(new BatchInfo("bg", attempt, null), tuple);
+    }
+
+    private Object committedMeta(long txid) {
+        TransactionalState state = TransactionalState.newUserState(conf, TX_STATE_ID);
+        try {
+            return state.getData("p0/" + txid);
+        } finally {
+            state.close();
+        }
+    }
+
+    @Test
+    public void testCommitsOnTheCommitStream() {
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(1L, 0));
+        assertNull(committedMeta(1));
+        execute(MasterBatchCoordinator.COMMIT_STREAM_ID, new TransactionAttempt(1L, 0));
+        assertEquals("m1:0", committedMeta(1));
+    }
+
+    @Test
+    public void testInlineBatchIsCommittedWhenItIsEmitted() {
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(1L, 0, true));
+        assertEquals("m1:0", committedMeta(1));
+        // a later batch in flight at the same time reads on from the inline one and waits for its commit tuple
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(2L, 0));
+        assertNull(committedMeta(2));
+        execute(MasterBatchCoordinator.COMMIT_STREAM_ID, new TransactionAttempt(2L, 0));
+        assertEquals("m2:0", committedMeta(2));
+        assertEquals(Arrays.asList(null, "m1:0"), lastMetas);
+    }
+
+    @Test
+    public void testReplayAfterAFailedInlineCommit() {
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(1L, 0, true));
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(2L, 0));
+        // the batch failed downstream after its metadata was committed, so the coordinator replays both batches
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(1L, 1, true));
+        execute(MasterBatchCoordinator.BATCH_STREAM_ID, new TransactionAttempt(2L, 1));
+        // the replay reads from the metadata before the failed batch, not from what the failed batch committed
+        assertEquals(Arrays.asList(null, "m1:0", null, "m1:1"), lastMetas);
+        assertEquals("m1:1", committedMeta(1));
+        execute(MasterBatchCoordinator.COMMIT_STREAM_ID, new TransactionAttempt(2L, 1));
+        assertEquals("m2:1", committedMeta(2));
+    }
+}
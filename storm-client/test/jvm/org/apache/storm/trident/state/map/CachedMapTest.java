@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.state.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.Config;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.IMetricsContext;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.testing.MemoryBackingMap;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit tests for {@link CachedMap}.
+ */
+public class CachedMapTest {
+
+    private static class CountingBackingMap extends MemoryBackingMap {
+        int gets = 0;
+        List<List<Object>> lastKeys;
+
+        @Override
+        public List<Object> multiGet(List<List<Object>> keys) {
+            gets++;
+            lastKeys = new ArrayList<>(keys);
+            return super.multiGet(keys);
+        }
+    }
+
+    private static class FakeTicker extends Ticker {
+        long nanos = 0;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+
+    private static List<List<Object>> keys(Object... keys) {
+        List<List<Object>> ret = new ArrayList<>();
+        for (Object key : keys) {
+            ret.add(Collections.singletonList(key));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testOnlyMissesGoToTheDelegate() {
+        CountingBackingMap backing = new CountingBackingMap();
+        backing.multiPut(keys("a", "b"), Arrays.<Object>asList(1, 2));
+        CachedMap<Object> map = new CachedMap<>(backing, 10);
+
+        assertEquals(Arrays.<Object>asList(1, null), map.multiGet(keys("a", "c")));
+        assertEquals(keys("a", "c"), backing.lastKeys);
+        assertEquals(Arrays.<Object>asList(1, 2, null), map.multiGet(keys("a", "b", "c")));
+        assertEquals(keys("b"), backing.lastKeys);
+        assertEquals(2, backing.gets);
+
+        map.multiGet(keys("a", "b", "c"));
+        assertEquals(2, backing.gets);
+    }
+
+    @Test
+    public void testPutsAreCached() {
+        CountingBackingMap backing = new CountingBackingMap();
+        CachedMap<Object> map = new CachedMap<>(backing, MapCacheSpec.maximumSize(10));
+        map.multiPut(keys("a"), Arrays.<Object>asList(5));
+        assertEquals(Arrays.<Object>asList(5), map.multiGet(keys("a")));
+        assertEquals(0, backing.gets);
+    }
+
+    @Test
+    public void testExpireAfterWrite() {
+        CountingBackingMap backing = new CountingBackingMap();
+        FakeTicker ticker = new FakeTicker();
+        CachedMap<Object> map = new CachedMap<>(backing, MapCacheSpec.maximumSize(10)
+                                                                     .expireAfterWrite(1, TimeUnit.MINUTES)
+                                                                     .ticker(ticker));
+        map.multiPut(keys("a"), Arrays.<Object>asList(5));
+        backing.multiPut(keys("a"), Arrays.<Object>asList(6));
+        assertEquals(Arrays.<Object>asList(5), map.multiGet(keys("a")));
+
+        ticker.nanos += TimeUnit.MINUTES.toNanos(2);
+        assertEquals(Arrays.<Object>asList(6), map.multiGet(keys("a")));
+        assertEquals(1, backing.gets);
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        MapCache<String, String> cache = MapCacheSpec.maximumWeight(10, new MapCacheSpec.EntryWeigher<String, String>() {
+            @Override
+            public int weigh(String key, String value) {
+                return value.length();
+            }
+        }).build();
+        cache.putAll(Arrays.asList("a", "b", "c"), Arrays.asList("12345", "12345", "12345"));
+        assertEquals(2, cache.getAllPresent(Arrays.asList("a", "b", "c")).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMetrics() {
+        CountingBackingMap backing = new CountingBackingMap();
+        CachedMap<Object> map = new CachedMap<>(backing, 10);
+        IMetricsContext context = mock(IMetricsContext.class);
+        map.registerMetrics(context, "cache", 60);
+        ArgumentCaptor<IMetric> metric = ArgumentCaptor.forClass(IMetric.class);
+        verify(context).registerMetric(eq("cache"), metric.capture(), eq(60));
+
+        map.multiGet(keys("a", "b"));
+        map.multiGet(keys("a", "b", "c"));
+        Map<String, Object> value = (Map<String, Object>) metric.getValue().getValueAndReset();
+        assertEquals(2L, value.get("hits"));
+        assertEquals(3L, value.get("misses"));
+        assertEquals(0.4, (Double) value.get("hit-ratio"), 0.0001);
+        value = (Map<String, Object>) metric.getValue().getValueAndReset();
+        assertEquals(0L, value.get("hits"));
+    }
+
+    @Test
+    public void testMetricsFromStateFactory() {
+        IMetricsContext context = mock(IMetricsContext.class);
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_BUILTIN_METRICS_BUCKET_SIZE_SECS, 10);
+        new CachedMap<>(new CountingBackingMap(), 10).registerMetrics(context, conf, "cache", "f1", 0);
+        new CachedMap<>(new CountingBackingMap(), 10).registerMetrics(context, conf, "cache", "f2", 0);
+        verify(context).registerMetric(eq("cache-f1-0"), any(IMetric.class), eq(10));
+        verify(context).registerMetric(eq("cache-f2-0"), any(IMetric.class), eq(10));
+
+        IMetricsContext otherTask = mock(IMetricsContext.class);
+        new CachedMap<>(new CountingBackingMap(), 10).registerMetrics(otherTask, new HashMap<>(), "cache", "f1", 1);
+        verify(otherTask).registerMetric(eq("cache-f1-1"), any(IMetric.class), eq(60));
+
+        new CachedMap<>(new CountingBackingMap(), 10).registerMetrics(null, conf, "cache", "f1", 0);
+    }
+
+    @Test
+    public void testMetricsOfStatesMadeBySameFactory() {
+        TopologyContext context = mock(TopologyContext.class);
+        when(context.getRegisteredMetricByName("cache-f1-0")).thenReturn(mock(IMetric.class));
+        new CachedMap<>(new CountingBackingMap(), 10).registerMetrics(context, new HashMap<>(), "cache", "f1", 0);
+        verify(context).registerMetric(eq("cache-f1-0-2"), any(IMetric.class), eq(60));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.state.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.storm.topology.FailedException;
+import org.apache.storm.trident.testing.MemoryBackingMap;
+import org.apache.storm.utils.Utils;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ParallelBackingMap}.
+ */
+public class ParallelBackingMapTest {
+
+    private static class SlowBackingMap extends MemoryBackingMap {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+        private void enter(int size) {
+            chunkSizes.add(size);
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            Utils.sleep(20);
+        }
+
+        @Override
+        public List<Object> multiGet(List<List<Object>> keys) {
+            enter(keys.size());
+            try {
+                synchronized (this) {
+                    return super.multiGet(keys);
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void multiPut(List<List<Object>> keys, List<Object> vals) {
+            enter(keys.size());
+            try {
+                synchronized (this) {
+                    super.multiPut(keys, vals);
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static List<List<Object>> keys(int count) {
+        List<List<Object>> ret = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ret.add(Collections.<Object>singletonList(i));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testChunksAreReassembledInOrder() {
+        SlowBackingMap backing = new SlowBackingMap();
+        ParallelBackingMap<Object> map = new ParallelBackingMap<>(backing, 3, 2);
+        List<Object> vals = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            vals.add("v" + i);
+        }
+        map.multiPut(keys(10), vals);
+        assertEquals(vals, map.multiGet(keys(10)));
+        assertEquals(8, backing.chunkSizes.size());
+        assertTrue(backing.chunkSizes.contains(1));
+        assertTrue(backing.maxInFlight.get() <= 2);
+        assertTrue(map.multiGet(keys(0)).isEmpty());
+    }
+
+    @Test
+    public void testChunkFailureIsRethrown() {
+        final AtomicInteger failures = new AtomicInteger(1);
+        ParallelBackingMap<Object> map = new ParallelBackingMap<>(new MemoryBackingMap() {
+            @Override
+            public List<Object> multiGet(List<List<Object>> keys) {
+                if (keys.get(0).get(0).equals(2) && failures.getAndDecrement() > 0) {
+                    throw new FailedException("chunk failed");
+                }
+                return super.multiGet(keys);
+            }
+        }, 2, 4);
+        try {
+            map.multiGet(keys(6));
+            fail("expected the chunk failure to be rethrown");
+        } catch (FailedException e) {
+            assertEquals("chunk failed", e.getMessage());
+        }
+        // the permits of the failed request were given back
+        assertEquals(6, map.multiGet(keys(6)).size());
+    }
+
+    @Test
+    public void testMapsShareThreads() {
+        for (int i = 0; i < 50; i++) {
+            ParallelBackingMap<Object> map = new ParallelBackingMap<>(new MemoryBackingMap(), 2, 4);
+            assertEquals(1, map.multiGet(keys(1)).size());
+        }
+        long threads = Thread.getAllStackTraces().keySet().stream()
+            .filter(t -> t.getName().startsWith("parallel-backing-map-"))
+            .count();
+        assertTrue("every map started its own threads: " + threads, threads < 20);
+    }
+}
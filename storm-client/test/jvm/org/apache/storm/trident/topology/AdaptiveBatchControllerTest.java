@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AdaptiveBatchController}.
+ */
+public class AdaptiveBatchControllerTest {
+
+    @Test
+    public void testDisabledWithoutTarget() {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_TRIDENT_BATCH_LATENCY_TARGET_MILLIS, 0);
+        assertNull(AdaptiveBatchController.fromConf(conf));
+    }
+
+    @Test
+    public void testGrowsWhileFasterThanTarget() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(1000, 100, 1000, 50);
+        assertEquals(100, controller.getBatchSizeHint());
+        controller.batchCommitted(100);
+        assertEquals(200, controller.getBatchSizeHint());
+        controller.batchCommitted(100);
+        assertEquals(400, controller.getBatchSizeHint());
+        controller.batchCommitted(100);
+        controller.batchCommitted(100);
+        assertEquals(1000, controller.getBatchSizeHint());
+        assertEquals(50, controller.getEmitIntervalMs());
+    }
+
+    @Test
+    public void testShrinksWhenSlowerThanTarget() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(1000, 100, 1000, 50);
+        for (int i = 0; i < 5; i++) {
+            controller.batchCommitted(100);
+        }
+        assertEquals(1000, controller.getBatchSizeHint());
+        controller.batchCommitted(4000);
+        // average latency is 0.3 * 4000 + 0.7 * 100 = 1270
+        assertEquals(787, controller.getBatchSizeHint());
+        controller.batchFailed();
+        assertEquals(394, controller.getBatchSizeHint());
+    }
+
+    @Test
+    public void testStaysPutNearTarget() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(1000, 100, 1000, 50);
+        controller.batchCommitted(950);
+        controller.batchCommitted(1050);
+        assertEquals(100, controller.getBatchSizeHint());
+        assertEquals(50, controller.getEmitIntervalMs());
+    }
+
+    @Test
+    public void testBacksOffIntervalWhenTooSlowAtMinimumSize() {
+        AdaptiveBatchController controller = new AdaptiveBatchController(1000, 100, 1000, 50);
+        controller.batchCommitted(5000);
+        assertEquals(100, controller.getBatchSizeHint());
+        assertEquals(100, controller.getEmitIntervalMs());
+        for (int i = 0; i < 10; i++) {
+            controller.batchCommitted(5000);
+        }
+        assertEquals(1000, controller.getEmitIntervalMs());
+        for (int i = 0; i < 20; i++) {
+            controller.batchCommitted(10);
+        }
+        assertEquals(50, controller.getEmitIntervalMs());
+        assertEquals(1000, controller.getBatchSizeHint());
+    }
+}
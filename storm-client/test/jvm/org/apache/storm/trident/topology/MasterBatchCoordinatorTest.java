@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.spout.SpoutOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.spout.ICommitterTridentSpout;
+import org.apache.storm.trident.spout.ITridentSpout;
+import org.apache.storm.trident.topology.state.LogTransactionalStateStore;
+import org.apache.storm.utils.WindowedTimeThrottler;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link MasterBatchCoordinator}.
+ */
+public class MasterBatchCoordinatorTest {
+    private static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<String>());
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Map<String, Object> conf;
+    private List<TransactionAttempt> batches;
+
+    /**
+     * Records the paths that are written next to the tuples the coordinator emits.
+     */
+    public static class RecordingStore extends LogTransactionalStateStore {
+        @Override
+        public synchronized void put(String path, byte[] data) {
+            EVENTS.add("put " + path);
+            super.put(path, data);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        EVENTS.clear();
+        batches = new ArrayList<>();
+        conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE, RecordingStore.class.getName());
+        conf.put(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_DIR, tmp.getRoot().getAbsolutePath());
+        conf.put(Config.TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS, 0);
+        conf.put(Config.TOPOLOGY_TRIDENT_INLINE_COMMIT, true);
+    }
+
+    private MasterBatchCoordinator open(int maxSpoutPending, ITridentSpout spout) {
+        ITridentSpout.BatchCoordinator coordinator = mock(ITridentSpout.BatchCoordinator.class);
+        when(coordinator.isReady(anyLong())).thenReturn(true);
+        when(spout.getCoordinator(anyString(), anyMapOf(String.class, Object.class), any(TopologyContext.class)))
+            .thenReturn(coordinator);
+        SpoutOutputCollector collector = mock(SpoutOutputCollector.class);
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            TransactionAttempt tx = (TransactionAttempt) ((List<Object>) args[1]).get(0);
+            if (args[0].equals(MasterBatchCoordinator.BATCH_STREAM_ID)) {
+                batches.add(tx);
+            }
+            EVENTS.add(args[0] + " " + tx);
+            return null;
+        }).when(collector).emit(anyString(), anyListOf(Object.class), any());
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            EVENTS.add(args[0] + " " + ((List<Object>) args[1]).get(0));
+            return null;
+        }).when(collector).emit(anyString(), anyListOf(Object.class));
+
+        conf.put(Config.TOPOLOGY_MAX_SPOUT_PENDING, maxSpoutPending);
+        MasterBatchCoordinator mbc = new MasterBatchCoordinator(Collections.singletonList("spout"),
+                                                                Collections.singletonList(spout));
+        mbc.open(conf, mock(TopologyContext.class), collector);
+        // let every sync start as many batches as max spout pending allows
+        mbc._throttler = new WindowedTimeThrottler(Long.MAX_VALUE, Integer.MAX_VALUE);
+        EVENTS.clear();
+        return mbc;
+    }
+
+    @Test
+    public void testWritesTheAttemptsOnceBeforeTheBatchesOfARound() {
+        MasterBatchCoordinator mbc = open(3, mock(ITridentSpout.class));
+        mbc.nextTuple();
+        assertEquals(Arrays.asList("put currattempts", "$batch 1:0", "$batch 2:0", "$batch 3:0"), EVENTS);
+
+        EVENTS.clear();
+        mbc.fail(batches.get(1));
+        // the failed batch and the one after it are started again with a single write
+        assertEquals(Arrays.asList("put currattempts", "$batch 2:1", "$batch 3:1"), EVENTS);
+    }
+
+    @Test
+    public void testInlineBatchGoesFromProcessingToSuccess() {
+        MasterBatchCoordinator mbc = open(1, mock(ITridentSpout.class));
+        mbc.nextTuple();
+        TransactionAttempt first = batches.get(0);
+        assertTrue(first.isInlineCommit());
+
+        EVENTS.clear();
+        mbc.ack(first);
+        // no commit tuple, the next batch is started right away and is the head batch again
+        assertEquals(Arrays.asList("$success 1:0", "put currtx", "put currattempts", "$batch 2:0"), EVENTS);
+        assertTrue(batches.get(1).isInlineCommit());
+    }
+
+    @Test
+    public void testOnlyTheHeadBatchIsInline() {
+        MasterBatchCoordinator mbc = open(3, mock(ITridentSpout.class));
+        mbc.nextTuple();
+        assertTrue(batches.get(0).isInlineCommit());
+        assertFalse(batches.get(1).isInlineCommit());
+        assertFalse(batches.get(2).isInlineCommit());
+
+        EVENTS.clear();
+        mbc.ack(batches.get(1));
+        // batch 2 has to wait for batch 1 to be committed
+        assertEquals(Collections.emptyList(), EVENTS);
+        mbc.ack(batches.get(0));
+        assertEquals(Arrays.asList("$success 1:0", "put currtx", "$commit 2:0", "put currattempts", "$batch 4:0"),
+                     EVENTS);
+        assertFalse(batches.get(3).isInlineCommit());
+
+        EVENTS.clear();
+        mbc.ack(batches.get(1));
+        assertEquals(Arrays.asList("$success 2:0", "put currtx", "put currattempts", "$batch 5:0"), EVENTS);
+    }
+
+    @Test
+    public void testFailedInlineBatchIsReplayedInline() {
+        MasterBatchCoordinator mbc = open(2, mock(ITridentSpout.class));
+        mbc.nextTuple();
+        mbc.fail(batches.get(0));
+        assertEquals(4, batches.size());
+        TransactionAttempt replay = batches.get(2);
+        assertEquals(new TransactionAttempt(1L, 1), replay);
+        assertTrue(replay.isInlineCommit());
+        assertEquals(new TransactionAttempt(2L, 1), batches.get(3));
+        assertFalse(batches.get(3).isInlineCommit());
+
+        // an ack of the failed attempt must not count for the replay
+        EVENTS.clear();
+        mbc.ack(batches.get(0));
+        assertEquals(Collections.emptyList(), EVENTS);
+        mbc.ack(replay);
+        assertEquals("$success 1:1", EVENTS.get(0));
+    }
+
+    @Test
+    public void testDisabledForOtherCommitterSpouts() {
+        MasterBatchCoordinator mbc = open(2, mock(ICommitterTridentSpout.class));
+        mbc.nextTuple();
+        assertFalse(batches.get(0).isInlineCommit());
+
+        EVENTS.clear();
+        mbc.ack(batches.get(0));
+        assertEquals("$commit 1:0", EVENTS.get(0));
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.topology;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.generated.Grouping;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.FailedException;
+import org.apache.storm.tuple.Tuple;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TridentBoltExecutor}.
+ */
+public class TridentBoltExecutorTest {
+    private static final String BATCH_GROUP = "bg";
+    private static final GlobalStreamId INPUT = new GlobalStreamId("spout", "s");
+    private static final GlobalStreamId COORD = new GlobalStreamId("spout", TridentBoltExecutor.COORD_STREAM(BATCH_GROUP));
+    private static final GlobalStreamId COMMIT = new GlobalStreamId("$mastercoord", MasterBatchCoordinator.COMMIT_STREAM_ID);
+
+    private ITridentBatchBolt bolt;
+    private OutputCollector collector;
+    private TridentBoltExecutor executor;
+
+    @Before
+    public void setUp() {
+        bolt = mock(ITridentBatchBolt.class);
+        collector = mock(OutputCollector.class);
+        Map<GlobalStreamId, String> batchGroupIds = new HashMap<>();
+        batchGroupIds.put(INPUT, BATCH_GROUP);
+        batchGroupIds.put(COORD, BATCH_GROUP);
+        batchGroupIds.put(COMMIT, BATCH_GROUP);
+        // a committer that gets its batches from a single spout task
+        TridentBoltExecutor.CoordSpec spec = new TridentBoltExecutor.CoordSpec();
+        spec.commitStream = COMMIT;
+        spec.coords.put("spout", TridentBoltExecutor.CoordType.single());
+        Map<String, TridentBoltExecutor.CoordSpec> specs = new HashMap<>();
+        specs.put(BATCH_GROUP, spec);
+        executor = new TridentBoltExecutor(bolt, batchGroupIds, specs);
+
+        TopologyContext context = mock(TopologyContext.class);
+        when(context.maxTopologyMessageTimeout()).thenReturn(30);
+        when(context.getThisTargets()).thenReturn(new HashMap<String, Map<String, Grouping>>());
+        executor.prepare(new HashMap<String, Object>(), context, collector);
+    }
+
+    private static Tuple tuple(GlobalStreamId stream, TransactionAttempt attempt) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.getSourceGlobalStreamId()).thenReturn(stream);
+        when(tuple.getSourceStreamId()).thenReturn(stream.get_streamId());
+        when(tuple.getValue(0)).thenReturn(attempt);
+        when(tuple.getInteger(1)).thenReturn(1);
+        return tuple;
+    }
+
+    @Test
+    public void testCommitterWaitsForTheCommitTuple() {
+        TransactionAttempt attempt = new TransactionAttempt(1L, 0);
+        executor.execute(tuple(INPUT, attempt));
+        Tuple coord = tuple(COORD, attempt);
+        executor.execute(coord);
+        verify(bolt, never()).finishBatch(any(BatchInfo.class));
+        verify(collector).ack(coord);
+
+        Tuple commit = tuple(COMMIT, attempt);
+        executor.execute(commit);
+        verify(bolt).finishBatch(any(BatchInfo.class));
+        verify(collector).ack(commit);
+    }
+
+    @Test
+    public void testInlineBatchIsCommittedWhenItIsFinished() {
+        TransactionAttempt attempt = new TransactionAttempt(1L, 0, true);
+        Tuple input = tuple(INPUT, attempt);
+        executor.execute(input);
+        verify(bolt, never()).finishBatch(any(BatchInfo.class));
+        Tuple coord = tuple(COORD, attempt);
+        executor.execute(coord);
+        verify(bolt).finishBatch(any(BatchInfo.class));
+        verify(collector).ack(input);
+        verify(collector).ack(coord);
+    }
+
+    @Test
+    public void testFailedInlineCommitFailsTheBatch() {
+        doThrow(new FailedException()).when(bolt).finishBatch(any(BatchInfo.class));
+        TransactionAttempt attempt = new TransactionAttempt(1L, 0, true);
+        executor.execute(tuple(INPUT, attempt));
+        Tuple coord = tuple(COORD, attempt);
+        executor.execute(coord);
+        // the master coordinator must see the batch fail, or it would go on to the next txid
+        verify(collector).fail(coord);
+        verify(collector, never()).ack(coord);
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.topology.state;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.TreeSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link CompactingLog}.
+ */
+public class CompactingLogTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPutGetDelete() throws IOException {
+        try (CompactingLog log = new CompactingLog(tmp.getRoot().toPath().resolve("a.log"), 100)) {
+            log.put("a/1", bytes("x"));
+            log.put("a/2", bytes("y"));
+            log.put("b", bytes("z"));
+            log.put("a/1", bytes("w"));
+            assertArrayEquals(bytes("w"), log.get("a/1"));
+            assertEquals(new TreeSet<>(Arrays.asList("a/1", "a/2")), log.keys("a/"));
+            log.delete("a/1");
+            log.delete("missing");
+            assertNull(log.get("a/1"));
+            assertEquals(5, log.getRecords());
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        Path file = tmp.getRoot().toPath().resolve("a.log");
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            log.put("k1", bytes("v1"));
+            log.put("k2", bytes("v2"));
+            log.delete("k1");
+        }
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            assertNull(log.get("k1"));
+            assertArrayEquals(bytes("v2"), log.get("k2"));
+            assertEquals(3, log.getRecords());
+        }
+    }
+
+    @Test
+    public void testTornTailIsDropped() throws IOException {
+        Path file = tmp.getRoot().toPath().resolve("a.log");
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            log.put("k1", bytes("v1"));
+        }
+        long valid = Files.size(file);
+        // a record that was cut off while being written
+        Files.write(file, new byte[]{0, 0, 0, 20, 1, 0}, StandardOpenOption.APPEND);
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            assertArrayEquals(bytes("v1"), log.get("k1"));
+            assertEquals(valid + 6, Files.size(file));
+            log.put("k2", bytes("v2"));
+        }
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            assertArrayEquals(bytes("v1"), log.get("k1"));
+            assertArrayEquals(bytes("v2"), log.get("k2"));
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        Path file = tmp.getRoot().toPath().resolve("a.log");
+        try (CompactingLog log = new CompactingLog(file, 10)) {
+            for (int i = 0; i < 10; i++) {
+                log.put("k", bytes("v" + i));
+            }
+            long uncompacted = Files.size(file);
+            assertEquals(10, log.getRecords());
+            log.put("k", bytes("vl"));
+            assertEquals(1, log.getRecords());
+            assertEquals(uncompacted / 10, Files.size(file));
+            log.put("other", bytes("o"));
+            assertArrayEquals(bytes("vl"), log.get("k"));
+        }
+        try (CompactingLog log = new CompactingLog(file, 10)) {
+            assertArrayEquals(bytes("vl"), log.get("k"));
+            assertArrayEquals(bytes("o"), log.get("other"));
+            assertEquals(2, log.getRecords());
+        }
+    }
+
+    @Test
+    public void testChangesOfAnotherWriterAreSeen() throws IOException {
+        Path file = tmp.getRoot().toPath().resolve("a.log");
+        try (CompactingLog first = new CompactingLog(file, 3);
+             CompactingLog second = new CompactingLog(file, 3)) {
+            first.put("k", bytes("1"));
+            assertArrayEquals(bytes("1"), second.get("k"));
+            // enough writes for the second writer to compact the log into a new file
+            for (int i = 2; i <= 5; i++) {
+                second.put("k", bytes(String.valueOf(i)));
+            }
+            assertArrayEquals(bytes("5"), first.get("k"));
+            first.put("k", bytes("6"));
+            assertArrayEquals(bytes("6"), second.get("k"));
+        }
+    }
+
+    @Test
+    public void testReaderDoesNotTruncateAnAppendInProgress() throws IOException {
+        Path file = tmp.getRoot().toPath().resolve("a.log");
+        Path other = tmp.getRoot().toPath().resolve("b.log");
+        try (CompactingLog log = new CompactingLog(other, 100)) {
+            log.put("k2", bytes("v2"));
+        }
+        byte[] record = Files.readAllBytes(other);
+        try (CompactingLog writer = new CompactingLog(file, 100)) {
+            writer.put("k1", bytes("v1"));
+            // the writer is half way through its next append when a reader opens the log
+            Files.write(file, Arrays.copyOf(record, 5), StandardOpenOption.APPEND);
+            try (CompactingLog reader = new CompactingLog(file, 100)) {
+                assertNull(reader.get("k2"));
+                assertArrayEquals(bytes("v1"), reader.get("k1"));
+                Files.write(file, Arrays.copyOfRange(record, 5, record.length), StandardOpenOption.APPEND);
+                assertArrayEquals(bytes("v2"), reader.get("k2"));
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptLengthIsIgnored() throws IOException {
+        Path file = tmp.getRoot().toPath().resolve("a.log");
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            log.put("k1", bytes("v1"));
+        }
+        Files.write(file, new byte[]{0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 1, 2, 3, 4}, StandardOpenOption.APPEND);
+        try (CompactingLog log = new CompactingLog(file, 100)) {
+            assertArrayEquals(bytes("v1"), log.get("k1"));
+            assertEquals(1, log.getRecords());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.topology.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link LogTransactionalStateStore}.
+ */
+public class LogTransactionalStateStoreTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Map<String, Object> conf;
+
+    @Before
+    public void setUp() {
+        conf = new HashMap<>();
+        conf.put(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_STORE, LogTransactionalStateStore.class.getName());
+        conf.put(Config.TOPOLOGY_TRIDENT_TRANSACTIONAL_STATE_LOG_DIR, tmp.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public void testListsChildrenLikeZooKeeper() {
+        TransactionalState state = TransactionalState.newCoordinatorState(conf, "spout/1");
+        try {
+            assertEquals(Collections.emptyList(), state.list(""));
+            assertEquals(Collections.emptyList(), state.list("meta"));
+            state.mkdir("meta");
+            state.setData("meta/1", Collections.singletonMap("a", 1L));
+            state.setData("meta/2", 2L);
+            state.setData("meta/2/nested", 3L);
+            state.setData("partition_0", "x");
+            assertEquals(new HashSet<>(Arrays.asList("meta", "partition_0")), new HashSet<>(state.list("")));
+            assertEquals(Arrays.asList("1", "2"), state.list("meta"));
+            assertEquals(Collections.singletonList("nested"), state.list("meta/2"));
+            assertEquals(Collections.singletonMap("a", 1L), state.getData("meta/1"));
+            state.delete("meta/1");
+            assertNull(state.getData("meta/1"));
+            assertNull(state.getData("unknown/1"));
+            assertEquals(Collections.singletonList("2"), state.list("meta"));
+        } finally {
+            state.close();
+        }
+    }
+
+    @Test
+    public void testStateSurvivesRestart() {
+        TransactionalState state = TransactionalState.newUserState(conf, "topo");
+        state.setData("currtx", 42L);
+        state.close();
+        assertTrue(new File(tmp.getRoot(), "topo/user/currtx.log").isFile());
+
+        TransactionalState restarted = TransactionalState.newUserState(conf, "topo");
+        try {
+            assertEquals(42L, restarted.getData("currtx"));
+            assertNull(TransactionalState.newCoordinatorState(conf, "topo").getData("currtx"));
+        } finally {
+            restarted.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.trident.windowing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.storm.topology.base.BaseWindowedBolt;
+import org.apache.storm.trident.operation.builtin.Count;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.trident.tuple.TridentTupleView.FreshOutputFactory;
+import org.apache.storm.trident.windowing.AbstractTridentWindowManager.TriggerResult;
+import org.apache.storm.trident.windowing.config.SessionWindow;
+import org.apache.storm.trident.windowing.config.SlidingCountWindow;
+import org.apache.storm.tuple.Fields;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PaneBasedTridentWindowManager}.
+ */
+public class PaneBasedTridentWindowManagerTest {
+    private static final String WINDOW_TASK_ID = "w|1|";
+
+    private final FreshOutputFactory factory = new FreshOutputFactory(new Fields("x"));
+    private final WindowsStore store = new InMemoryWindowsStore();
+
+    private PaneBasedTridentWindowManager newManager() {
+        PaneBasedTridentWindowManager manager =
+            new PaneBasedTridentWindowManager(SlidingCountWindow.of(4, 2), WINDOW_TASK_ID, store, new Count());
+        manager.prepare();
+        return manager;
+    }
+
+    private List<TridentTuple> tuples(int count) {
+        List<TridentTuple> tuples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tuples.add(factory.create(Arrays.<Object>asList(i)));
+        }
+        return tuples;
+    }
+
+    private static List<Object> results(PaneBasedTridentWindowManager manager) {
+        List<Object> results = new ArrayList<>();
+        for (TriggerResult trigger : manager.getPendingTriggers()) {
+            results.add(trigger.result.get(0).get(0));
+        }
+        return results;
+    }
+
+    private int paneEntries() {
+        int panes = 0;
+        for (String key : store.getAllKeys()) {
+            if (key.startsWith("pa|" + WINDOW_TASK_ID)) {
+                panes++;
+            }
+        }
+        return panes;
+    }
+
+    @Test
+    public void testOnlyPanesAreStored() {
+        PaneBasedTridentWindowManager manager = newManager();
+        manager.addTuplesBatch(1L, tuples(3));
+        manager.addTuplesBatch(2L, tuples(3));
+        assertEquals(Arrays.<Object>asList(2L, 4L, 4L), results(manager));
+        // two panes of two tuples make up a window, older panes are removed
+        assertEquals(2, paneEntries());
+    }
+
+    @Test
+    public void testRestoreFromStore() {
+        PaneBasedTridentWindowManager manager = newManager();
+        manager.addTuplesBatch(1L, tuples(3));
+        manager.addTuplesBatch(2L, tuples(2));
+
+        PaneBasedTridentWindowManager restored = newManager();
+        // triggers that were not emitted yet are restored as well
+        assertEquals(Arrays.<Object>asList(2L, 4L), results(restored));
+        restored.addTuplesBatch(3L, tuples(1));
+        restored.addTuplesBatch(4L, tuples(2));
+        assertEquals(Arrays.<Object>asList(2L, 4L, 4L, 4L), results(restored));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSessionWindowsAreNotSupported() {
+        new PaneBasedTridentWindowManager(SessionWindow.of(BaseWindowedBolt.Duration.seconds(1)), WINDOW_TASK_ID, store,
+                                          new Count());
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.windowing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PaneWindowManager}
+ */
+public class PaneWindowManagerTest {
+    private final List<AggregateWindow<Long>> windows = new ArrayList<>();
+
+    private static class Sum implements WindowAggregator<Integer, long[], Long> {
+        @Override
+        public long[] init() {
+            return new long[1];
+        }
+
+        @Override
+        public long[] add(long[] accumulator, Integer event) {
+            accumulator[0] += event;
+            return accumulator;
+        }
+
+        @Override
+        public long[] merge(long[] accumulator, long[] other) {
+            accumulator[0] += other[0];
+            return accumulator;
+        }
+
+        @Override
+        public Long result(long[] accumulator) {
+            return accumulator[0];
+        }
+    }
+
+    private static class RetractableSum extends Sum {
+        @Override
+        public boolean isRetractable() {
+            return true;
+        }
+
+        @Override
+        public long[] retract(long[] accumulator, long[] other) {
+            accumulator[0] -= other[0];
+            return accumulator;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        windows.clear();
+    }
+
+    private List<Long> results() {
+        List<Long> res = new ArrayList<>();
+        for (AggregateWindow<Long> window : windows) {
+            res.add(window.get());
+        }
+        return res;
+    }
+
+    @Test
+    public void testCountWindows() {
+        for (WindowAggregator<Integer, long[], Long> aggregator : Arrays.asList(new Sum(), new RetractableSum())) {
+            windows.clear();
+            PaneWindowManager<Integer, long[], Long> manager = PaneWindowManager.countWindows(aggregator, windows::add, 6, 4);
+            assertEquals(2, manager.getPaneSize());
+            for (int i = 1; i <= 12; i++) {
+                manager.add(i, 0);
+            }
+            // windows end after events 4, 8 and 12 and hold the last 6 events
+            assertEquals(Arrays.asList(1L + 2 + 3 + 4, 3L + 4 + 5 + 6 + 7 + 8, 7L + 8 + 9 + 10 + 11 + 12), results());
+            assertNull(windows.get(0).getEndTimestamp());
+            assertEquals(3, manager.getPaneCount());
+        }
+    }
+
+    @Test
+    public void testTimeWindows() {
+        for (WindowAggregator<Integer, long[], Long> aggregator : Arrays.asList(new Sum(), new RetractableSum())) {
+            windows.clear();
+            PaneWindowManager<Integer, long[], Long> manager = PaneWindowManager.timeWindows(aggregator, windows::add, 20, 10);
+            assertEquals(10, manager.getPaneSize());
+            manager.add(1, 3);
+            manager.add(2, 12);
+            // out of order but still part of the next window
+            manager.add(4, 5);
+            manager.advance(20);
+            manager.add(8, 25);
+            manager.advance(30);
+            assertEquals(Arrays.asList(1L + 4, 1L + 4 + 2, 2L + 8), results());
+            assertEquals(-10L, windows.get(0).getStartTimestamp().longValue());
+            assertEquals(10L, windows.get(2).getStartTimestamp().longValue());
+            assertEquals(30L, windows.get(2).getEndTimestamp().longValue());
+            assertEquals(1, manager.getPaneCount());
+            // windows ending at 40 and 50 are empty after 25 expires, the gap is skipped
+            manager.add(16, 105);
+            manager.advance(120);
+            assertEquals(Arrays.asList(1L + 4, 1L + 4 + 2, 2L + 8, 8L, 16L, 16L), results());
+            assertEquals(0, manager.getPaneCount());
+        }
+    }
+
+    @Test
+    public void testLateEvents() {
+        PaneWindowManager<Integer, long[], Long> manager = PaneWindowManager.timeWindows(new RetractableSum(), windows::add, 20, 10);
+        assertTrue(manager.add(1, 15));
+        assertTrue(manager.add(new WaterMarkEvent<>(30)));
+        // windows [0, 20) and [10, 30) are evaluated, only windows starting at 20 or later are left
+        assertFalse(manager.add(2, 12));
+        assertTrue(manager.add(3, 22));
+        manager.advance(40);
+        assertEquals(Arrays.asList(1L, 1L, 3L), results());
+    }
+
+    @Test
+    public void testHoppingWindows() {
+        PaneWindowManager<Integer, long[], Long> manager = PaneWindowManager.timeWindows(new Sum(), windows::add, 10, 30);
+        manager.add(1, 25);
+        // falls between the windows [20, 30) and [50, 60), it is dropped but not late
+        assertTrue(manager.add(2, 35));
+        manager.add(4, 55);
+        manager.advance(60);
+        assertEquals(Arrays.asList(1L, 4L), results());
+    }
+
+    /**
+     * Keeps the panes reported to the listener, like a windows store would.
+     */
+    private static class PaneStore implements PaneWindowManager.PaneListener<long[]> {
+        final SortedMap<Long, long[]> panes = new TreeMap<>();
+
+        @Override
+        public void onPaneUpdate(long paneId, long[] accumulator) {
+            panes.put(paneId, accumulator.clone());
+        }
+
+        @Override
+        public void onPaneExpiry(long paneId) {
+            panes.remove(paneId);
+        }
+    }
+
+    @Test
+    public void testRestoreCountWindows() {
+        for (WindowAggregator<Integer, long[], Long> aggregator : Arrays.asList(new Sum(), new RetractableSum())) {
+            windows.clear();
+            PaneStore store = new PaneStore();
+            PaneWindowManager<Integer, long[], Long> manager = PaneWindowManager.countWindows(aggregator, windows::add, 6, 4);
+            manager.setPaneListener(store);
+            for (int i = 1; i <= 9; i++) {
+                manager.add(i, 0);
+            }
+            // panes [3, 4], [5, 6], [7, 8] and the open pane [9]
+            assertEquals(Arrays.asList(1L, 2L, 3L, 4L), new ArrayList<>(store.panes.keySet()));
+            PaneWindowManager<Integer, long[], Long> restored = PaneWindowManager.countWindows(aggregator, windows::add, 6, 4);
+            restored.restore(manager.getPosition(), store.panes);
+            for (int i = 10; i <= 12; i++) {
+                restored.add(i, 0);
+            }
+            assertEquals(Arrays.asList(1L + 2 + 3 + 4, 3L + 4 + 5 + 6 + 7 + 8, 7L + 8 + 9 + 10 + 11 + 12), results());
+        }
+    }
+
+    @Test
+    public void testRestoreTimeWindows() {
+        for (WindowAggregator<Integer, long[], Long> aggregator : Arrays.asList(new Sum(), new RetractableSum())) {
+            windows.clear();
+            PaneStore store = new PaneStore();
+            PaneWindowManager<Integer, long[], Long> manager = PaneWindowManager.timeWindows(aggregator, windows::add, 20, 10);
+            manager.setPaneListener(store);
+            manager.add(1, 3);
+            manager.add(2, 12);
+            manager.advance(20);
+            manager.add(4, 25);
+            assertEquals(Arrays.asList(10L, 20L), new ArrayList<>(store.panes.keySet()));
+            PaneWindowManager<Integer, long[], Long> restored = PaneWindowManager.timeWindows(aggregator, windows::add, 20, 10);
+            restored.restore(manager.getPosition(), store.panes);
+            restored.add(8, 28);
+            restored.advance(40);
+            assertEquals(Arrays.asList(1L, 1L + 2, 2L + 4 + 8, 4L + 8), results());
+        }
+    }
+}
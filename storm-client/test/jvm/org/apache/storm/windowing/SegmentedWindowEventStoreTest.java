@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.windowing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SegmentedWindowEventStore}
+ */
+public class SegmentedWindowEventStoreTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File dir;
+    private SegmentedWindowEventStore<Integer> store;
+    private final AtomicInteger deserialized = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        dir = new File(tmp.getRoot(), "spill");
+        store = new SegmentedWindowEventStore<>(dir, 3, 2, i -> ByteBuffer.allocate(4).putInt(i).array(), bytes -> {
+            deserialized.incrementAndGet();
+            return ByteBuffer.wrap(bytes).getInt();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    private void add(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            store.add(new EventImpl<>(i, i * 10L));
+        }
+    }
+
+    private static <T> List<T> toList(Iterator<T> it) {
+        List<T> res = new ArrayList<>();
+        it.forEachRemaining(res::add);
+        return res;
+    }
+
+    private List<Integer> values() {
+        List<Integer> res = new ArrayList<>();
+        for (Event<Integer> event : store) {
+            res.add(event.get());
+            assertEquals(event.get() * 10L, event.getTimestamp());
+        }
+        return res;
+    }
+
+    @Test
+    public void testSpillAndIterate() {
+        add(1, 10);
+        // segments [1-3] and [4-6] are on disk, [7-9] and [10] in memory
+        assertEquals(2, store.getSpilledSegmentCount());
+        assertEquals(2, dir.listFiles().length);
+        assertEquals(10, store.size());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), values());
+    }
+
+    @Test
+    public void testExpiryDropsWholeSegments() {
+        add(1, 10);
+        Iterator<Event<Integer>> it = store.iterator();
+        for (int i = 1; i <= 4; i++) {
+            it.next();
+            it.remove();
+        }
+        assertEquals(6, store.size());
+        // the first segment is gone, the second one is still needed for 5 and 6
+        assertEquals(1, store.getSpilledSegmentCount());
+        assertEquals(1, dir.listFiles().length);
+        assertEquals(Arrays.asList(5, 6, 7, 8, 9, 10), values());
+        // events added while iterating are not returned
+        it = store.iterator();
+        add(11, 12);
+        assertEquals(6, toList(it).size());
+    }
+
+    @Test
+    public void testRangeIterator() {
+        add(1, 10);
+        // sequence numbers start at 0
+        List<long[]> ranges = Arrays.asList(new long[] {1, 2}, new long[] {5, 7});
+        assertEquals(Arrays.asList(2, 3, 6, 7, 8), toList(store.iterator(ranges)));
+    }
+
+    private WindowManager<Integer> newWindowManager(List<List<Integer>> windows, List<Integer> expired) {
+        return new WindowManager<>(new WindowLifecycleListener<Integer>() {
+            @Override
+            public void onExpiry(List<Integer> events) {
+                expired.addAll(events);
+            }
+
+            @Override
+            public void onActivation(List<Integer> events, List<Integer> newEvents, List<Integer> expired, Long ts) {
+                throw new AssertionError("the window should not be materialized");
+            }
+
+            @Override
+            public void onActivation(Supplier<Iterator<Integer>> eventsIt, Long ts) {
+                windows.add(toList(eventsIt.get()));
+            }
+        }, store);
+    }
+
+    @Test
+    public void testWindowManagerActivation() {
+        List<List<Integer>> windows = new ArrayList<>();
+        List<Integer> expired = new ArrayList<>();
+        WindowManager<Integer> windowManager = newWindowManager(windows, expired);
+        EvictionPolicy<Integer> evictionPolicy = new CountEvictionPolicy<>(5);
+        TriggerPolicy<Integer> triggerPolicy = new CountTriggerPolicy<>(4, windowManager, evictionPolicy);
+        triggerPolicy.start();
+        windowManager.setEvictionPolicy(evictionPolicy);
+        windowManager.setTriggerPolicy(triggerPolicy);
+        for (int i = 1; i <= 12; i++) {
+            windowManager.add(i);
+        }
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3, 4), Arrays.asList(4, 5, 6, 7, 8),
+                                   Arrays.asList(8, 9, 10, 11, 12)), windows);
+        assertTrue(expired.isEmpty());
+        assertEquals(5, store.size());
+        windowManager.shutdown();
+        assertTrue(!dir.exists());
+    }
+
+    @Test
+    public void testCountWindowDoesNotReadSpilledSegments() {
+        List<List<Integer>> windows = new ArrayList<>();
+        WindowManager<Integer> windowManager = newWindowManager(windows, new ArrayList<>());
+        EvictionPolicy<Integer> evictionPolicy = new CountEvictionPolicy<>(6);
+        TriggerPolicy<Integer> triggerPolicy = new CountTriggerPolicy<>(6, windowManager, evictionPolicy);
+        triggerPolicy.start();
+        windowManager.setEvictionPolicy(evictionPolicy);
+        windowManager.setTriggerPolicy(triggerPolicy);
+        for (int i = 1; i <= 12; i++) {
+            windowManager.add(i);
+        }
+        // [1-3] and [4-6] were spilled and expire as a whole
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3, 4, 5, 6), Arrays.asList(7, 8, 9, 10, 11, 12)), windows);
+        assertEquals(0, deserialized.get());
+        assertEquals(0, store.getSpilledSegmentCount());
+        windowManager.shutdown();
+    }
+
+    @Test
+    public void testTimeWindowReadsOnlyTheSegmentAtItsStart() {
+        List<List<Integer>> windows = new ArrayList<>();
+        WindowManager<Integer> windowManager = newWindowManager(windows, new ArrayList<>());
+        EvictionPolicy<Integer> evictionPolicy = new TimeEvictionPolicy<>(75);
+        windowManager.setEvictionPolicy(evictionPolicy);
+        windowManager.setTriggerPolicy(new CountTriggerPolicy<>(100, windowManager, evictionPolicy));
+        for (int i = 1; i <= 15; i++) {
+            windowManager.add(i, i * 10L);
+        }
+        assertEquals(3, store.getSpilledSegmentCount());
+        // the window (75, 150] starts in the spilled [7-9], [1-3] and [4-6] expire as a whole
+        evictionPolicy.setContext(new DefaultEvictionContext(150L));
+        windowManager.onTrigger();
+        assertEquals(Arrays.asList(Arrays.asList(8, 9, 10, 11, 12, 13, 14, 15)), windows);
+        assertEquals(3, deserialized.get());
+        assertEquals(1, store.getSpilledSegmentCount());
+        windowManager.shutdown();
+    }
+}
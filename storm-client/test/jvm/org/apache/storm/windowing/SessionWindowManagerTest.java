@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.storm.windowing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link SessionWindowManager}
+ */
+public class SessionWindowManagerTest {
+    private final List<AggregateWindow<Long>> windows = new ArrayList<>();
+    private final SessionWindowManager<String, Integer, long[], Long> manager =
+        new SessionWindowManager<>(new Sum(), windows::add, 10);
+
+    private static class Sum implements WindowAggregator<Integer, long[], Long> {
+        @Override
+        public long[] init() {
+            return new long[1];
+        }
+
+        @Override
+        public long[] add(long[] accumulator, Integer event) {
+            accumulator[0] += event;
+            return accumulator;
+        }
+
+        @Override
+        public long[] merge(long[] accumulator, long[] other) {
+            accumulator[0] += other[0];
+            return accumulator;
+        }
+
+        @Override
+        public Long result(long[] accumulator) {
+            return accumulator[0];
+        }
+    }
+
+    private void assertWindow(AggregateWindow<Long> window, String key, long result, long start, long end) {
+        assertEquals(key, window.getKey());
+        assertEquals(Long.valueOf(result), window.get());
+        assertEquals(start, (long) window.getStartTimestamp());
+        assertEquals(end, (long) window.getEndTimestamp());
+    }
+
+    @Test
+    public void testSessionEndsAfterGap() {
+        assertTrue(manager.add("a", 1, 100));
+        assertTrue(manager.add("a", 2, 105));
+        assertTrue(manager.add("a", 3, 114));
+        manager.advance(123);
+        assertTrue(windows.isEmpty());
+        manager.advance(124);
+        assertEquals(1, windows.size());
+        assertWindow(windows.get(0), "a", 6, 100, 124);
+        assertEquals(0, manager.getSessionCount());
+    }
+
+    @Test
+    public void testEventsMoreThanGapApartStartNewSession() {
+        manager.add("a", 1, 100);
+        manager.add("a", 2, 110);
+        assertEquals(2, manager.getSessionCount());
+        manager.advance(200);
+        assertEquals(2, windows.size());
+        assertWindow(windows.get(0), "a", 1, 100, 110);
+        assertWindow(windows.get(1), "a", 2, 110, 120);
+    }
+
+    @Test
+    public void testOutOfOrderEventMergesSessions() {
+        manager.add("a", 1, 100);
+        manager.add("a", 2, 115);
+        assertEquals(2, manager.getSessionCount());
+        manager.add("a", 4, 108);
+        assertEquals(1, manager.getSessionCount());
+        manager.advance(200);
+        assertEquals(1, windows.size());
+        assertWindow(windows.get(0), "a", 7, 100, 125);
+    }
+
+    @Test
+    public void testSessionsPerKey() {
+        manager.add("a", 1, 100);
+        manager.add("b", 2, 105);
+        manager.add("a", 4, 108);
+        manager.advance(115);
+        assertEquals(1, windows.size());
+        assertWindow(windows.get(0), "b", 2, 105, 115);
+        manager.advance(200);
+        assertEquals(2, windows.size());
+        assertWindow(windows.get(1), "a", 5, 100, 118);
+    }
+
+    @Test
+    public void testLateEvent() {
+        manager.add("a", 1, 100);
+        manager.add(null, new WaterMarkEvent<>(120));
+        assertEquals(1, windows.size());
+        // would start a session that already ended
+        assertFalse(manager.add("a", 2, 105));
+        // still within the gap of the watermark
+        assertTrue(manager.add("a", 2, 115));
+        // extends the open session
+        manager.add("a", 3, 124);
+        assertTrue(manager.add("a", 4, 108));
+        manager.advance(200);
+        assertEquals(2, windows.size());
+        assertWindow(windows.get(1), "a", 9, 108, 134);
+    }
+}
@@ -18,14 +18,18 @@
 package org.apache.storm.windowing;
 
 import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.utils.Time;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -115,4 +119,72 @@ public class WaterMarkEventGeneratorTest {
         assertTrue(eventList.get(0).isWatermark());
         assertEquals(110, eventList.get(0).getTimestamp());
     }
+
+    private WaterMarkEventGenerator<Integer> perPartitionGenerator(long idleTimeoutMs) {
+        Map<GlobalStreamId, List<Integer>> tasks = new HashMap<>();
+        tasks.put(streamId("s1"), Arrays.asList(1, 2));
+        WaterMarkEventGenerator<Integer> generator = new WaterMarkEventGenerator<>(eventList::add, 100000, 5, tasks);
+        generator.setIdleTimeoutMs(idleTimeoutMs);
+        return generator;
+    }
+
+    @Test
+    public void testTrackPartitions() throws Exception {
+        waterMarkEventGenerator = perPartitionGenerator(100000);
+        waterMarkEventGenerator.track(streamId("s1"), 1, 200);
+        waterMarkEventGenerator.run();
+        assertTrue(eventList.isEmpty());
+        waterMarkEventGenerator.track(streamId("s1"), 2, 100);
+        waterMarkEventGenerator.run();
+        assertEquals(95, eventList.get(0).getTimestamp());
+        // the slower partition is not late because of the faster one
+        assertTrue(waterMarkEventGenerator.track(streamId("s1"), 2, 110));
+    }
+
+    @Test
+    public void testIdlePartition() throws Exception {
+        try (Time.SimulatedTime time = new Time.SimulatedTime()) {
+            waterMarkEventGenerator = perPartitionGenerator(50);
+            waterMarkEventGenerator.track(streamId("s1"), 1, 200);
+            Time.advanceTime(49);
+            waterMarkEventGenerator.run();
+            assertTrue(eventList.isEmpty());
+            Time.advanceTime(1);
+            waterMarkEventGenerator.track(streamId("s1"), 1, 210);
+            waterMarkEventGenerator.run();
+            // partition 2 never received anything and is idle by now
+            assertEquals(205, eventList.get(0).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testForwardedWaterMark() throws Exception {
+        waterMarkEventGenerator = perPartitionGenerator(100000);
+        waterMarkEventGenerator.track(streamId("s1"), 1, 200);
+        waterMarkEventGenerator.trackWaterMark(new GlobalStreamId("s1", "watermarks"), 2, 150);
+        waterMarkEventGenerator.run();
+        assertEquals(145, eventList.get(0).getTimestamp());
+    }
+
+    @Test
+    public void testForwardedWaterMarkAdvancesTheStreamsOfTheSource() throws Exception {
+        waterMarkEventGenerator = new WaterMarkEventGenerator<>(windowManager, 100000, 5,
+                                                                new HashSet<>(Arrays.asList(streamId("s1"), streamId("s2"))));
+        waterMarkEventGenerator.track(streamId("s2"), 300);
+        // s1 has nothing to send, its watermark stream says so
+        waterMarkEventGenerator.trackWaterMark(new GlobalStreamId("s1", "watermarks"), 2, 150);
+        waterMarkEventGenerator.run();
+        assertEquals(145, eventList.get(0).getTimestamp());
+    }
+
+    @Test
+    public void testPunctuate() throws Exception {
+        waterMarkEventGenerator.track(streamId("s1"), 100);
+        waterMarkEventGenerator.punctuate();
+        assertEquals(1, eventList.size());
+        assertEquals(95, eventList.get(0).getTimestamp());
+        waterMarkEventGenerator.track(streamId("s1"), 120);
+        waterMarkEventGenerator.punctuate();
+        assertEquals(115, eventList.get(1).getTimestamp());
+    }
 }
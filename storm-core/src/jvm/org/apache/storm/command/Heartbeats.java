@@ -22,7 +22,7 @@ import java.util.Map;
 import org.apache.storm.cluster.ClusterStateContext;
 import org.apache.storm.cluster.ClusterUtils;
 import org.apache.storm.cluster.IStateStorage;
-import org.apache.storm.generated.ClusterWorkerHeartbeat;
+import org.apache.storm.cluster.WorkerHeartbeatCodec;
 import org.apache.storm.stats.StatsUtil;
 import org.apache.storm.utils.Utils;
 import org.json.simple.JSONValue;
@@ -79,7 +79,7 @@ public class Heartbeats {
         String message;
         byte[] hb = cluster.get_worker_hb(path, false);
         if (hb != null) {
-            Map<String, Object> heartbeatMap = StatsUtil.convertZkWorkerHb(Utils.deserialize(hb, ClusterWorkerHeartbeat.class));
+            Map<String, Object> heartbeatMap = StatsUtil.convertZkWorkerHb(WorkerHeartbeatCodec.deserialize(hb));
             message = JSONValue.toJSONString(heartbeatMap);
         } else {
             message = "No Heartbeats found";
@@ -570,6 +570,22 @@ public class DaemonConfig implements Validated {
     @NotNull
     public static final String DRPC_REQUEST_TIMEOUT_SECS  = "drpc.request.timeout.secs";
 
+    /**
+     * The most requests the DRPC server hands out to a DRPC spout in one fetchRequests call.
+     */
+    @isInteger
+    @isPositiveNumber
+    public static final String DRPC_FETCH_REQUESTS_MAX = "drpc.fetch.requests.max";
+
+    /**
+     * How long the DRPC server holds a fetchRequests call that finds no request waiting before it returns an empty
+     * batch, so that idle DRPC spouts do not poll the server in a tight loop. Each waiting call occupies one of the
+     * drpc.invocations.threads, so at most half of them are allowed to wait at the same time. Set to 0 to never wait.
+     */
+    @isInteger
+    @isPositiveNumber(includeZero = true)
+    public static final String DRPC_FETCH_REQUESTS_WAIT_MILLIS = "drpc.fetch.requests.wait.millis";
+
     /**
      * Childopts for Storm DRPC Java process.
      */
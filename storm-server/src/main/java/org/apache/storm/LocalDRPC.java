@@ -17,6 +17,7 @@
  */
 package org.apache.storm;
 
+import java.util.List;
 import java.util.Map;
 
 import org.apache.storm.daemon.drpc.DRPC;
@@ -77,6 +78,16 @@ public class LocalDRPC implements ILocalDRPC {
         return drpc.fetchRequest(functionName);
     }
 
+    @Override
+    public List<DRPCRequest> fetchRequests(String functionName) throws AuthorizationException, TException {
+        return drpc.fetchRequests(functionName);
+    }
+
+    @Override
+    public void results(Map<String, String> results) throws AuthorizationException, TException {
+        drpc.returnResults(results);
+    }
+
     @Override
     public void close() {
         ServiceRegistry.unregisterService(this.serviceId);
@@ -18,15 +18,21 @@
 package org.apache.storm.daemon.drpc;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.storm.Config;
 import org.apache.storm.DaemonConfig;
 import org.apache.storm.daemon.StormCommon;
 import org.apache.storm.generated.AuthorizationException;
@@ -102,7 +108,7 @@ public class DRPC implements AutoCloseable {
     }
     
     //Waiting to be fetched
-    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<OutstandingRequest>> _queues =
+    private final ConcurrentHashMap<String, LinkedBlockingQueue<OutstandingRequest>> _queues =
             new ConcurrentHashMap<>();
     //Waiting to be returned
     private final ConcurrentHashMap<String, OutstandingRequest> _requests = 
@@ -110,14 +116,36 @@ public class DRPC implements AutoCloseable {
     private final Timer _timer = new Timer();
     private final AtomicLong _ctr = new AtomicLong(0);
     private final IAuthorizer _auth;
+    private final int _fetchMaxRequests;
+    private final long _fetchWaitMs;
+    //Bounds the fetchRequests calls that wait for a request, so they cannot take all the invocations threads
+    private final Semaphore _waitingFetches;
     
     public DRPC(Map<String, Object> conf) {
         this(mkAuthorizationHandler((String)conf.get(DaemonConfig.DRPC_AUTHORIZER), conf),
-                ObjectReader.getInt(conf.get(DaemonConfig.DRPC_REQUEST_TIMEOUT_SECS), 600) * 1000);
+                ObjectReader.getInt(conf.get(DaemonConfig.DRPC_REQUEST_TIMEOUT_SECS), 600) * 1000,
+                ObjectReader.getInt(conf.get(DaemonConfig.DRPC_FETCH_REQUESTS_MAX), 100),
+                ObjectReader.getInt(conf.get(DaemonConfig.DRPC_FETCH_REQUESTS_WAIT_MILLIS), 100),
+                Math.max(1, ObjectReader.getInt(conf.get(Config.DRPC_INVOCATIONS_THREADS), 64) / 2));
     }
     
     public DRPC(IAuthorizer auth, long timeoutMs) {
+        this(auth, timeoutMs, 100, 0, 1);
+    }
+
+    /**
+     * Constructor.
+     * @param auth the authorizer for DRPC operations, or null to permit everything
+     * @param timeoutMs how long a request may be outstanding before it fails
+     * @param fetchMaxRequests the most requests {@link #fetchRequests(String)} returns at once
+     * @param fetchWaitMs how long {@link #fetchRequests(String)} waits for a request when none is queued
+     * @param maxWaitingFetches how many {@link #fetchRequests(String)} calls may wait at the same time
+     */
+    public DRPC(IAuthorizer auth, long timeoutMs, int fetchMaxRequests, long fetchWaitMs, int maxWaitingFetches) {
         _auth = auth;
+        _fetchMaxRequests = fetchMaxRequests;
+        _fetchWaitMs = fetchWaitMs;
+        _waitingFetches = new Semaphore(maxWaitingFetches);
         _timer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
@@ -157,13 +185,13 @@ public class DRPC implements AutoCloseable {
         return String.valueOf(_ctr.incrementAndGet());
     }
 
-    private ConcurrentLinkedQueue<OutstandingRequest> getQueue(String function) {
+    private LinkedBlockingQueue<OutstandingRequest> getQueue(String function) {
         if (function == null) {
             throw new IllegalArgumentException("The function for a request cannot be null");
         }
-        ConcurrentLinkedQueue<OutstandingRequest> queue = _queues.get(function);
+        LinkedBlockingQueue<OutstandingRequest> queue = _queues.get(function);
         if (queue == null) {
-            _queues.putIfAbsent(function, new ConcurrentLinkedQueue<>());
+            _queues.putIfAbsent(function, new LinkedBlockingQueue<>());
             queue = _queues.get(function);
         }
         return queue;
@@ -179,10 +207,20 @@ public class DRPC implements AutoCloseable {
         }
     }
 
+    /**
+     * Return the results of several requests at once.
+     * @param results the results keyed by request id
+     */
+    public void returnResults(Map<String, String> results) throws AuthorizationException {
+        for (Entry<String, String> entry : results.entrySet()) {
+            returnResult(entry.getKey(), entry.getValue());
+        }
+    }
+
     public DRPCRequest fetchRequest(String functionName) throws AuthorizationException {
         meterFetchRequestCalls.mark();
         checkAuthorizationNoLog("fetchRequest", functionName);
-        ConcurrentLinkedQueue<OutstandingRequest> q = getQueue(functionName);
+        LinkedBlockingQueue<OutstandingRequest> q = getQueue(functionName);
         OutstandingRequest req = q.poll();
         if (req != null) {
             //Only log accesses that fetched something
@@ -194,6 +232,43 @@ public class DRPC implements AutoCloseable {
         return NOTHING_REQUEST;
     }
 
+    /**
+     * Fetch the queued requests for a function, up to the configured maximum. If none is queued, wait up to the
+     * configured time for one to arrive, unless too many other calls are waiting already.
+     * @param functionName the function to fetch requests for
+     * @return the requests, empty if there are none
+     */
+    public List<DRPCRequest> fetchRequests(String functionName) throws AuthorizationException {
+        meterFetchRequestCalls.mark();
+        checkAuthorizationNoLog("fetchRequest", functionName);
+        LinkedBlockingQueue<OutstandingRequest> q = getQueue(functionName);
+        List<OutstandingRequest> reqs = new ArrayList<>();
+        q.drainTo(reqs, _fetchMaxRequests);
+        if (reqs.isEmpty() && _fetchWaitMs > 0 && _waitingFetches.tryAcquire()) {
+            try {
+                OutstandingRequest req = q.poll(_fetchWaitMs, TimeUnit.MILLISECONDS);
+                if (req != null) {
+                    reqs.add(req);
+                    q.drainTo(reqs, _fetchMaxRequests - 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                _waitingFetches.release();
+            }
+        }
+        List<DRPCRequest> ret = new ArrayList<>(reqs.size());
+        if (!reqs.isEmpty()) {
+            //Only log accesses that fetched something
+            logAccess("fetchRequest", functionName);
+            for (OutstandingRequest req : reqs) {
+                req.fetched();
+                ret.add(req.getRequest());
+            }
+        }
+        return ret;
+    }
+
     public void failRequest(String id, DRPCExecutionException e) throws AuthorizationException {
         meterFailRequestCalls.mark();
         LOG.debug("Got a fail {}", id);
@@ -214,10 +289,20 @@ public class DRPC implements AutoCloseable {
         LOG.debug("Execute {} {}", functionName, funcArgs);
         T req = factory.mkRequest(functionName, new DRPCRequest(funcArgs, id));
         _requests.put(id, req);
-        ConcurrentLinkedQueue<OutstandingRequest> q = getQueue(functionName);
+        LinkedBlockingQueue<OutstandingRequest> q = getQueue(functionName);
         q.add(req);
         return req;
     }
+
+    /**
+     * Execute a request without waiting for its result.
+     * @return a future that completes with the result, or exceptionally with a {@link DRPCExecutionException}
+     */
+    public CompletableFuture<String> executeAsync(String functionName, String funcArgs) throws AuthorizationException {
+        FutureOutstandingRequest req = execute(functionName, funcArgs, FutureOutstandingRequest.FACTORY);
+        String id = req.getRequest().get_request_id();
+        return req.getFuture().whenComplete((result, e) -> cleanup(id));
+    }
     
     public String executeBlocking(String functionName, String funcArgs) throws DRPCExecutionException, AuthorizationException {
         BlockingOutstandingRequest req = execute(functionName, funcArgs, BlockingOutstandingRequest.FACTORY);
@@ -17,6 +17,9 @@
  */
 package org.apache.storm.daemon.drpc;
 
+import java.util.List;
+import java.util.Map;
+
 import org.apache.storm.generated.AuthorizationException;
 import org.apache.storm.generated.DRPCExecutionException;
 import org.apache.storm.generated.DRPCRequest;
@@ -40,6 +43,16 @@ public class DRPCThrift implements DistributedRPC.Iface, DistributedRPCInvocatio
         return _drpc.fetchRequest(functionName);
     }
 
+    @Override
+    public List<DRPCRequest> fetchRequests(String functionName) throws AuthorizationException {
+        return _drpc.fetchRequests(functionName);
+    }
+
+    @Override
+    public void results(Map<String, String> results) throws AuthorizationException {
+        _drpc.returnResults(results);
+    }
+
     @Override
     public void failRequest(String id) throws AuthorizationException {
         _drpc.failRequest(id, null);
@@ -42,6 +42,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.UnaryOperator;
@@ -155,6 +157,7 @@ import org.apache.storm.security.auth.ReqContext;
 import org.apache.storm.security.auth.ThriftConnectionType;
 import org.apache.storm.security.auth.ThriftServer;
 import org.apache.storm.stats.StatsUtil;
+import org.apache.storm.stats.TopologyPageAggregator;
 import org.apache.storm.utils.BufferInputStream;
 import org.apache.storm.utils.ConfigUtils;
 import org.apache.storm.utils.LocalState;
@@ -1040,6 +1043,7 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
     private final Object schedLock = new Object();
     private final Object credUpdateLock = new Object();
     private final AtomicReference<Map<String, Map<List<Integer>, Map<String, Object>>>> heartbeatsCache;
+    private final ConcurrentMap<String, TopologyPageAggregator> topoPageAggregators;
     @SuppressWarnings("deprecation")
     private final TimeCacheMap<String, BufferInputStream> downloaders;
     @SuppressWarnings("deprecation")
@@ -1101,6 +1105,7 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
         }
         this.stormClusterState = stormClusterState;
         this.heartbeatsCache = new AtomicReference<>(new HashMap<>());
+        this.topoPageAggregators = new ConcurrentHashMap<>();
         this.downloaders = fileCacheMap(conf);
         this.uploaders = fileCacheMap(conf);
         if (blobStore == null) {
@@ -1356,6 +1361,35 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
         Map<List<Integer>, Map<String, Object>> cache = StatsUtil.updateHeartbeatCache(heartbeatsCache.get().get(topoId),
             executorBeats, allExecutors, ObjectReader.getInt(conf.get(DaemonConfig.NIMBUS_TASK_TIMEOUT_SECS)));
         heartbeatsCache.getAndUpdate(new Assoc<>(topoId, cache));
+        TopologyPageAggregator aggregator = topoPageAggregators.get(topoId);
+        if (aggregator != null) {
+            aggregator.update(execToNodePort(existingAssignment), existingAssignment.get_node_host(), cache);
+        }
+    }
+
+    private static Map<List<Long>, List<Object>> execToNodePort(Assignment assignment) {
+        Map<List<Long>, List<Object>> ret = new HashMap<>();
+        for (Entry<List<Long>, NodeInfo> entry: assignment.get_executor_node_port().entrySet()) {
+            NodeInfo ni = entry.getValue();
+            ret.put(entry.getKey(), Arrays.asList(ni.get_node(), ni.get_port_iterator().next()));
+        }
+        return ret;
+    }
+
+    /**
+     * Get the page aggregator of a topology, creating it from the cached heartbeats the first time a page of the
+     * topology is asked for. From then on it is refreshed whenever the heartbeats are.
+     */
+    private TopologyPageAggregator getTopoPageAggregator(String topoId, CommonTopoInfo common) {
+        return topoPageAggregators.computeIfAbsent(topoId, (id) -> {
+            TopologyPageAggregator aggregator = new TopologyPageAggregator(id);
+            Map<List<Long>, List<Object>> exec2NodePort = common.assignment == null
+                ? Collections.emptyMap() : execToNodePort(common.assignment);
+            Map<String, String> nodeToHost = common.assignment == null
+                ? Collections.emptyMap() : common.assignment.get_node_host();
+            aggregator.update(exec2NodePort, nodeToHost, common.taskToComponent, common.beats);
+            return aggregator;
+        });
     }
     
     /**
@@ -2080,6 +2114,7 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
                 forceDeleteTopoDistDir(topoId);
                 rmTopologyKeys(topoId);
                 heartbeatsCache.getAndUpdate(new Dissoc<>(topoId));
+                topoPageAggregators.remove(topoId);
             }
         }
     }
@@ -3486,16 +3521,9 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
             }
             Map<WorkerSlot, WorkerResources> workerToResources = getWorkerResourcesForTopology(topoId);
             List<WorkerSummary> workerSummaries = null;
-            Map<List<Long>, List<Object>> exec2NodePort = new HashMap<>();
             if (assignment != null) {
-                Map<List<Long>, NodeInfo> execToNodeInfo = assignment.get_executor_node_port();
+                Map<List<Long>, List<Object>> exec2NodePort = execToNodePort(assignment);
                 Map<String, String> nodeToHost = assignment.get_node_host();
-                for (Entry<List<Long>, NodeInfo> entry: execToNodeInfo.entrySet()) {
-                    NodeInfo ni = entry.getValue();
-                    List<Object> nodePort = Arrays.asList(ni.get_node(), ni.get_port_iterator().next());
-                    exec2NodePort.put(entry.getKey(), nodePort);
-                }
-                
                 workerSummaries = StatsUtil.aggWorkerStats(topoId,
                         topoName,
                         taskToComp,
@@ -3507,12 +3535,7 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
                         true); //this is the topology page, so we know the user is authorized
             }
 
-            TopologyPageInfo topoPageInfo = StatsUtil.aggTopoExecsStats(topoId,
-                    exec2NodePort,
-                    taskToComp,
-                    beats,
-                    topology,
-                    window,
+            TopologyPageInfo topoPageInfo = getTopoPageAggregator(topoId, common).getTopologyPageInfo(window,
                     includeSys,
                     state);
             
@@ -3654,25 +3677,19 @@ public class Nimbus implements Iface, Shutdownable, DaemonCommon {
             Map<String, Object> topoConf = info.topoConf;
             topoConf = merge(conf, topoConf);
             Assignment assignment = info.assignment;
-            Map<List<Long>, List<Object>> exec2NodePort = new HashMap<>();
-            Map<String, String> nodeToHost;
             Map<List<Long>, List<Object>> exec2HostPort = new HashMap<>();
             if (assignment != null) {
                 Map<List<Long>, NodeInfo> execToNodeInfo = assignment.get_executor_node_port();
-                nodeToHost = assignment.get_node_host();
+                Map<String, String> nodeToHost = assignment.get_node_host();
                 for (Entry<List<Long>, NodeInfo> entry: execToNodeInfo.entrySet()) {
                     NodeInfo ni = entry.getValue();
-                    List<Object> nodePort = Arrays.asList(ni.get_node(), ni.get_port_iterator().next());
                     List<Object> hostPort = Arrays.asList(nodeToHost.get(ni.get_node()), ni.get_port_iterator().next());
-                    exec2NodePort.put(entry.getKey(), nodePort);
                     exec2HostPort.put(entry.getKey(), hostPort);
                 }
-            } else {
-                nodeToHost = Collections.emptyMap();
             }
              
-            ComponentPageInfo compPageInfo = StatsUtil.aggCompExecsStats(exec2HostPort, info.taskToComponent, info.beats, window, 
-                    includeSys, topoId, topology, componentId);
+            ComponentPageInfo compPageInfo = getTopoPageAggregator(topoId, info).getComponentPageInfo(componentId,
+                    window, includeSys, topology);
             if (compPageInfo.get_component_type() == ComponentType.SPOUT) {
                 compPageInfo.set_resources_map(setResourcesDefaultIfNotSet(
                         ResourceUtils.getSpoutsResources(topology, topoConf), componentId, topoConf));
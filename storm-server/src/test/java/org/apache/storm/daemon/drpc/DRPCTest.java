@@ -21,7 +21,11 @@ import static org.junit.Assert.*;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -136,11 +140,79 @@ public class DRPCTest {
         }
     }
     
+    @Test
+    public void testBatchedFetchAndResults() throws Exception {
+        try (DRPC server = new DRPC(null, 10_000, 2, 0, 1)) {
+            Future<String> first = exec.submit(() -> server.executeBlocking("testing", "a"));
+            Future<String> second = exec.submit(() -> server.executeBlocking("testing", "b"));
+            Future<String> third = exec.submit(() -> server.executeBlocking("testing", "c"));
+            Map<String, String> results = new HashMap<>();
+            Set<String> args = new HashSet<>();
+            long timedout = System.currentTimeMillis() + 5_000;
+            while (results.size() < 3 && System.currentTimeMillis() < timedout) {
+                List<DRPCRequest> requests = server.fetchRequests("testing");
+                assertTrue("Fetched more than the maximum " + requests, requests.size() <= 2);
+                for (DRPCRequest request : requests) {
+                    args.add(request.get_func_args());
+                    results.put(request.get_request_id(), request.get_func_args() + "!");
+                }
+                Thread.sleep(1);
+            }
+            assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), args);
+            server.returnResults(results);
+            assertEquals("a!", first.get(1, TimeUnit.SECONDS));
+            assertEquals("b!", second.get(1, TimeUnit.SECONDS));
+            assertEquals("c!", third.get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testFetchWaitsForRequest() throws Exception {
+        try (DRPC server = new DRPC(null, 10_000, 100, 5_000, 1)) {
+            Future<List<DRPCRequest>> fetched = exec.submit(() -> server.fetchRequests("testing"));
+            Thread.sleep(100);
+            assertFalse(fetched.isDone());
+            CompletableFuture<String> found = server.executeAsync("testing", "test");
+            List<DRPCRequest> requests = fetched.get(1, TimeUnit.SECONDS);
+            assertEquals(1, requests.size());
+            assertEquals("test", requests.get(0).get_func_args());
+            server.returnResult(requests.get(0).get_request_id(), "tested");
+            assertEquals("tested", found.get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testFetchWaitTimesOut() throws Exception {
+        try (DRPC server = new DRPC(null, 10_000, 100, 100, 1)) {
+            long start = System.currentTimeMillis();
+            assertTrue(server.fetchRequests("testing").isEmpty());
+            assertTrue(System.currentTimeMillis() - start >= 100);
+        }
+    }
+
+    @Test
+    public void testFailedAsync() throws Exception {
+        try (DRPC server = new DRPC(null, 10_000)) {
+            CompletableFuture<String> found = server.executeAsync("testing", "test");
+            DRPCRequest request = getNextAvailableRequest(server, "testing");
+            server.failRequest(request.get_request_id(), null);
+            try {
+                found.get(1, TimeUnit.SECONDS);
+                fail("executeAsync did not fail");
+            } catch (ExecutionException e) {
+                Throwable t = e.getCause();
+                assertEquals(DRPCExecutionException.class, t.getClass());
+                assertEquals(DRPCExceptionType.FAILED_REQUEST, ((DRPCExecutionException)t).get_type());
+            }
+        }
+    }
+
     @Test
     public void testDeny() throws Exception {
         try (DRPC server = new DRPC(new DenyAuthorizer(), 100)) {
             assertThrows(() -> server.executeBlocking("testing", "test"), AuthorizationException.class);
             assertThrows(() -> server.fetchRequest("testing"), AuthorizationException.class);
+            assertThrows(() -> server.fetchRequests("testing"), AuthorizationException.class);
         }
     }
     
@@ -119,6 +119,11 @@ public class DRPCServer implements AutoCloseable {
             
             UIHelpers.configFilters(context, filterConfigurations);
             addRequestContextFilter(context, Config.DRPC_HTTP_CREDS_PLUGIN, conf);
+            //Requests are suspended while they wait for their results, so everything in the chain has to allow it
+            jerseyServlet.setAsyncSupported(true);
+            for (FilterHolder holder : context.getServletHandler().getFilters()) {
+                holder.setAsyncSupported(true);
+            }
         }
         return ret;
     }
@@ -20,17 +20,25 @@ package org.apache.storm.daemon.drpc.webapp;
 
 import com.codahale.metrics.Meter;
 
+import java.util.concurrent.CompletionException;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 
 import org.apache.storm.daemon.drpc.DRPC;
 import org.apache.storm.metric.StormMetricsRegistry;
 import org.apache.thrift.TException;
 
+/**
+ * The HTTP interface of DRPC. Requests are suspended while they wait for their result, so they do not hold a
+ * jetty thread for the whole round trip through the topology.
+ */
 @Path("/drpc/")
 public class DRPCResource {
     private static final Meter meterHttpRequests = StormMetricsRegistry.registerMeter("drpc:num-execute-http-requests");
@@ -44,23 +52,34 @@ public class DRPCResource {
     //TODO move populateContext to a filter...
     @POST
     @Path("/{func}") 
-    public String post(@PathParam("func") String func, String args, @Context HttpServletRequest request) throws TException {
-        meterHttpRequests.mark();
-        return drpc.executeBlocking(func, args);
+    public void post(@PathParam("func") String func, String args, @Context HttpServletRequest request,
+                     @Suspended AsyncResponse response) throws TException {
+        execute(func, args, response);
     }
     
     @GET
     @Path("/{func}/{args}") 
-    public String get(@PathParam("func") String func, @PathParam("args") String args,
-                      @Context HttpServletRequest request) throws TException {
-        meterHttpRequests.mark();
-        return drpc.executeBlocking(func, args);
+    public void get(@PathParam("func") String func, @PathParam("args") String args,
+                    @Context HttpServletRequest request, @Suspended AsyncResponse response) throws TException {
+        execute(func, args, response);
     }
     
     @GET
     @Path("/{func}") 
-    public String get(@PathParam("func") String func, @Context HttpServletRequest request) throws TException {
+    public void get(@PathParam("func") String func, @Context HttpServletRequest request,
+                    @Suspended AsyncResponse response) throws TException {
+        execute(func, "", response);
+    }
+
+    private void execute(String func, String args, AsyncResponse response) throws TException {
         meterHttpRequests.mark();
-        return drpc.executeBlocking(func, "");
+        drpc.executeAsync(func, args).whenComplete((result, e) -> {
+            if (e == null) {
+                response.resume(result);
+            } else {
+                //Unwrap so the exception mappers see the DRPCExecutionException
+                response.resume(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
     }
 }
@@ -32,6 +32,8 @@ import j2html.tags.DomContent;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import javax.ws.rs.core.Response;
 
@@ -39,6 +41,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.storm.daemon.logviewer.utils.DirectoryCleaner;
 import org.apache.storm.daemon.logviewer.utils.LogviewerResponseBuilder;
 import org.apache.storm.daemon.logviewer.utils.ResourceAuthorizer;
+import org.apache.storm.profiling.SamplingProfiler;
 import org.apache.storm.utils.ServerUtils;
 
 public class LogviewerProfileHandler {
@@ -110,6 +113,41 @@ public class LogviewerProfileHandler {
         }
     }
 
+    /**
+     * Get the flame graph data of the continuous worker profiler.
+     *
+     * @param topologyId topology ID
+     * @param hostPort host and port of worker
+     * @param type "cpu" or "alloc"
+     * @param user username
+     * @return a Response with the folded stacks of the profiler's rolling window as plain text
+     * @see {@link SamplingProfiler}
+     */
+    public Response getFlameGraphData(String topologyId, String hostPort, String type, String user) throws IOException {
+        String fileName;
+        if ("cpu".equals(type)) {
+            fileName = SamplingProfiler.CPU_FILE;
+        } else if ("alloc".equals(type)) {
+            fileName = SamplingProfiler.ALLOC_FILE;
+        } else {
+            return LogviewerResponseBuilder.buildResponsePageNotFound();
+        }
+        String portStr = hostPort.split(":")[1];
+        File file = new File(String.join(ServerUtils.FILE_PATH_SEPARATOR, logRoot, topologyId, portStr, fileName));
+
+        if (file.exists()) {
+            String workerFileRelativePath = String.join(ServerUtils.FILE_PATH_SEPARATOR, topologyId, portStr, WORKER_LOG_FILENAME);
+            if (resourceAuthorizer.isUserAllowedToAccessFile(user, workerFileRelativePath)) {
+                return LogviewerResponseBuilder.buildSuccessTextResponse(
+                    new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            } else {
+                return LogviewerResponseBuilder.buildResponseUnautohrizedUser(user);
+            }
+        } else {
+            return LogviewerResponseBuilder.buildResponsePageNotFound();
+        }
+    }
+
     private String buildDumpFileListPage(String topologyId, String hostPort, File dir) throws IOException {
         List<DomContent> liTags = getProfilerDumpFiles(dir).stream()
                 .map(file -> li(a(file).withHref("/api/v1/dumps/" + topologyId + "/" + hostPort + "/" + file)))
@@ -133,7 +171,8 @@ public class LogviewerProfileHandler {
         return filesForDir.stream().filter(file -> {
             String fileName = file.getName();
             return StringUtils.isNotEmpty(fileName)
-                    && (fileName.endsWith(".txt") || fileName.endsWith(".jfr") || fileName.endsWith(".bin"));
+                    && (fileName.endsWith(".txt") || fileName.endsWith(".jfr") || fileName.endsWith(".bin")
+                        || fileName.endsWith(".folded"));
         }).map(File::getName).collect(toList());
     }
 
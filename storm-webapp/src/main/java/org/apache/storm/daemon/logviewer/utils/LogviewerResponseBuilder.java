@@ -56,6 +56,16 @@ public class LogviewerResponseBuilder {
                 .type(MediaType.TEXT_HTML_TYPE).build();
     }
 
+    /**
+     * Build a Response object representing success response with plain text entity.
+     *
+     * @param content text content
+     */
+    public static Response buildSuccessTextResponse(String content) {
+        return Response.status(OK).entity(content)
+                .type(MediaType.TEXT_PLAIN_TYPE).build();
+    }
+
     /**
      * Build a Response object representing success response with JSON entity.
      *
@@ -182,6 +182,17 @@ public class LogviewerResource {
         return profileHandler.downloadDumpFile(topologyId, hostPort, fileName, user);
     }
 
+    /**
+     * Handles '/flamegraph' (folded stacks of the continuous worker profiler) request.
+     */
+    @GET
+    @Path("/flamegraph/{topo-id}/{host-port}/{type}")
+    public Response getFlameGraphData(@PathParam("topo-id") String topologyId, @PathParam("host-port") String hostPort,
+                                      @PathParam("type") String type, @Context HttpServletRequest request) throws IOException {
+        String user = httpCredsHandler.getUserName(request);
+        return profileHandler.getFlameGraphData(topologyId, hostPort, type, user);
+    }
+
     /**
      * Handles '/download' (downloading specific log file) request.
      */